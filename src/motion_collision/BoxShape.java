@@ -0,0 +1,45 @@
+package motion_collision;
+
+import genesis_util.Vector3D;
+
+/**
+ * BoxShape is a rectangle. Boxes only have two different edge directions, which makes 
+ * their collision tests cheaper than those of other polygons.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class BoxShape extends PolygonShape
+{
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new box
+	 * @param topLeft The top left corner of the box (relative space)
+	 * @param size The width and height of the box
+	 */
+	public BoxShape(Vector3D topLeft, Vector3D size)
+	{
+		super(getCorners(topLeft, size));
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------
+	
+	@Override
+	public ShapeType getType()
+	{
+		return ShapeType.BOX;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	private static Vector3D[] getCorners(Vector3D topLeft, Vector3D size)
+	{
+		double x = topLeft.getFirst(), y = topLeft.getSecond();
+		double w = size.getFirst(), h = size.getSecond();
+		return new Vector3D[] {new Vector3D(x, y), new Vector3D(x + w, y), 
+				new Vector3D(x + w, y + h), new Vector3D(x, y + h)};
+	}
+}
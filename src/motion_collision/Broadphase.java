@@ -0,0 +1,348 @@
+package motion_collision;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import motion_movement.BodyType;
+import motion_util.SpatialGrid;
+
+/**
+ * Broadphase finds the collider pairs that may be colliding. The colliders' bounding 
+ * circles are placed in spatial grids and only the pairs whose circles overlap are 
+ * considered. The pairs are filtered with the colliders' collision filters, body types and 
+ * an optional pair filter before they are emitted, so uninteresting pairs never reach the 
+ * exact collision checks.
+ * <p>
+ * Static colliders are kept in their own grid that is only rebuilt when static colliders 
+ * are added or removed. Static-static and static-kinematic pairs are never emitted.
+ * <p>
+ * The broadphase also publishes immutable query snapshots of its colliders. Only the 
+ * colliders that have moved since the previous snapshot are copied again.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class Broadphase
+{
+	// ATTRIBUTES	-----------------------
+	
+	private List<Collider> colliders, statics;
+	private ColliderIndex movingIndex, staticIndex;
+	private PairFilter pairFilter;
+	private int[] pairs;
+	private int pairAmount;
+	private boolean staticsChanged;
+	private Map<Collider, CollisionQuery.Body> publishedBodies;
+	private CollisionQuery query;
+	private boolean queryChanged;
+	
+	// The collider that is currently being paired and its bounds
+	private int current;
+	private double currentX, currentY, currentRadius;
+	private final IntConsumer movingPairChecker, staticPairChecker;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new empty broadphase
+	 */
+	public Broadphase()
+	{
+		this.colliders = new ArrayList<>();
+		this.statics = new ArrayList<>();
+		this.movingIndex = new ColliderIndex();
+		this.staticIndex = new ColliderIndex();
+		this.pairFilter = null;
+		this.pairs = new int[32];
+		this.pairAmount = 0;
+		this.staticsChanged = true;
+		this.publishedBodies = new IdentityHashMap<>();
+		this.query = CollisionQuery.EMPTY;
+		this.queryChanged = false;
+		this.movingPairChecker = i -> checkMovingPair(i);
+		this.staticPairChecker = i -> checkStaticPair(i);
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * Changes the filter that can reject pairs before their collision is checked
+	 * @param filter The new pair filter (null if no additional filtering is needed)
+	 */
+	public void setPairFilter(PairFilter filter)
+	{
+		this.pairFilter = filter;
+	}
+	
+	/**
+	 * @return How many pairs were found in the last update
+	 */
+	public int getPairAmount()
+	{
+		return this.pairAmount;
+	}
+	
+	/**
+	 * @param pair The index of a pair
+	 * @return The first collider in the pair. This collider is never static.
+	 */
+	public Collider getFirst(int pair)
+	{
+		return this.colliders.get(this.pairs[pair * 2]);
+	}
+	
+	/**
+	 * @param pair The index of a pair
+	 * @return The second collider in the pair
+	 */
+	public Collider getSecond(int pair)
+	{
+		int second = this.pairs[pair * 2 + 1];
+		if (second < 0)
+			return this.statics.get(-second - 1);
+		return this.colliders.get(second);
+	}
+	
+	/**
+	 * @return Are there any colliders that can cause collisions
+	 */
+	public boolean isEmpty()
+	{
+		return this.colliders.isEmpty();
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Adds a new collider. Colliders whose objects are static are placed in the static 
+	 * grid.
+	 * @param collider The collider that is added
+	 */
+	public void add(Collider collider)
+	{
+		if (collider.getBodyType() == BodyType.STATIC)
+		{
+			if (!this.statics.contains(collider))
+			{
+				this.statics.add(collider);
+				this.staticsChanged = true;
+			}
+		}
+		else if (!this.colliders.contains(collider))
+			this.colliders.add(collider);
+		this.queryChanged = true;
+	}
+	
+	/**
+	 * Removes a collider
+	 * @param collider The collider that is removed
+	 */
+	public void remove(Collider collider)
+	{
+		if (this.statics.remove(collider))
+			this.staticsChanged = true;
+		else
+			this.colliders.remove(collider);
+		
+		this.publishedBodies.remove(collider);
+		this.queryChanged = true;
+	}
+	
+	/**
+	 * Rebuilds the static grid. This should be called if the static colliders were moved.
+	 */
+	public void updateStatics()
+	{
+		this.staticsChanged = true;
+	}
+	
+	/**
+	 * Finds the pairs of colliders that may be colliding at the colliders' current 
+	 * positions
+	 * @return How many pairs were found
+	 */
+	public int updatePairs()
+	{
+		this.pairAmount = 0;
+		
+		if (this.staticsChanged)
+		{
+			this.staticIndex.build(this.statics);
+			this.staticsChanged = false;
+		}
+		this.movingIndex.build(this.colliders);
+		
+		for (int i = 0; i < this.colliders.size(); i++)
+		{
+			this.current = i;
+			this.currentX = this.movingIndex.x[i];
+			this.currentY = this.movingIndex.y[i];
+			this.currentRadius = this.movingIndex.radius[i];
+			
+			this.movingIndex.forEachNear(this.currentX, this.currentY, this.currentRadius, 
+					this.movingPairChecker);
+			this.staticIndex.forEachNear(this.currentX, this.currentY, this.currentRadius, 
+					this.staticPairChecker);
+		}
+		
+		return this.pairAmount;
+	}
+	
+	/**
+	 * Creates a query snapshot of the colliders at their current positions. If none of the 
+	 * colliders have changed since the previous snapshot, the previous snapshot is returned.
+	 * @return A snapshot that can be queried from any thread
+	 */
+	public CollisionQuery publishQuery()
+	{
+		if (!this.queryChanged && isPublished(this.colliders) && isPublished(this.statics))
+			return this.query;
+		
+		CollisionQuery.Body[] bodies = new CollisionQuery.Body[this.colliders.size() + 
+				this.statics.size()];
+		for (int i = 0; i < bodies.length; i++)
+		{
+			Collider collider = i < this.colliders.size() ? this.colliders.get(i) : 
+					this.statics.get(i - this.colliders.size());
+			
+			// The copies of the unchanged colliders are shared between the snapshots
+			CollisionQuery.Body body = this.publishedBodies.get(collider);
+			if (body == null || !body.isCurrent(collider))
+			{
+				body = new CollisionQuery.Body(collider);
+				this.publishedBodies.put(collider, body);
+			}
+			bodies[i] = body;
+		}
+		
+		this.query = new CollisionQuery(bodies);
+		this.queryChanged = false;
+		return this.query;
+	}
+	
+	private boolean isPublished(List<Collider> colliders)
+	{
+		for (Collider collider : colliders)
+		{
+			CollisionQuery.Body body = this.publishedBodies.get(collider);
+			if (body == null || !body.isCurrent(collider))
+				return false;
+		}
+		return true;
+	}
+	
+	private void checkMovingPair(int other)
+	{
+		// Each pair is only checked once
+		if (other <= this.current || !this.movingIndex.overlaps(other, this.currentX, 
+				this.currentY, this.currentRadius))
+			return;
+		
+		if (acceptsPair(this.colliders.get(this.current), this.colliders.get(other)))
+			addPair(this.current, other);
+	}
+	
+	private void checkStaticPair(int other)
+	{
+		if (!this.staticIndex.overlaps(other, this.currentX, this.currentY, 
+				this.currentRadius))
+			return;
+		
+		if (acceptsPair(this.colliders.get(this.current), this.statics.get(other)))
+			addPair(this.current, -other - 1);
+	}
+	
+	private boolean acceptsPair(Collider first, Collider second)
+	{
+		// The cheapest checks are done first
+		if (!first.getFilter().collidesWith(second.getFilter()))
+			return false;
+		if (!BodyType.collide(first.getBodyType(), second.getBodyType()))
+			return false;
+		return this.pairFilter == null || this.pairFilter.shouldCollide(first, second);
+	}
+	
+	private void addPair(int first, int second)
+	{
+		if (this.pairAmount * 2 == this.pairs.length)
+			this.pairs = Arrays.copyOf(this.pairs, this.pairs.length * 2);
+		
+		this.pairs[this.pairAmount * 2] = first;
+		this.pairs[this.pairAmount * 2 + 1] = second;
+		this.pairAmount ++;
+	}
+	
+	
+	// NESTED CLASSES	-------------------
+	
+	private static class ColliderIndex
+	{
+		// ATTRIBUTES	-------------------
+		
+		private SpatialGrid grid;
+		private double[] x, y, radius;
+		private double maxRadius;
+		
+		
+		// CONSTRUCTOR	-------------------
+		
+		public ColliderIndex()
+		{
+			this.grid = new SpatialGrid();
+			this.x = new double[0];
+			this.y = new double[0];
+			this.radius = new double[0];
+			this.maxRadius = 0;
+		}
+		
+		
+		// OTHER METHODS	---------------
+		
+		public void build(List<Collider> colliders)
+		{
+			int size = colliders.size();
+			if (this.x.length < size)
+			{
+				this.x = new double[size];
+				this.y = new double[size];
+				this.radius = new double[size];
+			}
+			
+			this.maxRadius = 0;
+			double totalRadius = 0;
+			for (int i = 0; i < size; i++)
+			{
+				Collider collider = colliders.get(i);
+				this.x[i] = collider.getX();
+				this.y[i] = collider.getY();
+				this.radius[i] = collider.getRadius();
+				this.maxRadius = Math.max(this.maxRadius, this.radius[i]);
+				totalRadius += this.radius[i];
+			}
+			
+			// The cells are about the size of a typical collider
+			double cellSize = size == 0 ? 1 : Math.max(1, 2 * totalRadius / size);
+			this.grid.build(this.x, this.y, size, cellSize);
+		}
+		
+		public void forEachNear(double x, double y, double radius, IntConsumer action)
+		{
+			double reach = radius + this.maxRadius;
+			this.grid.forEachInArea(x - reach, y - reach, x + reach, y + reach, action);
+		}
+		
+		public boolean overlaps(int index, double x, double y, double radius)
+		{
+			double dx = this.x[index] - x, dy = this.y[index] - y;
+			double r = this.radius[index] + radius;
+			return dx * dx + dy * dy <= r * r;
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package motion_collision;
+
+/**
+ * CircleShape is a circle centered at the relative origin
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class CircleShape implements CollisionShape
+{
+	// ATTRIBUTES	-----------------------
+
+	private final double radius;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new circle
+	 * @param radius The radius of the circle
+	 */
+	public CircleShape(double radius)
+	{
+		this.radius = radius;
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------
+	
+	@Override
+	public ShapeType getType()
+	{
+		return ShapeType.CIRCLE;
+	}
+	
+	@Override
+	public double getRadius()
+	{
+		return this.radius;
+	}
+	
+	@Override
+	public double getDistance(double x, double y, double[] normal)
+	{
+		double length = Math.sqrt(x * x + y * y);
+		
+		// The center doesn't have a direction so any direction will do
+		if (length == 0)
+		{
+			normal[0] = 1;
+			normal[1] = 0;
+		}
+		else
+		{
+			normal[0] = x / length;
+			normal[1] = y / length;
+		}
+		
+		return length - this.radius;
+	}
+}
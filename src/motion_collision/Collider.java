@@ -0,0 +1,369 @@
+package motion_collision;
+
+import conflict_collision.Collidable;
+import conflict_collision.CollisionInformation;
+import genesis_util.Transformable;
+import genesis_util.Transformation;
+import genesis_util.Vector3D;
+import motion_movement.BodyType;
+import motion_movement.Physical;
+import motion_util.Material;
+
+/**
+ * Collider connects a collision shape to the object that uses it. The shape follows the 
+ * object's transformation. Scaling is not taken into account in distance calculations.
+ * <p>
+ * The collider caches the shape's placement in absolute space: the pose, the polygon 
+ * vertices, the bounding box and the bounding radius. Transformations are immutable, so 
+ * every move made by a mover, a rotator or a direct transformation change installs a new 
+ * transformation instance. The cache is recalculated lazily the first time it's used after 
+ * the instance has changed, which means that objects that don't move never recalculate it.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class Collider
+{
+	// ATTRIBUTES	-----------------------
+	
+	private final Transformable owner;
+	private final CollisionShape shape;
+	private CollisionFilter filter;
+	private Material material;
+	
+	// The cached absolute placement and the transformation it was calculated from
+	private Transformation cachedTransformation;
+	private int version;
+	private final double[] pose;
+	private final double[] vertexX, vertexY;
+	private double minX, minY, maxX, maxY, radius;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new collider
+	 * @param owner The object the shape is attached to
+	 * @param shape The shape of the object in the object's relative space
+	 */
+	public Collider(Transformable owner, CollisionShape shape)
+	{
+		this.owner = owner;
+		this.shape = shape;
+		this.filter = CollisionFilter.DEFAULT;
+		this.material = null;
+		
+		this.cachedTransformation = null;
+		this.version = 0;
+		this.pose = new double[6];
+		int vertexAmount = shape instanceof PolygonShape ? 
+				((PolygonShape) shape).getVertexAmount() : 0;
+		this.vertexX = new double[vertexAmount];
+		this.vertexY = new double[vertexAmount];
+	}
+	
+	/**
+	 * Creates a new collider
+	 * @param owner The object the shape is attached to
+	 * @param shape The shape of the object in the object's relative space
+	 * @param material The material the object is made of
+	 */
+	public Collider(Transformable owner, CollisionShape shape, Material material)
+	{
+		this(owner, shape);
+		this.material = material;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The object the shape is attached to
+	 */
+	public Transformable getOwner()
+	{
+		return this.owner;
+	}
+	
+	/**
+	 * @return The shape of the object in the object's relative space
+	 */
+	public CollisionShape getShape()
+	{
+		return this.shape;
+	}
+	
+	/**
+	 * @return The filter that determines which colliders this collider collides with
+	 */
+	public CollisionFilter getFilter()
+	{
+		return this.filter;
+	}
+	
+	/**
+	 * Changes the filter that determines which colliders this collider collides with
+	 * @param filter The new filter of the collider
+	 */
+	public void setFilter(CollisionFilter filter)
+	{
+		this.filter = filter;
+	}
+	
+	/**
+	 * @return The material the object is made of. Null if the material is not known.
+	 */
+	public Material getMaterial()
+	{
+		return this.material;
+	}
+	
+	/**
+	 * Changes the material the object is made of
+	 * @param material The new material of the object
+	 */
+	public void setMaterial(Material material)
+	{
+		this.material = material;
+	}
+	
+	/**
+	 * @return The body type of the object. Objects that aren't physical are static.
+	 */
+	public BodyType getBodyType()
+	{
+		if (this.owner instanceof Physical)
+			return ((Physical) this.owner).getBodyType();
+		return BodyType.STATIC;
+	}
+	
+	/**
+	 * @return The position of the shape's relative origin
+	 */
+	public Vector3D getPosition()
+	{
+		update();
+		return new Vector3D(this.pose[0], this.pose[1]);
+	}
+	
+	/**
+	 * @return The x-coordinate of the shape's relative origin (absolute space)
+	 */
+	public double getX()
+	{
+		update();
+		return this.pose[0];
+	}
+	
+	/**
+	 * @return The y-coordinate of the shape's relative origin (absolute space)
+	 */
+	public double getY()
+	{
+		update();
+		return this.pose[1];
+	}
+	
+	/**
+	 * @return The radius of the circle around the relative origin that contains the whole 
+	 * shape (absolute space)
+	 */
+	public double getRadius()
+	{
+		update();
+		return this.radius;
+	}
+	
+	/**
+	 * @return The smallest x-coordinate of the shape's bounding box (absolute space)
+	 */
+	public double getMinX()
+	{
+		update();
+		return this.minX;
+	}
+	
+	/**
+	 * @return The smallest y-coordinate of the shape's bounding box (absolute space)
+	 */
+	public double getMinY()
+	{
+		update();
+		return this.minY;
+	}
+	
+	/**
+	 * @return The largest x-coordinate of the shape's bounding box (absolute space)
+	 */
+	public double getMaxX()
+	{
+		update();
+		return this.maxX;
+	}
+	
+	/**
+	 * @return The largest y-coordinate of the shape's bounding box (absolute space)
+	 */
+	public double getMaxY()
+	{
+		update();
+		return this.maxY;
+	}
+	
+	/**
+	 * @return The x-coordinates of the polygon's vertices in absolute space. Empty if the 
+	 * shape is not a polygon. The array is shared and must not be modified.
+	 */
+	public double[] getVertexX()
+	{
+		update();
+		return this.vertexX;
+	}
+	
+	/**
+	 * @return The y-coordinates of the polygon's vertices in absolute space. Empty if the 
+	 * shape is not a polygon. The array is shared and must not be modified.
+	 */
+	public double[] getVertexY()
+	{
+		update();
+		return this.vertexY;
+	}
+	
+	/**
+	 * @return A number that changes each time the collider's absolute placement is 
+	 * recalculated. The values calculated from the collider's placement are still valid 
+	 * if the version hasn't changed.
+	 */
+	public int getVersion()
+	{
+		update();
+		return this.version;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Calculates the distance from a point to the edge of the shape
+	 * @param x The x-coordinate of the point (absolute space)
+	 * @param y The y-coordinate of the point (absolute space)
+	 * @param normal An array where the unit direction (x, y) from the shape's closest edge 
+	 * towards the point is written to in absolute space
+	 * @return The distance from the point to the edge of the shape. Negative if the point 
+	 * is inside the shape.
+	 */
+	public double getDistance(double x, double y, double[] normal)
+	{
+		update();
+		double[] p = this.pose;
+		
+		// The point is moved to the relative space with the inverse of the pose
+		double dx = x - p[0], dy = y - p[1];
+		double determinant = p[2] * p[5] - p[4] * p[3];
+		double distance = this.shape.getDistance((p[5] * dx - p[4] * dy) / determinant, 
+				(p[2] * dy - p[3] * dx) / determinant, normal);
+		
+		// Rotates the normal back to the absolute space
+		double nx = p[2] * normal[0] + p[4] * normal[1];
+		double ny = p[3] * normal[0] + p[5] * normal[1];
+		double length = Math.sqrt(nx * nx + ny * ny);
+		normal[0] = nx / length;
+		normal[1] = ny / length;
+		
+		return distance;
+	}
+	
+	/**
+	 * Writes the current placement of the shape into the given array as an affine 
+	 * transformation: the absolute position of the relative origin (x, y), followed by the 
+	 * absolute directions of the relative x-axis (x, y) and the relative y-axis (x, y). A 
+	 * relative point (px, py) is at origin + px * xAxis + py * yAxis.
+	 * @param pose An array of at least 6 elements where the placement is written to
+	 */
+	public void getPose(double[] pose)
+	{
+		update();
+		System.arraycopy(this.pose, 0, pose, 0, 6);
+	}
+		
+	/**
+	 * Makes the collider recalculate its absolute placement the next time it is used. This 
+	 * only needs to be called if the owner's transformation was modified without 
+	 * replacing it.
+	 */
+	public void invalidate()
+	{
+		this.cachedTransformation = null;
+	}
+	
+	/**
+	 * Finds the radius of an object's collision area
+	 * @param body An object
+	 * @return The radius of the object's collision area or 0 if the object doesn't have a 
+	 * collision area
+	 */
+	public static double getBoundingRadius(Object body)
+	{
+		if (!(body instanceof Collidable))
+			return 0;
+		
+		CollisionInformation information = ((Collidable) body).getCollisionInformation();
+		if (information == null)
+			return 0;
+		return information.getRadius();
+	}
+	
+	private void update()
+	{
+		Transformation t = this.owner.getTransformation();
+		if (t == this.cachedTransformation)
+			return;
+		
+		Vector3D origin = t.transform(Vector3D.zeroVector());
+		Vector3D xAxis = t.transform(new Vector3D(1, 0)).minus(origin);
+		Vector3D yAxis = t.transform(new Vector3D(0, 1)).minus(origin);
+		double[] p = this.pose;
+		p[0] = origin.getFirst();
+		p[1] = origin.getSecond();
+		p[2] = xAxis.getFirst();
+		p[3] = xAxis.getSecond();
+		p[4] = yAxis.getFirst();
+		p[5] = yAxis.getSecond();
+		
+		double scale = Math.max(Math.sqrt(p[2] * p[2] + p[3] * p[3]), 
+				Math.sqrt(p[4] * p[4] + p[5] * p[5]));
+		this.radius = this.shape.getRadius() * scale;
+		
+		if (this.vertexX.length == 0)
+		{
+			this.minX = p[0] - this.radius;
+			this.minY = p[1] - this.radius;
+			this.maxX = p[0] + this.radius;
+			this.maxY = p[1] + this.radius;
+		}
+		else
+		{
+			PolygonShape polygon = (PolygonShape) this.shape;
+			this.minX = Double.POSITIVE_INFINITY;
+			this.minY = Double.POSITIVE_INFINITY;
+			this.maxX = Double.NEGATIVE_INFINITY;
+			this.maxY = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < this.vertexX.length; i++)
+			{
+				double vx = polygon.getVertexX(i), vy = polygon.getVertexY(i);
+				double x = p[0] + p[2] * vx + p[4] * vy;
+				double y = p[1] + p[3] * vx + p[5] * vy;
+				this.vertexX[i] = x;
+				this.vertexY[i] = y;
+				this.minX = Math.min(this.minX, x);
+				this.minY = Math.min(this.minY, y);
+				this.maxX = Math.max(this.maxX, x);
+				this.maxY = Math.max(this.maxY, y);
+			}
+		}
+		
+		this.cachedTransformation = t;
+		this.version ++;
+	}
+}
@@ -0,0 +1,83 @@
+package motion_collision;
+
+/**
+ * CollisionFilter decides which colliders may collide with each other. Each collider 
+ * belongs to one or more categories and has a mask of the categories it collides with. 
+ * A group id can override the bit test: colliders that share a positive group always 
+ * collide and colliders that share a negative group never collide. The filters are 
+ * immutable once created.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class CollisionFilter
+{
+	// ATTRIBUTES	-----------------------
+
+	/**
+	 * The filter used by default. It belongs to the first category and collides with 
+	 * everything.
+	 */
+	public static final CollisionFilter DEFAULT = new CollisionFilter(1, -1, 0);
+	
+	private final int category, mask, group;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new filter
+	 * @param category The category bits of the collider
+	 * @param mask The categories the collider collides with
+	 * @param group The group id of the collider. 0 for no group.
+	 */
+	public CollisionFilter(int category, int mask, int group)
+	{
+		this.category = category;
+		this.mask = mask;
+		this.group = group;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The category bits of the collider
+	 */
+	public int getCategory()
+	{
+		return this.category;
+	}
+	
+	/**
+	 * @return The categories the collider collides with
+	 */
+	public int getMask()
+	{
+		return this.mask;
+	}
+	
+	/**
+	 * @return The group id of the collider. 0 if the collider doesn't belong to a group.
+	 */
+	public int getGroup()
+	{
+		return this.group;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Checks whether colliders using the two filters should collide
+	 * @param other The filter of the other collider
+	 * @return Should the colliders collide
+	 */
+	public boolean collidesWith(CollisionFilter other)
+	{
+		if (this.group != 0 && this.group == other.group)
+			return this.group > 0;
+		
+		return (this.category & other.mask) != 0 && (other.category & this.mask) != 0;
+	}
+}
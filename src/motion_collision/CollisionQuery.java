@@ -0,0 +1,781 @@
+package motion_collision;
+
+import genesis_util.Vector3D;
+import motion_movement.ObstacleQuery;
+import motion_util.SpatialGrid;
+
+/**
+ * CollisionQuery answers ray casts, shape casts and overlap queries against a snapshot of 
+ * colliders. The snapshot is immutable: the colliders' absolute shapes are copied when the 
+ * query is created and the query never changes afterwards. Because of this, any amount of 
+ * threads may run queries at the same time, each with its own result buffer, while the 
+ * world moves on.
+ * <p>
+ * The candidates of each query are found from a spatial grid and the exact shapes are only 
+ * tested for those. Rays and casts are walked through the grid in parts so that a near hit 
+ * ends the search before the far end of the path is visited.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class CollisionQuery
+{
+	// ATTRIBUTES	-----------------------
+	
+	/**
+	 * A query that doesn't contain any colliders
+	 */
+	public static final CollisionQuery EMPTY = new CollisionQuery(new Body[0]);
+	
+	private static final int MAX_CAST_PARTS = 256;
+	private static final double EPSILON = 0.000001;
+	
+	private final Body[] bodies;
+	private final SpatialGrid grid;
+	private final double maxRadius;
+	private final CastTest rayTest, shapeTest;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	CollisionQuery(Body[] bodies)
+	{
+		this.bodies = bodies;
+		
+		int size = bodies.length;
+		double[] x = new double[size];
+		double[] y = new double[size];
+		double maxRadius = 0, totalRadius = 0;
+		for (int i = 0; i < size; i++)
+		{
+			x[i] = bodies[i].x;
+			y[i] = bodies[i].y;
+			maxRadius = Math.max(maxRadius, bodies[i].radius);
+			totalRadius += bodies[i].radius;
+		}
+		
+		// The cells are about the size of a typical collider
+		this.maxRadius = maxRadius;
+		this.grid = new SpatialGrid();
+		this.grid.build(x, y, size, size == 0 ? 1 : Math.max(1, 2 * totalRadius / size));
+		
+		this.rayTest = (body, sx, sy, dx, dy, result) -> castRay(body, sx, sy, dx, dy, 
+				result.hit);
+		this.shapeTest = (body, sx, sy, dx, dy, result) -> castShape(body, dx, dy, result);
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return How many colliders there are in the query
+	 */
+	public int getColliderAmount()
+	{
+		return this.bodies.length;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Finds the first collider on a line segment
+	 * @param start The start of the ray (absolute space)
+	 * @param end The end of the ray (absolute space)
+	 * @param filter The filter the colliders are checked against (null if all colliders 
+	 * should be checked)
+	 * @param result The buffer the hit is written to
+	 * @return Did the ray hit a collider
+	 */
+	public boolean raycast(Vector3D start, Vector3D end, CollisionFilter filter, 
+			QueryResult result)
+	{
+		return raycast(start, end, filter, null, result);
+	}
+	
+	/**
+	 * Finds the first collider on a line segment, skipping the colliders of a certain 
+	 * object. A ray that starts inside a collider hits it immediately, so rays cast from 
+	 * an object's own position should skip the object's colliders.
+	 * @param start The start of the ray (absolute space)
+	 * @param end The end of the ray (absolute space)
+	 * @param filter The filter the colliders are checked against (null if all colliders 
+	 * should be checked)
+	 * @param ignoredOwner The object whose colliders are skipped (null if none)
+	 * @param result The buffer the hit is written to
+	 * @return Did the ray hit a collider
+	 */
+	public boolean raycast(Vector3D start, Vector3D end, CollisionFilter filter, 
+			Object ignoredOwner, QueryResult result)
+	{
+		return cast(start.getFirst(), start.getSecond(), end.getFirst() - start.getFirst(), 
+				end.getSecond() - start.getSecond(), 0, false, filter, ignoredOwner, 
+				this.rayTest, result) > 0;
+	}
+	
+	/**
+	 * Creates an obstacle query that checks paths against this snapshot with ray casts, 
+	 * for example for the path predictions of the object movers. The obstacle query has 
+	 * its own result buffer, so it should only be used by one thread at a time.
+	 * @param filter The filter the colliders are checked against (null if all colliders 
+	 * are obstacles)
+	 * @return An obstacle query that uses this snapshot
+	 */
+	public ObstacleQuery toObstacleQuery(CollisionFilter filter)
+	{
+		QueryResult result = new QueryResult();
+		return (start, end, owner) -> raycast(start, end, filter, owner, result) ? 
+				result.getPoint(0) : null;
+	}
+	
+	/**
+	 * Finds all the colliders on a line segment
+	 * @param start The start of the ray (absolute space)
+	 * @param end The end of the ray (absolute space)
+	 * @param filter The filter the colliders are checked against (null if all colliders 
+	 * should be checked)
+	 * @param result The buffer the hits are written to, ordered from the closest to the 
+	 * furthest
+	 * @return How many colliders the ray hit
+	 */
+	public int raycastAll(Vector3D start, Vector3D end, CollisionFilter filter, 
+			QueryResult result)
+	{
+		return cast(start.getFirst(), start.getSecond(), end.getFirst() - start.getFirst(), 
+				end.getSecond() - start.getSecond(), 0, true, filter, null, this.rayTest, 
+				result);
+	}
+	
+	/**
+	 * Moves a convex polygon along a path and finds the first collider it would hit. The 
+	 * polygon doesn't rotate during the cast.
+	 * @param vertices The vertices of the polygon at the start of the cast (absolute space)
+	 * @param displacement How much the polygon is moved
+	 * @param filter The filter the colliders are checked against (null if all colliders 
+	 * should be checked)
+	 * @param result The buffer the hit is written to
+	 * @return Did the polygon hit a collider
+	 */
+	public boolean shapeCast(Vector3D[] vertices, Vector3D displacement, 
+			CollisionFilter filter, QueryResult result)
+	{
+		// The caster is placed into the result buffer so that the tests can use it
+		int n = vertices.length;
+		result.setCasterSize(n);
+		double centerX = 0, centerY = 0, doubleArea = 0;
+		for (int i = 0; i < n; i++)
+		{
+			result.casterX[i] = vertices[i].getFirst();
+			result.casterY[i] = vertices[i].getSecond();
+			centerX += result.casterX[i] / n;
+			centerY += result.casterY[i] / n;
+		}
+		double radius = 0;
+		for (int i = 0; i < n; i++)
+		{
+			int next = (i + 1) % n;
+			doubleArea += result.casterX[i] * result.casterY[next] - 
+					result.casterX[next] * result.casterY[i];
+			radius = Math.max(radius, Math.hypot(result.casterX[i] - centerX, 
+					result.casterY[i] - centerY));
+		}
+		calculateNormals(result.casterX, result.casterY, n, doubleArea >= 0 ? 1 : -1, 
+				result.casterNormalX, result.casterNormalY);
+		
+		return cast(centerX, centerY, displacement.getFirst(), displacement.getSecond(), 
+				radius, false, filter, null, this.shapeTest, result) > 0;
+	}
+	
+	/**
+	 * Finds the colliders that overlap a circle
+	 * @param center The center of the circle (absolute space)
+	 * @param radius The radius of the circle
+	 * @param filter The filter the colliders are checked against (null if all colliders 
+	 * should be checked)
+	 * @param result The buffer the overlapping colliders are written to
+	 * @return How many colliders overlap the circle
+	 */
+	public int overlapCircle(Vector3D center, double radius, CollisionFilter filter, 
+			QueryResult result)
+	{
+		double cx = center.getFirst(), cy = center.getSecond();
+		double reach = radius + this.maxRadius;
+		findCandidates(cx - reach, cy - reach, cx + reach, cy + reach, result);
+		
+		for (int i = 0; i < result.candidateAmount; i++)
+		{
+			Body body = this.bodies[result.candidates[i]];
+			if (!accepts(filter, body))
+				continue;
+			
+			// The bounding circles are compared first
+			double dx = body.x - cx, dy = body.y - cy;
+			double r = radius + body.radius;
+			if (dx * dx + dy * dy > r * r)
+				continue;
+			
+			if (body.vertexX == null || getDistance(body, cx, cy, result.hit) <= radius)
+				result.add(body.collider, 0, body.x, body.y, 0, 0);
+		}
+		
+		return result.getHitAmount();
+	}
+	
+	/**
+	 * Finds the colliders that overlap an axis-aligned rectangle
+	 * @param topLeft The top left corner of the rectangle (absolute space)
+	 * @param size The size of the rectangle
+	 * @param filter The filter the colliders are checked against (null if all colliders 
+	 * should be checked)
+	 * @param result The buffer the overlapping colliders are written to
+	 * @return How many colliders overlap the rectangle
+	 */
+	public int overlapAabb(Vector3D topLeft, Vector3D size, CollisionFilter filter, 
+			QueryResult result)
+	{
+		double minX = Math.min(topLeft.getFirst(), topLeft.getFirst() + size.getFirst());
+		double minY = Math.min(topLeft.getSecond(), topLeft.getSecond() + size.getSecond());
+		double maxX = Math.max(topLeft.getFirst(), topLeft.getFirst() + size.getFirst());
+		double maxY = Math.max(topLeft.getSecond(), topLeft.getSecond() + size.getSecond());
+		findCandidates(minX - this.maxRadius, minY - this.maxRadius, 
+				maxX + this.maxRadius, maxY + this.maxRadius, result);
+		
+		for (int i = 0; i < result.candidateAmount; i++)
+		{
+			Body body = this.bodies[result.candidates[i]];
+			if (!accepts(filter, body))
+				continue;
+			
+			// The bounding boxes are compared first
+			if (body.maxX < minX || body.minX > maxX || body.maxY < minY || body.minY > maxY)
+				continue;
+			
+			if (body.vertexX == null)
+			{
+				double dx = body.x - Math.max(minX, Math.min(maxX, body.x));
+				double dy = body.y - Math.max(minY, Math.min(maxY, body.y));
+				if (dx * dx + dy * dy > body.radius * body.radius)
+					continue;
+			}
+			else if (!overlapsBox(body, minX, minY, maxX, maxY))
+				continue;
+			
+			result.add(body.collider, 0, body.x, body.y, 0, 0);
+		}
+		
+		return result.getHitAmount();
+	}
+	
+	private int cast(double sx, double sy, double dx, double dy, double reach, boolean all, 
+			CollisionFilter filter, Object ignoredOwner, CastTest test, QueryResult result)
+	{
+		result.clear();
+		result.visited.clear();
+		
+		// The path is handled in parts about the size of a grid cell
+		double length = Math.sqrt(dx * dx + dy * dy);
+		int parts = Math.max(1, Math.min(MAX_CAST_PARTS, 
+				(int) Math.ceil(length / this.grid.getCellSize())));
+		double padding = reach + this.maxRadius;
+		double best = Double.POSITIVE_INFINITY;
+		
+		for (int part = 0; part < parts; part++)
+		{
+			double t0 = (double) part / parts, t1 = (double) (part + 1) / parts;
+			// A hit before this part can't be beaten by the colliders further away
+			if (!all && best <= t0)
+				break;
+			
+			double x0 = sx + dx * t0, y0 = sy + dy * t0;
+			double x1 = sx + dx * t1, y1 = sy + dy * t1;
+			result.clearCandidates();
+			this.grid.forEachInArea(Math.min(x0, x1) - padding, Math.min(y0, y1) - padding, 
+					Math.max(x0, x1) + padding, Math.max(y0, y1) + padding, 
+					result.candidateCollector);
+			
+			for (int i = 0; i < result.candidateAmount; i++)
+			{
+				Body body = this.bodies[result.candidates[i]];
+				if (!accepts(filter, body) || (ignoredOwner != null && 
+						body.collider.getOwner() == ignoredOwner) || 
+						!test.cast(body, sx, sy, dx, dy, result))
+					continue;
+				
+				double[] hit = result.hit;
+				if (all)
+					result.add(body.collider, hit[0] * length, hit[1], hit[2], hit[3], 
+							hit[4]);
+				else if (hit[0] < best)
+				{
+					best = hit[0];
+					result.clear();
+					result.add(body.collider, hit[0] * length, hit[1], hit[2], hit[3], 
+							hit[4]);
+				}
+			}
+		}
+		
+		if (all)
+			result.sortByDistance();
+		return result.getHitAmount();
+	}
+	
+	private void findCandidates(double minX, double minY, double maxX, double maxY, 
+			QueryResult result)
+	{
+		result.clear();
+		result.visited.clear();
+		result.clearCandidates();
+		this.grid.forEachInArea(minX, minY, maxX, maxY, result.candidateCollector);
+	}
+	
+	private static boolean castRay(Body body, double sx, double sy, double dx, double dy, 
+			double[] hit)
+	{
+		// Rays starting inside a collider hit it immediately
+		if (body.vertexX == null)
+		{
+			if (!castCircle(body.x, body.y, body.radius, sx, sy, dx, dy, hit))
+				return false;
+		}
+		else
+		{
+			// Clips the ray with each edge of the polygon (Cyrus-Beck)
+			double enter = 0, exit = 1;
+			double nx = 0, ny = 0;
+			boolean entered = false;
+			for (int i = 0; i < body.vertexX.length; i++)
+			{
+				double distance = body.normalX[i] * (body.vertexX[i] - sx) + 
+						body.normalY[i] * (body.vertexY[i] - sy);
+				double speed = body.normalX[i] * dx + body.normalY[i] * dy;
+				
+				if (Math.abs(speed) < EPSILON)
+				{
+					if (distance < 0)
+						return false;
+					continue;
+				}
+				
+				double t = distance / speed;
+				if (speed < 0)
+				{
+					if (t > enter)
+					{
+						enter = t;
+						nx = body.normalX[i];
+						ny = body.normalY[i];
+						entered = true;
+					}
+				}
+				else
+					exit = Math.min(exit, t);
+				
+				if (enter > exit)
+					return false;
+			}
+			
+			hit[0] = enter;
+			if (entered)
+			{
+				hit[3] = nx;
+				hit[4] = ny;
+			}
+			else
+				setReverseDirection(dx, dy, hit);
+		}
+		
+		hit[1] = sx + dx * hit[0];
+		hit[2] = sy + dy * hit[0];
+		return true;
+	}
+	
+	private static boolean castShape(Body body, double dx, double dy, QueryResult result)
+	{
+		double[] hit = result.hit;
+		double[] cx = result.casterX, cy = result.casterY;
+		int n = result.casterAmount;
+		
+		if (body.vertexX == null)
+			return castAgainstCircle(body, dx, dy, result);
+		
+		// The swept separating axis test: each axis limits the time the shapes overlap
+		double enter = Double.NEGATIVE_INFINITY, exit = Double.POSITIVE_INFINITY;
+		double nx = 0, ny = 0;
+		boolean bodyFace = true;
+		int bodyAmount = body.vertexX.length;
+		for (int axis = 0; axis < bodyAmount + n; axis++)
+		{
+			boolean ofBody = axis < bodyAmount;
+			double ax = ofBody ? body.normalX[axis] : result.casterNormalX[axis - bodyAmount];
+			double ay = ofBody ? body.normalY[axis] : result.casterNormalY[axis - bodyAmount];
+			
+			double casterMin = Double.POSITIVE_INFINITY, casterMax = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < n; i++)
+			{
+				double projection = cx[i] * ax + cy[i] * ay;
+				casterMin = Math.min(casterMin, projection);
+				casterMax = Math.max(casterMax, projection);
+			}
+			double bodyMin = Double.POSITIVE_INFINITY, bodyMax = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < bodyAmount; i++)
+			{
+				double projection = body.vertexX[i] * ax + body.vertexY[i] * ay;
+				bodyMin = Math.min(bodyMin, projection);
+				bodyMax = Math.max(bodyMax, projection);
+			}
+			
+			double speed = dx * ax + dy * ay;
+			if (Math.abs(speed) < EPSILON)
+			{
+				if (casterMax < bodyMin || casterMin > bodyMax)
+					return false;
+				continue;
+			}
+			
+			double t1 = (bodyMin - casterMax) / speed, t2 = (bodyMax - casterMin) / speed;
+			if (Math.min(t1, t2) > enter)
+			{
+				enter = Math.min(t1, t2);
+				// The normal points against the movement, towards the caster
+				nx = speed > 0 ? -ax : ax;
+				ny = speed > 0 ? -ay : ay;
+				bodyFace = ofBody;
+			}
+			exit = Math.min(exit, Math.max(t1, t2));
+			
+			if (enter > exit || enter > 1 || exit < 0)
+				return false;
+		}
+		
+		double t = Math.max(0, enter);
+		hit[0] = t;
+		hit[3] = nx;
+		hit[4] = ny;
+		
+		// The contact is at the vertex that touches the other shape's face
+		if (bodyFace)
+		{
+			int vertex = getFurthest(cx, cy, n, -nx, -ny);
+			hit[1] = cx[vertex] + dx * t;
+			hit[2] = cy[vertex] + dy * t;
+		}
+		else
+		{
+			int vertex = getFurthest(body.vertexX, body.vertexY, bodyAmount, nx, ny);
+			hit[1] = body.vertexX[vertex];
+			hit[2] = body.vertexY[vertex];
+		}
+		return true;
+	}
+	
+	private static boolean castAgainstCircle(Body body, double dx, double dy, 
+			QueryResult result)
+	{
+		// Moving the polygon against the circle is the same as moving the circle's center 
+		// backwards against the polygon grown by the circle's radius
+		double[] hit = result.hit;
+		double[] cx = result.casterX, cy = result.casterY;
+		int n = result.casterAmount;
+		double r = body.radius;
+		
+		double distance = getDistance(cx, cy, result.casterNormalX, result.casterNormalY, 
+				n, body.x, body.y, hit);
+		if (distance <= r)
+		{
+			// The direction from the polygon towards the circle was written to hit[1], [2]
+			hit[0] = 0;
+			hit[3] = -hit[1];
+			hit[4] = -hit[2];
+			hit[1] = body.x + hit[3] * r;
+			hit[2] = body.y + hit[4] * r;
+			return true;
+		}
+		
+		double best = Double.POSITIVE_INFINITY, nx = 0, ny = 0;
+		for (int i = 0; i < n; i++)
+		{
+			// The edges moved outwards by the radius
+			int next = (i + 1) % n;
+			double offsetX = result.casterNormalX[i] * r;
+			double offsetY = result.casterNormalY[i] * r;
+			double t = castSegment(body.x, body.y, -dx, -dy, cx[i] + offsetX, cy[i] + offsetY, 
+					cx[next] + offsetX, cy[next] + offsetY);
+			if (t < best)
+			{
+				best = t;
+				nx = -result.casterNormalX[i];
+				ny = -result.casterNormalY[i];
+			}
+			
+			// The rounded corners
+			if (castCircle(cx[i], cy[i], r, body.x, body.y, -dx, -dy, hit) && hit[0] < best)
+			{
+				best = hit[0];
+				nx = -hit[3];
+				ny = -hit[4];
+			}
+		}
+		
+		if (best > 1)
+			return false;
+		
+		hit[0] = best;
+		hit[3] = nx;
+		hit[4] = ny;
+		hit[1] = body.x + nx * r;
+		hit[2] = body.y + ny * r;
+		return true;
+	}
+	
+	private static boolean castCircle(double x, double y, double radius, double sx, 
+			double sy, double dx, double dy, double[] hit)
+	{
+		double fx = sx - x, fy = sy - y;
+		double a = dx * dx + dy * dy;
+		double b = fx * dx + fy * dy;
+		double c = fx * fx + fy * fy - radius * radius;
+		
+		if (c <= 0)
+		{
+			hit[0] = 0;
+			setReverseDirection(dx, dy, hit);
+			return true;
+		}
+		if (a < EPSILON || b >= 0)
+			return false;
+		
+		double discriminant = b * b - a * c;
+		if (discriminant < 0)
+			return false;
+		
+		double t = (-b - Math.sqrt(discriminant)) / a;
+		if (t > 1)
+			return false;
+		
+		hit[0] = t;
+		hit[3] = (fx + dx * t) / radius;
+		hit[4] = (fy + dy * t) / radius;
+		return true;
+	}
+	
+	private static double castSegment(double sx, double sy, double dx, double dy, 
+			double ax, double ay, double bx, double by)
+	{
+		// Solves s + d * t = a + (b - a) * u
+		double ex = bx - ax, ey = by - ay;
+		double denominator = dx * ey - dy * ex;
+		if (Math.abs(denominator) < EPSILON)
+			return Double.POSITIVE_INFINITY;
+		
+		double wx = ax - sx, wy = ay - sy;
+		double t = (wx * ey - wy * ex) / denominator;
+		double u = (wx * dy - wy * dx) / denominator;
+		if (t < 0 || t > 1 || u < 0 || u > 1)
+			return Double.POSITIVE_INFINITY;
+		return t;
+	}
+	
+	private static boolean overlapsBox(Body body, double minX, double minY, double maxX, 
+			double maxY)
+	{
+		// The box's own axes were already checked with the bounding boxes
+		for (int i = 0; i < body.vertexX.length; i++)
+		{
+			double ax = body.normalX[i], ay = body.normalY[i];
+			double polygonMax = body.normalX[i] * body.vertexX[i] + 
+					body.normalY[i] * body.vertexY[i];
+			// The box's corner furthest against the normal
+			double boxMin = (ax > 0 ? minX : maxX) * ax + (ay > 0 ? minY : maxY) * ay;
+			if (boxMin > polygonMax)
+				return false;
+		}
+		return true;
+	}
+	
+	private static double getDistance(Body body, double x, double y, double[] normal)
+	{
+		return getDistance(body.vertexX, body.vertexY, body.normalX, body.normalY, 
+				body.vertexX.length, x, y, normal);
+	}
+	
+	private static double getDistance(double[] vertexX, double[] vertexY, double[] normalX, 
+			double[] normalY, int amount, double x, double y, double[] result)
+	{
+		// Writes the direction from the polygon towards the point to result[1] and [2]
+		double maxSeparation = Double.NEGATIVE_INFINITY;
+		int maxEdge = 0;
+		for (int i = 0; i < amount; i++)
+		{
+			double separation = (x - vertexX[i]) * normalX[i] + (y - vertexY[i]) * normalY[i];
+			if (separation > maxSeparation)
+			{
+				maxSeparation = separation;
+				maxEdge = i;
+			}
+		}
+		
+		if (maxSeparation <= 0)
+		{
+			result[1] = normalX[maxEdge];
+			result[2] = normalY[maxEdge];
+			return maxSeparation;
+		}
+		
+		// Outside the polygon the closest point is on one of the edges
+		double minDistanceSquared = Double.POSITIVE_INFINITY;
+		double closestX = 0, closestY = 0;
+		for (int i = 0; i < amount; i++)
+		{
+			int next = (i + 1) % amount;
+			double ex = vertexX[next] - vertexX[i], ey = vertexY[next] - vertexY[i];
+			double lengthSquared = ex * ex + ey * ey;
+			double t = 0;
+			if (lengthSquared > 0)
+				t = Math.max(0, Math.min(1, ((x - vertexX[i]) * ex + (y - vertexY[i]) * ey) / 
+						lengthSquared));
+			
+			double px = vertexX[i] + ex * t, py = vertexY[i] + ey * t;
+			double distanceSquared = (x - px) * (x - px) + (y - py) * (y - py);
+			if (distanceSquared < minDistanceSquared)
+			{
+				minDistanceSquared = distanceSquared;
+				closestX = px;
+				closestY = py;
+			}
+		}
+		
+		double distance = Math.sqrt(minDistanceSquared);
+		result[1] = (x - closestX) / distance;
+		result[2] = (y - closestY) / distance;
+		return distance;
+	}
+	
+	private static int getFurthest(double[] x, double[] y, int amount, double dx, double dy)
+	{
+		int best = 0;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < amount; i++)
+		{
+			double projection = x[i] * dx + y[i] * dy;
+			if (projection > max)
+			{
+				max = projection;
+				best = i;
+			}
+		}
+		return best;
+	}
+	
+	private static void setReverseDirection(double dx, double dy, double[] hit)
+	{
+		double length = Math.sqrt(dx * dx + dy * dy);
+		hit[3] = length > 0 ? -dx / length : 0;
+		hit[4] = length > 0 ? -dy / length : 0;
+	}
+	
+	private static void calculateNormals(double[] x, double[] y, int amount, double side, 
+			double[] normalX, double[] normalY)
+	{
+		// The outward normal is on the right side of the edge for positive winding
+		for (int i = 0; i < amount; i++)
+		{
+			int next = (i + 1) % amount;
+			double ex = x[next] - x[i], ey = y[next] - y[i];
+			double length = Math.sqrt(ex * ex + ey * ey);
+			normalX[i] = length > 0 ? side * ey / length : 0;
+			normalY[i] = length > 0 ? -side * ex / length : 0;
+		}
+	}
+	
+	private static boolean accepts(CollisionFilter filter, Body body)
+	{
+		return filter == null || filter.collidesWith(body.filter);
+	}
+	
+	
+	// NESTED CLASSES	-------------------
+	
+	/**
+	 * Body is an immutable copy of a collider's absolute shape
+	 */
+	static class Body
+	{
+		// ATTRIBUTES	-------------------
+		
+		private final Collider collider;
+		private final CollisionFilter filter;
+		private final int version;
+		private final double x, y, radius, minX, minY, maxX, maxY;
+		// Null for circles
+		private final double[] vertexX, vertexY, normalX, normalY;
+		
+		
+		// CONSTRUCTOR	-------------------
+		
+		public Body(Collider collider)
+		{
+			this.collider = collider;
+			this.filter = collider.getFilter();
+			this.version = collider.getVersion();
+			this.x = collider.getX();
+			this.y = collider.getY();
+			this.radius = collider.getRadius();
+			this.minX = collider.getMinX();
+			this.minY = collider.getMinY();
+			this.maxX = collider.getMaxX();
+			this.maxY = collider.getMaxY();
+			
+			int n = collider.getVertexX().length;
+			if (n == 0)
+			{
+				this.vertexX = null;
+				this.vertexY = null;
+				this.normalX = null;
+				this.normalY = null;
+			}
+			else
+			{
+				this.vertexX = collider.getVertexX().clone();
+				this.vertexY = collider.getVertexY().clone();
+				this.normalX = new double[n];
+				this.normalY = new double[n];
+				
+				double doubleArea = 0;
+				for (int i = 0; i < n; i++)
+				{
+					int next = (i + 1) % n;
+					doubleArea += this.vertexX[i] * this.vertexY[next] - 
+							this.vertexX[next] * this.vertexY[i];
+				}
+				calculateNormals(this.vertexX, this.vertexY, n, doubleArea >= 0 ? 1 : -1, 
+						this.normalX, this.normalY);
+			}
+		}
+		
+		
+		// OTHER METHODS	---------------
+		
+		/**
+		 * @param collider A collider
+		 * @return Does this copy still match the collider's current state
+		 */
+		public boolean isCurrent(Collider collider)
+		{
+			return collider.getVersion() == this.version && 
+					collider.getFilter() == this.filter;
+		}
+	}
+	
+	
+	// INTERFACES	-----------------------
+	
+	private static interface CastTest
+	{
+		/**
+		 * Writes the hit time [0, 1], point (x, y) and normal (x, y) into result.hit
+		 */
+		public boolean cast(Body body, double sx, double sy, double dx, double dy, 
+				QueryResult result);
+	}
+}
@@ -0,0 +1,34 @@
+package motion_collision;
+
+/**
+ * CollisionShapes are simple geometric shapes the motion module can calculate distances 
+ * to by itself. The shapes are defined in the relative space of the object that uses them.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public interface CollisionShape
+{
+	/**
+	 * @return The type of the shape, which determines the collision tests used with it
+	 */
+	public ShapeType getType();
+	
+	/**
+	 * @return The radius of the smallest circle around the relative origin that contains 
+	 * the whole shape
+	 */
+	public double getRadius();
+
+	/**
+	 * Calculates the distance from a point to the edge of the shape
+	 * @param x The x-coordinate of the point (relative space)
+	 * @param y The y-coordinate of the point (relative space)
+	 * @param normal An array where the unit direction (x, y) from the shape's closest edge 
+	 * towards the point is written to. The direction points outwards even when the point 
+	 * is inside the shape.
+	 * @return The distance from the point to the edge of the shape. Negative if the point 
+	 * is inside the shape.
+	 */
+	public double getDistance(double x, double y, double[] normal);
+}
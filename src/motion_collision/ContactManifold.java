@@ -0,0 +1,173 @@
+package motion_collision;
+
+import genesis_util.Vector3D;
+
+/**
+ * ContactManifold describes how two colliders overlap: the collision normal and up to two 
+ * contact points with their penetration depths. The normal points from the first collider 
+ * towards the second. Manifolds are reused between collision tests so that no objects 
+ * need to be created per contact.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class ContactManifold
+{
+	// ATTRIBUTES	-----------------------
+	
+	/**
+	 * The maximum amount of contact points in a manifold
+	 */
+	public static final int MAX_POINTS = 2;
+	
+	private double normalX, normalY;
+	private int pointAmount;
+	private final double[] pointX, pointY, depth;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new empty manifold
+	 */
+	public ContactManifold()
+	{
+		this.pointX = new double[MAX_POINTS];
+		this.pointY = new double[MAX_POINTS];
+		this.depth = new double[MAX_POINTS];
+		clear();
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The x-component of the collision normal (from the first collider towards 
+	 * the second)
+	 */
+	public double getNormalX()
+	{
+		return this.normalX;
+	}
+	
+	/**
+	 * @return The y-component of the collision normal (from the first collider towards 
+	 * the second)
+	 */
+	public double getNormalY()
+	{
+		return this.normalY;
+	}
+	
+	/**
+	 * @return The collision normal (from the first collider towards the second)
+	 */
+	public Vector3D getNormal()
+	{
+		return new Vector3D(this.normalX, this.normalY);
+	}
+	
+	/**
+	 * @return How many contact points there are in the manifold
+	 */
+	public int getPointAmount()
+	{
+		return this.pointAmount;
+	}
+	
+	/**
+	 * @param index The index of a contact point
+	 * @return The contact point (absolute space)
+	 */
+	public Vector3D getPoint(int index)
+	{
+		return new Vector3D(this.pointX[index], this.pointY[index]);
+	}
+	
+	/**
+	 * @param index The index of a contact point
+	 * @return How deep the colliders overlap at the contact point
+	 */
+	public double getDepth(int index)
+	{
+		return this.depth[index];
+	}
+	
+	/**
+	 * @return The largest penetration depth in the manifold
+	 */
+	public double getMaxDepth()
+	{
+		double max = 0;
+		for (int i = 0; i < this.pointAmount; i++)
+		{
+			max = Math.max(max, this.depth[i]);
+		}
+		return max;
+	}
+	
+	/**
+	 * @return The average of the contact points (absolute space)
+	 */
+	public Vector3D getAveragePoint()
+	{
+		double x = 0, y = 0;
+		for (int i = 0; i < this.pointAmount; i++)
+		{
+			x += this.pointX[i];
+			y += this.pointY[i];
+		}
+		return new Vector3D(x / this.pointAmount, y / this.pointAmount);
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Removes all the contact points from the manifold
+	 */
+	public void clear()
+	{
+		this.normalX = 0;
+		this.normalY = 0;
+		this.pointAmount = 0;
+	}
+	
+	/**
+	 * Changes the collision normal
+	 * @param x The x-component of the new unit normal
+	 * @param y The y-component of the new unit normal
+	 */
+	public void setNormal(double x, double y)
+	{
+		this.normalX = x;
+		this.normalY = y;
+	}
+	
+	/**
+	 * Adds a new contact point to the manifold. Points after the maximum amount are 
+	 * ignored.
+	 * @param x The x-coordinate of the point (absolute space)
+	 * @param y The y-coordinate of the point (absolute space)
+	 * @param depth How deep the colliders overlap at the point
+	 */
+	public void addPoint(double x, double y, double depth)
+	{
+		if (this.pointAmount == MAX_POINTS)
+			return;
+		
+		this.pointX[this.pointAmount] = x;
+		this.pointY[this.pointAmount] = y;
+		this.depth[this.pointAmount] = depth;
+		this.pointAmount ++;
+	}
+	
+	/**
+	 * Swaps the roles of the colliders by reversing the normal
+	 */
+	public void flip()
+	{
+		this.normalX = -this.normalX;
+		this.normalY = -this.normalY;
+	}
+}
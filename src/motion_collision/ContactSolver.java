@@ -0,0 +1,248 @@
+package motion_collision;
+
+import genesis_util.Transformable;
+import genesis_util.Transformation;
+import genesis_util.Vector3D;
+import motion_movement.Movable;
+import motion_movement.ObjectMover;
+import motion_movement.ObjectRotator;
+import motion_movement.Rotateable;
+import motion_util.Material;
+import motion_util.MaterialInteractionTable;
+
+/**
+ * ContactSolver responds to the contacts found by the narrowphase. The colliding objects 
+ * receive an impulse at the contact point, which changes both their movement and their 
+ * rotation, and are pushed apart so that they don't stay inside each other.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class ContactSolver
+{
+	// ATTRIBUTES	-----------------------
+	
+	private double defaultRestitution, correctionRate, allowedPenetration, maxPenetration;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new solver
+	 */
+	public ContactSolver()
+	{
+		this.defaultRestitution = 0.5;
+		this.correctionRate = 0.8;
+		this.allowedPenetration = 0.5;
+		this.maxPenetration = 0;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The restitution used between colliders that don't have materials
+	 */
+	public double getDefaultRestitution()
+	{
+		return this.defaultRestitution;
+	}
+	
+	/**
+	 * Changes the restitution used between colliders that don't have materials
+	 * @param restitution How efficient the collisions are [0, 1]
+	 */
+	public void setDefaultRestitution(double restitution)
+	{
+		this.defaultRestitution = restitution;
+	}
+	
+	/**
+	 * Changes how the overlapping objects are pushed apart
+	 * @param correctionRate How large portion of the penetration is corrected each step 
+	 * [0, 1]
+	 * @param allowedPenetration How deep the objects may be inside each other without 
+	 * being pushed apart. A small penetration keeps the resting contacts stable.
+	 */
+	public void setPositionCorrection(double correctionRate, double allowedPenetration)
+	{
+		this.correctionRate = correctionRate;
+		this.allowedPenetration = allowedPenetration;
+	}
+	
+	/**
+	 * @return The deepest penetration among the contacts solved since the last reset. 
+	 * Deep penetrations mean that the solver can't keep up with the objects.
+	 */
+	public double getMaxPenetration()
+	{
+		return this.maxPenetration;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Starts tracking the deepest penetration from zero again
+	 */
+	public void resetMaxPenetration()
+	{
+		this.maxPenetration = 0;
+	}
+	
+	/**
+	 * Responds to a contact between two colliders
+	 * @param first The first collider
+	 * @param second The second collider
+	 * @param manifold The contact between the colliders. The normal must point from the 
+	 * first collider towards the second. The manifold may be modified.
+	 */
+	public void solve(Collider first, Collider second, ContactManifold manifold)
+	{
+		solve(first, second, manifold, true);
+	}
+	
+	/**
+	 * Pushes two overlapping colliders apart without changing their movement. The 
+	 * impulses only change the objects' velocities once the objects move, so when the 
+	 * contacts are solved multiple times during a step, only the first pass should use 
+	 * {@link #solve(Collider, Collider, ContactManifold)} and the rest should use this method.
+	 * @param first The first collider
+	 * @param second The second collider
+	 * @param manifold The contact between the colliders. The normal must point from the 
+	 * first collider towards the second. The manifold may be modified.
+	 */
+	public void correctPositions(Collider first, Collider second, ContactManifold manifold)
+	{
+		solve(first, second, manifold, false);
+	}
+	
+	private void solve(Collider first, Collider second, ContactManifold manifold, 
+			boolean applyImpulse)
+	{
+		if (manifold.getPointAmount() == 0)
+			return;
+		this.maxPenetration = Math.max(this.maxPenetration, manifold.getMaxDepth());
+		
+		// The first object is always a moving one
+		if (!(first.getOwner() instanceof Movable))
+		{
+			if (!(second.getOwner() instanceof Movable))
+				return;
+			
+			Collider temp = first;
+			first = second;
+			second = temp;
+			manifold.flip();
+		}
+		
+		Movable body1 = (Movable) first.getOwner();
+		Movable body2 = second.getOwner() instanceof Movable ? 
+				(Movable) second.getOwner() : null;
+		double inverseMass1 = getInverseMass(body1);
+		double inverseMass2 = getInverseMass(body2);
+		if (inverseMass1 + inverseMass2 == 0)
+			return;
+		
+		double nx = manifold.getNormalX(), ny = manifold.getNormalY();
+		if (applyImpulse)
+			applyImpulse(first, second, body1, body2, inverseMass1 + inverseMass2, nx, ny, 
+					manifold);
+		
+		// The objects are pushed apart in proportion to their inverse masses
+		double correction = Math.max(0, manifold.getMaxDepth() - this.allowedPenetration) * 
+				this.correctionRate / (inverseMass1 + inverseMass2);
+		if (correction > 0)
+		{
+			translate(body1, -nx * correction * inverseMass1, -ny * correction * inverseMass1);
+			if (body2 != null)
+				translate(body2, nx * correction * inverseMass2, ny * correction * inverseMass2);
+		}
+	}
+	
+	private void applyImpulse(Collider first, Collider second, Movable body1, Movable body2, 
+			double inverseMassSum, double nx, double ny, ContactManifold manifold)
+	{
+		Vector3D v1 = getVelocity(body1);
+		Vector3D v2 = getVelocity(body2);
+		
+		// Only objects that are moving towards each other are affected
+		double approachSpeed = (v1.getFirst() - v2.getFirst()) * nx + 
+				(v1.getSecond() - v2.getSecond()) * ny;
+		if (approachSpeed > 0)
+		{
+			double restitution = getRestitution(first.getMaterial(), second.getMaterial());
+			Vector3D contactPoint = manifold.getAveragePoint();
+			Vector3D mtv1 = new Vector3D(-nx, -ny);
+			
+			Vector3D impulse;
+			if (body1 instanceof Rotateable && body2 instanceof Rotateable)
+				impulse = ObjectRotator.getCollisionImpulse((Rotateable) body1, 
+						(Rotateable) body2, v1, v2, restitution, mtv1, contactPoint);
+			else if (body1 instanceof Rotateable && body2 == null)
+				impulse = ObjectRotator.getCollisionImpulse((Rotateable) body1, v1, 
+						restitution, mtv1, contactPoint);
+			else
+				impulse = mtv1.times((1 + restitution) * approachSpeed / inverseMassSum);
+			
+			applyForce(body1, impulse, contactPoint);
+			if (body2 != null)
+				applyForce(body2, impulse.reverse(), contactPoint);
+		}
+	}
+	
+	/**
+	 * Applies a force to an object at a certain point. The force changes the object's 
+	 * movement and, if the object can rotate, its rotation.
+	 * @param body The object the force is applied to
+	 * @param force The force that is applied (absolute space)
+	 * @param absoluteEffectPoint The point where the force affects the object (absolute 
+	 * space)
+	 */
+	public static void applyForce(Movable body, Vector3D force, Vector3D absoluteEffectPoint)
+	{
+		ObjectMover mover = body.getMover();
+		if (mover != null)
+			mover.applyForce(force);
+		
+		if (body instanceof Rotateable)
+		{
+			ObjectRotator rotator = ((Rotateable) body).getRotator();
+			if (rotator != null)
+				rotator.applyMoment(rotator.toRelativeDirection(force), 
+						body.getTransformation().inverseTransform(absoluteEffectPoint));
+		}
+	}
+	
+	private double getRestitution(Material first, Material second)
+	{
+		if (first == null || second == null)
+			return this.defaultRestitution;
+		return MaterialInteractionTable.getDefaultTable().getRestitution(first, second);
+	}
+	
+	private static double getInverseMass(Movable body)
+	{
+		if (body == null || !body.getBodyType().isDynamic() || body.getMass() <= 0)
+			return 0;
+		return 1 / body.getMass();
+	}
+	
+	private static Vector3D getVelocity(Movable body)
+	{
+		if (body == null || body.getMover() == null)
+			return Vector3D.zeroVector();
+		return body.getMover().getVelocity();
+	}
+	
+	private static void translate(Movable body, double x, double y)
+	{
+		// The mover records the correction so that it is replayed as well
+		if (body.getMover() != null)
+			body.getMover().translate(new Vector3D(x, y));
+		else
+			Transformable.transform(body, Transformation.transitionTransformation(
+					new Vector3D(x, y)));
+	}
+}
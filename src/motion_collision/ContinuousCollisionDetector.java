@@ -0,0 +1,468 @@
+package motion_collision;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import genesis_util.Transformable;
+import genesis_util.Transformation;
+import genesis_util.Vector3D;
+import motion_movement.Movable;
+import motion_movement.MovementSweeper;
+import motion_movement.ObjectMover;
+import motion_util.SpatialGrid;
+
+/**
+ * ContinuousCollisionDetector keeps fast objects from passing through thin obstacles. 
+ * When an object would move further than its own radius during a step (or when it is 
+ * marked as a bullet), its movement is swept against the obstacles with conservative 
+ * advancement. The object is moved to the first time of impact, its approaching velocity 
+ * is removed and it continues with the rest of the step. Only the fast objects are 
+ * sub-stepped, everything else keeps the normal step. Alternatively the detector can use 
+ * speculative contacts, which are cheaper since they don't need any sub-steps.
+ * <p>
+ * Either way, only the detector's own obstacles are considered. Moving objects don't 
+ * get speculative contacts against each other, their collisions are left to the 
+ * discrete collision handling. The obstacles are static. They are kept in their own spatial grid that is only rebuilt 
+ * when obstacles are added or removed, or when {@link #updateObstacles()} is called.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class ContinuousCollisionDetector implements MovementSweeper
+{
+	// ATTRIBUTES	-----------------------
+	
+	private static final int MAX_IMPACTS = 4;
+	private static final int MAX_ADVANCEMENTS = 32;
+	private static final double NO_IMPACT = 2;
+	private static final int SPECULATIVE_ITERATIONS = 3;
+	
+	private List<Collider> obstacles;
+	private SpatialGrid obstacleIndex;
+	private boolean obstaclesChanged;
+	private double[] obstacleX, obstacleY, obstacleRadius;
+	private double maxObstacleRadius;
+	private int[] candidates;
+	private int candidateAmount;
+	private double restitution, tolerance;
+	private final double[] normal, impactNormal;
+	private Mode mode;
+	private int contactAmount;
+	private double[] contactNormalX, contactNormalY, contactSeparation;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new detector without any obstacles
+	 */
+	public ContinuousCollisionDetector()
+	{
+		this.obstacles = new ArrayList<>();
+		this.obstacleIndex = new SpatialGrid();
+		this.obstaclesChanged = true;
+		this.obstacleX = new double[0];
+		this.obstacleY = new double[0];
+		this.obstacleRadius = new double[0];
+		this.maxObstacleRadius = 0;
+		this.candidates = new int[16];
+		this.candidateAmount = 0;
+		this.restitution = 0;
+		this.tolerance = 0.5;
+		this.normal = new double[2];
+		this.impactNormal = new double[2];
+		this.mode = Mode.SWEEP;
+		this.contactAmount = 0;
+		this.contactNormalX = new double[8];
+		this.contactNormalY = new double[8];
+		this.contactSeparation = new double[8];
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------
+	
+	/**
+	 * Moves an object through a step, stopping it at the obstacles on its way if 
+	 * necessary. Objects that don't need it (slow objects when sweeping, objects without 
+	 * any affecting contacts when speculating) are not moved at all so that the mover 
+	 * can move them normally.
+	 * @param mover The mover of the moving object
+	 * @param displacement How much the object would move during the step
+	 * @param duration The duration of the step
+	 * @return Was the object moved by the detector
+	 */
+	@Override
+	public boolean sweep(ObjectMover mover, Vector3D displacement, double duration)
+	{
+		if (this.obstacles.isEmpty())
+			return false;
+		
+		Movable body = mover.getMaster();
+		double radius = Collider.getBoundingRadius(body);
+		double dx = displacement.getFirst(), dy = displacement.getSecond();
+		Vector3D start = body.getTransformation().getPosition();
+		double x = start.getFirst(), y = start.getSecond();
+		
+		// Speculative contacts are cheap enough for all the objects, not just the fast ones
+		if (this.mode == Mode.SPECULATIVE)
+		{
+			Vector3D velocity = solveSpeculativeContacts(mover, x, y, dx, dy, radius, 
+					duration);
+			if (velocity == null)
+				return false;
+			
+			Transformable.transform(body, Transformation.transitionTransformation(
+					velocity.times(duration)));
+			return true;
+		}
+		
+		if (!mover.isBullet() && dx * dx + dy * dy <= radius * radius)
+			return false;
+		
+		double remaining = 1;
+		
+		for (int impact = 0; impact < MAX_IMPACTS; impact++)
+		{
+			double toi = findTimeOfImpact(x, y, dx, dy, radius);
+			if (toi >= 1)
+			{
+				x += dx;
+				y += dy;
+				break;
+			}
+			
+			// Moves to the impact and removes the velocity towards the obstacle
+			x += dx * toi;
+			y += dy * toi;
+			
+			Vector3D velocity = mover.getVelocity();
+			double nx = this.impactNormal[0], ny = this.impactNormal[1];
+			double approach = velocity.getFirst() * nx + velocity.getSecond() * ny;
+			if (approach < 0)
+			{
+				double change = -(1 + this.restitution) * approach;
+				velocity = new Vector3D(velocity.getFirst() + nx * change, 
+						velocity.getSecond() + ny * change);
+				mover.setVelocity(velocity);
+			}
+			
+			// The rest of the step is moved with the new velocity. If there are too many 
+			// impacts, the object stays at the last one.
+			remaining *= 1 - toi;
+			dx = velocity.getFirst() * duration * remaining;
+			dy = velocity.getSecond() * duration * remaining;
+		}
+		
+		Transformable.transform(body, Transformation.transitionTransformation(
+				new Vector3D(x - start.getFirst(), y - start.getSecond())));
+		return true;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return How much of the approaching velocity is reflected back upon impact [0, 1]
+	 */
+	public double getRestitution()
+	{
+		return this.restitution;
+	}
+	
+	/**
+	 * Changes how much of the approaching velocity is reflected back upon impact. 
+	 * Speculative contacts never bounce, the bounce is left to the discrete collision 
+	 * handling.
+	 * @param restitution The new restitution [0, 1]. 0 stops the object against the 
+	 * obstacle, 1 makes it bounce back at full speed.
+	 */
+	public void setRestitution(double restitution)
+	{
+		this.restitution = restitution;
+	}
+	
+	/**
+	 * Changes the distance at which the objects are considered to touch
+	 * @param tolerance The new contact distance (pxl)
+	 */
+	public void setTolerance(double tolerance)
+	{
+		this.tolerance = tolerance;
+	}
+	
+	/**
+	 * @return How the detector keeps the fast objects from passing through obstacles
+	 */
+	public Mode getMode()
+	{
+		return this.mode;
+	}
+	
+	/**
+	 * Changes how the detector keeps the fast objects from passing through obstacles
+	 * @param mode The new mode of the detector
+	 */
+	public void setMode(Mode mode)
+	{
+		this.mode = mode;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Adds a new obstacle the fast objects can't pass through
+	 * @param obstacle The obstacle that is added
+	 */
+	public void addObstacle(Collider obstacle)
+	{
+		if (!this.obstacles.contains(obstacle))
+		{
+			this.obstacles.add(obstacle);
+			this.obstaclesChanged = true;
+		}
+	}
+	
+	/**
+	 * Removes an obstacle from the detector
+	 * @param obstacle The obstacle that is removed
+	 */
+	public void removeObstacle(Collider obstacle)
+	{
+		if (this.obstacles.remove(obstacle))
+			this.obstaclesChanged = true;
+	}
+	
+	/**
+	 * Rebuilds the obstacle grid. This should be called if the obstacles were moved.
+	 */
+	public void updateObstacles()
+	{
+		this.obstaclesChanged = true;
+	}
+	
+	private Vector3D solveSpeculativeContacts(ObjectMover mover, double x, double y, 
+			double dx, double dy, double radius, double duration)
+	{
+		// Finds the obstacles whose bounds overlap the object's bounds expanded by its 
+		// movement. Each of them becomes a contact with a (usually positive) separation.
+		this.contactAmount = 0;
+		double minX = Math.min(x, x + dx) - radius, maxX = Math.max(x, x + dx) + radius;
+		double minY = Math.min(y, y + dy) - radius, maxY = Math.max(y, y + dy) + radius;
+		findCandidates(minX, minY, maxX, maxY);
+		for (int j = 0; j < this.candidateAmount; j++)
+		{
+			int i = this.candidates[j];
+			double r = this.obstacleRadius[i];
+			if (this.obstacleX[i] + r < minX || this.obstacleX[i] - r > maxX || 
+					this.obstacleY[i] + r < minY || this.obstacleY[i] - r > maxY)
+				continue;
+			
+			Collider obstacle = this.obstacles.get(i);
+			double separation = obstacle.getDistance(x, y, this.normal) - radius;
+			// Objects that already overlap are left to the discrete collision handling
+			if (separation < -this.tolerance)
+				continue;
+			
+			addContact(this.normal[0], this.normal[1], Math.max(0, separation));
+		}
+		
+		if (this.contactAmount == 0)
+			return null;
+		
+		Vector3D velocity = mover.getVelocity();
+		
+		// Each contact only removes the approaching velocity that would close the gap 
+		// during this step: v.n >= -separation / duration
+		double vx = velocity.getFirst(), vy = velocity.getSecond();
+		boolean changed = false;
+		for (int iteration = 0; iteration < SPECULATIVE_ITERATIONS; iteration++)
+		{
+			for (int i = 0; i < this.contactAmount; i++)
+			{
+				double nx = this.contactNormalX[i], ny = this.contactNormalY[i];
+				double minNormalVelocity = -this.contactSeparation[i] / duration;
+				double normalVelocity = vx * nx + vy * ny;
+				
+				if (normalVelocity < minNormalVelocity)
+				{
+					vx += nx * (minNormalVelocity - normalVelocity);
+					vy += ny * (minNormalVelocity - normalVelocity);
+					changed = true;
+				}
+			}
+		}
+		
+		if (!changed)
+			return null;
+		
+		velocity = new Vector3D(vx, vy);
+		mover.setVelocity(velocity);
+		return velocity;
+	}
+	
+	private void addContact(double normalX, double normalY, double separation)
+	{
+		if (this.contactAmount == this.contactSeparation.length)
+		{
+			this.contactNormalX = Arrays.copyOf(this.contactNormalX, this.contactAmount * 2);
+			this.contactNormalY = Arrays.copyOf(this.contactNormalY, this.contactAmount * 2);
+			this.contactSeparation = Arrays.copyOf(this.contactSeparation, 
+					this.contactAmount * 2);
+		}
+		
+		this.contactNormalX[this.contactAmount] = normalX;
+		this.contactNormalY[this.contactAmount] = normalY;
+		this.contactSeparation[this.contactAmount] = separation;
+		this.contactAmount ++;
+	}
+	
+	private double findTimeOfImpact(double x, double y, double dx, double dy, double radius)
+	{
+		double length = Math.sqrt(dx * dx + dy * dy);
+		if (length == 0)
+			return NO_IMPACT;
+		
+		double firstImpact = NO_IMPACT;
+		double margin = radius + this.tolerance;
+		findCandidates(Math.min(x, x + dx) - margin, Math.min(y, y + dy) - margin, 
+				Math.max(x, x + dx) + margin, Math.max(y, y + dy) + margin);
+		for (int j = 0; j < this.candidateAmount; j++)
+		{
+			// Skips the obstacles that are too far from the swept path
+			int i = this.candidates[j];
+			Collider obstacle = this.obstacles.get(i);
+			double reach = this.obstacleRadius[i] + margin;
+			double px = this.obstacleX[i] - x, py = this.obstacleY[i] - y;
+			double t = Math.max(0, Math.min(1, (px * dx + py * dy) / (length * length)));
+			double cx = px - dx * t, cy = py - dy * t;
+			if (cx * cx + cy * cy > reach * reach)
+				continue;
+			
+			double toi = findTimeOfImpact(obstacle, x, y, dx, dy, length, radius, 
+					firstImpact);
+			if (toi < firstImpact)
+			{
+				firstImpact = toi;
+				this.impactNormal[0] = this.normal[0];
+				this.impactNormal[1] = this.normal[1];
+			}
+		}
+		
+		return firstImpact;
+	}
+	
+	private void findCandidates(double minX, double minY, double maxX, double maxY)
+	{
+		if (this.obstaclesChanged)
+			indexObstacles();
+		
+		// The grid contains the obstacles' origins so the area is expanded by the largest 
+		// obstacle
+		double r = this.maxObstacleRadius;
+		this.candidateAmount = 0;
+		this.obstacleIndex.forEachInArea(minX - r, minY - r, maxX + r, maxY + r, 
+				i -> addCandidate(i));
+	}
+	
+	private void addCandidate(int index)
+	{
+		if (this.candidateAmount == this.candidates.length)
+			this.candidates = Arrays.copyOf(this.candidates, this.candidateAmount * 2);
+		this.candidates[this.candidateAmount++] = index;
+	}
+	
+	private void indexObstacles()
+	{
+		int size = this.obstacles.size();
+		if (this.obstacleX.length < size)
+		{
+			this.obstacleX = new double[size];
+			this.obstacleY = new double[size];
+			this.obstacleRadius = new double[size];
+		}
+		
+		this.maxObstacleRadius = 0;
+		for (int i = 0; i < size; i++)
+		{
+			Collider obstacle = this.obstacles.get(i);
+			this.obstacleX[i] = obstacle.getX();
+			this.obstacleY[i] = obstacle.getY();
+			this.obstacleRadius[i] = obstacle.getRadius();
+			this.maxObstacleRadius = Math.max(this.maxObstacleRadius, this.obstacleRadius[i]);
+		}
+		
+		// The cells are about the size of a typical obstacle
+		double cellSize = 64;
+		if (size > 0)
+		{
+			double total = 0;
+			for (int i = 0; i < size; i++)
+			{
+				total += this.obstacleRadius[i];
+			}
+			cellSize = Math.max(cellSize, 2 * total / size);
+		}
+		
+		this.obstacleIndex.build(this.obstacleX, this.obstacleY, size, cellSize);
+		this.obstaclesChanged = false;
+	}
+	
+	private double findTimeOfImpact(Collider obstacle, double x, double y, double dx, 
+			double dy, double length, double radius, double limit)
+	{
+		// Conservative advancement: the object can always move the current distance 
+		// without hitting the obstacle
+		double t = 0;
+		for (int i = 0; i < MAX_ADVANCEMENTS; i++)
+		{
+			double distance = obstacle.getDistance(x + dx * t, y + dy * t, this.normal) - 
+					radius;
+			
+			// Contacts only count if the object is moving towards the obstacle. Objects 
+			// that already overlap or slide along the obstacle are left to the discrete 
+			// collision handling.
+			if (distance < this.tolerance)
+			{
+				if (this.normal[0] * dx + this.normal[1] * dy < 0 && 
+						(t > 0 || distance > -this.tolerance))
+					return t;
+				return NO_IMPACT;
+			}
+			
+			t += distance / length;
+			if (t >= limit)
+				return NO_IMPACT;
+		}
+		
+		// The advancement didn't converge (usually a grazing path), so the impact time 
+		// isn't known. Such paths are left to the discrete collision handling.
+		return NO_IMPACT;
+	}
+	
+	
+	// ENUMERATIONS	-----------------------
+	
+	/**
+	 * The different ways the detector can keep the objects from passing through obstacles
+	 * 
+	 * @author Mikko Hilpinen
+	 * @since 19.10.2026
+	 */
+	public static enum Mode
+	{
+		/**
+		 * The object's movement is swept against the obstacles and the object is 
+		 * sub-stepped to each time of impact. Exact but more expensive.
+		 */
+		SWEEP, 
+		/**
+		 * The obstacles near the object's path become contacts that only remove the 
+		 * velocity that would close the gap during the step. The object is moved only 
+		 * once per step. This applies to every object, not only the fast ones, but only 
+		 * against the detector's static obstacles.
+		 */
+		SPECULATIVE;
+	}
+}
@@ -0,0 +1,606 @@
+package motion_collision;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Narrowphase checks whether two colliders overlap and creates a contact manifold for 
+ * them. The test is picked from a dispatch table by the types of the two shapes so that 
+ * simple shapes use cheap specialised tests: circles only compare distances, boxes use 
+ * the separating axis test with two axes per box and other convex polygons use GJK and EPA. 
+ * The last separating direction of each polygon pair is cached and used as the starting 
+ * direction of the next GJK run, which makes the test of separated pairs very fast.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class Narrowphase
+{
+	// ATTRIBUTES	-----------------------
+	
+	private static final int MAX_ITERATIONS = 32;
+	private static final int MAX_CACHED_AXES = 4096;
+	private static final double EPSILON = 0.000001;
+	
+	private final CollisionTest[][] tests;
+	private final Map<Long, double[]> separatingAxes;
+	private final double[] poseA, poseB, normal, support, clipped;
+	private double depth;
+	// The absolute vertices of the polygons that are being tested. The arrays are shared 
+	// with the colliders' caches.
+	private double[] ax, ay, bx, by;
+	private int aAmount, bAmount;
+	// The GJK simplex and the EPA polytope
+	private double[] px, py;
+	private int pAmount;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new narrowphase
+	 */
+	public Narrowphase()
+	{
+		this.poseA = new double[6];
+		this.poseB = new double[6];
+		this.normal = new double[2];
+		this.support = new double[2];
+		this.clipped = new double[4];
+		this.px = new double[MAX_ITERATIONS + 3];
+		this.py = new double[MAX_ITERATIONS + 3];
+		this.separatingAxes = new HashMap<>();
+		
+		int types = ShapeType.values().length;
+		this.tests = new CollisionTest[types][types];
+		register(ShapeType.CIRCLE, ShapeType.CIRCLE, this::collideCircles);
+		register(ShapeType.CIRCLE, ShapeType.BOX, this::collideCircleAndPolygon);
+		register(ShapeType.CIRCLE, ShapeType.POLYGON, this::collideCircleAndPolygon);
+		register(ShapeType.BOX, ShapeType.BOX, this::collideBoxes);
+		register(ShapeType.BOX, ShapeType.POLYGON, this::collidePolygons);
+		register(ShapeType.POLYGON, ShapeType.POLYGON, this::collidePolygons);
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Checks whether two colliders overlap
+	 * @param first The first collider
+	 * @param second The second collider
+	 * @param manifold The manifold where the contact information is written to. The 
+	 * normal points from the first collider towards the second.
+	 * @return Do the colliders overlap
+	 */
+	public boolean collide(Collider first, Collider second, ContactManifold manifold)
+	{
+		manifold.clear();
+		return this.tests[first.getShape().getType().ordinal()][
+				second.getShape().getType().ordinal()].collide(first, second, manifold);
+	}
+	
+	/**
+	 * Forgets the cached separating directions
+	 */
+	public void clearCache()
+	{
+		this.separatingAxes.clear();
+	}
+	
+	private void register(ShapeType first, ShapeType second, CollisionTest test)
+	{
+		this.tests[first.ordinal()][second.ordinal()] = test;
+		
+		// The reverse order uses the same test with the colliders swapped
+		if (first != second)
+			this.tests[second.ordinal()][first.ordinal()] = (a, b, manifold) ->
+			{
+				if (!test.collide(b, a, manifold))
+					return false;
+				manifold.flip();
+				return true;
+			};
+	}
+	
+	private boolean collideCircles(Collider first, Collider second, ContactManifold manifold)
+	{
+		double x = first.getX(), y = first.getY();
+		double r1 = first.getRadius();
+		double r2 = second.getRadius();
+		
+		double dx = second.getX() - x, dy = second.getY() - y;
+		double distanceSquared = dx * dx + dy * dy;
+		if (distanceSquared >= (r1 + r2) * (r1 + r2))
+			return false;
+		
+		// Circles at the same position are separated along the x-axis
+		double distance = Math.sqrt(distanceSquared);
+		double nx = 1, ny = 0;
+		if (distance > EPSILON)
+		{
+			nx = dx / distance;
+			ny = dy / distance;
+		}
+		
+		manifold.setNormal(nx, ny);
+		manifold.addPoint(x + nx * r1, y + ny * r1, r1 + r2 - distance);
+		return true;
+	}
+	
+	private boolean collideCircleAndPolygon(Collider circle, Collider polygon, 
+			ContactManifold manifold)
+	{
+		circle.getPose(this.poseA);
+		polygon.getPose(this.poseB);
+		double radius = circle.getRadius();
+		double scale = getScale(this.poseB);
+		
+		// The circle's center is checked in the polygon's relative space
+		double[] p = this.poseB;
+		double dx = this.poseA[0] - p[0], dy = this.poseA[1] - p[1];
+		double determinant = p[2] * p[5] - p[4] * p[3];
+		double localX = (p[5] * dx - p[4] * dy) / determinant;
+		double localY = (p[2] * dy - p[3] * dx) / determinant;
+		
+		double distance = polygon.getShape().getDistance(localX, localY, this.normal) * 
+				scale;
+		if (distance >= radius)
+			return false;
+		
+		// The normal points from the polygon towards the circle
+		double nx = p[2] * this.normal[0] + p[4] * this.normal[1];
+		double ny = p[3] * this.normal[0] + p[5] * this.normal[1];
+		double length = Math.sqrt(nx * nx + ny * ny);
+		nx /= length;
+		ny /= length;
+		
+		manifold.setNormal(-nx, -ny);
+		manifold.addPoint(this.poseA[0] - nx * distance, this.poseA[1] - ny * distance, 
+				radius - distance);
+		return true;
+	}
+	
+	private boolean collideBoxes(Collider first, Collider second, ContactManifold manifold)
+	{
+		loadVertices(first, second);
+		
+		// Boxes only have two edge directions so there are only four axes to test
+		double minOverlap = Double.POSITIVE_INFINITY;
+		double bestX = 0, bestY = 0;
+		for (int axis = 0; axis < 4; axis++)
+		{
+			double[] x = axis < 2 ? this.ax : this.bx;
+			double[] y = axis < 2 ? this.ay : this.by;
+			int edge = axis % 2;
+			double nx = y[edge + 1] - y[edge], ny = x[edge] - x[edge + 1];
+			double length = Math.sqrt(nx * nx + ny * ny);
+			if (length < EPSILON)
+				continue;
+			nx /= length;
+			ny /= length;
+			
+			double overlap = getOverlap(nx, ny);
+			if (overlap <= 0)
+				return false;
+			if (overlap < minOverlap)
+			{
+				minOverlap = overlap;
+				bestX = nx;
+				bestY = ny;
+			}
+		}
+		
+		return createManifold(bestX, bestY, minOverlap, manifold);
+	}
+	
+	private boolean collidePolygons(Collider first, Collider second, 
+			ContactManifold manifold)
+	{
+		loadVertices(first, second);
+		
+		// Starts from the cached direction of the previous test, if there is one
+		long key = ((long) System.identityHashCode(first) << 32) |
+				(System.identityHashCode(second) & 0xFFFFFFFFL);
+		double[] cached = this.separatingAxes.get(key);
+		double dx, dy;
+		if (cached != null)
+		{
+			dx = cached[0];
+			dy = cached[1];
+		}
+		else
+		{
+			dx = getAverage(this.bx, this.bAmount) - getAverage(this.ax, this.aAmount);
+			dy = getAverage(this.by, this.bAmount) - getAverage(this.ay, this.aAmount);
+		}
+		
+		boolean overlaps = findSimplex(dx, dy);
+		boolean collides = overlaps && findPenetration();
+		
+		// Remembers the direction for the next test
+		if (cached == null)
+		{
+			if (this.separatingAxes.size() >= MAX_CACHED_AXES)
+				this.separatingAxes.clear();
+			cached = new double[2];
+			this.separatingAxes.put(key, cached);
+		}
+		cached[0] = this.normal[0];
+		cached[1] = this.normal[1];
+		
+		return collides && createManifold(this.normal[0], this.normal[1], this.depth, 
+				manifold);
+	}
+	
+	private boolean findSimplex(double dx, double dy)
+	{
+		// GJK: builds a simplex from the Minkowski difference A - B until it either 
+		// contains the origin or a separating direction is found
+		if (Math.abs(dx) < EPSILON && Math.abs(dy) < EPSILON)
+			dx = 1;
+		
+		this.pAmount = 0;
+		addSupport(dx, dy);
+		dx = -this.px[0];
+		dy = -this.py[0];
+		
+		for (int i = 0; i < MAX_ITERATIONS; i++)
+		{
+			// The direction is remembered as (the reverse of) the separating axis
+			this.normal[0] = -dx;
+			this.normal[1] = -dy;
+			
+			if (Math.abs(dx) < EPSILON && Math.abs(dy) < EPSILON)
+				return false;
+			
+			addSupport(dx, dy);
+			if (this.px[this.pAmount - 1] * dx + this.py[this.pAmount - 1] * dy <= 0)
+				return false;
+			
+			int last = this.pAmount - 1;
+			double aoX = -this.px[last], aoY = -this.py[last];
+			if (this.pAmount == 2)
+			{
+				// The new direction is perpendicular to the line, towards the origin
+				double abX = this.px[0] - this.px[1], abY = this.py[0] - this.py[1];
+				dx = -abY;
+				dy = abX;
+				if (dx * aoX + dy * aoY < 0)
+				{
+					dx = -dx;
+					dy = -dy;
+				}
+			}
+			else
+			{
+				double abX = this.px[1] - this.px[2], abY = this.py[1] - this.py[2];
+				double acX = this.px[0] - this.px[2], acY = this.py[0] - this.py[2];
+				
+				// The edge normals point away from the third point
+				double abPerpX = -abY, abPerpY = abX;
+				if (abPerpX * acX + abPerpY * acY > 0)
+				{
+					abPerpX = -abPerpX;
+					abPerpY = -abPerpY;
+				}
+				double acPerpX = -acY, acPerpY = acX;
+				if (acPerpX * abX + acPerpY * abY > 0)
+				{
+					acPerpX = -acPerpX;
+					acPerpY = -acPerpY;
+				}
+				
+				if (abPerpX * aoX + abPerpY * aoY > 0)
+				{
+					// The origin is outside edge AB, C is dropped
+					removeSimplexPoint(0);
+					dx = abPerpX;
+					dy = abPerpY;
+				}
+				else if (acPerpX * aoX + acPerpY * aoY > 0)
+				{
+					// The origin is outside edge AC, B is dropped
+					removeSimplexPoint(1);
+					dx = acPerpX;
+					dy = acPerpY;
+				}
+				else
+					return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private boolean findPenetration()
+	{
+		// EPA: expands the simplex towards the edge of the Minkowski difference that is 
+		// closest to the origin. The polytope is kept in counter-clockwise order.
+		double cross = (this.px[1] - this.px[0]) * (this.py[2] - this.py[0]) - 
+				(this.py[1] - this.py[0]) * (this.px[2] - this.px[0]);
+		if (cross < 0)
+		{
+			swap(1, 2);
+		}
+		
+		for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++)
+		{
+			double minDistance = Double.POSITIVE_INFINITY;
+			double nx = 0, ny = 0;
+			int closest = 0;
+			for (int i = 0; i < this.pAmount; i++)
+			{
+				int next = (i + 1) % this.pAmount;
+				double ex = this.px[next] - this.px[i], ey = this.py[next] - this.py[i];
+				double length = Math.sqrt(ex * ex + ey * ey);
+				if (length < EPSILON)
+					continue;
+				
+				double edgeNormalX = ey / length, edgeNormalY = -ex / length;
+				double distance = edgeNormalX * this.px[i] + edgeNormalY * this.py[i];
+				if (distance < minDistance)
+				{
+					minDistance = distance;
+					nx = edgeNormalX;
+					ny = edgeNormalY;
+					closest = i;
+				}
+			}
+			
+			this.normal[0] = nx;
+			this.normal[1] = ny;
+			this.depth = minDistance;
+			
+			getSupport(nx, ny);
+			double supportDistance = this.support[0] * nx + this.support[1] * ny;
+			if (supportDistance - minDistance < EPSILON || this.pAmount == this.px.length)
+				return minDistance > EPSILON;
+			
+			// Inserts the new point between the closest edge's vertices
+			for (int i = this.pAmount; i > closest + 1; i--)
+			{
+				this.px[i] = this.px[i - 1];
+				this.py[i] = this.py[i - 1];
+			}
+			this.px[closest + 1] = this.support[0];
+			this.py[closest + 1] = this.support[1];
+			this.pAmount ++;
+		}
+		
+		return true;
+	}
+	
+	private boolean createManifold(double nx, double ny, double depth, 
+			ContactManifold manifold)
+	{
+		// The normal has to point from the first polygon towards the second
+		double cx = getAverage(this.bx, this.bAmount) - getAverage(this.ax, this.aAmount);
+		double cy = getAverage(this.by, this.bAmount) - getAverage(this.ay, this.aAmount);
+		if (cx * nx + cy * ny < 0)
+		{
+			nx = -nx;
+			ny = -ny;
+		}
+		manifold.setNormal(nx, ny);
+		
+		// The edge most perpendicular to the normal is used as the reference face and the 
+		// other polygon's edge is clipped against it
+		int edgeA = getBestEdge(this.ax, this.ay, this.aAmount, nx, ny);
+		int edgeB = getBestEdge(this.bx, this.by, this.bAmount, -nx, -ny);
+		boolean referenceIsA = getEdgeAlignment(this.ax, this.ay, this.aAmount, edgeA, nx, 
+				ny) <= getEdgeAlignment(this.bx, this.by, this.bAmount, edgeB, nx, ny);
+		
+		double[] refX = referenceIsA ? this.ax : this.bx;
+		double[] refY = referenceIsA ? this.ay : this.by;
+		int refAmount = referenceIsA ? this.aAmount : this.bAmount;
+		int ref = referenceIsA ? edgeA : edgeB;
+		double[] incX = referenceIsA ? this.bx : this.ax;
+		double[] incY = referenceIsA ? this.by : this.ay;
+		int incAmount = referenceIsA ? this.bAmount : this.aAmount;
+		int inc = referenceIsA ? edgeB : edgeA;
+		
+		double r1x = refX[ref], r1y = refY[ref];
+		double r2x = refX[(ref + 1) % refAmount], r2y = refY[(ref + 1) % refAmount];
+		double dirX = r2x - r1x, dirY = r2y - r1y;
+		double length = Math.sqrt(dirX * dirX + dirY * dirY);
+		dirX /= length;
+		dirY /= length;
+		
+		// Clips the incident edge between the sides of the reference edge
+		double i1x = incX[inc], i1y = incY[inc];
+		double i2x = incX[(inc + 1) % incAmount], i2y = incY[(inc + 1) % incAmount];
+		double[] clipped = this.clipped;
+		clipped[0] = i1x;
+		clipped[1] = i1y;
+		clipped[2] = i2x;
+		clipped[3] = i2y;
+		if (clip(clipped, dirX, dirY, dirX * r1x + dirY * r1y) && 
+				clip(clipped, -dirX, -dirY, -dirX * r2x - dirY * r2y))
+		{
+			// Only the points behind the reference face are contacts
+			double refNormalX = dirY, refNormalY = -dirX;
+			double sign = referenceIsA ? 1 : -1;
+			if (refNormalX * nx * sign + refNormalY * ny * sign < 0)
+			{
+				refNormalX = -refNormalX;
+				refNormalY = -refNormalY;
+			}
+			double face = refNormalX * r1x + refNormalY * r1y;
+			for (int i = 0; i < 2; i++)
+			{
+				double pointDepth = face - (refNormalX * clipped[i * 2] + 
+						refNormalY * clipped[i * 2 + 1]);
+				if (pointDepth >= 0)
+					manifold.addPoint(clipped[i * 2], clipped[i * 2 + 1], pointDepth);
+			}
+		}
+		
+		// Deeply overlapping polygons may not have a proper incident edge, in which case the 
+		// deepest vertex of the second polygon is used
+		if (manifold.getPointAmount() == 0)
+		{
+			int deepest = getFurthest(this.bx, this.by, this.bAmount, -nx, -ny);
+			manifold.addPoint(this.bx[deepest], this.by[deepest], depth);
+		}
+		
+		return true;
+	}
+	
+	private double getOverlap(double nx, double ny)
+	{
+		double minA = Double.POSITIVE_INFINITY, maxA = Double.NEGATIVE_INFINITY;
+		double minB = Double.POSITIVE_INFINITY, maxB = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < this.aAmount; i++)
+		{
+			double projection = this.ax[i] * nx + this.ay[i] * ny;
+			minA = Math.min(minA, projection);
+			maxA = Math.max(maxA, projection);
+		}
+		for (int i = 0; i < this.bAmount; i++)
+		{
+			double projection = this.bx[i] * nx + this.by[i] * ny;
+			minB = Math.min(minB, projection);
+			maxB = Math.max(maxB, projection);
+		}
+		
+		return Math.min(maxA, maxB) - Math.max(minA, minB);
+	}
+	
+	private void loadVertices(Collider first, Collider second)
+	{
+		// The colliders only transform their vertices when they have moved
+		this.ax = first.getVertexX();
+		this.ay = first.getVertexY();
+		this.aAmount = this.ax.length;
+		this.bx = second.getVertexX();
+		this.by = second.getVertexY();
+		this.bAmount = this.bx.length;
+	}
+	
+	private void addSupport(double dx, double dy)
+	{
+		getSupport(dx, dy);
+		this.px[this.pAmount] = this.support[0];
+		this.py[this.pAmount] = this.support[1];
+		this.pAmount ++;
+	}
+	
+	private void getSupport(double dx, double dy)
+	{
+		// The furthest point of A - B in the direction is furthest(A, d) - furthest(B, -d)
+		int a = getFurthest(this.ax, this.ay, this.aAmount, dx, dy);
+		int b = getFurthest(this.bx, this.by, this.bAmount, -dx, -dy);
+		this.support[0] = this.ax[a] - this.bx[b];
+		this.support[1] = this.ay[a] - this.by[b];
+	}
+	
+	private void removeSimplexPoint(int index)
+	{
+		for (int i = index; i < this.pAmount - 1; i++)
+		{
+			this.px[i] = this.px[i + 1];
+			this.py[i] = this.py[i + 1];
+		}
+		this.pAmount --;
+	}
+	
+	private void swap(int first, int second)
+	{
+		double x = this.px[first], y = this.py[first];
+		this.px[first] = this.px[second];
+		this.py[first] = this.py[second];
+		this.px[second] = x;
+		this.py[second] = y;
+	}
+	
+	private static int getFurthest(double[] x, double[] y, int amount, double dx, double dy)
+	{
+		int best = 0;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < amount; i++)
+		{
+			double projection = x[i] * dx + y[i] * dy;
+			if (projection > max)
+			{
+				max = projection;
+				best = i;
+			}
+		}
+		return best;
+	}
+	
+	private static int getBestEdge(double[] x, double[] y, int amount, double nx, 
+			double ny)
+	{
+		// Of the two edges next to the furthest vertex, the one more perpendicular to the 
+		// normal is the best
+		int vertex = getFurthest(x, y, amount, nx, ny);
+		int previous = (vertex + amount - 1) % amount;
+		if (getEdgeAlignment(x, y, amount, vertex, nx, ny) <=
+				getEdgeAlignment(x, y, amount, previous, nx, ny))
+			return vertex;
+		return previous;
+	}
+	
+	private static double getEdgeAlignment(double[] x, double[] y, int amount, int edge, 
+			double nx, double ny)
+	{
+		int next = (edge + 1) % amount;
+		double ex = x[next] - x[edge], ey = y[next] - y[edge];
+		double length = Math.sqrt(ex * ex + ey * ey);
+		if (length < EPSILON)
+			return Double.POSITIVE_INFINITY;
+		return Math.abs(ex * nx + ey * ny) / length;
+	}
+	
+	private static boolean clip(double[] segment, double nx, double ny, double offset)
+	{
+		// Keeps the part of the segment where p.n >= offset
+		double d1 = segment[0] * nx + segment[1] * ny - offset;
+		double d2 = segment[2] * nx + segment[3] * ny - offset;
+		
+		if (d1 < 0 && d2 < 0)
+			return false;
+		if (d1 < 0 || d2 < 0)
+		{
+			double t = d1 / (d1 - d2);
+			double x = segment[0] + (segment[2] - segment[0]) * t;
+			double y = segment[1] + (segment[3] - segment[1]) * t;
+			if (d1 < 0)
+			{
+				segment[0] = x;
+				segment[1] = y;
+			}
+			else
+			{
+				segment[2] = x;
+				segment[3] = y;
+			}
+		}
+		
+		return true;
+	}
+	
+	private static double getAverage(double[] values, int amount)
+	{
+		double total = 0;
+		for (int i = 0; i < amount; i++)
+		{
+			total += values[i];
+		}
+		return total / amount;
+	}
+	
+	private static double getScale(double[] pose)
+	{
+		return Math.sqrt(pose[2] * pose[2] + pose[3] * pose[3]);
+	}
+	
+	
+	// INTERFACES	-----------------------
+	
+	private static interface CollisionTest
+	{
+		public boolean collide(Collider first, Collider second, ContactManifold manifold);
+	}
+}
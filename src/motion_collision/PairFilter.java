@@ -0,0 +1,19 @@
+package motion_collision;
+
+/**
+ * PairFilters can reject collider pairs before their exact collision is checked. The 
+ * filter is only called for pairs that already passed the collision filter bits.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public interface PairFilter
+{
+	/**
+	 * Checks whether the two colliders should collide
+	 * @param first The first collider
+	 * @param second The second collider
+	 * @return Should the collision between the colliders be checked
+	 */
+	public boolean shouldCollide(Collider first, Collider second);
+}
@@ -0,0 +1,175 @@
+package motion_collision;
+
+import genesis_util.Vector3D;
+
+/**
+ * PolygonShape is a convex polygon. The edge normals of the polygon are calculated when 
+ * the shape is created so that distance queries only need dot products.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class PolygonShape implements CollisionShape
+{
+	// ATTRIBUTES	-----------------------
+	
+	private final double[] vertexX, vertexY, normalX, normalY, edgeLength;
+	private final double radius;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new polygon
+	 * @param vertices The vertices of the polygon in relative space. The polygon must be 
+	 * convex. The vertices may be listed in either order.
+	 */
+	public PolygonShape(Vector3D[] vertices)
+	{
+		int n = vertices.length;
+		this.vertexX = new double[n];
+		this.vertexY = new double[n];
+		this.normalX = new double[n];
+		this.normalY = new double[n];
+		this.edgeLength = new double[n];
+		
+		double doubleArea = 0;
+		double radiusSquared = 0;
+		for (int i = 0; i < n; i++)
+		{
+			this.vertexX[i] = vertices[i].getFirst();
+			this.vertexY[i] = vertices[i].getSecond();
+			radiusSquared = Math.max(radiusSquared, this.vertexX[i] * this.vertexX[i] + 
+					this.vertexY[i] * this.vertexY[i]);
+		}
+		for (int i = 0; i < n; i++)
+		{
+			int next = (i + 1) % n;
+			doubleArea += this.vertexX[i] * this.vertexY[next] - 
+					this.vertexX[next] * this.vertexY[i];
+		}
+		this.radius = Math.sqrt(radiusSquared);
+		
+		// The outward normal is on the right side of the edge for positive winding and on 
+		// the left side otherwise
+		double side = doubleArea >= 0 ? 1 : -1;
+		for (int i = 0; i < n; i++)
+		{
+			int next = (i + 1) % n;
+			double ex = this.vertexX[next] - this.vertexX[i];
+			double ey = this.vertexY[next] - this.vertexY[i];
+			double length = Math.sqrt(ex * ex + ey * ey);
+			
+			this.edgeLength[i] = length;
+			if (length > 0)
+			{
+				this.normalX[i] = side * ey / length;
+				this.normalY[i] = -side * ex / length;
+			}
+		}
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------
+	
+	@Override
+	public ShapeType getType()
+	{
+		return ShapeType.POLYGON;
+	}
+	
+	@Override
+	public double getRadius()
+	{
+		return this.radius;
+	}
+	
+	@Override
+	public double getDistance(double x, double y, double[] normal)
+	{
+		// The largest separation along an edge normal tells whether the point is inside
+		int n = this.vertexX.length;
+		double maxSeparation = Double.NEGATIVE_INFINITY;
+		int maxEdge = 0;
+		for (int i = 0; i < n; i++)
+		{
+			if (this.edgeLength[i] == 0)
+				continue;
+			
+			double separation = (x - this.vertexX[i]) * this.normalX[i] + 
+					(y - this.vertexY[i]) * this.normalY[i];
+			if (separation > maxSeparation)
+			{
+				maxSeparation = separation;
+				maxEdge = i;
+			}
+		}
+		
+		if (maxSeparation <= 0)
+		{
+			normal[0] = this.normalX[maxEdge];
+			normal[1] = this.normalY[maxEdge];
+			return maxSeparation;
+		}
+		
+		// Outside the polygon the distance is the distance to the closest edge segment
+		double minDistanceSquared = Double.POSITIVE_INFINITY;
+		double closestX = 0, closestY = 0;
+		for (int i = 0; i < n; i++)
+		{
+			int next = (i + 1) % n;
+			double ex = this.vertexX[next] - this.vertexX[i];
+			double ey = this.vertexY[next] - this.vertexY[i];
+			double lengthSquared = this.edgeLength[i] * this.edgeLength[i];
+			
+			double t = 0;
+			if (lengthSquared > 0)
+				t = Math.max(0, Math.min(1, ((x - this.vertexX[i]) * ex + 
+						(y - this.vertexY[i]) * ey) / lengthSquared));
+			
+			double px = this.vertexX[i] + ex * t;
+			double py = this.vertexY[i] + ey * t;
+			double distanceSquared = (x - px) * (x - px) + (y - py) * (y - py);
+			if (distanceSquared < minDistanceSquared)
+			{
+				minDistanceSquared = distanceSquared;
+				closestX = px;
+				closestY = py;
+			}
+		}
+		
+		double distance = Math.sqrt(minDistanceSquared);
+		normal[0] = (x - closestX) / distance;
+		normal[1] = (y - closestY) / distance;
+		return distance;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return How many vertices the polygon has
+	 */
+	public int getVertexAmount()
+	{
+		return this.vertexX.length;
+	}
+	
+	/**
+	 * @param index The index of a vertex
+	 * @return The x-coordinate of the vertex (relative space)
+	 */
+	public double getVertexX(int index)
+	{
+		return this.vertexX[index];
+	}
+	
+	/**
+	 * @param index The index of a vertex
+	 * @return The y-coordinate of the vertex (relative space)
+	 */
+	public double getVertexY(int index)
+	{
+		return this.vertexY[index];
+	}
+}
@@ -0,0 +1,217 @@
+package motion_collision;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import genesis_util.Vector3D;
+import motion_util.ChangeSet;
+
+/**
+ * QueryResult is a reusable buffer for the hits of collision queries. Each query clears 
+ * the buffer before writing its hits into it, so a single buffer can be used for any 
+ * amount of queries without creating new objects. A buffer should only be used by one 
+ * thread at a time, but different threads can run queries with their own buffers at the 
+ * same time.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class QueryResult
+{
+	// ATTRIBUTES	-----------------------
+	
+	private Collider[] colliders;
+	private double[] distance, pointX, pointY, normalX, normalY;
+	private int size;
+	
+	// The working memory of the queries
+	final double[] hit;
+	final ChangeSet visited;
+	final IntConsumer candidateCollector;
+	int[] candidates;
+	int candidateAmount;
+	double[] casterX, casterY, casterNormalX, casterNormalY;
+	int casterAmount;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new empty result buffer
+	 */
+	public QueryResult()
+	{
+		allocate(8);
+		this.size = 0;
+		
+		this.hit = new double[5];
+		this.visited = new ChangeSet();
+		this.candidates = new int[16];
+		this.candidateAmount = 0;
+		this.candidateCollector = i -> addCandidate(i);
+		this.casterX = new double[8];
+		this.casterY = new double[8];
+		this.casterNormalX = new double[8];
+		this.casterNormalY = new double[8];
+		this.casterAmount = 0;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return How many hits the last query found
+	 */
+	public int getHitAmount()
+	{
+		return this.size;
+	}
+	
+	/**
+	 * @param index The index of a hit
+	 * @return The collider that was hit
+	 */
+	public Collider getCollider(int index)
+	{
+		return this.colliders[index];
+	}
+	
+	/**
+	 * @param index The index of a hit
+	 * @return How far along the ray or the cast the hit happened (pxl). 0 for overlaps and 
+	 * for colliders that overlapped the start of the cast.
+	 */
+	public double getDistance(int index)
+	{
+		return this.distance[index];
+	}
+	
+	/**
+	 * @param index The index of a hit
+	 * @return The point where the hit happened (absolute space). For overlaps this is the 
+	 * position of the collider.
+	 */
+	public Vector3D getPoint(int index)
+	{
+		return new Vector3D(this.pointX[index], this.pointY[index]);
+	}
+	
+	/**
+	 * @param index The index of a hit
+	 * @return The surface normal of the hit collider at the hit point. The normal points 
+	 * towards the ray or the cast shape. Zero for overlaps.
+	 */
+	public Vector3D getNormal(int index)
+	{
+		return new Vector3D(this.normalX[index], this.normalY[index]);
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Removes all the hits from the buffer
+	 */
+	public void clear()
+	{
+		Arrays.fill(this.colliders, 0, this.size, null);
+		this.size = 0;
+	}
+	
+	void add(Collider collider, double distance, double pointX, double pointY, 
+			double normalX, double normalY)
+	{
+		if (this.size == this.colliders.length)
+			allocate(this.size * 2);
+		
+		this.colliders[this.size] = collider;
+		this.distance[this.size] = distance;
+		this.pointX[this.size] = pointX;
+		this.pointY[this.size] = pointY;
+		this.normalX[this.size] = normalX;
+		this.normalY[this.size] = normalY;
+		this.size ++;
+	}
+	
+	void sortByDistance()
+	{
+		// The hit lists are short, so insertion sort is enough
+		for (int i = 1; i < this.size; i++)
+		{
+			for (int j = i; j > 0 && this.distance[j] < this.distance[j - 1]; j--)
+			{
+				swap(j, j - 1);
+			}
+		}
+	}
+	
+	void clearCandidates()
+	{
+		this.candidateAmount = 0;
+	}
+	
+	void setCasterSize(int vertexAmount)
+	{
+		if (this.casterX.length < vertexAmount)
+		{
+			this.casterX = new double[vertexAmount];
+			this.casterY = new double[vertexAmount];
+			this.casterNormalX = new double[vertexAmount];
+			this.casterNormalY = new double[vertexAmount];
+		}
+		this.casterAmount = vertexAmount;
+	}
+	
+	private void addCandidate(int index)
+	{
+		// Rays and casts are handled in parts that may find the same colliders
+		if (this.visited.contains(index))
+			return;
+		this.visited.add(index);
+		
+		if (this.candidateAmount == this.candidates.length)
+			this.candidates = Arrays.copyOf(this.candidates, this.candidateAmount * 2);
+		this.candidates[this.candidateAmount ++] = index;
+	}
+	
+	private void swap(int first, int second)
+	{
+		Collider collider = this.colliders[first];
+		this.colliders[first] = this.colliders[second];
+		this.colliders[second] = collider;
+		swap(this.distance, first, second);
+		swap(this.pointX, first, second);
+		swap(this.pointY, first, second);
+		swap(this.normalX, first, second);
+		swap(this.normalY, first, second);
+	}
+	
+	private void allocate(int capacity)
+	{
+		if (this.colliders == null)
+		{
+			this.colliders = new Collider[capacity];
+			this.distance = new double[capacity];
+			this.pointX = new double[capacity];
+			this.pointY = new double[capacity];
+			this.normalX = new double[capacity];
+			this.normalY = new double[capacity];
+		}
+		else
+		{
+			this.colliders = Arrays.copyOf(this.colliders, capacity);
+			this.distance = Arrays.copyOf(this.distance, capacity);
+			this.pointX = Arrays.copyOf(this.pointX, capacity);
+			this.pointY = Arrays.copyOf(this.pointY, capacity);
+			this.normalX = Arrays.copyOf(this.normalX, capacity);
+			this.normalY = Arrays.copyOf(this.normalY, capacity);
+		}
+	}
+	
+	private static void swap(double[] values, int first, int second)
+	{
+		double value = values[first];
+		values[first] = values[second];
+		values[second] = value;
+	}
+}
@@ -0,0 +1,23 @@
+package motion_collision;
+
+/**
+ * ShapeType tells which specialised collision tests can be used with a collision shape
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public enum ShapeType
+{
+	/**
+	 * A circle centered at the relative origin
+	 */
+	CIRCLE, 
+	/**
+	 * A rectangle with four vertices
+	 */
+	BOX, 
+	/**
+	 * Any convex polygon
+	 */
+	POLYGON;
+}
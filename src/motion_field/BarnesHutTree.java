@@ -0,0 +1,314 @@
+package motion_field;
+
+/**
+ * BarnesHutTree is a quadtree built over a set of point masses. Each node knows the total 
+ * mass and the center of mass of the points inside it so that the combined attraction of 
+ * a distant group of points can be approximated with a single point. The tree is stored in 
+ * primitive arrays and can be rebuilt each step without creating new objects.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class BarnesHutTree
+{
+	// ATTRIBUTES	-----------------------
+
+	private static final int MAX_DEPTH = 32;
+	
+	private int nodeAmount;
+	private int[] children, parents, depths, firstBodies, nextBodies;
+	private double[] centerX, centerY, halfSizes, masses, massX, massY;
+	private double[] bodyX, bodyY, bodyMass;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new empty tree
+	 */
+	public BarnesHutTree()
+	{
+		this.nodeAmount = 0;
+		allocateNodes(64);
+		this.nextBodies = new int[0];
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return How many nodes there are in the tree
+	 */
+	public int getNodeAmount()
+	{
+		return this.nodeAmount;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Rebuilds the tree from the given points. The arrays are referenced until the next 
+	 * build.
+	 * @param x The x-coordinates of the points
+	 * @param y The y-coordinates of the points
+	 * @param mass The masses of the points. Points with zero mass are left out of the tree.
+	 * @param size How many points there are in the arrays
+	 */
+	public void build(double[] x, double[] y, double[] mass, int size)
+	{
+		this.bodyX = x;
+		this.bodyY = y;
+		this.bodyMass = mass;
+		this.nodeAmount = 0;
+		
+		if (this.nextBodies.length < size)
+			this.nextBodies = new int[Math.max(size, this.nextBodies.length * 2)];
+		
+		// Finds the bounds of the points
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < size; i++)
+		{
+			if (mass[i] == 0)
+				continue;
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		
+		if (minX > maxX)
+			return;
+		
+		double halfSize = Math.max(maxX - minX, maxY - minY) / 2 + 1;
+		createNode(-1, (minX + maxX) / 2, (minY + maxY) / 2, halfSize);
+		
+		for (int i = 0; i < size; i++)
+		{
+			if (mass[i] != 0)
+				insert(i);
+		}
+		
+		// Children are always created after their parents so going through the nodes 
+		// backwards accumulates the masses from the leaves to the root
+		for (int node = this.nodeAmount - 1; node >= 0; node--)
+		{
+			for (int body = this.firstBodies[node]; body >= 0; body = this.nextBodies[body])
+			{
+				this.masses[node] += mass[body];
+				this.massX[node] += mass[body] * x[body];
+				this.massY[node] += mass[body] * y[body];
+			}
+			
+			int parent = this.parents[node];
+			if (parent >= 0)
+			{
+				this.masses[parent] += this.masses[node];
+				this.massX[parent] += this.massX[node];
+				this.massY[parent] += this.massY[node];
+			}
+		}
+	}
+	
+	/**
+	 * Calculates the acceleration caused by all the points in the tree at the given point
+	 * @param index The index of the point the acceleration is calculated for. This point 
+	 * doesn't affect itself. Use -1 for positions that aren't in the tree.
+	 * @param x The x-coordinate of the point
+	 * @param y The y-coordinate of the point
+	 * @param strength The gravitational constant (pxl^3 / (kg * step^2))
+	 * @param softeningSquared The squared softening length that keeps the acceleration 
+	 * finite when points are close to each other (pxl^2)
+	 * @param theta The opening angle. Nodes whose size / distance is smaller than this are 
+	 * approximated as a single point.
+	 * @param stack A work array used for the traversal. Should be at least 
+	 * 3 * maximum depth + 4 long.
+	 * @param result An array where the acceleration (x, y) is written to
+	 */
+	public void accelerationAt(int index, double x, double y, double strength, 
+			double softeningSquared, double theta, int[] stack, double[] result)
+	{
+		double ax = 0, ay = 0;
+		double thetaSquared = theta * theta;
+		
+		if (this.nodeAmount > 0)
+		{
+			int top = 0;
+			stack[top++] = 0;
+			
+			while (top > 0)
+			{
+				int node = stack[--top];
+				if (this.masses[node] == 0)
+					continue;
+				
+				// Leaves go through their points one by one
+				if (this.children[node * 4] < 0)
+				{
+					for (int body = this.firstBodies[node]; body >= 0;
+							body = this.nextBodies[body])
+					{
+						if (body == index)
+							continue;
+						
+						double dx = this.bodyX[body] - x;
+						double dy = this.bodyY[body] - y;
+						double d2 = dx * dx + dy * dy + softeningSquared;
+						double f = strength * this.bodyMass[body] / (d2 * Math.sqrt(d2));
+						ax += f * dx;
+						ay += f * dy;
+					}
+					continue;
+				}
+				
+				double comX = this.massX[node] / this.masses[node];
+				double comY = this.massY[node] / this.masses[node];
+				double dx = comX - x;
+				double dy = comY - y;
+				double distanceSquared = dx * dx + dy * dy;
+				double size = this.halfSizes[node] * 2;
+				
+				// (s / d)^2 < theta^2 -> far enough to be approximated
+				if (size * size < thetaSquared * distanceSquared)
+				{
+					double d2 = distanceSquared + softeningSquared;
+					double f = strength * this.masses[node] / (d2 * Math.sqrt(d2));
+					ax += f * dx;
+					ay += f * dy;
+				}
+				else
+				{
+					for (int quadrant = 0; quadrant < 4; quadrant++)
+					{
+						int child = this.children[node * 4 + quadrant];
+						if (child >= 0)
+							stack[top++] = child;
+					}
+				}
+			}
+		}
+		
+		result[0] = ax;
+		result[1] = ay;
+	}
+	
+	/**
+	 * @return The length of the work array required by 
+	 * {@link #accelerationAt(int, double, double, double, double, double, int[], double[])}
+	 */
+	public static int getRequiredStackSize()
+	{
+		return 3 * MAX_DEPTH + 4;
+	}
+	
+	private void insert(int body)
+	{
+		int node = 0;
+		double x = this.bodyX[body], y = this.bodyY[body];
+		
+		while (true)
+		{
+			// Internal nodes pass the point to the correct child
+			if (this.children[node * 4] >= 0)
+			{
+				node = getChild(node, x, y);
+				continue;
+			}
+			
+			// Empty leaves and leaves at the maximum depth accept the point
+			int existing = this.firstBodies[node];
+			if (existing < 0 || this.depths[node] >= MAX_DEPTH)
+			{
+				this.nextBodies[body] = existing;
+				this.firstBodies[node] = body;
+				return;
+			}
+			
+			// Full leaves are split and their point is moved to a child
+			split(node);
+			this.firstBodies[node] = -1;
+			int existingChild = getChild(node, this.bodyX[existing], this.bodyY[existing]);
+			this.nextBodies[existing] = -1;
+			this.firstBodies[existingChild] = existing;
+		}
+	}
+	
+	private void split(int node)
+	{
+		double quarter = this.halfSizes[node] / 2;
+		double cx = this.centerX[node], cy = this.centerY[node];
+		
+		// Quadrants: 0 = -x -y, 1 = +x -y, 2 = -x +y, 3 = +x +y
+		int first = createNode(node, cx - quarter, cy - quarter, quarter);
+		createNode(node, cx + quarter, cy - quarter, quarter);
+		createNode(node, cx - quarter, cy + quarter, quarter);
+		createNode(node, cx + quarter, cy + quarter, quarter);
+		
+		for (int quadrant = 0; quadrant < 4; quadrant++)
+		{
+			this.children[node * 4 + quadrant] = first + quadrant;
+		}
+	}
+	
+	private int getChild(int node, double x, double y)
+	{
+		int quadrant = (x >= this.centerX[node] ? 1 : 0) + (y >= this.centerY[node] ? 2 : 0);
+		return this.children[node * 4 + quadrant];
+	}
+	
+	private int createNode(int parent, double x, double y, double halfSize)
+	{
+		if (this.nodeAmount == this.parents.length)
+			allocateNodes(this.parents.length * 2);
+		
+		int node = this.nodeAmount++;
+		this.parents[node] = parent;
+		this.depths[node] = parent < 0 ? 0 : this.depths[parent] + 1;
+		this.centerX[node] = x;
+		this.centerY[node] = y;
+		this.halfSizes[node] = halfSize;
+		this.masses[node] = 0;
+		this.massX[node] = 0;
+		this.massY[node] = 0;
+		this.firstBodies[node] = -1;
+		for (int quadrant = 0; quadrant < 4; quadrant++)
+		{
+			this.children[node * 4 + quadrant] = -1;
+		}
+		
+		return node;
+	}
+	
+	private void allocateNodes(int capacity)
+	{
+		int old = this.parents == null ? 0 : this.parents.length;
+		
+		this.children = grow(this.children, capacity * 4, old * 4);
+		this.parents = grow(this.parents, capacity, old);
+		this.depths = grow(this.depths, capacity, old);
+		this.firstBodies = grow(this.firstBodies, capacity, old);
+		this.centerX = grow(this.centerX, capacity, old);
+		this.centerY = grow(this.centerY, capacity, old);
+		this.halfSizes = grow(this.halfSizes, capacity, old);
+		this.masses = grow(this.masses, capacity, old);
+		this.massX = grow(this.massX, capacity, old);
+		this.massY = grow(this.massY, capacity, old);
+	}
+	
+	private static int[] grow(int[] array, int capacity, int used)
+	{
+		int[] copy = new int[capacity];
+		if (array != null)
+			System.arraycopy(array, 0, copy, 0, used);
+		return copy;
+	}
+	
+	private static double[] grow(double[] array, int capacity, int used)
+	{
+		double[] copy = new double[capacity];
+		if (array != null)
+			System.arraycopy(array, 0, copy, 0, used);
+		return copy;
+	}
+}
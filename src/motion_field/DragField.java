@@ -0,0 +1,105 @@
+package motion_field;
+
+import genesis_util.Vector3D;
+import motion_util.Material;
+import motion_world.BodyBuffer;
+
+/**
+ * DragField slows down objects moving through a fluid. The drag has a linear component 
+ * (F = -k1 * v) and a quadratic component (F = -k2 * rho * |v| * v), where v is the 
+ * object's velocity relative to the fluid and rho is the density of the fluid material.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class DragField extends ForceField
+{
+	// ATTRIBUTES	-----------------------
+	
+	private double linearCoefficient, quadraticCoefficient, fluidDensity, fluidVelocityX, 
+			fluidVelocityY;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new drag field for still air
+	 * @param linearCoefficient The linear drag coefficient (kg / step)
+	 * @param quadraticCoefficient The quadratic drag coefficient (pxl^2, the drag area of 
+	 * the objects)
+	 */
+	public DragField(double linearCoefficient, double quadraticCoefficient)
+	{
+		this(linearCoefficient, quadraticCoefficient, Material.AIR, Vector3D.zeroVector(), 
+				ALL_LAYERS);
+	}
+	
+	/**
+	 * Creates a new drag field
+	 * @param linearCoefficient The linear drag coefficient (kg / step)
+	 * @param quadraticCoefficient The quadratic drag coefficient (pxl^2, the drag area of 
+	 * the objects)
+	 * @param fluid The material of the fluid the objects move in
+	 * @param fluidVelocity The velocity of the fluid (pxl / step)
+	 * @param layerMask The layers affected by the field
+	 */
+	public DragField(double linearCoefficient, double quadraticCoefficient, Material fluid, 
+			Vector3D fluidVelocity, int layerMask)
+	{
+		super(layerMask);
+		
+		this.linearCoefficient = linearCoefficient;
+		this.quadraticCoefficient = quadraticCoefficient;
+		this.fluidDensity = fluid.getDensity();
+		setFluidVelocity(fluidVelocity);
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------
+	
+	@Override
+	public void apply(BodyBuffer bodies, double duration)
+	{
+		int mask = getLayerMask();
+		int[] layers = bodies.getLayers();
+		double[] vx = bodies.getVelocityX();
+		double[] vy = bodies.getVelocityY();
+		double[] fx = bodies.getForceX();
+		double[] fy = bodies.getForceY();
+		double k1 = this.linearCoefficient;
+		double k2 = this.quadraticCoefficient * this.fluidDensity;
+		
+		for (int i = 0; i < bodies.getSize(); i++)
+		{
+			// The velocity relative to the fluid
+			double rx = this.fluidVelocityX - vx[i];
+			double ry = this.fluidVelocityY - vy[i];
+			
+			// F = (k1 + k2 * |v|) * v
+			double k = (layers[i] & mask) == 0 ? 0 : k1 + k2 * Math.sqrt(rx * rx + ry * ry);
+			fx[i] += k * rx;
+			fy[i] += k * ry;
+		}
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The velocity of the fluid (pxl / step)
+	 */
+	public Vector3D getFluidVelocity()
+	{
+		return new Vector3D(this.fluidVelocityX, this.fluidVelocityY);
+	}
+	
+	/**
+	 * Changes the velocity of the fluid
+	 * @param fluidVelocity The new velocity of the fluid (pxl / step)
+	 */
+	public void setFluidVelocity(Vector3D fluidVelocity)
+	{
+		this.fluidVelocityX = fluidVelocity.getFirst();
+		this.fluidVelocityY = fluidVelocity.getSecond();
+	}
+}
@@ -0,0 +1,794 @@
+package motion_field;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import genesis_util.Vector3D;
+import motion_collision.Collider;
+import motion_collision.PolygonShape;
+import motion_movement.Movable;
+import motion_movement.ObjectRotator;
+import motion_movement.Rotateable;
+import motion_util.Material;
+import motion_util.SpatialGrid;
+import motion_world.BodyBuffer;
+
+/**
+ * FluidField makes the objects float in the fluid regions of the world. The regions are 
+ * axis-aligned boxes or convex polygons filled with the field's fluid material. The part 
+ * of each object that is inside the regions is found by clipping the object's shape 
+ * against the regions, and the submerged area pushes the object against the gravity 
+ * (F = -rho * A * g) at the centroid of the submerged part. The submerged part also slows 
+ * down the object's movement and rotation. Objects that have a collider registered to the 
+ * field use the collider's shape, while the other objects are treated as circles with 
+ * their collision radius.
+ * <p>
+ * The objects near the regions are found through a spatial grid and the submerged areas 
+ * are cached until the object moves or the regions change, so objects floating still in 
+ * a large flooded area are cheap.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class FluidField extends ForceField
+{
+	// ATTRIBUTES	-----------------------
+	
+	// Circles are clipped as regular polygons that have the same area as the circle
+	private static final int CIRCLE_VERTICES = 16;
+	private static final double[] CIRCLE_X = new double[CIRCLE_VERTICES];
+	private static final double[] CIRCLE_Y = new double[CIRCLE_VERTICES];
+	private static final double MIN_CELL_SIZE = 32;
+	
+	private double fluidDensity, gx, gy, linearDrag, angularDrag, fluidVelocityX, 
+			fluidVelocityY;
+	
+	// The regions are stored as polygons with the vertices of all the regions in the 
+	// same arrays. Region i uses the vertices from regionStarts[i] to regionStarts[i + 1].
+	private int regionAmount, regionVersion, maxRegionVertices;
+	private int[] regionStarts;
+	private double[] regionVertexX, regionVertexY, regionMinX, regionMinY, regionMaxX, 
+			regionMaxY;
+	private boolean[] regionIsBox;
+	
+	// The colliders are stored by the stable ids of their objects
+	private List<Collider> pendingColliders;
+	private Collider[] colliders;
+	
+	// The cached submerged parts of the objects, by id
+	private int[] cachedRegionVersion, cachedColliderVersion;
+	private double[] cachedX, cachedY, cachedRadius, submergedArea, submergedX, 
+			submergedY, totalArea;
+	
+	private final SpatialGrid grid;
+	private final IntConsumer collector;
+	private int[] candidates, candidateStamps;
+	private int candidateAmount, stamp;
+	private double[] clipX, clipY, clipBufferX, clipBufferY;
+	private final double[] subjectX, subjectY;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	static
+	{
+		// A regular n-gon with the circumradius r has the area n / 2 * r^2 * sin(2 * pi / n)
+		double scale = Math.sqrt(2 * Math.PI / (CIRCLE_VERTICES * 
+				Math.sin(2 * Math.PI / CIRCLE_VERTICES)));
+		for (int i = 0; i < CIRCLE_VERTICES; i++)
+		{
+			double angle = 2 * Math.PI * i / CIRCLE_VERTICES;
+			CIRCLE_X[i] = Math.cos(angle) * scale;
+			CIRCLE_Y[i] = Math.sin(angle) * scale;
+		}
+	}
+	
+	/**
+	 * Creates a new fluid field without any regions or drag
+	 * @param fluid The material the regions are filled with
+	 * @param gravity The gravitational acceleration affecting the objects (pxl / step^2)
+	 */
+	public FluidField(Material fluid, Vector3D gravity)
+	{
+		this(fluid, gravity, 0, 0, ALL_LAYERS);
+	}
+	
+	/**
+	 * Creates a new fluid field without any regions
+	 * @param fluid The material the regions are filled with
+	 * @param gravity The gravitational acceleration affecting the objects (pxl / step^2)
+	 * @param linearDrag How much each submerged area unit slows down the objects 
+	 * (kg / pxl^2 / step)
+	 * @param angularDrag How large a part of the rotation a fully submerged object loses 
+	 * each step
+	 * @param layerMask The layers affected by the field
+	 */
+	public FluidField(Material fluid, Vector3D gravity, double linearDrag, 
+			double angularDrag, int layerMask)
+	{
+		super(layerMask);
+		
+		this.fluidDensity = fluid.getDensity();
+		setGravity(gravity);
+		this.linearDrag = linearDrag;
+		this.angularDrag = angularDrag;
+		
+		this.regionAmount = 0;
+		this.regionVersion = 1;
+		this.maxRegionVertices = 0;
+		this.regionStarts = new int[9];
+		this.regionVertexX = new double[32];
+		this.regionVertexY = new double[32];
+		this.regionMinX = new double[8];
+		this.regionMinY = new double[8];
+		this.regionMaxX = new double[8];
+		this.regionMaxY = new double[8];
+		this.regionIsBox = new boolean[8];
+		
+		this.pendingColliders = new ArrayList<>();
+		this.colliders = new Collider[0];
+		this.cachedRegionVersion = new int[0];
+		this.cachedColliderVersion = new int[0];
+		this.cachedX = new double[0];
+		this.cachedY = new double[0];
+		this.cachedRadius = new double[0];
+		this.submergedArea = new double[0];
+		this.submergedX = new double[0];
+		this.submergedY = new double[0];
+		this.totalArea = new double[0];
+		
+		this.grid = new SpatialGrid();
+		this.collector = this::collect;
+		this.candidates = new int[16];
+		this.candidateStamps = new int[16];
+		this.candidateAmount = 0;
+		this.stamp = 0;
+		this.clipX = new double[32];
+		this.clipY = new double[32];
+		this.clipBufferX = new double[32];
+		this.clipBufferY = new double[32];
+		this.subjectX = new double[CIRCLE_VERTICES];
+		this.subjectY = new double[CIRCLE_VERTICES];
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------
+	
+	@Override
+	public void apply(BodyBuffer bodies, double duration)
+	{
+		int size = bodies.getSize();
+		if (this.regionAmount == 0 || size == 0)
+			return;
+		
+		resolveColliders(bodies);
+		findCandidates(bodies);
+		
+		double[] mass = bodies.getMass();
+		double[] vx = bodies.getVelocityX();
+		double[] vy = bodies.getVelocityY();
+		double[] fx = bodies.getForceX();
+		double[] fy = bodies.getForceY();
+		
+		for (int c = 0; c < this.candidateAmount; c++)
+		{
+			int i = this.candidates[c];
+			int id = bodies.getId(i);
+			ensureCapacity(id + 1);
+			Collider collider = getCollider(bodies, i, id);
+			updateSubmergedArea(bodies, i, id, collider);
+			
+			double area = this.submergedArea[id];
+			if (area <= 0)
+				continue;
+			double fraction = Math.min(1, area / this.totalArea[id]);
+			
+			// F = -rho * A * g
+			double buoyancyX = -this.fluidDensity * area * this.gx;
+			double buoyancyY = -this.fluidDensity * area * this.gy;
+			
+			// F = k * A * (v_fluid - v), limited so that the drag can't reverse the movement
+			double k = Math.min(this.linearDrag * area, mass[i] / duration);
+			fx[i] += buoyancyX + k * (this.fluidVelocityX - vx[i]);
+			fy[i] += buoyancyY + k * (this.fluidVelocityY - vy[i]);
+			
+			Movable body = bodies.getBody(i);
+			if (!(body instanceof Rotateable))
+				continue;
+			ObjectRotator rotator = ((Rotateable) body).getRotator();
+			if (rotator == null)
+				continue;
+			
+			// The pressure on a circle always points towards its center, so only polygons 
+			// are turned by the buoyancy
+			if (collider != null && collider.getShape() instanceof PolygonShape)
+			{
+				Vector3D force = new Vector3D(buoyancyX, buoyancyY);
+				rotator.applyMoment(rotator.toRelativeDirection(force), 
+						body.getTransformation().inverseTransform(new Vector3D(
+						this.submergedX[id], this.submergedY[id])));
+			}
+			if (this.angularDrag > 0 && rotator.getRotation() != 0)
+				rotator.diminishRotation(rotator.getRotation() * 
+						Math.min(1, this.angularDrag * fraction * duration));
+		}
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The density of the fluid in the regions
+	 */
+	public double getFluidDensity()
+	{
+		return this.fluidDensity;
+	}
+	
+	/**
+	 * Changes the fluid the regions are filled with
+	 * @param fluid The new material of the fluid
+	 */
+	public void setFluid(Material fluid)
+	{
+		this.fluidDensity = fluid.getDensity();
+	}
+	
+	/**
+	 * @return The gravitational acceleration the buoyancy works against (pxl / step^2)
+	 */
+	public Vector3D getGravity()
+	{
+		return new Vector3D(this.gx, this.gy);
+	}
+	
+	/**
+	 * Changes the gravitational acceleration the buoyancy works against
+	 * @param gravity The new gravitational acceleration (pxl / step^2)
+	 */
+	public void setGravity(Vector3D gravity)
+	{
+		this.gx = gravity.getFirst();
+		this.gy = gravity.getSecond();
+	}
+	
+	/**
+	 * Changes how much the fluid slows down the objects
+	 * @param linearDrag How much each submerged area unit slows down the objects 
+	 * (kg / pxl^2 / step)
+	 * @param angularDrag How large a part of the rotation a fully submerged object loses 
+	 * each step
+	 */
+	public void setDrag(double linearDrag, double angularDrag)
+	{
+		this.linearDrag = linearDrag;
+		this.angularDrag = angularDrag;
+	}
+	
+	/**
+	 * Changes the velocity of the fluid, making the submerged objects drift along
+	 * @param fluidVelocity The new velocity of the fluid (pxl / step)
+	 */
+	public void setFluidVelocity(Vector3D fluidVelocity)
+	{
+		this.fluidVelocityX = fluidVelocity.getFirst();
+		this.fluidVelocityY = fluidVelocity.getSecond();
+	}
+	
+	/**
+	 * @return How many regions the field has
+	 */
+	public int getRegionAmount()
+	{
+		return this.regionAmount;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Adds an axis-aligned rectangle filled with the fluid. The submerged areas of the 
+	 * regions are summed, so the region must not overlap the other regions. It may share 
+	 * edges with them though.
+	 * @param topLeft The top left corner of the region
+	 * @param size The size of the region
+	 * @return The index of the new region
+	 */
+	public int addBox(Vector3D topLeft, Vector3D size)
+	{
+		double minX = topLeft.getFirst(), minY = topLeft.getSecond();
+		double maxX = minX + size.getFirst(), maxY = minY + size.getSecond();
+		if (maxX <= minX || maxY <= minY)
+			throw new IllegalArgumentException("The size of a fluid region must be positive");
+		
+		return addRegion(new double[] {minX, maxX, maxX, minX}, 
+				new double[] {minY, minY, maxY, maxY}, true);
+	}
+	
+	/**
+	 * Adds a convex polygon filled with the fluid. Concave areas can be filled with 
+	 * multiple regions that don't overlap each other. The submerged areas of the regions 
+	 * are summed, so the region must not overlap the other regions. It may share edges 
+	 * with them though.
+	 * @param vertices The vertices of the polygon in either order
+	 * @return The index of the new region
+	 */
+	public int addPolygon(Vector3D[] vertices)
+	{
+		int amount = vertices.length;
+		if (amount < 3)
+			throw new IllegalArgumentException("A fluid region needs at least 3 vertices");
+		
+		double[] x = new double[amount], y = new double[amount];
+		for (int i = 0; i < amount; i++)
+		{
+			x[i] = vertices[i].getFirst();
+			y[i] = vertices[i].getSecond();
+		}
+		
+		// The vertices are stored so that the inside of the region is on the left side of 
+		// each edge
+		double area = getSignedArea(x, y, amount);
+		if (area == 0)
+			throw new IllegalArgumentException("A fluid region must have an area");
+		if (area < 0)
+		{
+			for (int i = 0; i < amount / 2; i++)
+			{
+				double temp = x[i];
+				x[i] = x[amount - 1 - i];
+				x[amount - 1 - i] = temp;
+				temp = y[i];
+				y[i] = y[amount - 1 - i];
+				y[amount - 1 - i] = temp;
+			}
+		}
+		for (int i = 0; i < amount; i++)
+		{
+			int next = (i + 1) % amount, last = (i + 2) % amount;
+			if (cross(x[i], y[i], x[next], y[next], x[last], y[last]) < 0)
+				throw new IllegalArgumentException("Fluid regions must be convex");
+		}
+		
+		return addRegion(x, y, false);
+	}
+	
+	/**
+	 * Removes all the regions from the field
+	 */
+	public void clearRegions()
+	{
+		this.regionAmount = 0;
+		this.maxRegionVertices = 0;
+		this.regionVersion ++;
+	}
+	
+	/**
+	 * Makes the field use the shape of a collider for the collider's owner instead of 
+	 * treating the owner as a circle
+	 * @param collider The collider of an object affected by the field
+	 */
+	public void addCollider(Collider collider)
+	{
+		if (!this.pendingColliders.contains(collider))
+			this.pendingColliders.add(collider);
+	}
+	
+	/**
+	 * Makes the field treat the collider's owner as a circle again
+	 * @param collider The collider that is removed
+	 */
+	public void removeCollider(Collider collider)
+	{
+		this.pendingColliders.remove(collider);
+		for (int id = 0; id < this.colliders.length; id++)
+		{
+			if (this.colliders[id] == collider)
+			{
+				this.colliders[id] = null;
+				this.cachedRegionVersion[id] = 0;
+			}
+		}
+	}
+	
+	private int addRegion(double[] x, double[] y, boolean isBox)
+	{
+		if (overlapsRegion(x, y))
+			throw new IllegalArgumentException("Fluid regions must not overlap each other");
+		
+		int index = this.regionAmount;
+		int start = this.regionStarts[index];
+		int end = start + x.length;
+		
+		if (index + 1 == this.regionMinX.length)
+		{
+			int capacity = 2 * this.regionMinX.length;
+			this.regionStarts = Arrays.copyOf(this.regionStarts, capacity + 1);
+			this.regionMinX = Arrays.copyOf(this.regionMinX, capacity);
+			this.regionMinY = Arrays.copyOf(this.regionMinY, capacity);
+			this.regionMaxX = Arrays.copyOf(this.regionMaxX, capacity);
+			this.regionMaxY = Arrays.copyOf(this.regionMaxY, capacity);
+			this.regionIsBox = Arrays.copyOf(this.regionIsBox, capacity);
+		}
+		if (end > this.regionVertexX.length)
+		{
+			int capacity = Math.max(end, 2 * this.regionVertexX.length);
+			this.regionVertexX = Arrays.copyOf(this.regionVertexX, capacity);
+			this.regionVertexY = Arrays.copyOf(this.regionVertexY, capacity);
+		}
+		
+		double minX = x[0], minY = y[0], maxX = x[0], maxY = y[0];
+		for (int i = 0; i < x.length; i++)
+		{
+			this.regionVertexX[start + i] = x[i];
+			this.regionVertexY[start + i] = y[i];
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		
+		// The clipping buffers are sized by the largest region once they're used
+		this.maxRegionVertices = Math.max(this.maxRegionVertices, x.length);
+		
+		this.regionStarts[index + 1] = end;
+		this.regionMinX[index] = minX;
+		this.regionMinY[index] = minY;
+		this.regionMaxX[index] = maxX;
+		this.regionMaxY[index] = maxY;
+		this.regionIsBox[index] = isBox;
+		this.regionAmount ++;
+		this.regionVersion ++;
+		
+		return index;
+	}
+	
+	private void resolveColliders(BodyBuffer bodies)
+	{
+		if (this.pendingColliders.isEmpty())
+			return;
+		
+		// The colliders are connected to the objects once the objects are in the buffer
+		for (int c = this.pendingColliders.size() - 1; c >= 0; c--)
+		{
+			Collider collider = this.pendingColliders.get(c);
+			if (!(collider.getOwner() instanceof Movable))
+			{
+				this.pendingColliders.remove(c);
+				continue;
+			}
+			int index = bodies.indexOf((Movable) collider.getOwner());
+			if (index < 0)
+				continue;
+			
+			int id = bodies.getId(index);
+			ensureCapacity(id + 1);
+			this.colliders[id] = collider;
+			this.cachedRegionVersion[id] = 0;
+			this.pendingColliders.remove(c);
+		}
+	}
+	
+	private void findCandidates(BodyBuffer bodies)
+	{
+		int size = bodies.getSize();
+		double reach = bodies.getMaxRadius();
+		this.grid.build(bodies.getX(), bodies.getY(), size, 
+				Math.max(MIN_CELL_SIZE, 2 * reach));
+		
+		if (this.candidateStamps.length < size)
+		{
+			this.candidates = new int[Math.max(size, 2 * this.candidates.length)];
+			this.candidateStamps = new int[this.candidates.length];
+		}
+		// The stamps tell which objects were already found during this step
+		this.stamp ++;
+		if (this.stamp == Integer.MAX_VALUE)
+		{
+			Arrays.fill(this.candidateStamps, 0);
+			this.stamp = 1;
+		}
+		this.candidateAmount = 0;
+		
+		for (int r = 0; r < this.regionAmount; r++)
+		{
+			this.grid.forEachInArea(this.regionMinX[r] - reach, this.regionMinY[r] - reach, 
+					this.regionMaxX[r] + reach, this.regionMaxY[r] + reach, this.collector);
+		}
+		
+		// Only the dynamic objects on the field's layers are affected
+		int mask = getLayerMask();
+		int[] layers = bodies.getLayers();
+		double[] mass = bodies.getMass();
+		int kept = 0;
+		for (int c = 0; c < this.candidateAmount; c++)
+		{
+			int i = this.candidates[c];
+			if ((layers[i] & mask) != 0 && mass[i] > 0)
+				this.candidates[kept++] = i;
+		}
+		this.candidateAmount = kept;
+	}
+	
+	private void collect(int index)
+	{
+		if (this.candidateStamps[index] == this.stamp)
+			return;
+		this.candidateStamps[index] = this.stamp;
+		this.candidates[this.candidateAmount++] = index;
+	}
+	
+	private Collider getCollider(BodyBuffer bodies, int index, int id)
+	{
+		// The id may have been given to another object after the collider's owner was 
+		// removed
+		Collider collider = this.colliders[id];
+		if (collider != null && collider.getOwner() != bodies.getBody(index))
+		{
+			this.colliders[id] = null;
+			this.cachedRegionVersion[id] = 0;
+			return null;
+		}
+		return collider;
+	}
+	
+	private void updateSubmergedArea(BodyBuffer bodies, int index, int id, Collider collider)
+	{
+		// The cached area is valid until the object moves or the regions change
+		double x, y, radius;
+		double[] subjectX = this.subjectX, subjectY = this.subjectY;
+		int amount = CIRCLE_VERTICES;
+		if (collider == null)
+		{
+			x = bodies.getX()[index];
+			y = bodies.getY()[index];
+			radius = bodies.getRadius()[index];
+			if (this.cachedRegionVersion[id] == this.regionVersion && 
+					this.cachedX[id] == x && this.cachedY[id] == y && 
+					this.cachedRadius[id] == radius)
+				return;
+			
+			this.cachedX[id] = x;
+			this.cachedY[id] = y;
+			this.cachedRadius[id] = radius;
+			setCircleSubject(x, y, radius);
+			this.totalArea[id] = Math.PI * radius * radius;
+		}
+		else
+		{
+			int version = collider.getVersion();
+			if (this.cachedRegionVersion[id] == this.regionVersion && 
+					this.cachedColliderVersion[id] == version)
+				return;
+			
+			this.cachedColliderVersion[id] = version;
+			x = collider.getX();
+			y = collider.getY();
+			radius = collider.getRadius();
+			if (collider.getVertexX().length == 0)
+			{
+				setCircleSubject(x, y, radius);
+				this.totalArea[id] = Math.PI * radius * radius;
+			}
+			else
+			{
+				subjectX = collider.getVertexX();
+				subjectY = collider.getVertexY();
+				amount = subjectX.length;
+				this.totalArea[id] = Math.abs(getSignedArea(subjectX, subjectY, amount));
+			}
+		}
+		this.cachedRegionVersion[id] = this.regionVersion;
+		
+		// Each clipping edge adds at most one vertex
+		int clipCapacity = amount + this.maxRegionVertices;
+		if (this.clipX.length < clipCapacity)
+		{
+			this.clipX = new double[clipCapacity];
+			this.clipY = new double[clipCapacity];
+			this.clipBufferX = new double[clipCapacity];
+			this.clipBufferY = new double[clipCapacity];
+		}
+		
+		// The regions don't overlap, so the submerged parts can be summed
+		double area = 0, momentX = 0, momentY = 0;
+		for (int r = 0; r < this.regionAmount; r++)
+		{
+			if (x + radius < this.regionMinX[r] || x - radius > this.regionMaxX[r] || 
+					y + radius < this.regionMinY[r] || y - radius > this.regionMaxY[r])
+				continue;
+			
+			int clippedAmount;
+			if (this.regionIsBox[r] && x - radius >= this.regionMinX[r] && 
+					x + radius <= this.regionMaxX[r] && y - radius >= this.regionMinY[r] && 
+					y + radius <= this.regionMaxY[r])
+			{
+				// Objects deep inside a box are fully submerged without clipping
+				System.arraycopy(subjectX, 0, this.clipX, 0, amount);
+				System.arraycopy(subjectY, 0, this.clipY, 0, amount);
+				clippedAmount = amount;
+			}
+			else
+				clippedAmount = clip(subjectX, subjectY, amount, r);
+			
+			// A = sum(cross) / 2, C = sum((p0 + p1) * cross) / (6 * A)
+			double partArea = 0, partX = 0, partY = 0;
+			for (int i = 0; i < clippedAmount; i++)
+			{
+				int next = i + 1 == clippedAmount ? 0 : i + 1;
+				double x0 = this.clipX[i], y0 = this.clipY[i];
+				double x1 = this.clipX[next], y1 = this.clipY[next];
+				double cross = x0 * y1 - x1 * y0;
+				partArea += cross;
+				partX += (x0 + x1) * cross;
+				partY += (y0 + y1) * cross;
+			}
+			if (partArea == 0)
+				continue;
+			area += partArea / 2;
+			momentX += partX / 6;
+			momentY += partY / 6;
+		}
+		
+		// The signs cancel out with clockwise polygons
+		this.submergedArea[id] = Math.abs(area);
+		if (area != 0)
+		{
+			this.submergedX[id] = momentX / area;
+			this.submergedY[id] = momentY / area;
+		}
+	}
+	
+	private void setCircleSubject(double x, double y, double radius)
+	{
+		for (int i = 0; i < CIRCLE_VERTICES; i++)
+		{
+			this.subjectX[i] = x + CIRCLE_X[i] * radius;
+			this.subjectY[i] = y + CIRCLE_Y[i] * radius;
+		}
+	}
+	
+	private int clip(double[] subjectX, double[] subjectY, int subjectAmount, int region)
+	{
+		// Sutherland-Hodgman: the polygon is clipped against each edge of the region in turn
+		System.arraycopy(subjectX, 0, this.clipX, 0, subjectAmount);
+		System.arraycopy(subjectY, 0, this.clipY, 0, subjectAmount);
+		int amount = subjectAmount;
+		
+		int start = this.regionStarts[region], end = this.regionStarts[region + 1];
+		for (int e = start; e < end && amount > 0; e++)
+		{
+			int nextVertex = e + 1 == end ? start : e + 1;
+			double ax = this.regionVertexX[e], ay = this.regionVertexY[e];
+			double bx = this.regionVertexX[nextVertex], by = this.regionVertexY[nextVertex];
+			
+			double[] inputX = this.clipX, inputY = this.clipY;
+			double[] outputX = this.clipBufferX, outputY = this.clipBufferY;
+			int outputAmount = 0;
+			
+			double previousX = inputX[amount - 1], previousY = inputY[amount - 1];
+			double previousSide = cross(ax, ay, bx, by, previousX, previousY);
+			for (int i = 0; i < amount; i++)
+			{
+				double currentX = inputX[i], currentY = inputY[i];
+				double currentSide = cross(ax, ay, bx, by, currentX, currentY);
+				
+				// The edge is crossed where the side changes sign
+				if ((currentSide >= 0) != (previousSide >= 0))
+				{
+					double t = previousSide / (previousSide - currentSide);
+					outputX[outputAmount] = previousX + t * (currentX - previousX);
+					outputY[outputAmount] = previousY + t * (currentY - previousY);
+					outputAmount ++;
+				}
+				if (currentSide >= 0)
+				{
+					outputX[outputAmount] = currentX;
+					outputY[outputAmount] = currentY;
+					outputAmount ++;
+				}
+				
+				previousX = currentX;
+				previousY = currentY;
+				previousSide = currentSide;
+			}
+			
+			this.clipX = outputX;
+			this.clipY = outputY;
+			this.clipBufferX = inputX;
+			this.clipBufferY = inputY;
+			amount = outputAmount;
+		}
+		
+		return amount;
+	}
+	
+	private void ensureCapacity(int idAmount)
+	{
+		if (this.colliders.length >= idAmount)
+			return;
+		
+		int capacity = Math.max(idAmount, 2 * this.colliders.length);
+		this.colliders = Arrays.copyOf(this.colliders, capacity);
+		this.cachedRegionVersion = Arrays.copyOf(this.cachedRegionVersion, capacity);
+		this.cachedColliderVersion = Arrays.copyOf(this.cachedColliderVersion, capacity);
+		this.cachedX = Arrays.copyOf(this.cachedX, capacity);
+		this.cachedY = Arrays.copyOf(this.cachedY, capacity);
+		this.cachedRadius = Arrays.copyOf(this.cachedRadius, capacity);
+		this.submergedArea = Arrays.copyOf(this.submergedArea, capacity);
+		this.submergedX = Arrays.copyOf(this.submergedX, capacity);
+		this.submergedY = Arrays.copyOf(this.submergedY, capacity);
+		this.totalArea = Arrays.copyOf(this.totalArea, capacity);
+	}
+	
+	private boolean overlapsRegion(double[] x, double[] y)
+	{
+		double minX = x[0], minY = y[0], maxX = x[0], maxY = y[0];
+		for (int i = 1; i < x.length; i++)
+		{
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		
+		for (int r = 0; r < this.regionAmount; r++)
+		{
+			// Regions that only touch each other don't overlap
+			if (this.regionMinX[r] >= maxX || this.regionMaxX[r] <= minX || 
+					this.regionMinY[r] >= maxY || this.regionMaxY[r] <= minY)
+				continue;
+			
+			// Convex regions overlap unless an edge of either one separates them
+			int start = this.regionStarts[r], end = this.regionStarts[r + 1];
+			if (!hasSeparatingEdge(x, y, 0, x.length, this.regionVertexX, 
+					this.regionVertexY, start, end) && 
+					!hasSeparatingEdge(this.regionVertexX, this.regionVertexY, start, end, 
+					x, y, 0, x.length))
+				return true;
+		}
+		
+		return false;
+	}
+	
+	private static boolean hasSeparatingEdge(double[] edgeX, double[] edgeY, int edgeStart, 
+			int edgeEnd, double[] x, double[] y, int start, int end)
+	{
+		// The inside of a region is on the left side of its edges, so an edge separates 
+		// the regions if none of the other region's vertices are on its left side
+		for (int i = edgeStart; i < edgeEnd; i++)
+		{
+			int next = i + 1 == edgeEnd ? edgeStart : i + 1;
+			boolean separates = true;
+			for (int j = start; j < end && separates; j++)
+			{
+				if (cross(edgeX[i], edgeY[i], edgeX[next], edgeY[next], x[j], y[j]) > 0)
+					separates = false;
+			}
+			if (separates)
+				return true;
+		}
+		
+		return false;
+	}
+	
+	private static double getSignedArea(double[] x, double[] y, int amount)
+	{
+		double area = 0;
+		for (int i = 0; i < amount; i++)
+		{
+			int next = i + 1 == amount ? 0 : i + 1;
+			area += x[i] * y[next] - x[next] * y[i];
+		}
+		return area / 2;
+	}
+	
+	// The side of the point (x, y) relative to the line from a to b. Positive on the left.
+	private static double cross(double ax, double ay, double bx, double by, double x, 
+			double y)
+	{
+		return (bx - ax) * (y - ay) - (by - ay) * (x - ax);
+	}
+}
@@ -0,0 +1,66 @@
+package motion_field;
+
+import motion_world.BodyBuffer;
+
+/**
+ * ForceFields are world-level effects that apply a force to every object they affect. 
+ * The forces are calculated in a single pass over the primitive state of all the objects 
+ * in a body buffer. Each field has a layer mask that determines which objects it affects.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public abstract class ForceField
+{
+	// ATTRIBUTES	-----------------------
+	
+	/**
+	 * The layer mask that affects all objects
+	 */
+	public static final int ALL_LAYERS = -1;
+	
+	private int layerMask;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new force field
+	 * @param layerMask The layers affected by the field. An object is affected if it shares 
+	 * at least one layer bit with the mask.
+	 */
+	public ForceField(int layerMask)
+	{
+		this.layerMask = layerMask;
+	}
+	
+	
+	// ABSTRACT METHODS	-------------------
+	
+	/**
+	 * Adds the field's forces to the force accumulators of the buffer
+	 * @param bodies The buffer that contains the gathered state of the objects
+	 * @param duration The duration of the step
+	 */
+	public abstract void apply(BodyBuffer bodies, double duration);
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The layers affected by the field
+	 */
+	public int getLayerMask()
+	{
+		return this.layerMask;
+	}
+	
+	/**
+	 * Changes the layers affected by the field
+	 * @param layerMask The new layer mask of the field
+	 */
+	public void setLayerMask(int layerMask)
+	{
+		this.layerMask = layerMask;
+	}
+}
@@ -0,0 +1,152 @@
+package motion_field;
+
+import java.util.stream.IntStream;
+
+import motion_world.BodyBuffer;
+
+/**
+ * NBodyField makes all the affected objects attract each other (gravity) or, with a 
+ * negative strength, repel each other (Coulomb force between equally charged objects whose 
+ * charge is proportional to their mass). The field rebuilds a Barnes-Hut quadtree over the 
+ * objects each step, which makes the calculation O(n log n) instead of O(n^2). The tree can 
+ * be traversed in parallel.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class NBodyField extends ForceField
+{
+	// ATTRIBUTES	-----------------------
+	
+	private static final int PARALLEL_THRESHOLD = 2048;
+	
+	private final BarnesHutTree tree;
+	private final ThreadLocal<int[]> stacks;
+	private final ThreadLocal<double[]> results;
+	private double strength, softeningSquared, theta;
+	private boolean parallel;
+	private double[] sourceMass;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new n-body field that affects all layers
+	 * @param strength The gravitational constant (pxl^3 / (kg * step^2)). Negative values 
+	 * make the objects repel each other.
+	 * @param softening The softening length that keeps the force finite when two objects 
+	 * are very close to each other (pxl)
+	 * @param theta The opening angle. Larger values are faster but less accurate. 0.5 is a 
+	 * good default.
+	 */
+	public NBodyField(double strength, double softening, double theta)
+	{
+		this(strength, softening, theta, true, ALL_LAYERS);
+	}
+	
+	/**
+	 * Creates a new n-body field
+	 * @param strength The gravitational constant (pxl^3 / (kg * step^2)). Negative values 
+	 * make the objects repel each other.
+	 * @param softening The softening length that keeps the force finite when two objects 
+	 * are very close to each other (pxl)
+	 * @param theta The opening angle. Larger values are faster but less accurate.
+	 * @param parallel Should the tree be traversed in multiple threads when there are many 
+	 * objects
+	 * @param layerMask The layers affected by the field. Only objects on these layers 
+	 * attract and are attracted.
+	 */
+	public NBodyField(double strength, double softening, double theta, boolean parallel, 
+			int layerMask)
+	{
+		super(layerMask);
+		
+		this.tree = new BarnesHutTree();
+		this.stacks = ThreadLocal.withInitial(
+				() -> new int[BarnesHutTree.getRequiredStackSize()]);
+		this.results = ThreadLocal.withInitial(() -> new double[2]);
+		this.strength = strength;
+		this.softeningSquared = softening * softening;
+		this.theta = theta;
+		this.parallel = parallel;
+		this.sourceMass = new double[0];
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------
+	
+	@Override
+	public void apply(BodyBuffer bodies, double duration)
+	{
+		int size = bodies.getSize();
+		int mask = getLayerMask();
+		int[] layers = bodies.getLayers();
+		double[] mass = bodies.getMass();
+		
+		// Only the objects on the affected layers are used as sources
+		if (this.sourceMass.length < size)
+			this.sourceMass = new double[Math.max(size, this.sourceMass.length * 2)];
+		for (int i = 0; i < size; i++)
+		{
+			this.sourceMass[i] = (layers[i] & mask) == 0 ? 0 : mass[i];
+		}
+		
+		this.tree.build(bodies.getX(), bodies.getY(), this.sourceMass, size);
+		
+		if (this.parallel && size >= PARALLEL_THRESHOLD)
+			IntStream.range(0, size).parallel().forEach(i -> applyTo(bodies, i));
+		else
+		{
+			for (int i = 0; i < size; i++)
+			{
+				applyTo(bodies, i);
+			}
+		}
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The opening angle used when traversing the tree
+	 */
+	public double getTheta()
+	{
+		return this.theta;
+	}
+	
+	/**
+	 * Changes the opening angle used when traversing the tree
+	 * @param theta The new opening angle. 0 calculates every pair exactly.
+	 */
+	public void setTheta(double theta)
+	{
+		this.theta = theta;
+	}
+	
+	/**
+	 * @return The gravitational constant of the field
+	 */
+	public double getStrength()
+	{
+		return this.strength;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	private void applyTo(BodyBuffer bodies, int index)
+	{
+		if (this.sourceMass[index] == 0)
+			return;
+		
+		double[] result = this.results.get();
+		this.tree.accelerationAt(index, bodies.getX()[index], bodies.getY()[index], 
+				this.strength, this.softeningSquared, this.theta, this.stacks.get(), result);
+		
+		// F = m * a. Each index is only written by a single thread.
+		double m = bodies.getMass()[index];
+		bodies.getForceX()[index] += m * result[0];
+		bodies.getForceY()[index] += m * result[1];
+	}
+}
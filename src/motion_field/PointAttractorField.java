@@ -0,0 +1,122 @@
+package motion_field;
+
+import genesis_util.Vector3D;
+import motion_world.BodyBuffer;
+
+/**
+ * PointAttractorField pulls the objects towards a single point. The acceleration is 
+ * inversely proportional to the squared distance from the point. A negative strength 
+ * makes the field a repulsor that pushes the objects away.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class PointAttractorField extends ForceField
+{
+	// ATTRIBUTES	-----------------------
+	
+	private double x, y, strength, minDistanceSquared, maxDistanceSquared;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new attractor
+	 * @param position The position of the attractor
+	 * @param strength The strength of the attractor (pxl^3 / step^2). Negative values make 
+	 * the field repel the objects.
+	 * @param minDistance The distance under which the acceleration doesn't grow anymore. 
+	 * Keeps the force finite near the point.
+	 * @param maxDistance The distance after which the objects are not affected
+	 * @param layerMask The layers affected by the field
+	 */
+	public PointAttractorField(Vector3D position, double strength, double minDistance, 
+			double maxDistance, int layerMask)
+	{
+		super(layerMask);
+		
+		this.strength = strength;
+		this.minDistanceSquared = minDistance * minDistance;
+		this.maxDistanceSquared = maxDistance * maxDistance;
+		setPosition(position);
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------
+	
+	@Override
+	public void apply(BodyBuffer bodies, double duration)
+	{
+		int mask = getLayerMask();
+		int[] layers = bodies.getLayers();
+		double[] px = bodies.getX();
+		double[] py = bodies.getY();
+		double[] mass = bodies.getMass();
+		double[] fx = bodies.getForceX();
+		double[] fy = bodies.getForceY();
+		
+		for (int i = 0; i < bodies.getSize(); i++)
+		{
+			double dx = this.x - px[i];
+			double dy = this.y - py[i];
+			double d2 = dx * dx + dy * dy;
+			
+			if ((layers[i] & mask) == 0 || d2 > this.maxDistanceSquared || d2 == 0)
+				continue;
+			
+			// F = m * k / d^2 towards the point, (dx, dy) / d being the direction
+			double clamped = Math.max(d2, this.minDistanceSquared);
+			double f = mass[i] * this.strength / (clamped * Math.sqrt(d2));
+			fx[i] += f * dx;
+			fy[i] += f * dy;
+		}
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The position of the attractor
+	 */
+	public Vector3D getPosition()
+	{
+		return new Vector3D(this.x, this.y);
+	}
+	
+	/**
+	 * Moves the attractor
+	 * @param position The new position of the attractor
+	 */
+	public void setPosition(Vector3D position)
+	{
+		this.x = position.getFirst();
+		this.y = position.getSecond();
+	}
+	
+	/**
+	 * @return The strength of the attractor. Negative for repulsors.
+	 */
+	public double getStrength()
+	{
+		return this.strength;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Creates a field that pushes the objects away from the point
+	 * @param position The position of the repulsor
+	 * @param strength The strength of the repulsor (positive)
+	 * @param minDistance The distance under which the acceleration doesn't grow anymore
+	 * @param maxDistance The distance after which the objects are not affected
+	 * @param layerMask The layers affected by the field
+	 * @return A new repulsor field
+	 */
+	public static PointAttractorField createRepulsor(Vector3D position, double strength, 
+			double minDistance, double maxDistance, int layerMask)
+	{
+		return new PointAttractorField(position, -Math.abs(strength), minDistance, 
+				maxDistance, layerMask);
+	}
+}
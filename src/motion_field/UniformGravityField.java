@@ -0,0 +1,83 @@
+package motion_field;
+
+import genesis_util.Vector3D;
+import motion_world.BodyBuffer;
+
+/**
+ * UniformGravityField accelerates all the affected objects to the same direction. The 
+ * force is proportional to the object's mass (F = m * g).
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class UniformGravityField extends ForceField
+{
+	// ATTRIBUTES	-----------------------
+	
+	private double gx, gy;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new gravity field that affects all layers
+	 * @param gravity The gravitational acceleration (pxl / step^2)
+	 */
+	public UniformGravityField(Vector3D gravity)
+	{
+		this(gravity, ALL_LAYERS);
+	}
+	
+	/**
+	 * Creates a new gravity field
+	 * @param gravity The gravitational acceleration (pxl / step^2)
+	 * @param layerMask The layers affected by the field
+	 */
+	public UniformGravityField(Vector3D gravity, int layerMask)
+	{
+		super(layerMask);
+		setGravity(gravity);
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------
+	
+	@Override
+	public void apply(BodyBuffer bodies, double duration)
+	{
+		int mask = getLayerMask();
+		int[] layers = bodies.getLayers();
+		double[] mass = bodies.getMass();
+		double[] fx = bodies.getForceX();
+		double[] fy = bodies.getForceY();
+		
+		// F = m * g
+		for (int i = 0; i < bodies.getSize(); i++)
+		{
+			double m = (layers[i] & mask) == 0 ? 0 : mass[i];
+			fx[i] += m * this.gx;
+			fy[i] += m * this.gy;
+		}
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The gravitational acceleration of the field (pxl / step^2)
+	 */
+	public Vector3D getGravity()
+	{
+		return new Vector3D(this.gx, this.gy);
+	}
+	
+	/**
+	 * Changes the gravitational acceleration of the field
+	 * @param gravity The new gravitational acceleration (pxl / step^2)
+	 */
+	public void setGravity(Vector3D gravity)
+	{
+		this.gx = gravity.getFirst();
+		this.gy = gravity.getSecond();
+	}
+}
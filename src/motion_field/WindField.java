@@ -0,0 +1,37 @@
+package motion_field;
+
+import genesis_util.Vector3D;
+import motion_util.Material;
+
+/**
+ * WindField is a drag field where the air moves to a certain direction, pushing the 
+ * objects along.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class WindField extends DragField
+{
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new wind field that affects all layers
+	 * @param windVelocity The velocity of the wind (pxl / step)
+	 * @param dragArea The drag area of the affected objects (pxl^2)
+	 */
+	public WindField(Vector3D windVelocity, double dragArea)
+	{
+		this(windVelocity, dragArea, ALL_LAYERS);
+	}
+	
+	/**
+	 * Creates a new wind field
+	 * @param windVelocity The velocity of the wind (pxl / step)
+	 * @param dragArea The drag area of the affected objects (pxl^2)
+	 * @param layerMask The layers affected by the field
+	 */
+	public WindField(Vector3D windVelocity, double dragArea, int layerMask)
+	{
+		super(0, dragArea, Material.AIR, windVelocity, layerMask);
+	}
+}
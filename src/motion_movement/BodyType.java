@@ -0,0 +1,56 @@
+package motion_movement;
+
+/**
+ * BodyType determines how an object takes part in the physics. Only dynamic objects are 
+ * affected by forces and collisions. The other objects have an infinite mass.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public enum BodyType
+{
+	/**
+	 * The object never moves. Static objects are not integrated at all.
+	 */
+	STATIC, 
+	/**
+	 * The object is moved only by setting its velocity. Forces don't affect the object 
+	 * and it acts as if it had an infinite mass in collisions.
+	 */
+	KINEMATIC, 
+	/**
+	 * The object is moved by forces and collisions
+	 */
+	DYNAMIC;
+
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * @return Is the object affected by forces, moments and impulses
+	 */
+	public boolean isDynamic()
+	{
+		return this == DYNAMIC;
+	}
+	
+	/**
+	 * @return Does the object's velocity move it
+	 */
+	public boolean isMoving()
+	{
+		return this != STATIC;
+	}
+	
+	/**
+	 * Checks whether a collision between the two types of objects needs to be handled. 
+	 * Only collisions that involve a dynamic object can change anything.
+	 * @param first The type of the first object
+	 * @param second The type of the second object
+	 * @return Should a collision between the objects be handled
+	 */
+	public static boolean collide(BodyType first, BodyType second)
+	{
+		return first == DYNAMIC || second == DYNAMIC;
+	}
+}
@@ -0,0 +1,23 @@
+package motion_movement;
+
+import genesis_util.Vector3D;
+
+/**
+ * MovementSweepers move the objects through their steps when the movement has to be 
+ * checked against obstacles, so that fast objects don't pass through them.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public interface MovementSweeper
+{
+	/**
+	 * Moves an object through a step, stopping it at the obstacles on its way if 
+	 * necessary
+	 * @param mover The mover of the moving object
+	 * @param displacement How much the object would move during the step
+	 * @param duration The duration of the step
+	 * @return Was the object moved by the sweeper. If not, the mover moves it normally.
+	 */
+	public boolean sweep(ObjectMover mover, Vector3D displacement, double duration);
+}
@@ -1,9 +1,16 @@
 package motion_movement;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import motion_replay.JournalCommand;
+import motion_replay.MotionJournal;
+import motion_util.ChangeSet;
 import motion_util.Impulse;
+import motion_util.IntegrationKernels;
+import motion_util.Material;
+import motion_util.MaterialInteractionTable;
 import genesis_event.Actor;
 import genesis_event.HandlerRelay;
 import genesis_util.ConnectedHandled;
@@ -23,6 +30,17 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 	
 	private Vector3D acceleration, velocity, lastAcceleration;
 	private List<Impulse> impulses;
+	private MotionJournal journal;
+	private int journalId, actedStep;
+	private MovementSweeper collisionDetector;
+	private boolean bullet, moving;
+	private ChangeSet changes;
+	private int changeIndex;
+	private StepClock stepClock;
+	private int stepInterval, stepGroup;
+	private double skippedDuration;
+	private int stateVersion;
+	private TrajectoryPredictor predictor;
 	
 	
 	// CONSTRUCTOR	--------------------------
@@ -42,6 +60,20 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 		this.velocity = Vector3D.zeroVector();
 		this.lastAcceleration = Vector3D.zeroVector();
 		this.impulses = new ArrayList<>();
+		this.journal = null;
+		this.journalId = -1;
+		this.actedStep = -1;
+		this.collisionDetector = null;
+		this.bullet = false;
+		this.moving = false;
+		this.changes = null;
+		this.changeIndex = -1;
+		this.stepClock = null;
+		this.stepInterval = 1;
+		this.stepGroup = 0;
+		this.skippedDuration = 0;
+		this.stateVersion = 0;
+		this.predictor = null;
 	}
 	
 	
@@ -50,13 +82,47 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 	@Override
 	public void act(double duration)
 	{
+		// The commands given after this only take effect on the next step
+		if (this.journal != null)
+			this.actedStep = this.journal.getStep();
+		
+		// Objects with a reduced step rate only move on some of the steps, but they move 
+		// the whole time that has passed since their last move
+		this.skippedDuration += duration;
+		this.stateVersion ++;
+		boolean moves = this.stepClock == null || 
+				this.stepClock.isStepOf(this.stepInterval, this.stepGroup);
+		
+		// Static objects are never integrated and kinematic objects only use their velocity
+		BodyType type = getMaster().getBodyType();
+		if (!type.isDynamic())
+		{
+			this.acceleration = Vector3D.zeroVector();
+			this.lastAcceleration = Vector3D.zeroVector();
+			if (!moves)
+				return;
+			
+			double moveDuration = takeSkippedDuration();
+			if (type.isMoving() && !getVelocity().equals(Vector3D.zeroVector()))
+			{
+				getMaster().setTrasformation(getMaster().getTransformation().plus(
+						Transformation.transitionTransformation(getVelocity().times(
+						moveDuration))));
+				recordMovement();
+			}
+			return;
+		}
+		
+		// The forces applied before the impulses are expected to affect the object each step
+		this.lastAcceleration = getAcceleration();
+		
 		// Applies the impulses
 		if (!this.impulses.isEmpty())
 		{
 			List<Impulse> remainingImpulses = new ArrayList<>();
 			for (Impulse impulse : this.impulses)
 			{
-				applyForce(impulse.getForceOverTime(duration));
+				addForce(impulse.getForceOverTime(duration));
 				Impulse remainingImpulse = impulse.withDecreasedDuration(duration);
 				
 				if (remainingImpulse != null)
@@ -81,9 +147,30 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 		// Remembers the latest acceleration
 		this.lastAcceleration = getAcceleration();
 		*/
+		// The velocity is updated every step, so the forces have the same effect regardless 
+		// of the step rate
 		this.velocity = this.velocity.plus(getAcceleration().times(duration));
-		getMaster().setTrasformation(getMaster().getTransformation().plus(
-				Transformation.transitionTransformation(getVelocity().times(duration))));
+		if (!moves)
+		{
+			this.acceleration = Vector3D.zeroVector();
+			return;
+		}
+		
+		// Fast objects may be stopped by the obstacles on their way
+		double moveDuration = takeSkippedDuration();
+		Vector3D displacement = getVelocity().times(moveDuration);
+		this.moving = true;
+		boolean swept = this.collisionDetector != null && 
+				this.collisionDetector.sweep(this, displacement, moveDuration);
+		this.moving = false;
+		if (swept)
+			recordMovement();
+		else if (!displacement.equals(Vector3D.zeroVector()))
+		{
+			getMaster().setTrasformation(getMaster().getTransformation().plus(
+					Transformation.transitionTransformation(displacement)));
+			recordMovement();
+		}
 		this.acceleration = Vector3D.zeroVector();
 	}
 	
@@ -106,13 +193,66 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 		return this.acceleration;
 	}
 	
+	/**
+	 * @return The impulses that are still affecting the object
+	 */
+	public List<Impulse> getImpulses()
+	{
+		return Collections.unmodifiableList(this.impulses);
+	}
+	
+	/**
+	 * @return How long the object has gone without moving because of its reduced step 
+	 * rate
+	 */
+	public double getSkippedDuration()
+	{
+		return this.skippedDuration;
+	}
+	
 	/**
 	 * Changes the object's velocity
 	 * @param v The object's new velocity
 	 */
 	public void setVelocity(Vector3D v)
 	{
+		// The velocity changes made while the object moves are repeated when the step is 
+		// replayed, so they're not recorded
+		if (this.journal != null && !this.moving)
+			this.journal.record(JournalCommand.SET_VELOCITY, this.journalId, hasActed(), v);
+		
 		this.velocity = v;
+		this.stateVersion ++;
+	}
+	
+	/**
+	 * @return Is the object's movement always checked against the obstacles, regardless of 
+	 * its speed
+	 */
+	public boolean isBullet()
+	{
+		return this.bullet;
+	}
+	
+	/**
+	 * Marks the object as a bullet. The movement of bullets is always checked against the 
+	 * obstacles. Other objects are only checked when they move further than their own 
+	 * radius in a single step.
+	 * @param bullet Should the object be treated as a bullet
+	 */
+	public void setBullet(boolean bullet)
+	{
+		this.bullet = bullet;
+	}
+	
+	/**
+	 * Changes the detector that keeps the object from moving through obstacles
+	 * @param detector The detector that checks the object's movement (null if the 
+	 * movement shouldn't be checked)
+	 */
+	public void setContinuousCollisionDetector(MovementSweeper detector)
+	{
+		this.collisionDetector = detector;
 	}
 	
 	/**
@@ -134,6 +274,92 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 		return getMomentum().vectorProjection(direction);
 	}
 	
+	/**
+	 * Makes the mover record all the external commands it receives into the given journal
+	 * @param journal The journal the commands are recorded into (null if the commands 
+	 * shouldn't be recorded)
+	 * @param bodyId The id of the moved object in the journal
+	 */
+	public void setJournal(MotionJournal journal, int bodyId)
+	{
+		this.journal = journal;
+		this.journalId = bodyId;
+		this.actedStep = -1;
+	}
+	
+	/**
+	 * Makes the mover record each step the object moves into the given set
+	 * @param changes The set the object's index is added to when the object moves (null 
+	 * if the movement shouldn't be recorded)
+	 * @param index The index of the object in the set
+	 */
+	public void setChangeSet(ChangeSet changes, int index)
+	{
+		this.changes = changes;
+		this.changeIndex = index;
+	}
+	
+	/**
+	 * @return On how many steps the object is moved once
+	 */
+	public int getStepInterval()
+	{
+		return this.stepInterval;
+	}
+	
+	/**
+	 * Changes how often the object is moved. The object's velocity is still updated each 
+	 * step, but the object is only moved on some of the steps, each time by the amount it 
+	 * would have moved since its last move. Changing the rate doesn't lose or repeat any 
+	 * of the movement.
+	 * @param clock The clock that counts the steps (null if the object should move each 
+	 * step)
+	 * @param interval On how many steps the object is moved once (1 = every step)
+	 * @param group The group of the object. Objects in different groups move on different 
+	 * steps, which keeps the amount of work the same on each step.
+	 */
+	public void setStepRate(StepClock clock, int interval, int group)
+	{
+		this.stepClock = clock;
+		this.stepInterval = Math.max(1, interval);
+		this.stepGroup = group;
+	}
+	
+	/**
+	 * @return A number that changes each time the object's velocity, impulses or 
+	 * acceleration may have changed. Predictions made with the same state version are the 
+	 * same, as long as the object stays in the same position.
+	 */
+	public int getStateVersion()
+	{
+		return this.stateVersion;
+	}
+	
+	/**
+	 * Changes the overhead friction the predictions expect to slow down the object each 
+	 * step. The friction itself still has to be applied separately.
+	 * @param frictionModifier The friction modifier between the surfaces
+	 * @param gravityConstant The gravity constant that affects the force intensity (Kg * pxl)
+	 */
+	public void setPredictionFriction(double frictionModifier, double gravityConstant)
+	{
+		// a = F / m = u * m * g / m
+		getPredictor().setFrictionDecrease(frictionModifier * gravityConstant);
+	}
+	
+	/**
+	 * Changes the obstacles the predicted paths are checked against. The paths of the 
+	 * object's center are checked, so the obstacles should be expanded by the object's 
+	 * size if an exact hit point is needed. The object's own colliders are skipped, so the 
+	 * query may cover the whole world the object is in.
+	 * @param obstacles The obstacles the paths are checked against (null if the paths 
+	 * shouldn't be checked)
+	 */
+	public void setPredictionObstacles(ObstacleQuery obstacles)
+	{
+		getPredictor().setObstacles(obstacles, getMaster());
+	}
+	
 	/**
 	 * Changes the object's momentum
 	 * @param newMomentum The object's new momentum
@@ -178,6 +404,80 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 	
 	// OTHER METHODS	------------------------
 	
+	/**
+	 * Records that the object has moved. The mover calls this itself whenever it moves 
+	 * the object, but other systems that move the object directly should call it as well.
+	 */
+	public void recordMovement()
+	{
+		if (this.changes != null)
+			this.changes.add(this.changeIndex);
+	}
+	
+	/**
+	 * Moves the object instantly without changing its velocity. Systems that correct the 
+	 * object's position, like the contact solver, should move the object with this so 
+	 * that the correction is recorded into the journal as well.
+	 * @param displacement How much the object is moved (pxl)
+	 */
+	public void translate(Vector3D displacement)
+	{
+		if (this.journal != null)
+			this.journal.record(JournalCommand.TRANSLATE, this.journalId, hasActed(), 
+					displacement);
+		
+		getMaster().setTrasformation(getMaster().getTransformation().plus(
+				Transformation.transitionTransformation(displacement)));
+		recordMovement();
+	}
+	
+	/**
+	 * Tells how long the object will move with its velocity when the mover acts next. 
+	 * Objects with a reduced step rate don't move on some of the steps and move the 
+	 * whole skipped time on the others.
+	 * @param duration The duration of the next step
+	 * @return How long the object will move during the next step. 0 if the object isn't 
+	 * moved on that step.
+	 */
+	public double getNextMoveDuration(double duration)
+	{
+		if (this.stepClock != null && !this.stepClock.isStepOf(this.stepInterval, 
+				this.stepGroup))
+			return 0;
+		return this.skippedDuration + duration;
+	}
+	
+	/**
+	 * Predicts where the object will be after the given time, without moving the object. 
+	 * The forces applied to the object during the last step are expected to stay the same 
+	 * and the pending impulses are expected to end as planned. The result is cached until 
+	 * the state of the object changes.
+	 * @param t How far in the future the position is predicted (steps)
+	 * @return The predicted position of the object. If the object would hit an obstacle 
+	 * before that, the point where it hits the obstacle.
+	 * @see #setPredictionObstacles(ObstacleQuery)
+	 */
+	public Vector3D predictPosition(double t)
+	{
+		return updatePredictor().getPosition(t);
+	}
+	
+	/**
+	 * Predicts the path of the object, without moving the object. The path is cached until 
+	 * the state of the object changes.
+	 * @param interval The duration between the predicted points (steps)
+	 * @param amount How many points are predicted
+	 * @param buffer The buffer the x and y coordinates of the points are written to, one 
+	 * pair after another
+	 * @return How many points were written. This is less than the requested amount if the 
+	 * object would hit an obstacle, in which case the last point is the hit point.
+	 * @see #predictPosition(double)
+	 */
+	public int predictTrajectory(double interval, int amount, double[] buffer)
+	{
+		return updatePredictor().getTrajectory(interval, amount, buffer);
+	}
+	
 	/**
 	 * Calculates the force necessary for causing the given momentum
 	 * @param momentum The momentum
@@ -198,6 +498,14 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 	 */
 	public Vector3D getMomentumAfterCollisionWith(Movable other)
 	{
+		// Objects with an infinite mass don't change their momentum and the other object 
+		// bounces from them (v1 = 2 * v2 - v1)
+		if (!getMaster().getBodyType().isDynamic())
+			return getMomentum();
+		if (!other.getBodyType().isDynamic())
+			return other.getMover().getVelocity().times(2).minus(getVelocity()).times(
+					getMaster().getMass());
+		
 		double m1 = getMaster().getMass();
 		double m2 = other.getMass();
 		Vector3D P2 = other.getMover().getMomentum();
@@ -225,6 +533,9 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 	 */
 	public void handleCollisionWith(Movable other, double collisionDuration)
 	{
+		if (!BodyType.collide(getMaster().getBodyType(), other.getBodyType()))
+			return;
+		
 		Vector3D endMomentumThis = getMomentumAfterCollisionWith(other);
 		Vector3D endMomentumOther = other.getMover().getMomentumAfterCollisionWith(getMaster());
 		
@@ -243,6 +554,9 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 	public void handleCollisionWith(Movable other, double collisionDuration, 
 			Vector3D axis)
 	{
+		if (!BodyType.collide(getMaster().getBodyType(), other.getBodyType()))
+			return;
+		
 		Vector3D endMomentumThis = getDirectionalMomentumAfterCollisionWith(other, axis);
 		Vector3D endMomentumOther = 
 				other.getMover().getDirectionalMomentumAfterCollisionWith(getMaster(), axis);
@@ -259,13 +573,20 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 	}
 	
 	/**
-	 * Applies the given amount of force into the object
+	 * Applies the given amount of force into the object. Forces don't affect static or 
+	 * kinematic objects.
 	 * @param f The force vector applied to the object (Kg * pxl)
 	 */
 	public void applyForce(Vector3D f)
 	{
-		// a += f / m
-		this.acceleration = this.acceleration.plus(f.dividedBy(getMaster().getMass()));
+		// Forces can't move objects with an infinite mass
+		if (!getMaster().getBodyType().isDynamic())
+			return;
+		
+		if (this.journal != null)
+			this.journal.record(JournalCommand.APPLY_FORCE, this.journalId, hasActed(), f);
+		
+		addForce(f);
 	}
 	
 	/**
@@ -282,6 +603,21 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 				getVelocity());
 	}
 	
+	/**
+	 * Applies friction to every direction based on the gravity. The friction coefficient 
+	 * between the materials is read from the default material interaction table.
+	 * @param material The material the object is made of
+	 * @param surfaceMaterial The material of the surface the object moves on
+	 * @param duration The duration of the effect
+	 * @param gravityConstant The gravity constant that affects the force intensity (Kg * pxl)
+	 */
+	public void applyFriction(Material material, Material surfaceMaterial, double duration, 
+			double gravityConstant)
+	{
+		applyFriction(MaterialInteractionTable.getDefaultTable().getDynamicFriction(
+				material, surfaceMaterial), duration, gravityConstant);
+	}
+	
 	/**
 	 * Applies friction along the given surface.
 	 * @param frictionModifier The friction modifier between the surfaces
@@ -307,31 +643,28 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 	public void applyFriction(double frictionModifier, double duration, 
 			double supportForce, Vector3D surfaceAxis, Vector3D surfaceVelocity)
 	{
-		Vector3D directionalVelocity = getVelocity().vectorProjection(surfaceAxis);
-		Vector3D directionalSurfaceVelocity = surfaceVelocity.vectorProjection(surfaceAxis);
-		Vector3D velocityDifference = directionalSurfaceVelocity.minus(directionalVelocity);
+		double axisLength = surfaceAxis.getLength();
+		if (axisLength == 0)
+			return;
+		
+		// The velocity of the surface in relation to the object, along the surface
+		double axisX = surfaceAxis.getFirst() / axisLength;
+		double axisY = surfaceAxis.getSecond() / axisLength;
+		double difference = (surfaceVelocity.getFirst() - getVelocity().getFirst()) * axisX + 
+				(surfaceVelocity.getSecond() - getVelocity().getSecond()) * axisY;
 		
 		// If the object isn't moving, doesn't apply friction
-		if (HelpMath.areApproximatelyEqual(velocityDifference.getLength(), 0))
+		if (HelpMath.areApproximatelyEqual(difference, 0))
 			return;
 		
-		// F = u * N
-		Vector3D f = velocityDifference.withLength(frictionModifier * supportForce);
-		// Fmax = dP / dt where dP = m * dv
-		Vector3D fMax = velocityDifference.times(getMaster().getMass()).dividedBy(duration);
+		// F = u * N slows the difference down by F / m * t. The friction won't be changing 
+		// the sign of the difference, at most the object reaches the surface's velocity.
+		double mass = getMaster().getMass();
+		double change = difference * (1 - IntegrationKernels.getFrictionScale(
+				Math.abs(difference), frictionModifier * supportForce / mass * duration));
 		
-		// The friction won't be changing the sign of the velocity
-		if (f.getLength() > fMax.getLength())
-		{
-			if (HelpMath.areApproximatelyEqual(surfaceVelocity.getLength(), 0))
-				negateDirectionalMomentum(surfaceAxis, duration);
-			// a = dv / dt
-			else
-				this.acceleration = getAcceleration().plus(velocityDifference.dividedBy(
-						duration));
-		}
-		else
-			applyForce(f);
+		// F = m * dv / t
+		applyForce(new Vector3D(axisX, axisY).times(change * mass / duration));
 	}
 	
 	/**
@@ -340,7 +673,16 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 	 */
 	public void applyImpulse(Impulse i)
 	{
+		if (!getMaster().getBodyType().isDynamic())
+			return;
+		
+		if (this.journal != null)
+			this.journal.record(JournalCommand.APPLY_IMPULSE, this.journalId, hasActed(), 
+					i.getForceVector().getFirst(), i.getForceVector().getSecond(), 
+					i.getDuration());
+		
 		this.impulses.add(i);
+		this.stateVersion ++;
 	}
 	
 	/**
@@ -348,7 +690,11 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 	 */
 	public void negateImpulses()
 	{
+		if (this.journal != null)
+			this.journal.record(JournalCommand.NEGATE_IMPULSES, this.journalId, hasActed());
+		
 		this.impulses.clear();
+		this.stateVersion ++;
 	}
 	
 	/**
@@ -369,9 +715,9 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 	public void negateDirectionalVelocity(Vector3D direction)
 	{
 		Vector3D directionalVelocity = getVelocity().vectorProjection(direction);
-		// Only negates the velocity if it is towards the given direction
-		if (HelpMath.getAngleDifference180(direction.getZDirection(), 
-				directionalVelocity.getZDirection()) < 90)
+		// Only negates the velocity if it is towards the given direction (the angle between 
+		// the vectors is less than 90 degrees, which is when the dot product is positive)
+		if (direction.dotProduct(directionalVelocity) > 0)
 			setVelocity(getVelocity().minus(directionalVelocity));
 	}
 	
@@ -383,4 +729,62 @@ public class ObjectMover extends ConnectedHandled<Movable> implements Actor
 	{
 		negateDirectionalVelocity(Vector3D.unitVector(direction));
 	}
+	
+	/**
+	 * Restores the state of the mover, for example from a keyframe of a recording. The 
+	 * change isn't recorded into the journal.
+	 * @param velocity The velocity of the object (pxl / step)
+	 * @param acceleration The acceleration that hasn't been applied yet (pxl / step^2)
+	 * @param impulses The impulses that are still affecting the object
+	 * @param skippedDuration How long the object has gone without moving
+	 */
+	public void restoreState(Vector3D velocity, Vector3D acceleration, List<Impulse> impulses, 
+			double skippedDuration)
+	{
+		this.velocity = velocity;
+		this.acceleration = acceleration;
+		this.impulses.clear();
+		this.impulses.addAll(impulses);
+		this.skippedDuration = skippedDuration;
+		this.stateVersion ++;
+	}
+	
+	// The commands given after the object has moved on this step only take effect on the 
+	// next step
+	private boolean hasActed()
+	{
+		return this.actedStep == this.journal.getStep();
+	}
+	
+	private double takeSkippedDuration()
+	{
+		double duration = this.skippedDuration;
+		this.skippedDuration = 0;
+		return duration;
+	}
+	
+	private TrajectoryPredictor getPredictor()
+	{
+		if (this.predictor == null)
+			this.predictor = new TrajectoryPredictor();
+		return this.predictor;
+	}
+	
+	private TrajectoryPredictor updatePredictor()
+	{
+		// Static objects stay where they are and kinematic objects only use their velocity
+		BodyType type = getMaster().getBodyType();
+		Vector3D velocity = type.isMoving() ? getVelocity() : Vector3D.zeroVector();
+		TrajectoryPredictor predictor = getPredictor();
+		predictor.setState(this.stateVersion, getMaster().getTransformation().getPosition(), 
+				velocity, this.lastAcceleration, type.isDynamic() ? this.impulses : null, 
+				getMaster().getMass(), type.isDynamic());
+		return predictor;
+	}
+	
+	private void addForce(Vector3D f)
+	{
+		// a += f / m
+		this.acceleration = this.acceleration.plus(f.dividedBy(getMaster().getMass()));
+	}
 }
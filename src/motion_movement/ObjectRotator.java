@@ -3,12 +3,16 @@ package motion_movement;
 import genesis_event.Actor;
 import genesis_event.HandlerRelay;
 import genesis_util.ConnectedHandled;
-import genesis_util.Transformable;
 import genesis_util.Transformation;
 import genesis_util.Vector3D;
+import motion_replay.JournalCommand;
+import motion_replay.MotionJournal;
+import motion_util.ChangeSet;
 
 /**
- * ObjectRotator handles object rotation.
+ * ObjectRotator handles object rotation. The public interface uses degrees but the 
+ * rotator also keeps the object's orientation as a cached unit vector (cos, sin) that is 
+ * updated incrementally each step, so that directions can be rotated without trigonometry.
  * 
  * @author Mikko Hilpinen
  * @since 23.12.2014
@@ -17,9 +21,23 @@ public class ObjectRotator extends ConnectedHandled<Rotateable> implements Actor
 {
 	// ATTRIBUTES	-------------------------
 	
-	private double rotation, acceleration, lastAcceleration, currentMomentMass;
+	// 1 if positive directions turn towards positive y, -1 otherwise
+	private static final double DIRECTION_SIGN = 
+			Math.signum(Vector3D.unitVector(90).getSecond());
+	
+	private double rotation, acceleration, lastAcceleration, currentMomentMass, inverseMass, 
+			inverseMomentMass;
 	private Vector3D rotationOrigin;
 	private boolean rotationOriginAtDefault;
+	private double orientationCos, orientationSin, orientationAngle, stepIncrement, stepCos, 
+			stepSin;
+	private MotionJournal journal;
+	private int journalId, actedStep;
+	private ChangeSet changes;
+	private int changeIndex;
+	private StepClock stepClock;
+	private int stepInterval, stepGroup;
+	private double skippedDuration;
 	
 	
 	// CONSTRUCTOR	-------------------------
@@ -38,8 +56,21 @@ public class ObjectRotator extends ConnectedHandled<Rotateable> implements Actor
 		this.acceleration = 0;
 		this.lastAcceleration = 0;
 		this.rotationOrigin = Vector3D.zeroVector();
-		this.currentMomentMass = getMaster().getDefaultMomentMass();
 		this.rotationOriginAtDefault = true;
+		updateMass();
+		this.stepIncrement = 0;
+		this.stepCos = 1;
+		this.stepSin = 0;
+		syncOrientation(getMaster().getTransformation().getAngle());
+		this.journal = null;
+		this.journalId = -1;
+		this.actedStep = -1;
+		this.changes = null;
+		this.changeIndex = -1;
+		this.stepClock = null;
+		this.stepInterval = 1;
+		this.stepGroup = 0;
+		this.skippedDuration = 0;
 	}
 	
 	
@@ -48,21 +79,57 @@ public class ObjectRotator extends ConnectedHandled<Rotateable> implements Actor
 	@Override
 	public void act(double duration)
 	{
+		// The commands given after this only take effect on the next step
+		if (this.journal != null)
+			this.actedStep = this.journal.getStep();
+		
+		if (!getMaster().getBodyType().isMoving())
+		{
+			this.acceleration = 0;
+			return;
+		}
+		
 		// Applies the rotation
 		// angle += rotation * t + (0.5 * lastAcceleration * t^2) // TODO: Probably not 
 		// working either
 		//double angleIncrement = getRotation() * duration + 
 		//		(0.5 * this.lastAcceleration * Math.pow(duration, 2));
 		this.rotation += this.acceleration;
-		double angleIncrement = getRotation() * duration;
 		
-		if (this.rotationOriginAtDefault)
-			Transformable.transform(getMaster(), 
-					Transformation.rotationTransformation(angleIncrement));
-		else
-			getMaster().setTrasformation(
-					getMaster().getTransformation().rotatedAroundRelativePoint(
-					angleIncrement, getRotationOrigin()));
+		// Objects with a reduced step rate only rotate on some of the steps, but they 
+		// rotate the whole time that has passed since their last rotation
+		this.skippedDuration += duration;
+		if (this.stepClock != null && 
+				!this.stepClock.isStepOf(this.stepInterval, this.stepGroup))
+		{
+			this.acceleration = 0;
+			return;
+		}
+		
+		double angleIncrement = getRotation() * this.skippedDuration;
+		this.skippedDuration = 0;
+		checkOrientation();
+		
+		// Objects that don't rotate keep their transformation
+		if (angleIncrement != 0)
+		{
+			// The new angle is taken from the cached orientation, so no rotation 
+			// transformation needs to be built and combined
+			updateOrientation(angleIncrement);
+			if (this.rotationOriginAtDefault)
+				getMaster().setTrasformation(getMaster().getTransformation().withAngle(
+						this.orientationAngle));
+			else
+			{
+				getMaster().setTrasformation(
+						getMaster().getTransformation().rotatedAroundRelativePoint(
+						angleIncrement, getRotationOrigin()));
+				this.orientationAngle = getMaster().getTransformation().getAngle();
+			}
+		
+			if (this.changes != null)
+				this.changes.add(this.changeIndex);
+		}
 		
 		// Adjusts the rotation
 		//double averageAcceleration = (this.lastAcceleration + this.acceleration) / 2;
@@ -86,12 +153,34 @@ public class ObjectRotator extends ConnectedHandled<Rotateable> implements Actor
 		return this.rotation;
 	}
 	
+	/**
+	 * @return How much the object's rotation will be increased the next time it's rotated 
+	 * (degrees per step)
+	 */
+	public double getAcceleration()
+	{
+		return this.acceleration;
+	}
+	
+	/**
+	 * @return How long the object has gone without rotating because of its reduced step 
+	 * rate
+	 */
+	public double getSkippedDuration()
+	{
+		return this.skippedDuration;
+	}
+	
 	/**
 	 * Changes how fast the object rotates
 	 * @param newRotation The new rotation speed of the object (degrees per step)
 	 */
 	public void setRotation(double newRotation)
 	{
+		if (this.journal != null)
+			this.journal.record(JournalCommand.SET_ROTATION, this.journalId, hasActed(), 
+					newRotation);
+		
 		this.rotation = newRotation;
 	}
 	
@@ -111,6 +200,97 @@ public class ObjectRotator extends ConnectedHandled<Rotateable> implements Actor
 		return this.currentMomentMass;
 	}
 	
+	/**
+	 * @return The cosine of the object's current angle. Kept up to date incrementally.
+	 */
+	public double getOrientationCos()
+	{
+		checkOrientation();
+		return this.orientationCos;
+	}
+	
+	/**
+	 * @return The sine of the object's current angle (in the same direction convention as 
+	 * Vector3D directions). Kept up to date incrementally.
+	 */
+	public double getOrientationSin()
+	{
+		checkOrientation();
+		return this.orientationSin;
+	}
+	
+	/**
+	 * @return 1 / mass of the object. Cached for collision calculations. 0 for static and 
+	 * kinematic objects, which have an infinite mass.
+	 */
+	public double getInverseMass()
+	{
+		if (!getMaster().getBodyType().isDynamic())
+			return 0;
+		return this.inverseMass;
+	}
+	
+	/**
+	 * @return 1 / current moment mass of the object. Cached for collision calculations. 0 
+	 * for static and kinematic objects, which have an infinite moment mass.
+	 */
+	public double getInverseMomentMass()
+	{
+		if (!getMaster().getBodyType().isDynamic())
+			return 0;
+		return this.inverseMomentMass;
+	}
+	
+	/**
+	 * Makes the rotator record all the external commands it receives into the given journal
+	 * @param journal The journal the commands are recorded into (null if the commands 
+	 * shouldn't be recorded)
+	 * @param bodyId The id of the rotated object in the journal
+	 */
+	public void setJournal(MotionJournal journal, int bodyId)
+	{
+		this.journal = journal;
+		this.journalId = bodyId;
+		this.actedStep = -1;
+	}
+	
+	/**
+	 * @return On how many steps the object is rotated once
+	 */
+	public int getStepInterval()
+	{
+		return this.stepInterval;
+	}
+	
+	/**
+	 * Changes how often the object is rotated. The object's rotation speed is still 
+	 * updated each step, but the object is only rotated on some of the steps, each time by 
+	 * the amount it would have rotated since its last rotation.
+	 * @param clock The clock that counts the steps (null if the object should rotate each 
+	 * step)
+	 * @param interval On how many steps the object is rotated once (1 = every step)
+	 * @param group The group of the object. Objects in different groups rotate on 
+	 * different steps.
+	 */
+	public void setStepRate(StepClock clock, int interval, int group)
+	{
+		this.stepClock = clock;
+		this.stepInterval = Math.max(1, interval);
+		this.stepGroup = group;
+	}
+	
+	/**
+	 * Makes the rotator record each step the object rotates into the given set
+	 * @param changes The set the object's index is added to when the object rotates (null 
+	 * if the rotation shouldn't be recorded)
+	 * @param index The index of the object in the set
+	 */
+	public void setChangeSet(ChangeSet changes, int index)
+	{
+		this.changes = changes;
+		this.changeIndex = index;
+	}
+	
 	
 	// OTHER METHODS	-----------------------
 	
@@ -130,6 +310,15 @@ public class ObjectRotator extends ConnectedHandled<Rotateable> implements Actor
 	 */
 	public void applyMoment(Vector3D relativeForce, Vector3D relativeEffectPoint)
 	{
+		// Moments can't rotate objects with an infinite moment mass
+		if (!getMaster().getBodyType().isDynamic())
+			return;
+		
+		if (this.journal != null)
+			this.journal.record(JournalCommand.APPLY_MOMENT, this.journalId, hasActed(), 
+					relativeForce.getFirst(), relativeForce.getSecond(), 
+					relativeEffectPoint.getFirst(), relativeEffectPoint.getSecond());
+		
 		Vector3D r = relativeEffectPoint.minus(getRotationOrigin());
 		// M = r x f
 		double M = r.crossProductLength(relativeForce);
@@ -149,7 +338,7 @@ public class ObjectRotator extends ConnectedHandled<Rotateable> implements Actor
 		*/
 		
 		// a += M / J
-		increaseRotation(M / getCurrentMomentMass());
+		accelerate(M / getCurrentMomentMass());
 	}
 	
 	/**
@@ -161,29 +350,111 @@ public class ObjectRotator extends ConnectedHandled<Rotateable> implements Actor
 		if (newOrigin.equals(getRotationOrigin()))
 			return;
 		
-		double oldMomentMass = getCurrentMomentMass();
+		if (this.journal != null)
+			this.journal.record(JournalCommand.SET_ROTATION_ORIGIN, this.journalId, hasActed(), 
+					newOrigin);
 		
-		// Changes the moment mass of the object
-		if (newOrigin.equals(Vector3D.zeroVector()))
-		{
-			this.currentMomentMass = getMaster().getDefaultMomentMass();
-			this.rotationOriginAtDefault = true;
-		}
-		else
-		{
-			// Ja = J0 + m * d^2
-			double d = newOrigin.getLength();
-			this.currentMomentMass = getMaster().getDefaultMomentMass() + 
-					getMaster().getMass() * Math.pow(d, 2);
-			this.rotationOriginAtDefault = false;
-		}
+		double oldMomentMass = getCurrentMomentMass();
 		
-		// Updates the rotation origin
+		// Updates the rotation origin and the moment mass of the object
 		this.rotationOrigin = newOrigin;
+		this.rotationOriginAtDefault = newOrigin.equals(Vector3D.zeroVector());
+		updateMass();
 		
 		// Updates the rotation speed (w2 = J1 * w1 / J2)
 		double newRotation = oldMomentMass * getRotation() / getCurrentMomentMass();
-		increaseRotation(newRotation - getRotation());
+		accelerate(newRotation - getRotation());
+	}
+	
+	/**
+	 * Turns the object instantly around its own position without changing its rotation 
+	 * speed. Systems that correct the object's angle, like the constraint solver, should 
+	 * turn the object with this so that the correction is recorded into the journal as 
+	 * well.
+	 * @param angle How much the object is turned (degrees)
+	 */
+	public void rotate(double angle)
+	{
+		if (this.journal != null)
+			this.journal.record(JournalCommand.ROTATE, this.journalId, hasActed(), angle);
+		
+		getMaster().setTrasformation(getMaster().getTransformation().plus(
+				Transformation.rotationTransformation(angle)));
+		if (this.changes != null)
+			this.changes.add(this.changeIndex);
+	}
+	
+	/**
+	 * Tells how long the object will rotate with its rotation speed when the rotator acts 
+	 * next. Objects with a reduced step rate don't rotate on some of the steps and rotate 
+	 * the whole skipped time on the others.
+	 * @param duration The duration of the next step
+	 * @return How long the object will rotate during the next step. 0 if the object isn't 
+	 * rotated on that step.
+	 */
+	public double getNextRotationDuration(double duration)
+	{
+		if (this.stepClock != null && !this.stepClock.isStepOf(this.stepInterval, 
+				this.stepGroup))
+			return 0;
+		return this.skippedDuration + duration;
+	}
+	
+	/**
+	 * Rotates a direction from the object's relative space to the absolute space using the 
+	 * cached orientation. Scaling and translation are not applied.
+	 * @param relativeDirection A direction in the object's relative space
+	 * @return The same direction in absolute space
+	 */
+	public Vector3D toAbsoluteDirection(Vector3D relativeDirection)
+	{
+		checkOrientation();
+		double x = relativeDirection.getFirst(), y = relativeDirection.getSecond();
+		return new Vector3D(x * this.orientationCos - y * this.orientationSin, 
+				x * this.orientationSin + y * this.orientationCos);
+	}
+	
+	/**
+	 * Rotates a direction from the absolute space to the object's relative space using the 
+	 * cached orientation. Scaling and translation are not applied.
+	 * @param absoluteDirection A direction in absolute space
+	 * @return The same direction in the object's relative space
+	 */
+	public Vector3D toRelativeDirection(Vector3D absoluteDirection)
+	{
+		checkOrientation();
+		double x = absoluteDirection.getFirst(), y = absoluteDirection.getSecond();
+		return new Vector3D(x * this.orientationCos + y * this.orientationSin, 
+				y * this.orientationCos - x * this.orientationSin);
+	}
+	
+	/**
+	 * Calculates the velocity of a point in the object that is caused by the rotation
+	 * @param r The point's position relative to the rotation axis (absolute direction)
+	 * @return The velocity of the point caused by the rotation (pxl / step)
+	 */
+	public Vector3D getRailVelocity(Vector3D r)
+	{
+		return getRailVelocity(r, getRotation());
+	}
+	
+	/**
+	 * Updates the cached mass values of the object. This should be called whenever the mass 
+	 * or the default moment mass of the object changes.
+	 */
+	public void updateMass()
+	{
+		this.currentMomentMass = getMaster().getDefaultMomentMass();
+		
+		if (!this.rotationOriginAtDefault)
+		{
+			// Ja = J0 + m * d^2
+			double d = getRotationOrigin().getLength();
+			this.currentMomentMass += getMaster().getMass() * d * d;
+		}
+		
+		this.inverseMass = 1 / getMaster().getMass();
+		this.inverseMomentMass = 1 / this.currentMomentMass;
 	}
 	
 	/**
@@ -192,7 +463,11 @@ public class ObjectRotator extends ConnectedHandled<Rotateable> implements Actor
 	 */
 	public void increaseRotation(double acceleration)
 	{
-		this.acceleration += acceleration;
+		if (this.journal != null)
+			this.journal.record(JournalCommand.INCREASE_ROTATION, this.journalId, hasActed(), 
+					acceleration);
+		
+		accelerate(acceleration);
 	}
 	
 	/**
@@ -236,26 +511,40 @@ public class ObjectRotator extends ConnectedHandled<Rotateable> implements Actor
 		// And vr is the speed difference between the pixels in the objects
 		// Body 1 is affected by -jr and that is returned
 		
-		Vector3D n = mtv1.reverse().normalized();
-		double m1Inverse = Math.pow(body1.getMass(), -1);
-		double m2Inverse = Math.pow(body2.getMass(), -1);
-		double J1Inverse = Math.pow(body1.getRotator().getCurrentMomentMass(), -1);
-		double J2Inverse = Math.pow(body2.getRotator().getCurrentMomentMass(), -1);
+		// Collisions between objects with infinite masses don't have an effect
+		if (!BodyType.collide(body1.getBodyType(), body2.getBodyType()))
+			return Vector3D.zeroVector();
+		
+		double mtvLength = mtv1.getLength();
+		double nx = -mtv1.getFirst() / mtvLength, ny = -mtv1.getSecond() / mtvLength;
+		double m1Inverse = body1.getRotator().getInverseMass();
+		double m2Inverse = body2.getRotator().getInverseMass();
+		double J1Inverse = body1.getRotator().getInverseMomentMass();
+		double J2Inverse = body2.getRotator().getInverseMomentMass();
 		
 		// TODO: r should be calculated from the rotation axis
-		Vector3D r1 = absoluteContactPoint.minus(body1.getTransformation().getPosition());
-		Vector3D r2 = absoluteContactPoint.minus(body2.getTransformation().getPosition());
+		Vector3D position1 = body1.getTransformation().getPosition();
+		Vector3D position2 = body2.getTransformation().getPosition();
+		double r1x = absoluteContactPoint.getFirst() - position1.getFirst();
+		double r1y = absoluteContactPoint.getSecond() - position1.getSecond();
+		double r2x = absoluteContactPoint.getFirst() - position2.getFirst();
+		double r2y = absoluteContactPoint.getSecond() - position2.getSecond();
 	
 		// vp = v + vw TODO: Test this without vw
-		Vector3D pointVelocity1 = v1.plus(getRailVelocity(r1, body1.getRotator().getRotation()));
-		Vector3D pointVelocity2 = v2.plus(getRailVelocity(r2, body2.getRotator().getRotation()));
+		// vw = w x r, which is a 90 degree turn of r
+		double w1 = Math.toRadians(body1.getRotator().getRotation()) * DIRECTION_SIGN;
+		double w2 = Math.toRadians(body2.getRotator().getRotation()) * DIRECTION_SIGN;
 		//vr = vp1 - vp2 // TODO: Or is it vp2 - vp1?
-		Vector3D vr = pointVelocity1.minus(pointVelocity2);
+		double vrx = v1.getFirst() - w1 * r1y - (v2.getFirst() - w2 * r2y);
+		double vry = v1.getSecond() + w1 * r1x - (v2.getSecond() + w2 * r2x);
+		
+		// ((r x n) x r).dot(n) = (r x n)^2 in two dimensions
+		double r1CrossN = r1x * ny - r1y * nx;
+		double r2CrossN = r2x * ny - r2y * nx;
 		
-		double jrLength = -(1 + efficiencyCoefficient) * vr.dotProduct(n) / 
-				(m1Inverse + m2Inverse + 
-				r1.crossProduct(n).times(J1Inverse).crossProduct(r1).plus(
-				r2.crossProduct(n).times(J2Inverse).crossProduct(r2)).dotProduct(n));
+		double jrLength = -(1 + efficiencyCoefficient) * (vrx * nx + vry * ny) / 
+				(m1Inverse + m2Inverse + J1Inverse * r1CrossN * r1CrossN + 
+				J2Inverse * r2CrossN * r2CrossN);
 		return mtv1.withLength(Math.abs(jrLength));
 	}
 	
@@ -279,24 +568,112 @@ public class ObjectRotator extends ConnectedHandled<Rotateable> implements Actor
 		// And vr is the speed of the pixel in the object
 		// Body 1 is affected by -jr and that is returned
 		
-		Vector3D n = mtv1.reverse().normalized();
-		double m1Inverse = Math.pow(body1.getMass(), -1);
-		double J1Inverse = Math.pow(body1.getRotator().getCurrentMomentMass(), -1);
+		if (!body1.getBodyType().isDynamic())
+			return Vector3D.zeroVector();
+		
+		double mtvLength = mtv1.getLength();
+		double nx = -mtv1.getFirst() / mtvLength, ny = -mtv1.getSecond() / mtvLength;
+		double m1Inverse = body1.getRotator().getInverseMass();
+		double J1Inverse = body1.getRotator().getInverseMomentMass();
 		
 		// TODO: r should be calculated from the rotation axis
-		Vector3D r1 = absoluteContactPoint.minus(body1.getTransformation().getPosition());
+		Vector3D position1 = body1.getTransformation().getPosition();
+		double r1x = absoluteContactPoint.getFirst() - position1.getFirst();
+		double r1y = absoluteContactPoint.getSecond() - position1.getSecond();
 	
 		// vp = v + vw TODO: Test this without vw
-		Vector3D vr = v1.plus(getRailVelocity(r1, body1.getRotator().getRotation()));
+		double w1 = Math.toRadians(body1.getRotator().getRotation()) * DIRECTION_SIGN;
+		double vrx = v1.getFirst() - w1 * r1y;
+		double vry = v1.getSecond() + w1 * r1x;
 		
-		double jrLength = -(1 + efficiencyCoefficient) * vr.dotProduct(n) / 
-				(m1Inverse  + r1.crossProduct(n).times(J1Inverse).crossProduct(r1).dotProduct(n));
+		// ((r x n) x r).dot(n) = (r x n)^2 in two dimensions
+		double r1CrossN = r1x * ny - r1y * nx;
+		
+		double jrLength = -(1 + efficiencyCoefficient) * (vrx * nx + vry * ny) / 
+				(m1Inverse + J1Inverse * r1CrossN * r1CrossN);
 		return mtv1.withLength(Math.abs(jrLength));
 	}
 	
+	/**
+	 * Restores the state of the rotator, for example from a keyframe of a recording. The 
+	 * change isn't recorded into the journal.
+	 * @param rotation How fast the object rotates (degrees per step)
+	 * @param acceleration The acceleration that hasn't been applied yet
+	 * @param skippedDuration How long the object has gone without rotating
+	 */
+	public void restoreState(double rotation, double acceleration, double skippedDuration)
+	{
+		this.rotation = rotation;
+		this.acceleration = acceleration;
+		this.skippedDuration = skippedDuration;
+	}
+	
+	// The commands given after the object has rotated on this step only take effect on the 
+	// next step
+	private boolean hasActed()
+	{
+		return this.actedStep == this.journal.getStep();
+	}
+	
+	private void accelerate(double acceleration)
+	{
+		this.acceleration += acceleration;
+	}
+	
+	private void updateOrientation(double angleIncrement)
+	{
+		// The step rotation only needs to be recalculated when the increment changes
+		if (angleIncrement != this.stepIncrement)
+		{
+			double radians = Math.toRadians(angleIncrement);
+			this.stepIncrement = angleIncrement;
+			this.stepCos = Math.cos(radians);
+			this.stepSin = Math.sin(radians) * DIRECTION_SIGN;
+		}
+		
+		// (c, s) *= (stepC, stepS) as complex numbers
+		double c = this.orientationCos * this.stepCos - this.orientationSin * this.stepSin;
+		double s = this.orientationSin * this.stepCos + this.orientationCos * this.stepSin;
+		
+		// Keeps the orientation at unit length (first order correction, no square root)
+		double correction = (3 - (c * c + s * s)) / 2;
+		this.orientationCos = c * correction;
+		this.orientationSin = s * correction;
+		this.orientationAngle += angleIncrement;
+		if (this.orientationAngle < 0 || this.orientationAngle >= 360)
+			this.orientationAngle -= 360 * Math.floor(this.orientationAngle / 360);
+	}
+	
+	private void checkOrientation()
+	{
+		// The angles only differ when the object was turned elsewhere or when the same angle 
+		// is expressed differently
+		double angle = getMaster().getTransformation().getAngle();
+		if (angle == this.orientationAngle)
+			return;
+		
+		// Resynchronises the orientation if the object's angle was changed elsewhere
+		double difference = angle - this.orientationAngle;
+		difference -= 360 * Math.rint(difference / 360);
+		if (Math.abs(difference) > 0.000001)
+			syncOrientation(angle);
+		else
+			this.orientationAngle = angle;
+	}
+	
+	private void syncOrientation(double angle)
+	{
+		double radians = Math.toRadians(angle);
+		this.orientationAngle = angle;
+		this.orientationCos = Math.cos(radians);
+		this.orientationSin = Math.sin(radians) * DIRECTION_SIGN;
+	}
+	
 	private static Vector3D getRailVelocity(Vector3D r, double rotationSpeed)
 	{
-		// v = r * w
-		return r.withZDirection(r.getZDirection() + 90).times(Math.toRadians(rotationSpeed));
+		// v = w x r, which turns r 90 degrees. The turn is (x, y) * (0, sign) as complex 
+		// numbers so no trigonometry is needed
+		double w = Math.toRadians(rotationSpeed) * DIRECTION_SIGN;
+		return new Vector3D(-r.getSecond() * w, r.getFirst() * w);
 	}
 }
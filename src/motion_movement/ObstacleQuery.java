@@ -0,0 +1,23 @@
+package motion_movement;
+
+import genesis_util.Vector3D;
+
+/**
+ * ObstacleQuery finds the obstacles on the paths of moving objects. The predictions of 
+ * the object movers use it to stop the predicted paths at the obstacles without 
+ * knowing how the obstacles are stored.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public interface ObstacleQuery
+{
+	/**
+	 * Finds the first obstacle on a line segment
+	 * @param start The start of the path (absolute space)
+	 * @param end The end of the path (absolute space)
+	 * @param owner The moving object. Its own colliders are never obstacles.
+	 * @return The point where the path first hits an obstacle. Null if it doesn't hit any.
+	 */
+	public Vector3D findFirstHit(Vector3D start, Vector3D end, Object owner);
+}
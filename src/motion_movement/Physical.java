@@ -14,4 +14,12 @@ public interface Physical extends Transformable, Handled
 	 * @return The weight of the object in kilograms
 	 */
 	public double getMass();
+	
+	/**
+	 * @return How the object takes part in the physics. Dynamic by default.
+	 */
+	public default BodyType getBodyType()
+	{
+		return BodyType.DYNAMIC;
+	}
 }
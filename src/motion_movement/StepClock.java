@@ -0,0 +1,95 @@
+package motion_movement;
+
+/**
+ * StepClock counts the steps of a simulation. Movers and rotators that are stepped at a 
+ * reduced rate use a shared clock to decide on which steps they move. The clock may also 
+ * count only every nth tick as a step, in which case the objects using the clock don't 
+ * move at all between the steps.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class StepClock
+{
+	// ATTRIBUTES	-----------------------
+	
+	private int step, tick, interval;
+	private boolean active;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new clock that starts from the step 0 and counts each tick as a step
+	 */
+	public StepClock()
+	{
+		this.step = 0;
+		this.tick = 0;
+		this.interval = 1;
+		this.active = true;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The number of the current step
+	 */
+	public int getStep()
+	{
+		return this.step;
+	}
+	
+	/**
+	 * @return Is the current tick counted as a step
+	 */
+	public boolean isActive()
+	{
+		return this.active;
+	}
+	
+	/**
+	 * @return On how many ticks the clock counts a step once
+	 */
+	public int getInterval()
+	{
+		return this.interval;
+	}
+	
+	/**
+	 * Changes how often the clock counts a step
+	 * @param interval On how many ticks the clock counts a step once (1 = every tick)
+	 */
+	public void setInterval(int interval)
+	{
+		this.interval = Math.max(1, interval);
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Moves the clock to the next tick
+	 */
+	public void advance()
+	{
+		// The counters wrap around before they overflow so that they stay positive
+		this.tick = (this.tick + 1) & Integer.MAX_VALUE;
+		this.active = this.tick % this.interval == 0;
+		if (this.active)
+			this.step = (this.step + 1) & Integer.MAX_VALUE;
+	}
+	
+	/**
+	 * Checks whether an object is stepped during the current tick
+	 * @param interval On how many steps the object is stepped once
+	 * @param group The group of the object. Objects in different groups are stepped on 
+	 * different steps.
+	 * @return Should the object be stepped during the current tick
+	 */
+	public boolean isStepOf(int interval, int group)
+	{
+		return this.active && (interval <= 1 || (this.step + group) % interval == 0);
+	}
+}
@@ -0,0 +1,351 @@
+package motion_movement;
+
+import java.util.List;
+
+import genesis_util.Vector3D;
+import motion_util.Impulse;
+
+/**
+ * TrajectoryPredictor calculates where an object will be in the future without stepping 
+ * the object. The motion is solved in closed form from the object's constant 
+ * acceleration, its pending impulses and the friction that slows it down. The motion is 
+ * split into parts at the moments when the impulses end, and the acceleration stays the 
+ * same within each part. The predictions are cached until the state of the object 
+ * changes.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+class TrajectoryPredictor
+{
+	// ATTRIBUTES	-----------------------
+	
+	// When both acceleration and friction affect the object, the direction of the 
+	// friction is updated at least this often (steps) and at most this many times per part
+	private static final double FRICTION_PIECE_DURATION = 1;
+	private static final int MAX_FRICTION_PIECES = 64;
+	// The path to a predicted position is checked against the obstacles in this many parts
+	private static final int OBSTACLE_CHECK_PARTS = 16;
+	
+	private ObstacleQuery query;
+	private Object owner;
+	private double frictionDecrease;
+	
+	// The state the predictions start from
+	private int version;
+	private boolean valid, dynamic;
+	private double startX, startY, startVelocityX, startVelocityY, accelerationX, 
+			accelerationY;
+	private double[] impulseX, impulseY, impulseEnd;
+	private int impulseAmount;
+	
+	// The state the predictions are advanced with
+	private double x, y, velocityX, velocityY, time;
+	
+	// The cached predictions
+	private double positionTime;
+	private Vector3D position;
+	private double[] trajectory;
+	private double trajectoryInterval;
+	private int trajectoryRequested, trajectoryAmount;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new predictor that doesn't check obstacles nor apply friction
+	 */
+	TrajectoryPredictor()
+	{
+		this.query = null;
+		this.owner = null;
+		this.frictionDecrease = 0;
+		this.valid = false;
+		this.impulseX = new double[4];
+		this.impulseY = new double[4];
+		this.impulseEnd = new double[4];
+		this.impulseAmount = 0;
+		this.trajectory = new double[0];
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * Changes the friction that is expected to slow down the object
+	 * @param frictionDecrease How much the speed of the object decreases each step
+	 */
+	void setFrictionDecrease(double frictionDecrease)
+	{
+		this.frictionDecrease = Math.max(0, frictionDecrease);
+		this.valid = false;
+	}
+	
+	/**
+	 * Changes the obstacles the predicted paths are checked against
+	 * @param query The obstacles (null if the paths shouldn't be checked)
+	 * @param owner The predicted object. Its own colliders are never obstacles.
+	 */
+	void setObstacles(ObstacleQuery query, Object owner)
+	{
+		this.query = query;
+		this.owner = owner;
+		this.valid = false;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Updates the state the predictions start from. The cached predictions are kept if 
+	 * the state hasn't changed.
+	 * @param version The state version of the object
+	 * @param position The current position of the object
+	 * @param velocity The current velocity of the object
+	 * @param acceleration The acceleration that affects the object each step
+	 * @param impulses The impulses that still affect the object (null if none)
+	 * @param mass The mass of the object
+	 * @param dynamic Is the object slowed down by friction
+	 */
+	void setState(int version, Vector3D position, Vector3D velocity, Vector3D acceleration, 
+			List<Impulse> impulses, double mass, boolean dynamic)
+	{
+		// Other systems may move the object without changing the mover's state
+		if (this.valid && this.version == version && this.dynamic == dynamic && 
+				this.startX == position.getFirst() && this.startY == position.getSecond())
+			return;
+		
+		this.version = version;
+		this.valid = true;
+		this.dynamic = dynamic;
+		this.position = null;
+		this.trajectoryRequested = 0;
+		
+		this.startX = position.getFirst();
+		this.startY = position.getSecond();
+		this.startVelocityX = velocity.getFirst();
+		this.startVelocityY = velocity.getSecond();
+		this.accelerationX = acceleration.getFirst();
+		this.accelerationY = acceleration.getSecond();
+		
+		this.impulseAmount = 0;
+		if (impulses == null)
+			return;
+		if (this.impulseEnd.length < impulses.size())
+		{
+			this.impulseX = new double[impulses.size()];
+			this.impulseY = new double[impulses.size()];
+			this.impulseEnd = new double[impulses.size()];
+		}
+		for (Impulse impulse : impulses)
+		{
+			// a = F / m
+			this.impulseX[this.impulseAmount] = impulse.getForceVector().getFirst() / mass;
+			this.impulseY[this.impulseAmount] = impulse.getForceVector().getSecond() / mass;
+			this.impulseEnd[this.impulseAmount] = impulse.getDuration();
+			this.impulseAmount ++;
+		}
+	}
+	
+	/**
+	 * Predicts the position of the object
+	 * @param t How far in the future the position is predicted (steps)
+	 * @return The predicted position of the object. If the object would hit an obstacle 
+	 * before that, the point where it hits the obstacle.
+	 */
+	Vector3D getPosition(double t)
+	{
+		if (this.position != null && this.positionTime == t)
+			return this.position;
+		
+		reset();
+		if (this.query == null)
+			advance(t);
+		else
+		{
+			// The curved path is checked in straight parts
+			double partDuration = t / OBSTACLE_CHECK_PARTS;
+			for (int i = 0; i < OBSTACLE_CHECK_PARTS; i++)
+			{
+				double previousX = this.x, previousY = this.y;
+				advance(partDuration);
+				if (hitsObstacle(previousX, previousY))
+					break;
+			}
+		}
+		
+		this.positionTime = t;
+		this.position = new Vector3D(this.x, this.y);
+		return this.position;
+	}
+	
+	/**
+	 * Predicts the path of the object
+	 * @param interval The duration between the predicted points (steps)
+	 * @param amount How many points are predicted
+	 * @param buffer The buffer the x and y coordinates of the points are written to
+	 * @return How many points were written. This is less than the requested amount if the 
+	 * object would hit an obstacle, in which case the last point is the hit point.
+	 */
+	int getTrajectory(double interval, int amount, double[] buffer)
+	{
+		if (buffer.length < 2 * amount)
+			throw new IllegalArgumentException("The buffer must have room for " + amount + 
+					" points");
+		
+		if (this.trajectoryRequested != amount || this.trajectoryInterval != interval)
+		{
+			if (this.trajectory.length < 2 * amount)
+				this.trajectory = new double[2 * amount];
+			
+			reset();
+			int written = 0;
+			while (written < amount)
+			{
+				double previousX = this.x, previousY = this.y;
+				advance(interval);
+				boolean hit = this.query != null && hitsObstacle(previousX, previousY);
+				
+				this.trajectory[2 * written] = this.x;
+				this.trajectory[2 * written + 1] = this.y;
+				written ++;
+				if (hit)
+					break;
+			}
+			
+			this.trajectoryInterval = interval;
+			this.trajectoryRequested = amount;
+			this.trajectoryAmount = written;
+		}
+		
+		System.arraycopy(this.trajectory, 0, buffer, 0, 2 * this.trajectoryAmount);
+		return this.trajectoryAmount;
+	}
+	
+	private void reset()
+	{
+		this.x = this.startX;
+		this.y = this.startY;
+		this.velocityX = this.startVelocityX;
+		this.velocityY = this.startVelocityY;
+		this.time = 0;
+	}
+	
+	private void advance(double duration)
+	{
+		// The acceleration changes only when an impulse ends
+		double end = this.time + duration;
+		while (this.time < end)
+		{
+			double ax = this.accelerationX, ay = this.accelerationY;
+			double partEnd = end;
+			for (int i = 0; i < this.impulseAmount; i++)
+			{
+				double impulseEnd = this.impulseEnd[i];
+				if (impulseEnd > this.time)
+				{
+					ax += this.impulseX[i];
+					ay += this.impulseY[i];
+					partEnd = Math.min(partEnd, impulseEnd);
+				}
+			}
+			
+			advance(partEnd - this.time, ax, ay);
+			this.time = partEnd;
+		}
+	}
+	
+	private void advance(double duration, double ax, double ay)
+	{
+		// x = x0 + v * t + a * t^2 / 2
+		if (this.frictionDecrease <= 0 || !this.dynamic)
+		{
+			move(duration, ax, ay);
+			return;
+		}
+		
+		if (ax == 0 && ay == 0)
+		{
+			// Friction alone slows the object down along a straight line until it stops
+			double speed = Math.sqrt(this.velocityX * this.velocityX + 
+					this.velocityY * this.velocityY);
+			if (speed == 0)
+				return;
+			double t = Math.min(duration, speed / this.frictionDecrease);
+			move(t, -this.velocityX / speed * this.frictionDecrease, 
+					-this.velocityY / speed * this.frictionDecrease);
+			if (t < duration)
+			{
+				this.velocityX = 0;
+				this.velocityY = 0;
+			}
+			return;
+		}
+		
+		// Otherwise the direction of the friction changes along the way, so it is kept 
+		// the same over short pieces of the path
+		int pieces = (int) Math.min(MAX_FRICTION_PIECES, 
+				Math.max(1, Math.ceil(duration / FRICTION_PIECE_DURATION)));
+		double pieceDuration = duration / pieces;
+		for (int i = 0; i < pieces; i++)
+		{
+			double speed = Math.sqrt(this.velocityX * this.velocityX + 
+					this.velocityY * this.velocityY);
+			if (speed == 0)
+			{
+				moveFromRest(pieceDuration, ax, ay);
+				continue;
+			}
+			
+			double directionX = this.velocityX / speed, directionY = this.velocityY / speed;
+			double totalX = ax - directionX * this.frictionDecrease;
+			double totalY = ay - directionY * this.frictionDecrease;
+			
+			// The friction can stop the object but never reverse its movement
+			double deceleration = -(totalX * directionX + totalY * directionY);
+			double stopTime = deceleration > 0 ? speed / deceleration : pieceDuration;
+			if (stopTime >= pieceDuration)
+				move(pieceDuration, totalX, totalY);
+			else
+			{
+				move(stopTime, totalX, totalY);
+				this.velocityX = 0;
+				this.velocityY = 0;
+				moveFromRest(pieceDuration - stopTime, ax, ay);
+			}
+		}
+	}
+	
+	private void moveFromRest(double duration, double ax, double ay)
+	{
+		// A resting object only starts moving if the force overcomes the friction
+		double accelerationLength = Math.sqrt(ax * ax + ay * ay);
+		if (accelerationLength <= this.frictionDecrease)
+			return;
+		double scale = (accelerationLength - this.frictionDecrease) / accelerationLength;
+		move(duration, ax * scale, ay * scale);
+	}
+	
+	private void move(double t, double ax, double ay)
+	{
+		this.x += this.velocityX * t + 0.5 * ax * t * t;
+		this.y += this.velocityY * t + 0.5 * ay * t * t;
+		this.velocityX += ax * t;
+		this.velocityY += ay * t;
+	}
+	
+	private boolean hitsObstacle(double previousX, double previousY)
+	{
+		if (previousX == this.x && previousY == this.y)
+			return false;
+		// The path starts inside the object's own collider, which would be hit right away
+		Vector3D hit = this.query.findFirstHit(new Vector3D(previousX, previousY), 
+				new Vector3D(this.x, this.y), this.owner);
+		if (hit == null)
+			return false;
+		
+		this.x = hit.getFirst();
+		this.y = hit.getSecond();
+		return true;
+	}
+}
@@ -0,0 +1,116 @@
+package motion_replay;
+
+/**
+ * JournalCommands are the different kinds of external commands that can be recorded into a 
+ * motion journal. Each command has a unique identifier byte and a fixed number of double 
+ * parameters following the identifier and the body id in the journal.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public enum JournalCommand
+{
+	/**
+	 * ObjectMover.applyForce(force). Parameters: force x, force y
+	 */
+	APPLY_FORCE(1, 2), 
+	/**
+	 * ObjectMover.applyImpulse(impulse). Parameters: force x, force y, duration
+	 */
+	APPLY_IMPULSE(2, 3), 
+	/**
+	 * ObjectMover.negateImpulses(). No parameters
+	 */
+	NEGATE_IMPULSES(3, 0), 
+	/**
+	 * ObjectMover.setVelocity(velocity). Parameters: velocity x, velocity y
+	 */
+	SET_VELOCITY(4, 2), 
+	/**
+	 * ObjectRotator.applyMoment(force, effectPoint). Parameters: force x, force y, effect 
+	 * point x, effect point y
+	 */
+	APPLY_MOMENT(5, 4), 
+	/**
+	 * ObjectRotator.increaseRotation(acceleration). Parameters: acceleration
+	 */
+	INCREASE_ROTATION(6, 1), 
+	/**
+	 * ObjectRotator.setRotation(rotation). Parameters: rotation
+	 */
+	SET_ROTATION(7, 1), 
+	/**
+	 * ObjectRotator.setRotationOrigin(origin). Parameters: origin x, origin y
+	 */
+	SET_ROTATION_ORIGIN(8, 2), 
+	/**
+	 * ObjectMover.translate(displacement). Parameters: displacement x, displacement y
+	 */
+	TRANSLATE(9, 2), 
+	/**
+	 * ObjectRotator.rotate(angle). Parameters: angle
+	 */
+	ROTATE(10, 1);
+
+	
+	// ATTRIBUTES	-----------------------
+	
+	private final byte id;
+	private final int parameterAmount;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	private JournalCommand(int id, int parameterAmount)
+	{
+		this.id = (byte) id;
+		this.parameterAmount = parameterAmount;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The byte that identifies this command in a journal
+	 */
+	public byte getId()
+	{
+		return this.id;
+	}
+	
+	/**
+	 * @return How many double parameters follow this command in a journal
+	 */
+	public int getParameterAmount()
+	{
+		return this.parameterAmount;
+	}
+	
+	/**
+	 * @return How many bytes a single record of this command takes (including the 
+	 * identifier and the body id)
+	 */
+	public int getRecordSize()
+	{
+		return 1 + 4 + 8 * getParameterAmount();
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Finds the command that has the given identifier
+	 * @param id The identifier of the command
+	 * @return The command with the given identifier or null if there is no such command
+	 */
+	public static JournalCommand forId(byte id)
+	{
+		for (JournalCommand command : values())
+		{
+			if (command.id == id)
+				return command;
+		}
+		
+		return null;
+	}
+}
@@ -0,0 +1,414 @@
+package motion_replay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import genesis_event.Actor;
+import genesis_event.HandlerRelay;
+import genesis_util.SimpleHandled;
+import genesis_util.Transformation;
+import genesis_util.Vector3D;
+import motion_movement.Movable;
+import motion_movement.ObjectMover;
+import motion_movement.ObjectRotator;
+import motion_movement.Physical;
+import motion_movement.Rotateable;
+import motion_util.Impulse;
+
+/**
+ * MotionJournal records the external commands given to objectMovers and objectRotators into 
+ * a memory-mapped file so that the simulation can be replayed later with a 
+ * {@link MotionJournalReplayer}. The journal marks the end of each step and writes a 
+ * keyframe of the registered objects' states every once in a while. Each object's starting 
+ * state is written when it is registered. The journal should be added to the handlers 
+ * after the recorded objects so that it is the last one to act each step. Commands given 
+ * after an object has already moved on a step are written after that step's marker, since 
+ * they only take effect on the next step.
+ * <p>
+ * The file starts with a header (int magic, int version, long data end) which is followed 
+ * by the records. Each record starts with a single identifier byte. Commands are followed 
+ * by the body id and the command parameters, step markers by the step index and the step 
+ * duration and keyframes by the step index, the amount of bodies and the state of each 
+ * body (id, x, y, angle, velocity x, velocity y, rotation, acceleration x, acceleration y, 
+ * skipped move duration, rotation acceleration, skipped rotation duration, the amount of 
+ * impulses and the force x, force y and duration of each impulse). The file is mapped in 
+ * segments, so it may grow past the size of a single mapping.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class MotionJournal extends SimpleHandled implements Actor
+{
+	// ATTRIBUTES	--------------------------
+	
+	static final int MAGIC = 0x4D4F544A; // "MOTJ"
+	static final int VERSION = 2;
+	static final int HEADER_SIZE = 16;
+	static final byte STEP_MARKER = 100;
+	static final byte KEYFRAME_MARKER = 101;
+	static final int KEYFRAME_BODY_SIZE = 4 + 11 * 8 + 4;
+	static final int IMPULSE_SIZE = 3 * 8;
+	// A single mapping can't be larger than Integer.MAX_VALUE bytes
+	static final int MAX_SEGMENT_SIZE = 1 << 30;
+	
+	private FileChannel channel;
+	private MappedByteBuffer header, buffer;
+	private ByteBuffer lateRecords;
+	private List<Physical> bodies;
+	private int step, keyframeInterval, segmentSize;
+	private long segmentStart;
+	
+	
+	// CONSTRUCTOR	--------------------------
+	
+	/**
+	 * Creates a new journal. Any previous contents of the file are overwritten.
+	 * @param handlers The handlers that will handle the journal
+	 * @param file The file the journal is written into
+	 * @param keyframeInterval How many steps there are between two keyframes
+	 * @throws IOException If the file couldn't be opened or mapped
+	 */
+	public MotionJournal(HandlerRelay handlers, Path file, int keyframeInterval)
+			throws IOException
+	{
+		super(handlers);
+		
+		this.bodies = new ArrayList<>();
+		this.step = 0;
+		this.keyframeInterval = Math.max(1, keyframeInterval);
+		this.lateRecords = ByteBuffer.allocate(256);
+		this.segmentStart = HEADER_SIZE;
+		this.segmentSize = 1 << 20;
+		
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, 
+				StandardOpenOption.READ, StandardOpenOption.WRITE, 
+				StandardOpenOption.TRUNCATE_EXISTING);
+		this.header = this.channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE);
+		this.buffer = this.channel.map(MapMode.READ_WRITE, this.segmentStart, 
+				this.segmentSize);
+		
+		this.header.putInt(MAGIC);
+		this.header.putInt(VERSION);
+		this.header.putLong(HEADER_SIZE);
+	}
+	
+	
+	// IMPLEMENTED METHODS	------------------
+	
+	@Override
+	public void act(double duration)
+	{
+		if (this.buffer == null)
+			return;
+		
+		ensureCapacity(1 + 4 + 8);
+		this.buffer.put(STEP_MARKER);
+		this.buffer.putInt(this.step);
+		this.buffer.putDouble(duration);
+		
+		// The commands given after the objects moved are replayed before the next step
+		if (this.lateRecords.position() > 0)
+		{
+			this.lateRecords.flip();
+			ensureCapacity(this.lateRecords.remaining());
+			this.buffer.put(this.lateRecords);
+			this.lateRecords.clear();
+		}
+		
+		this.step ++;
+		if (this.step % this.keyframeInterval == 0)
+			writeKeyframe();
+		else
+			updateDataEnd();
+	}
+	
+	
+	// GETTERS & SETTERS	------------------
+	
+	/**
+	 * @return The index of the step that is currently being recorded
+	 */
+	public int getStep()
+	{
+		return this.step;
+	}
+	
+	
+	// OTHER METHODS	----------------------
+	
+	/**
+	 * Starts recording the commands given to the object's mover and / or rotator. The 
+	 * objects should be registered in the same order in the replayer.
+	 * @param body The object that is recorded
+	 * @return The id of the object in this journal
+	 */
+	public int register(Physical body)
+	{
+		int id = this.bodies.size();
+		this.bodies.add(body);
+		
+		ObjectMover mover = getMover(body);
+		ObjectRotator rotator = getRotator(body);
+		if (mover != null)
+			mover.setJournal(this, id);
+		if (rotator != null)
+			rotator.setJournal(this, id);
+		
+		// The replay starts from the state the object had when it was registered
+		if (this.buffer != null)
+		{
+			writeKeyframe(id, id + 1);
+			updateDataEnd();
+		}
+		
+		return id;
+	}
+	
+	/**
+	 * Records a command given to an object
+	 * @param command The command that was given
+	 * @param bodyId The id of the object the command was given to
+	 * @param afterMove Was the command given after the object had already moved on this 
+	 * step, so that it only takes effect on the next step
+	 * @param parameters The parameters of the command
+	 */
+	public void record(JournalCommand command, int bodyId, boolean afterMove, 
+			double... parameters)
+	{
+		ByteBuffer target = startRecord(command, bodyId, afterMove);
+		if (target == null)
+			return;
+		
+		for (int i = 0; i < command.getParameterAmount(); i++)
+		{
+			target.putDouble(parameters[i]);
+		}
+	}
+	
+	/**
+	 * Records a command that takes no parameters
+	 * @param command The command that was given
+	 * @param bodyId The id of the object the command was given to
+	 * @param afterMove Was the command given after the object had already moved on this 
+	 * step
+	 */
+	public void record(JournalCommand command, int bodyId, boolean afterMove)
+	{
+		startRecord(command, bodyId, afterMove);
+	}
+	
+	/**
+	 * Records a command that takes a single parameter
+	 * @param command The command that was given
+	 * @param bodyId The id of the object the command was given to
+	 * @param afterMove Was the command given after the object had already moved on this 
+	 * step
+	 * @param parameter The parameter of the command
+	 */
+	public void record(JournalCommand command, int bodyId, boolean afterMove, 
+			double parameter)
+	{
+		ByteBuffer target = startRecord(command, bodyId, afterMove);
+		if (target != null)
+			target.putDouble(parameter);
+	}
+	
+	/**
+	 * Records a command that takes a vector parameter
+	 * @param command The command that was given
+	 * @param bodyId The id of the object the command was given to
+	 * @param afterMove Was the command given after the object had already moved on this 
+	 * step
+	 * @param vector The parameter of the command
+	 */
+	public void record(JournalCommand command, int bodyId, boolean afterMove, 
+			Vector3D vector)
+	{
+		ByteBuffer target = startRecord(command, bodyId, afterMove);
+		if (target == null)
+			return;
+		
+		target.putDouble(vector.getFirst());
+		target.putDouble(vector.getSecond());
+	}
+	
+	/**
+	 * Writes the current state of all the registered objects into the journal. The replayer 
+	 * will restore the states when it reaches the keyframe.
+	 */
+	public void writeKeyframe()
+	{
+		if (this.buffer == null)
+			return;
+		
+		writeKeyframe(0, this.bodies.size());
+		updateDataEnd();
+	}
+	
+	/**
+	 * Finishes the journal and releases the file. The recorded objects won't be recorded 
+	 * after this.
+	 * @throws IOException If the file couldn't be closed
+	 */
+	public void close() throws IOException
+	{
+		if (this.buffer == null)
+			return;
+		
+		updateDataEnd();
+		this.buffer.force();
+		this.header.force();
+		this.buffer = null;
+		this.header = null;
+		this.channel.close();
+		
+		for (Physical body : this.bodies)
+		{
+			ObjectMover mover = getMover(body);
+			ObjectRotator rotator = getRotator(body);
+			if (mover != null)
+				mover.setJournal(null, -1);
+			if (rotator != null)
+				rotator.setJournal(null, -1);
+		}
+	}
+	
+	private void writeKeyframe(int firstId, int endId)
+	{
+		int size = 1 + 4 + 4;
+		for (int id = firstId; id < endId; id++)
+		{
+			ObjectMover mover = getMover(this.bodies.get(id));
+			size += KEYFRAME_BODY_SIZE;
+			if (mover != null)
+				size += mover.getImpulses().size() * IMPULSE_SIZE;
+		}
+		
+		ensureCapacity(size);
+		this.buffer.put(KEYFRAME_MARKER);
+		this.buffer.putInt(this.step);
+		this.buffer.putInt(endId - firstId);
+		
+		for (int id = firstId; id < endId; id++)
+		{
+			Physical body = this.bodies.get(id);
+			Transformation t = body.getTransformation();
+			ObjectMover mover = getMover(body);
+			ObjectRotator rotator = getRotator(body);
+			
+			this.buffer.putInt(id);
+			this.buffer.putDouble(t.getPosition().getFirst());
+			this.buffer.putDouble(t.getPosition().getSecond());
+			this.buffer.putDouble(t.getAngle());
+			
+			// The forces and impulses that haven't moved the object yet are part of the state
+			Vector3D velocity = Vector3D.zeroVector(), acceleration = Vector3D.zeroVector();
+			List<Impulse> impulses = null;
+			double skipped = 0;
+			if (mover != null)
+			{
+				velocity = mover.getVelocity();
+				acceleration = mover.getAcceleration();
+				impulses = mover.getImpulses();
+				skipped = mover.getSkippedDuration();
+			}
+			this.buffer.putDouble(velocity.getFirst());
+			this.buffer.putDouble(velocity.getSecond());
+			this.buffer.putDouble(rotator == null ? 0 : rotator.getRotation());
+			this.buffer.putDouble(acceleration.getFirst());
+			this.buffer.putDouble(acceleration.getSecond());
+			this.buffer.putDouble(skipped);
+			this.buffer.putDouble(rotator == null ? 0 : rotator.getAcceleration());
+			this.buffer.putDouble(rotator == null ? 0 : rotator.getSkippedDuration());
+			
+			this.buffer.putInt(impulses == null ? 0 : impulses.size());
+			if (impulses != null)
+			{
+				for (Impulse impulse : impulses)
+				{
+					this.buffer.putDouble(impulse.getForceVector().getFirst());
+					this.buffer.putDouble(impulse.getForceVector().getSecond());
+					this.buffer.putDouble(impulse.getDuration());
+				}
+			}
+		}
+	}
+	
+	private ByteBuffer startRecord(JournalCommand command, int bodyId, boolean afterMove)
+	{
+		if (this.buffer == null)
+			return null;
+		
+		ByteBuffer target;
+		if (afterMove)
+		{
+			if (this.lateRecords.remaining() < command.getRecordSize())
+			{
+				ByteBuffer larger = ByteBuffer.allocate(2 * this.lateRecords.capacity() + 
+						command.getRecordSize());
+				this.lateRecords.flip();
+				larger.put(this.lateRecords);
+				this.lateRecords = larger;
+			}
+			target = this.lateRecords;
+		}
+		else
+		{
+			ensureCapacity(command.getRecordSize());
+			target = this.buffer;
+		}
+		
+		target.put(command.getId());
+		target.putInt(bodyId);
+		return target;
+	}
+	
+	private void updateDataEnd()
+	{
+		this.header.putLong(8, this.segmentStart + this.buffer.position());
+	}
+	
+	private void ensureCapacity(int bytes)
+	{
+		if (this.buffer.remaining() >= bytes)
+			return;
+		
+		// The next segment is mapped right where the written data ends, so the records stay 
+		// contiguous in the file. Only the segments stay below the size limit of a mapping.
+		this.segmentStart += this.buffer.position();
+		this.segmentSize = Math.max(bytes, Math.min(MAX_SEGMENT_SIZE, 2 * this.segmentSize));
+		
+		try
+		{
+			this.buffer.force();
+			this.buffer = this.channel.map(MapMode.READ_WRITE, this.segmentStart, 
+					this.segmentSize);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException("Couldn't extend the motion journal", e);
+		}
+	}
+	
+	static ObjectMover getMover(Physical body)
+	{
+		if (body instanceof Movable)
+			return ((Movable) body).getMover();
+		return null;
+	}
+	
+	static ObjectRotator getRotator(Physical body)
+	{
+		if (body instanceof Rotateable)
+			return ((Rotateable) body).getRotator();
+		return null;
+	}
+}
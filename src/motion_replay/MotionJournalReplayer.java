@@ -0,0 +1,305 @@
+package motion_replay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import genesis_util.Transformation;
+import genesis_util.Vector3D;
+import motion_movement.ObjectMover;
+import motion_movement.ObjectRotator;
+import motion_movement.Physical;
+import motion_util.Impulse;
+
+/**
+ * MotionJournalReplayer runs a recorded motion journal on a set of objects as fast as 
+ * possible. The replayer steps the objects' movers and rotators itself, so the objects 
+ * should be created with handlers that don't contain an actor handler (headless). Only 
+ * the physics are replayed, the objects' own logic isn't run. The journal is mapped in 
+ * segments, so it may be larger than a single mapping.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class MotionJournalReplayer
+{
+	// ATTRIBUTES	--------------------------
+	
+	private Path file;
+	private MappedByteBuffer buffer;
+	private long bufferStart, dataEnd;
+	private List<Physical> bodies;
+	private int stepsReplayed;
+	
+	
+	// CONSTRUCTOR	--------------------------
+	
+	/**
+	 * Creates a new replayer that reads the given journal file
+	 * @param file The journal file written by a {@link MotionJournal}
+	 * @throws IOException If the file couldn't be read or if it isn't a motion journal
+	 */
+	public MotionJournalReplayer(Path file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0, 
+					MotionJournal.HEADER_SIZE);
+			if (header.getInt() != MotionJournal.MAGIC)
+				throw new IOException(file + " is not a motion journal");
+			if (header.getInt() != MotionJournal.VERSION)
+				throw new IOException("Unsupported motion journal version in " + file);
+			this.dataEnd = header.getLong();
+		}
+			
+		this.file = file;
+		this.bufferStart = MotionJournal.HEADER_SIZE;
+		map(MotionJournal.HEADER_SIZE, 0);
+		
+		this.bodies = new ArrayList<>();
+		this.stepsReplayed = 0;
+	}
+	
+	
+	// GETTERS & SETTERS	------------------
+	
+	/**
+	 * @return How many steps have been replayed so far
+	 */
+	public int getStepsReplayed()
+	{
+		return this.stepsReplayed;
+	}
+	
+	/**
+	 * @return Does the journal still have unread records
+	 */
+	public boolean hasMoreSteps()
+	{
+		return getPosition() < this.dataEnd;
+	}
+	
+	
+	// OTHER METHODS	----------------------
+	
+	/**
+	 * Registers an object to the replay. The objects should be registered in the same order 
+	 * they were registered to the journal.
+	 * @param body The object that is affected by the replay
+	 * @return The id of the object in the replay
+	 */
+	public int register(Physical body)
+	{
+		this.bodies.add(body);
+		return this.bodies.size() - 1;
+	}
+	
+	/**
+	 * Replays the whole remaining journal
+	 * @return How many steps were replayed
+	 */
+	public int replay()
+	{
+		int steps = 0;
+		while (replayStep())
+		{
+			steps ++;
+		}
+		
+		return steps;
+	}
+	
+	/**
+	 * Replays the journal until the end of the next step
+	 * @return Was a step replayed. False if the end of the journal was reached.
+	 */
+	public boolean replayStep()
+	{
+		while (hasMoreSteps())
+		{
+			require(1);
+			byte id = this.buffer.get();
+			
+			if (id == MotionJournal.STEP_MARKER)
+			{
+				require(4 + 8);
+				this.buffer.getInt();
+				step(this.buffer.getDouble());
+				return true;
+			}
+			else if (id == MotionJournal.KEYFRAME_MARKER)
+				readKeyframe();
+			else
+			{
+				JournalCommand command = JournalCommand.forId(id);
+				if (command == null)
+					throw new IllegalStateException("Unknown record " + id + 
+							" in motion journal at " + (getPosition() - 1));
+				readCommand(command);
+			}
+		}
+		
+		return false;
+	}
+	
+	private void step(double duration)
+	{
+		for (Physical body : this.bodies)
+		{
+			ObjectMover mover = MotionJournal.getMover(body);
+			ObjectRotator rotator = MotionJournal.getRotator(body);
+			
+			if (mover != null)
+				mover.act(duration);
+			if (rotator != null)
+				rotator.act(duration);
+		}
+		
+		this.stepsReplayed ++;
+	}
+	
+	private void readKeyframe()
+	{
+		require(4 + 4);
+		this.buffer.getInt();
+		int bodyAmount = this.buffer.getInt();
+		
+		for (int i = 0; i < bodyAmount; i++)
+		{
+			require(MotionJournal.KEYFRAME_BODY_SIZE);
+			Physical body = getBody(this.buffer.getInt());
+			Vector3D position = new Vector3D(this.buffer.getDouble(), this.buffer.getDouble());
+			double angle = this.buffer.getDouble();
+			Vector3D velocity = new Vector3D(this.buffer.getDouble(), this.buffer.getDouble());
+			double rotation = this.buffer.getDouble();
+			Vector3D acceleration = new Vector3D(this.buffer.getDouble(), 
+					this.buffer.getDouble());
+			double skippedMove = this.buffer.getDouble();
+			double rotationAcceleration = this.buffer.getDouble();
+			double skippedRotation = this.buffer.getDouble();
+			
+			int impulseAmount = this.buffer.getInt();
+			require(impulseAmount * MotionJournal.IMPULSE_SIZE);
+			List<Impulse> impulses = new ArrayList<>(impulseAmount);
+			for (int j = 0; j < impulseAmount; j++)
+			{
+				Vector3D force = new Vector3D(this.buffer.getDouble(), this.buffer.getDouble());
+				impulses.add(new Impulse(force, this.buffer.getDouble()));
+			}
+			
+			if (body == null)
+				continue;
+			
+			Transformation t = body.getTransformation();
+			body.setTrasformation(t.withPosition(position).withAngle(angle));
+			
+			ObjectMover mover = MotionJournal.getMover(body);
+			ObjectRotator rotator = MotionJournal.getRotator(body);
+			if (mover != null)
+				mover.restoreState(velocity, acceleration, impulses, skippedMove);
+			if (rotator != null)
+				rotator.restoreState(rotation, rotationAcceleration, skippedRotation);
+		}
+	}
+	
+	private void readCommand(JournalCommand command)
+	{
+		require(command.getRecordSize() - 1);
+		Physical body = getBody(this.buffer.getInt());
+		double[] p = new double[command.getParameterAmount()];
+		for (int i = 0; i < p.length; i++)
+		{
+			p[i] = this.buffer.getDouble();
+		}
+		
+		if (body == null)
+			return;
+		
+		ObjectMover mover = MotionJournal.getMover(body);
+		ObjectRotator rotator = MotionJournal.getRotator(body);
+		
+		switch (command)
+		{
+			case APPLY_FORCE:
+				if (mover != null)
+					mover.applyForce(new Vector3D(p[0], p[1]));
+				break;
+			case APPLY_IMPULSE:
+				if (mover != null)
+					mover.applyImpulse(new Impulse(new Vector3D(p[0], p[1]), p[2]));
+				break;
+			case NEGATE_IMPULSES:
+				if (mover != null)
+					mover.negateImpulses();
+				break;
+			case SET_VELOCITY:
+				if (mover != null)
+					mover.setVelocity(new Vector3D(p[0], p[1]));
+				break;
+			case APPLY_MOMENT:
+				if (rotator != null)
+					rotator.applyMoment(new Vector3D(p[0], p[1]), new Vector3D(p[2], p[3]));
+				break;
+			case INCREASE_ROTATION:
+				if (rotator != null)
+					rotator.increaseRotation(p[0]);
+				break;
+			case SET_ROTATION:
+				if (rotator != null)
+					rotator.setRotation(p[0]);
+				break;
+			case SET_ROTATION_ORIGIN:
+				if (rotator != null)
+					rotator.setRotationOrigin(new Vector3D(p[0], p[1]));
+				break;
+			case TRANSLATE:
+				if (mover != null)
+					mover.translate(new Vector3D(p[0], p[1]));
+				break;
+			case ROTATE:
+				if (rotator != null)
+					rotator.rotate(p[0]);
+				break;
+		}
+	}
+	
+	private long getPosition()
+	{
+		return this.bufferStart + this.buffer.position();
+	}
+	
+	// Makes sure the next bytes are in the mapped segment
+	private void require(int bytes)
+	{
+		if (this.buffer.remaining() < bytes)
+			map(getPosition(), bytes);
+	}
+	
+	private void map(long start, int minSize)
+	{
+		long size = Math.min(this.dataEnd - start, 
+				Math.max(minSize, MotionJournal.MAX_SEGMENT_SIZE));
+		try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ))
+		{
+			this.buffer = channel.map(MapMode.READ_ONLY, start, size);
+			this.bufferStart = start;
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException("Couldn't read the motion journal", e);
+		}
+	}
+	
+	private Physical getBody(int id)
+	{
+		if (id < 0 || id >= this.bodies.size())
+			return null;
+		return this.bodies.get(id);
+	}
+}
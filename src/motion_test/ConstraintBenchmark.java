@@ -0,0 +1,252 @@
+package motion_test;
+
+import genesis_event.HandlerRelay;
+import genesis_util.SimpleHandled;
+import genesis_util.Transformation;
+import genesis_util.Vector3D;
+import motion_movement.Movable;
+import motion_movement.ObjectMover;
+import motion_world.BodyBuffer;
+import motion_world.ConstraintSolver;
+import motion_world.ConstraintSolver.Mode;
+
+/**
+ * This class compares the impulse and the position based modes of the constraint solver 
+ * on the same scenes: a hanging chain and a piece of cloth pinned from its top edge. The 
+ * modes are given about the same amount of work per step.
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class ConstraintBenchmark
+{
+	// ATTRIBUTES	--------------------
+	
+	private static final int STEPS = 300;
+	private static final int PASSES = 8;
+	private static final double LINK_LENGTH = 10;
+	private static final double GRAVITY = 0.1;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	private ConstraintBenchmark()
+	{
+		// The interface is static
+	}
+	
+	
+	// MAIN METHOD	-------------------
+	
+	/**
+	 * Starts the benchmark
+	 * @param args The amount of links in the chain and the width of the cloth (optional, 
+	 * 200 and 50 by default)
+	 */
+	public static void main(String[] args)
+	{
+		int chainLength = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		int clothWidth = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+		HandlerRelay handlers = new HandlerRelay();
+		
+		// The first round only warms up the compiler
+		for (int round = 0; round < 2; round++)
+		{
+			for (Mode mode : Mode.values())
+			{
+				BodyBuffer bodies = new BodyBuffer();
+				ConstraintSolver solver = createSolver(mode);
+				createChain(handlers, bodies, solver, chainLength);
+				run("Chain", mode, bodies, solver);
+				
+				bodies = new BodyBuffer();
+				solver = createSolver(mode);
+				createCloth(handlers, bodies, solver, clothWidth);
+				run("Cloth", mode, bodies, solver);
+			}
+		}
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	private static ConstraintSolver createSolver(Mode mode)
+	{
+		ConstraintSolver solver = new ConstraintSolver(true);
+		solver.setMode(mode);
+		solver.setIterations(PASSES);
+		solver.setSubsteps(PASSES);
+		return solver;
+	}
+	
+	private static void createChain(HandlerRelay handlers, BodyBuffer bodies, 
+			ConstraintSolver solver, int length)
+	{
+		Link previous = null;
+		for (int i = 0; i < length; i++)
+		{
+			Link link = add(handlers, bodies, i * LINK_LENGTH, 0);
+			if (previous == null)
+				solver.addPin(bodies, link, Vector3D.zeroVector(), Vector3D.zeroVector());
+			else
+				solver.addDistance(bodies, previous, link, LINK_LENGTH);
+			previous = link;
+		}
+	}
+	
+	private static void createCloth(HandlerRelay handlers, BodyBuffer bodies, 
+			ConstraintSolver solver, int width)
+	{
+		Link[] previousRow = new Link[width];
+		for (int row = 0; row < width; row++)
+		{
+			Link previous = null;
+			for (int column = 0; column < width; column++)
+			{
+				Link link = add(handlers, bodies, column * LINK_LENGTH, row * LINK_LENGTH);
+				if (row == 0)
+					solver.addPin(bodies, link, Vector3D.zeroVector(), 
+							new Vector3D(column * LINK_LENGTH, 0));
+				else
+					solver.addDistance(bodies, previousRow[column], link, LINK_LENGTH);
+				if (previous != null)
+					solver.addDistance(bodies, previous, link, LINK_LENGTH);
+				
+				previousRow[column] = link;
+				previous = link;
+			}
+		}
+	}
+	
+	private static Link add(HandlerRelay handlers, BodyBuffer bodies, double x, double y)
+	{
+		Link link = new Link(handlers, new Vector3D(x, y));
+		int index = bodies.add(link, 1);
+		bodies.getX()[index] = x;
+		bodies.getY()[index] = y;
+		bodies.getMass()[index] = 1;
+		return link;
+	}
+	
+	private static void run(String scene, Mode mode, BodyBuffer bodies, 
+			ConstraintSolver solver)
+	{
+		// The buffer is integrated directly, the links only exist so that they can be 
+		// connected. The position based mode already places the objects without a mover 
+		// at their solved positions, so only their velocities are integrated.
+		boolean movesBodies = mode != Mode.POSITION_BASED;
+		int size = bodies.getSize();
+		double[] x = bodies.getX(), y = bodies.getY();
+		double[] velocityX = bodies.getVelocityX(), velocityY = bodies.getVelocityY();
+		double[] forceX = bodies.getForceX(), forceY = bodies.getForceY();
+		
+		long start = System.nanoTime();
+		for (int step = 0; step < STEPS; step++)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				forceX[i] = 0;
+				forceY[i] = GRAVITY;
+			}
+			solver.solve(bodies, 1);
+			for (int i = 0; i < size; i++)
+			{
+				velocityX[i] += forceX[i];
+				velocityY[i] += forceY[i];
+				if (movesBodies)
+				{
+					x[i] += velocityX[i];
+					y[i] += velocityY[i];
+				}
+			}
+		}
+		double time = (System.nanoTime() - start) / 1000000.0 / STEPS;
+		
+		System.out.println(scene + " (" + solver.getSize() + " connections, " + 
+				solver.getBatchAmount() + " batches), " + mode + ": " + time + 
+				" ms / step, longest link " + getLongestLink(scene, x, y, size) + 
+				" (rest length " + LINK_LENGTH + ")");
+	}
+	
+	private static double getLongestLink(String scene, double[] x, double[] y, int size)
+	{
+		// The links are in the buffer in the order they were created in
+		double longest = 0;
+		if (scene.equals("Chain"))
+		{
+			for (int i = 1; i < size; i++)
+			{
+				longest = Math.max(longest, getDistance(x, y, i - 1, i));
+			}
+		}
+		else
+		{
+			int width = (int) Math.round(Math.sqrt(size));
+			for (int i = 0; i < size; i++)
+			{
+				if (i % width > 0)
+					longest = Math.max(longest, getDistance(x, y, i - 1, i));
+				if (i >= width)
+					longest = Math.max(longest, getDistance(x, y, i - width, i));
+			}
+		}
+		return longest;
+	}
+	
+	private static double getDistance(double[] x, double[] y, int first, int second)
+	{
+		double dx = x[second] - x[first], dy = y[second] - y[first];
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+	
+	
+	// NESTED CLASSES	----------------
+	
+	/**
+	 * A simple object that can be connected to other objects
+	 * 
+	 * @author Mikko Hilpinen
+	 * @since 19.10.2026
+	 */
+	private static class Link extends SimpleHandled implements Movable
+	{
+		// ATTRIBUTES	----------------
+		
+		private Transformation transformation;
+		
+		
+		// CONSTRUCTOR	----------------
+		
+		public Link(HandlerRelay handlers, Vector3D position)
+		{
+			super(handlers);
+			this.transformation = new Transformation(position);
+		}
+		
+		
+		// IMPLEMENTED METHODS	--------
+		
+		@Override
+		public Transformation getTransformation()
+		{
+			return this.transformation;
+		}
+		
+		@Override
+		public void setTrasformation(Transformation t)
+		{
+			this.transformation = t;
+		}
+		
+		@Override
+		public double getMass()
+		{
+			return 1;
+		}
+		
+		@Override
+		public ObjectMover getMover()
+		{
+			return null;
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package motion_test;
+
+import java.util.Random;
+
+import genesis_util.Vector3D;
+import motion_util.IntegrationKernels;
+
+/**
+ * This class compares the speed of integrating the objects one vector at a time, like the 
+ * object movers do, to the speed of the primitive array kernels
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class IntegrationBenchmark
+{
+	// ATTRIBUTES	--------------------
+	
+	private static final int ROUNDS = 5;
+	private static final int STEPS = 20;
+	private static final double FRICTION_DECREASE = 0.01;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	private IntegrationBenchmark()
+	{
+		// The interface is static
+	}
+	
+	
+	// MAIN METHOD	-------------------
+	
+	/**
+	 * Starts the benchmark
+	 * @param args The amount of objects integrated (optional, 1 000 000 by default)
+	 */
+	public static void main(String[] args)
+	{
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		Random random = new Random(1);
+		
+		Vector3D[] positions = new Vector3D[size];
+		Vector3D[] velocities = new Vector3D[size];
+		double[] x = new double[size], y = new double[size];
+		double[] velocityX = new double[size], velocityY = new double[size];
+		double[] forceX = new double[size], forceY = new double[size];
+		double[] mass = new double[size];
+		for (int i = 0; i < size; i++)
+		{
+			x[i] = random.nextDouble() * 1000;
+			y[i] = random.nextDouble() * 1000;
+			velocityX[i] = random.nextDouble() - 0.5;
+			velocityY[i] = random.nextDouble() - 0.5;
+			mass[i] = 1 + random.nextDouble();
+			positions[i] = new Vector3D(x[i], y[i]);
+			velocities[i] = new Vector3D(velocityX[i], velocityY[i]);
+		}
+		Vector3D force = new Vector3D(0.1, 0.2);
+		
+		// The first rounds only warm up the compiler
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			long start = System.nanoTime();
+			for (int step = 0; step < STEPS; step++)
+			{
+				integrateVectors(positions, velocities, mass, force, 1);
+			}
+			double vectorTime = (System.nanoTime() - start) / 1000000.0 / STEPS;
+			
+			start = System.nanoTime();
+			for (int step = 0; step < STEPS; step++)
+			{
+				IntegrationKernels.addForce(forceX, forceY, force.getFirst(), 
+						force.getSecond(), size);
+				IntegrationKernels.integrate(x, y, velocityX, velocityY, forceX, forceY, 
+						mass, FRICTION_DECREASE, 1, size);
+			}
+			double kernelTime = (System.nanoTime() - start) / 1000000.0 / STEPS;
+			
+			System.out.println("Round " + (round + 1) + ": vectors " + vectorTime + 
+					" ms / step, kernels " + kernelTime + " ms / step, speedup " + 
+					vectorTime / kernelTime);
+		}
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	private static void integrateVectors(Vector3D[] positions, Vector3D[] velocities, 
+			double[] mass, Vector3D force, double duration)
+	{
+		for (int i = 0; i < positions.length; i++)
+		{
+			Vector3D velocity = velocities[i].plus(force.dividedBy(mass[i]).times(duration));
+			
+			// The friction won't be changing the sign of the velocity
+			double speed = velocity.getLength();
+			if (speed > FRICTION_DECREASE)
+				velocity = velocity.withLength(speed - FRICTION_DECREASE);
+			else
+				velocity = Vector3D.zeroVector();
+			
+			velocities[i] = velocity;
+			positions[i] = positions[i].plus(velocity.times(duration));
+		}
+	}
+}
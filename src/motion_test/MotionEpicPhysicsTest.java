@@ -1,6 +1,5 @@
 package motion_test;
 
-import conflict_collision.CollisionHandler;
 import genesis_event.ActorHandler;
 import genesis_event.DrawableHandler;
 import genesis_event.HandlerRelay;
@@ -8,6 +7,8 @@ import genesis_event.MouseListenerHandler;
 import genesis_util.Vector3D;
 import genesis_video.GamePanel;
 import genesis_video.GameWindow;
+import motion_field.UniformGravityField;
+import motion_world.PhysicsWorld;
 
 /**
  * This test tests the most advanced physics stuff this module has
@@ -41,17 +42,34 @@ public class MotionEpicPhysicsTest
 		handlers.addHandler(new ActorHandler(false, window.getHandlerRelay()));
 		handlers.addHandler(new MouseListenerHandler(false, window.getHandlerRelay()));
 		handlers.addHandler(new DrawableHandler(false, panel.getDrawer()));
-		new CollisionHandler(false, window.getHandlerRelay(), handlers);
 		
-		new TestPhysicObject(handlers, new Vector3D(150, 250), windowSize);
+		PhysicsWorld world = new PhysicsWorld(handlers);
+		// The objects used to push themselves down with a constant force of 1, which 
+		// accelerated their mass of 10 by 0.1. World gravity accelerates every object 
+		// equally, regardless of its material.
+		world.addForceField(new UniformGravityField(new Vector3D(0, 0.1)));
+		
+		TestPhysicObject first = new TestPhysicObject(handlers, new Vector3D(150, 250), 
+				windowSize);
 		//new TestPhysicObject(handlers, new Vector3D(350, 250), windowSize);
 		//new TestPhysicObject(handlers, new Vector3D(250, 150), windowSize);
 		//new TestPhysicObject(handlers, new Vector3D(250, 350), windowSize);
-		new TestPhysicObject(handlers, new Vector3D(250, 250), windowSize);
+		TestPhysicObject second = new TestPhysicObject(handlers, new Vector3D(250, 250), 
+				windowSize);
+		world.addBody(first);
+		world.addBody(second);
+		world.addCollider(first.getCollider());
+		world.addCollider(second.getCollider());
+		
+		new TestExplosionClicker(handlers, world);
 		
-		new TestWall(handlers, new Vector3D(0, 0), new Vector3D(10, windowSize.getSecond()));
-		new TestWall(handlers, new Vector3D(0, 0), new Vector3D(windowSize.getFirst(), 10));
-		new TestWall(handlers, new Vector3D(0, windowSize.getSecond()), new Vector3D(windowSize.getFirst(), 10));
-		new TestWall(handlers, new Vector3D(windowSize.getFirst(), 0), new Vector3D(10, windowSize.getSecond()));
+		world.addObstacle(new TestWall(handlers, new Vector3D(0, 0), new Vector3D(10, 
+				windowSize.getSecond())).getCollider());
+		world.addObstacle(new TestWall(handlers, new Vector3D(0, 0), new Vector3D(
+				windowSize.getFirst(), 10)).getCollider());
+		world.addObstacle(new TestWall(handlers, new Vector3D(0, windowSize.getSecond()), 
+				new Vector3D(windowSize.getFirst(), 10)).getCollider());
+		world.addObstacle(new TestWall(handlers, new Vector3D(windowSize.getFirst(), 0), 
+				new Vector3D(10, windowSize.getSecond())).getCollider());
 	}
 }
@@ -8,6 +8,8 @@ import genesis_util.Transformation;
 import genesis_util.Vector3D;
 import genesis_video.GamePanel;
 import genesis_video.GameWindow;
+import motion_field.UniformGravityField;
+import motion_world.PhysicsWorld;
 
 /**
  * This class tests the basic features introduced in this module
@@ -43,8 +45,16 @@ public class MotionTest
 		handlers.addHandler(new ActorHandler(false, window.getStepHandler()));
 		handlers.addHandler(new MouseListenerHandler(false, window.getHandlerRelay()));
 		
+		// Creates the world
+		PhysicsWorld world = new PhysicsWorld(handlers);
+		// The follower used to apply a force of 0.01 per step to its mass of 1 itself.
+		// World gravity gives every object the same acceleration.
+		world.addForceField(new UniformGravityField(new Vector3D(0, 0.01)));
+		
 		// Creates the test object(s)
-		new TestMouseFollowerMovable(handlers).setTrasformation(
-				Transformation.transitionTransformation(new Vector3D(400, 300)));
+		TestMouseFollowerMovable follower = new TestMouseFollowerMovable(handlers);
+		follower.setTrasformation(Transformation.transitionTransformation(
+				new Vector3D(400, 300)));
+		world.addBody(follower);
 	}
 }
@@ -12,6 +12,7 @@ import genesis_util.Transformation;
 import genesis_util.Vector3D;
 import motion_movement.Movable;
 import motion_movement.ObjectMover;
+import motion_util.Material;
 
 /**
  * This class is used for testing momentums. It's a bit grude for the lack of conflict module.
@@ -117,7 +118,7 @@ public class TestDisk extends SimpleHandled implements Movable, Drawable, Actor
 			getMover().setDirectionalVelocity(new Vector3D(0, -Math.abs(getMover().getVelocity().getSecond())));
 		
 		// Also calculates friction
-		getMover().applyFriction(0.3, duration, 0.098);
+		getMover().applyFriction(Material.WOOD, Material.WOOD, duration, 0.098);
 	}
 
 	
@@ -0,0 +1,65 @@
+package motion_test;
+
+import genesis_event.EventSelector;
+import genesis_event.HandlerRelay;
+import genesis_event.MouseEvent;
+import genesis_event.MouseEvent.MouseButton;
+import genesis_event.MouseEvent.MouseButtonEventType;
+import genesis_event.MouseListener;
+import genesis_event.StrictEventSelector;
+import genesis_util.SimpleHandled;
+import genesis_util.Vector3D;
+import motion_world.Falloff;
+import motion_world.PhysicsWorld;
+
+/**
+ * This object causes a small explosion in the world whenever the mouse is pressed. All the 
+ * objects near the mouse are pushed away in a single world-level query.
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class TestExplosionClicker extends SimpleHandled implements MouseListener
+{
+	// ATTRIBUTES	------------------------
+	
+	private PhysicsWorld world;
+	private StrictEventSelector<MouseEvent, MouseEvent.Feature> selector;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	/**
+	 * Creates a new clicker
+	 * @param handlers The handlers that will handle the clicker
+	 * @param world The world the explosions happen in
+	 */
+	public TestExplosionClicker(HandlerRelay handlers, PhysicsWorld world)
+	{
+		super(handlers);
+		
+		this.world = world;
+		this.selector = MouseEvent.createMouseButtonSelector(MouseButton.LEFT);
+		this.selector.addRequiredFeature(MouseButtonEventType.PRESSED);
+	}
+	
+	
+	// IMPLEMENTED METHODS	----------------
+	
+	@Override
+	public EventSelector<MouseEvent> getMouseEventSelector()
+	{
+		return this.selector;
+	}
+	
+	@Override
+	public boolean isInAreaOfInterest(Vector3D position)
+	{
+		return false;
+	}
+	
+	@Override
+	public void onMouseEvent(MouseEvent event)
+	{
+		this.world.applyRadialImpulse(event.getPosition(), 200, Falloff.CONSTANT, 30);
+	}
+}
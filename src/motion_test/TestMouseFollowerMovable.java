@@ -8,6 +8,8 @@ import motion_movement.Movable;
 import motion_movement.ObjectMover;
 import motion_movement.ObjectRotator;
 import motion_movement.Rotateable;
+import motion_util.Material;
+import motion_util.MaterialInteractionTable;
 import genesis_event.Actor;
 import genesis_event.Drawable;
 import genesis_event.EventSelector;
@@ -108,8 +110,6 @@ public class TestMouseFollowerMovable extends SimpleHandled implements
 			getMover().applyForce(this.lastMousePosition.minus(
 					getTransformation().getPosition()).times(duration * 0.002));
 		
-			getMover().applyForce(new Vector3D(0, duration * 0.01));
-			
 			// Stops if too far to the right
 			if (getTransformation().getPosition().getFirst() > 500)
 			{
@@ -117,7 +117,10 @@ public class TestMouseFollowerMovable extends SimpleHandled implements
 				Vector3D p = getMover().getMomentum(new Vector3D(1, 0));
 				Vector3D f = ObjectMover.getForceCausingMomentum(p, duration).reverse();
 				
-				getMover().applyFriction(0.6, duration, f.getLength(), new Vector3D(0, 1));
+				double friction = MaterialInteractionTable.getDefaultTable().getDynamicFriction(
+						Material.STEEL, Material.STEEL);
+				
+				getMover().applyFriction(friction, duration, f.getLength(), new Vector3D(0, 1));
 				getMover().applyForce(f);
 				
 				setTrasformation(getTransformation().withPosition(new Vector3D(500, 
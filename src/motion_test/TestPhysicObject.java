@@ -6,26 +6,20 @@ import java.awt.geom.AffineTransform;
 
 import genesis_event.Actor;
 import genesis_event.Drawable;
-import genesis_event.EventSelector;
 import genesis_event.HandlerRelay;
-import genesis_event.MouseEvent;
-import genesis_event.MouseEvent.MouseButtonEventType;
-import genesis_event.MouseListener;
-import genesis_event.StrictEventSelector;
-import genesis_event.MouseEvent.MouseButton;
-import genesis_util.HelpMath;
 import genesis_util.SimpleHandled;
-import genesis_util.Transformable;
 import genesis_util.Transformation;
 import genesis_util.Vector3D;
 import motion_movement.Movable;
 import motion_movement.ObjectMover;
 import motion_movement.ObjectRotator;
 import motion_movement.Rotateable;
-import conflict_collision.CollisionChecker;
-import conflict_collision.CollisionEvent;
+import motion_util.MassProperties;
+import motion_collision.Collider;
+import motion_collision.PolygonShape;
+import motion_util.Material;
+import conflict_collision.Collidable;
 import conflict_collision.CollisionInformation;
-import conflict_collision.CollisionListener;
 
 /**
  * These physics objects are for testing the super magic secret algorithm for collision physics
@@ -33,17 +27,21 @@ import conflict_collision.CollisionListener;
  * @since 22.3.2015
  */
 public class TestPhysicObject extends SimpleHandled implements Movable,
-		Rotateable, CollisionListener, MouseListener, Drawable, Actor
+		Rotateable, Collidable, Drawable, Actor
 {
 	// ATTRIBUTES	------------------------
 	
+	private static final Material MATERIAL = Material.CLAY;
+	private static final Vector3D[] VERTICES = {new Vector3D(0, -50), new Vector3D(-30, 0), 
+			new Vector3D(0, 50), new Vector3D(30, 0)};
+	
 	private Transformation t;
 	private CollisionInformation collisionInformation;
-	private StrictEventSelector<MouseEvent, MouseEvent.Feature> selector;
-	private CollisionChecker collisionChecker;
+	private Collider collider;
 	private ObjectMover mover;
 	private ObjectRotator rotator;
 	private Vector3D windowSize;
+	private MassProperties massProperties;
 	
 	
 	// CONSTRUCTOR	------------------------
@@ -58,14 +56,10 @@ public class TestPhysicObject extends SimpleHandled implements Movable,
 	{
 		super(handlers);
 		
-		Vector3D[] vertices = {new Vector3D(0, -50), new Vector3D(-30, 0), 
-				new Vector3D(0, 50), new Vector3D(30, 0)};
-		
 		this.t = new Transformation(position);
-		this.collisionInformation = new CollisionInformation(vertices);
-		this.selector = MouseEvent.createMouseButtonSelector(MouseButton.LEFT);
-		this.selector.addRequiredFeature(MouseButtonEventType.PRESSED);
-		this.collisionChecker = new CollisionChecker(this, true, true);
+		this.massProperties = MassProperties.forPolygon(VERTICES, MATERIAL);
+		this.collisionInformation = new CollisionInformation(VERTICES);
+		this.collider = new Collider(this, new PolygonShape(VERTICES), MATERIAL);
 		this.mover = new ObjectMover(this, handlers);
 		this.rotator = new ObjectRotator(this, handlers);
 		this.windowSize = windowSize;
@@ -74,7 +68,7 @@ public class TestPhysicObject extends SimpleHandled implements Movable,
 	@Override
 	public double getMass()
 	{
-		return 10;
+		return this.massProperties.getMass();
 	}
 
 	@Override
@@ -114,73 +108,6 @@ public class TestPhysicObject extends SimpleHandled implements Movable,
 		return 0;
 	}
 
-	@Override
-	public EventSelector<MouseEvent> getMouseEventSelector()
-	{
-		return this.selector;
-	}
-
-	@Override
-	public boolean isInAreaOfInterest(Vector3D position)
-	{
-		return false;
-	}
-
-	@Override
-	public void onMouseEvent(MouseEvent event)
-	{
-		// When mouse is pressed near, adds force
-		Vector3D r = getTransformation().getPosition().minus(event.getPosition());
-		
-		if (r.getLength() < 200)
-		{
-			Vector3D force = r.withLength(30);
-			applyForce(force, event.getPosition());
-		}
-	}
-
-	@Override
-	public CollisionChecker getCollisionChecker()
-	{
-		return this.collisionChecker;
-	}
-
-	@Override
-	public void onCollisionEvent(CollisionEvent event)
-	{
-		// Only acts if listener
-		if (event.getListener().equals(this) && event.getTarget() instanceof TestPhysicObject)
-		{
-			TestPhysicObject target = (TestPhysicObject) event.getTarget();
-			Vector3D collisionPoint = HelpMath.getAveragePoint(event.getCollisionPoints());
-			
-			Vector3D impulse = ObjectRotator.getCollisionImpulse(this, target, 
-					getMover().getVelocity(), target.getMover().getVelocity(), 0, 
-					event.getMTV(), collisionPoint);
-			Vector3D force = impulse;//.dividedBy(event.getDuration());
-					
-			//System.out.println(event.getDuration());
-			//System.out.println(getMover().getVelocity().getLength() + target.getMover().getVelocity().getLength());
-			
-			applyForce(force, collisionPoint);
-			target.applyForce(force.reverse(), collisionPoint);
-			//getMover().handleCollisionWith(target, event.getDuration(), event.getMTV());
-			Transformable.transform(this, Transformation.transitionTransformation(event.getMTV().plus(1)));
-		}
-		else if (event.getTarget() instanceof TestWall)
-		{
-			Vector3D collisionPoint = HelpMath.getAveragePoint(event.getCollisionPoints());
-			
-			Vector3D impulse = ObjectRotator.getCollisionImpulse(this, 
-					getMover().getVelocity(), 0, event.getMTV(), collisionPoint);
-			Vector3D force = impulse;//.dividedBy(event.getDuration());
-			
-			applyForce(force, collisionPoint);
-			//getMover().handleCollisionWith(target, event.getDuration(), event.getMTV());
-			Transformable.transform(this, Transformation.transitionTransformation(event.getMTV().plus(1)));
-		}
-	}
-
 	@Override
 	public ObjectRotator getRotator()
 	{
@@ -190,8 +117,7 @@ public class TestPhysicObject extends SimpleHandled implements Movable,
 	@Override
 	public double getDefaultMomentMass()
 	{
-		return Rotateable.getCylinderMomentMass(getMass(), 
-				getCollisionInformation().getRadius());
+		return this.massProperties.getMomentMass();
 	}
 
 	@Override
@@ -222,16 +148,17 @@ public class TestPhysicObject extends SimpleHandled implements Movable,
 		if (newVelocity != null)
 			getMover().setVelocity(newVelocity);
 			*/
-		applyForce(new Vector3D(0, 1), getTransformation().getPosition());
+		// Gravity is applied by the physics world
 	}
 	
 	
-	// OTHER METHODS	---------------------
+	// GETTERS & SETTERS	-----------------
 	
-	private void applyForce(Vector3D force, Vector3D absoluteEffectPoint)
+	/**
+	 * @return The collider the world uses for checking the object's collisions
+	 */
+	public Collider getCollider()
 	{
-		getMover().applyForce(force);
-		getRotator().applyMoment(getTransformation().inverseTransform(force), 
-				getTransformation().inverseTransform(absoluteEffectPoint));
+		return this.collider;
 	}
 }
@@ -12,6 +12,9 @@ import genesis_util.Vector3D;
 import conflict_collision.Collidable;
 import conflict_collision.CollisionInformation;
 import conflict_util.Polygon;
+import motion_collision.Collider;
+import motion_collision.BoxShape;
+import motion_util.Material;
 
 /**
  * This is just a simple wall that can be collided with
@@ -24,6 +27,7 @@ public class TestWall extends SimpleHandled implements Collidable, Drawable
 	
 	private Transformation transformation;
 	private CollisionInformation collisionInfo;
+	private Collider collider;
 	
 	
 	// CONSTRUCTOR	------------------------------
@@ -39,8 +43,10 @@ public class TestWall extends SimpleHandled implements Collidable, Drawable
 		super(handlers);
 		
 		this.transformation = new Transformation(position);
-		this.collisionInfo = new CollisionInformation(Polygon.getRectangleVertices(
-				Vector3D.zeroVector(), size));
+		Vector3D[] vertices = Polygon.getRectangleVertices(Vector3D.zeroVector(), size);
+		this.collisionInfo = new CollisionInformation(vertices);
+		this.collider = new Collider(this, new BoxShape(Vector3D.zeroVector(), size), 
+				Material.BRICK);
 	}
 	
 	
@@ -79,4 +85,15 @@ public class TestWall extends SimpleHandled implements Collidable, Drawable
 	{
 		return this.collisionInfo;
 	}
+	
+	
+	// GETTERS & SETTERS	----------------------
+	
+	/**
+	 * @return The collider objects collide with
+	 */
+	public Collider getCollider()
+	{
+		return this.collider;
+	}
 }
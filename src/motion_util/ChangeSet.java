@@ -0,0 +1,121 @@
+package motion_util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * ChangeSet is a set of object indices that have changed. The set is stored both as a 
+ * bitset, which makes adding and checking an index constant time, and as a dense list of 
+ * the added indices, which makes iterating and clearing the set depend only on the amount 
+ * of changed indices and not on the amount of all objects.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class ChangeSet
+{
+	// ATTRIBUTES	-----------------------
+	
+	private long[] bits;
+	private int[] indices;
+	private int size;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new empty set
+	 */
+	public ChangeSet()
+	{
+		this.bits = new long[1];
+		this.indices = new int[16];
+		this.size = 0;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return How many indices there are in the set
+	 */
+	public int getSize()
+	{
+		return this.size;
+	}
+	
+	/**
+	 * @return Is the set empty
+	 */
+	public boolean isEmpty()
+	{
+		return this.size == 0;
+	}
+	
+	/**
+	 * @param i The position of an index in the set [0, size)
+	 * @return The index at that position. The indices are in the order they were added.
+	 */
+	public int get(int i)
+	{
+		return this.indices[i];
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Adds an index to the set. Adding an index that is already in the set does nothing.
+	 * @param index The index that is added (non-negative)
+	 */
+	public void add(int index)
+	{
+		int word = index >>> 6;
+		if (word >= this.bits.length)
+			this.bits = Arrays.copyOf(this.bits, Math.max(word + 1, this.bits.length * 2));
+		
+		long mask = 1L << index;
+		if ((this.bits[word] & mask) != 0)
+			return;
+		
+		this.bits[word] |= mask;
+		if (this.size == this.indices.length)
+			this.indices = Arrays.copyOf(this.indices, this.size * 2);
+		this.indices[this.size ++] = index;
+	}
+	
+	/**
+	 * @param index An index
+	 * @return Is the index in the set
+	 */
+	public boolean contains(int index)
+	{
+		int word = index >>> 6;
+		return word < this.bits.length && (this.bits[word] & (1L << index)) != 0;
+	}
+	
+	/**
+	 * Performs an action for each index in the set
+	 * @param action The action that is performed
+	 */
+	public void forEach(IntConsumer action)
+	{
+		for (int i = 0; i < this.size; i++)
+		{
+			action.accept(this.indices[i]);
+		}
+	}
+	
+	/**
+	 * Removes all the indices from the set
+	 */
+	public void clear()
+	{
+		// Only the words that contain an index need to be cleared
+		for (int i = 0; i < this.size; i++)
+		{
+			this.bits[this.indices[i] >>> 6] = 0;
+		}
+		this.size = 0;
+	}
+}
@@ -0,0 +1,55 @@
+package motion_util;
+
+/**
+ * CombineRules determine how the coefficients of two materials are combined into a single 
+ * coefficient used between the materials.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public enum CombineRule
+{
+	/**
+	 * (a + b) / 2
+	 */
+	AVERAGE, 
+	/**
+	 * sqrt(a * b)
+	 */
+	GEOMETRIC_MEAN, 
+	/**
+	 * a * b
+	 */
+	MULTIPLY, 
+	/**
+	 * min(a, b)
+	 */
+	MINIMUM, 
+	/**
+	 * max(a, b)
+	 */
+	MAXIMUM;
+
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Combines two coefficients
+	 * @param a The first coefficient
+	 * @param b The second coefficient
+	 * @return The combined coefficient
+	 */
+	public double combine(double a, double b)
+	{
+		switch (this)
+		{
+			case AVERAGE: return (a + b) / 2;
+			case GEOMETRIC_MEAN: return Math.sqrt(a * b);
+			case MULTIPLY: return a * b;
+			case MINIMUM: return Math.min(a, b);
+			case MAXIMUM: return Math.max(a, b);
+		}
+		
+		return a;
+	}
+}
@@ -0,0 +1,121 @@
+package motion_util;
+
+/**
+ * IntegrationKernels contains the integration steps used for moving a large amount of 
+ * objects that are stored in primitive arrays. Each kernel is a single counted loop over 
+ * the arrays that doesn't create objects and only calls methods small enough to be 
+ * inlined, so that the just-in-time compiler can unroll it and use vector instructions 
+ * where the host supports them. The steps are fused into as few loops as possible since 
+ * large worlds are limited by the memory bandwidth rather than by the arithmetic. The 
+ * object movers use the same friction step for the objects they move one at a time.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class IntegrationKernels
+{
+	// CONSTRUCTOR	--------------------
+
+	private IntegrationKernels()
+	{
+		// The interface is static
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	/**
+	 * Adds the same force to each object
+	 * @param forceX The x-components of the objects' accumulated forces
+	 * @param forceY The y-components of the objects' accumulated forces
+	 * @param x The x-component of the added force (Kg * pxl)
+	 * @param y The y-component of the added force (Kg * pxl)
+	 * @param size How many objects there are in the arrays
+	 */
+	public static void addForce(double[] forceX, double[] forceY, double x, double y, 
+			int size)
+	{
+		for (int i = 0; i < size; i++)
+		{
+			forceX[i] += x;
+			forceY[i] += y;
+		}
+	}
+	
+	/**
+	 * Moves the objects with semi-implicit Euler integration. The objects' velocities are 
+	 * first changed based on their accumulated forces (v += F / m * t), then slowed down by 
+	 * the friction and finally the objects are moved based on the new velocities 
+	 * (x += v * t). The accumulated forces are cleared.
+	 * @param x The x-coordinates of the objects' positions
+	 * @param y The y-coordinates of the objects' positions
+	 * @param velocityX The x-components of the objects' velocities (pxl / step)
+	 * @param velocityY The y-components of the objects' velocities (pxl / step)
+	 * @param forceX The x-components of the objects' accumulated forces
+	 * @param forceY The y-components of the objects' accumulated forces
+	 * @param mass The masses of the objects. Each mass must be positive.
+	 * @param frictionDecrease How much the friction decreases the speed of each object 
+	 * (pxl / step). The friction stops the slower objects but never changes the direction 
+	 * of their velocities. 0 if there is no friction.
+	 * @param duration The duration of the step
+	 * @param size How many objects there are in the arrays
+	 */
+	public static void integrate(double[] x, double[] y, double[] velocityX, 
+			double[] velocityY, double[] forceX, double[] forceY, double[] mass, 
+			double frictionDecrease, double duration, int size)
+	{
+		for (int i = 0; i < size; i++)
+		{
+			double scale = duration / mass[i];
+			double vx = velocityX[i] + forceX[i] * scale;
+			double vy = velocityY[i] + forceY[i] * scale;
+			forceX[i] = 0;
+			forceY[i] = 0;
+			
+			// The condition is the same for every object, so the compiler moves it outside 
+			// the loop
+			if (frictionDecrease > 0)
+			{
+				double remaining = getFrictionScale(Math.sqrt(vx * vx + vy * vy), 
+						frictionDecrease);
+				vx *= remaining;
+				vy *= remaining;
+			}
+			
+			velocityX[i] = vx;
+			velocityY[i] = vy;
+			x[i] += vx * duration;
+			y[i] += vy * duration;
+		}
+	}
+	
+	/**
+	 * Calculates how much of a velocity remains after the friction has slowed it down. The 
+	 * friction stops the slower objects but never changes the direction of their 
+	 * velocities.
+	 * @param speed The speed before the friction (pxl / step)
+	 * @param frictionDecrease How much the friction decreases the speed (pxl / step)
+	 * @return The multiplier of the velocity [0, 1]
+	 */
+	public static double getFrictionScale(double speed, double frictionDecrease)
+	{
+		return speed > frictionDecrease ? 1 - frictionDecrease / speed : 0;
+	}
+	
+	/**
+	 * Writes the objects' positions into a flat buffer as (x, y) pairs
+	 * @param x The x-coordinates of the objects' positions
+	 * @param y The y-coordinates of the objects' positions
+	 * @param positions The buffer the positions are written to. Must have room for 
+	 * 2 * size values.
+	 * @param size How many objects there are in the arrays
+	 */
+	public static void copyPositions(double[] x, double[] y, float[] positions, int size)
+	{
+		for (int i = 0; i < size; i++)
+		{
+			positions[2 * i] = (float) x[i];
+			positions[2 * i + 1] = (float) y[i];
+		}
+	}
+}
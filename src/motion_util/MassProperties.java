@@ -0,0 +1,181 @@
+package motion_util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import genesis_util.Vector3D;
+
+/**
+ * MassProperties contains the area, centroid, mass and moment mass of a shape made from a 
+ * certain material. The geometric properties of each polygon are calculated only once and 
+ * cached for the vertex array instance, so objects sharing the same vertex array also share 
+ * the calculation. The mass properties are immutable once created.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class MassProperties
+{
+	// ATTRIBUTES	----------------------------
+	
+	private static final Map<Vector3D[], MassProperties> unitProperties = 
+			Collections.synchronizedMap(new WeakHashMap<>());
+	
+	private final double area, mass, momentMass;
+	private final Vector3D centroid;
+	
+	
+	// CONSTRUCTOR	----------------------------
+	
+	/**
+	 * Creates new mass properties
+	 * @param area The area of the shape (pxl^2)
+	 * @param centroid The centroid of the shape (relative point)
+	 * @param mass The mass of the shape (kg)
+	 * @param momentMass The moment mass of the shape around its centroid (kg * pxl^2)
+	 */
+	public MassProperties(double area, Vector3D centroid, double mass, double momentMass)
+	{
+		this.area = area;
+		this.centroid = centroid;
+		this.mass = mass;
+		this.momentMass = momentMass;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------------
+	
+	/**
+	 * @return The area of the shape (pxl^2)
+	 */
+	public double getArea()
+	{
+		return this.area;
+	}
+	
+	/**
+	 * @return The centroid (center of mass) of the shape in relative coordinates
+	 */
+	public Vector3D getCentroid()
+	{
+		return this.centroid;
+	}
+	
+	/**
+	 * @return The mass of the shape (kg)
+	 */
+	public double getMass()
+	{
+		return this.mass;
+	}
+	
+	/**
+	 * @return The moment mass of the shape when rotating around its centroid 
+	 * (kg * pxl^2)
+	 */
+	public double getMomentMass()
+	{
+		return this.momentMass;
+	}
+	
+	
+	// OTHER METHODS	------------------------
+	
+	/**
+	 * Calculates the moment mass of the shape when it rotates around the given point
+	 * @param relativeOrigin The point the shape rotates around (relative point)
+	 * @return The moment mass around the given point (kg * pxl^2)
+	 */
+	public double getMomentMass(Vector3D relativeOrigin)
+	{
+		// Ja = J0 + m * d^2
+		double dx = relativeOrigin.getFirst() - this.centroid.getFirst();
+		double dy = relativeOrigin.getSecond() - this.centroid.getSecond();
+		return this.momentMass + this.mass * (dx * dx + dy * dy);
+	}
+	
+	/**
+	 * Finds the mass properties of a polygon made from the given material. The geometric 
+	 * properties are cached for the vertex array.
+	 * @param vertices The vertices of the polygon in relative coordinates
+	 * @param material The material the polygon is made from
+	 * @return The mass properties of the polygon
+	 */
+	public static MassProperties forPolygon(Vector3D[] vertices, Material material)
+	{
+		return forPolygon(vertices, material.getDensity());
+	}
+	
+	/**
+	 * Finds the mass properties of a polygon with the given density. The geometric 
+	 * properties are cached for the vertex array.
+	 * @param vertices The vertices of the polygon in relative coordinates
+	 * @param density The density of the polygon (kg/pxl^2)
+	 * @return The mass properties of the polygon
+	 */
+	public static MassProperties forPolygon(Vector3D[] vertices, double density)
+	{
+		MassProperties unit = unitProperties.get(vertices);
+		if (unit == null)
+		{
+			unit = calculateUnitPolygonProperties(vertices);
+			unitProperties.put(vertices, unit);
+		}
+		
+		return new MassProperties(unit.area, unit.centroid, unit.mass * density, 
+				unit.momentMass * density);
+	}
+	
+	/**
+	 * Calculates the mass properties of a circle made from the given material
+	 * @param radius The radius of the circle
+	 * @param material The material the circle is made from
+	 * @return The mass properties of the circle, the centroid is at (0, 0)
+	 */
+	public static MassProperties forCircle(double radius, Material material)
+	{
+		// A = pi * r^2, J = m * r^2 / 2
+		double area = Math.PI * radius * radius;
+		double mass = area * material.getDensity();
+		return new MassProperties(area, Vector3D.zeroVector(), mass, 0.5 * mass * radius * 
+				radius);
+	}
+	
+	private static MassProperties calculateUnitPolygonProperties(Vector3D[] vertices)
+	{
+		// A = 1/2 * sum(pi x pi+1)
+		// C = 1 / (6 * A) * sum((pi + pi+1) * (pi x pi+1))
+		// Jo = 1/12 * sum((pi x pi+1) * (pi.pi + pi.pi+1 + pi+1.pi+1))
+		double doubleArea = 0, cx = 0, cy = 0, J = 0;
+		for (int i = 0; i < vertices.length; i++)
+		{
+			Vector3D p1 = vertices[i];
+			Vector3D p2 = vertices[(i + 1) % vertices.length];
+			double x1 = p1.getFirst(), y1 = p1.getSecond();
+			double x2 = p2.getFirst(), y2 = p2.getSecond();
+			
+			double cross = x1 * y2 - x2 * y1;
+			doubleArea += cross;
+			cx += (x1 + x2) * cross;
+			cy += (y1 + y2) * cross;
+			J += cross * (x1 * x1 + x1 * x2 + x2 * x2 + y1 * y1 + y1 * y2 + y2 * y2);
+		}
+		
+		// Degenerate polygons don't have any mass
+		if (Math.abs(doubleArea) < 0.0000001)
+			return new MassProperties(0, Vector3D.zeroVector(), 0, 0);
+		
+		Vector3D centroid = new Vector3D(cx / (3 * doubleArea), cy / (3 * doubleArea));
+		
+		// The sign depends from the vertex order
+		double area = Math.abs(doubleArea) / 2;
+		J = Math.abs(J) / 12;
+		
+		// J0 = Jo - m * d^2 (density = 1 so m = A)
+		J -= area * (centroid.getFirst() * centroid.getFirst() + 
+				centroid.getSecond() * centroid.getSecond());
+		
+		return new MassProperties(area, centroid, area, J);
+	}
+}
@@ -2,147 +2,158 @@ package motion_util;
 
 /**
  * Material tells which material the object is made from. Each material has 
- * its own density
+ * its own density, friction coefficients and restitution. Coefficients between two 
+ * materials can be found from a {@link MaterialInteractionTable}.
  *
  * @author Mikko Hilpinen.
  * @since 6.7.2013.
  * @see <a href="http://en.wikipedia.org/wiki/Density#Water">Densities wiki</a>
  * @see <a href="http://www.avlandesign.com/density_metal.htm">Densities avlandesing</a>
+ * @see <a href="http://www.taulukot.com/index.php?search_id=mekaniikka_termodynamiikka&lng=fi">Frictions</a>
  */
 public enum Material
 {
 	// See: http://en.wikipedia.org/wiki/Density#Water
 	// And http://www.avlandesign.com/density_metal.htm
+	// Parameters: density (kg/m3), static friction, dynamic friction, restitution
 	@SuppressWarnings("javadoc")
-	WATER, 
+	WATER(998, 0.00, 0.00, 0.00), 
 	@SuppressWarnings("javadoc")
-	ICE, 
+	ICE(917, 0.10, 0.03, 0.30), 
 	@SuppressWarnings("javadoc")
-	WOOD, 
+	WOOD(700, 0.50, 0.30, 0.50), 
 	@SuppressWarnings("javadoc")
-	AIR, 
+	AIR(1, 0.00, 0.00, 0.00), 
 	@SuppressWarnings("javadoc")
-	CORK, 
+	CORK(240, 0.60, 0.50, 0.60), 
 	@SuppressWarnings("javadoc")
-	LITHIUM, 
+	LITHIUM(535, 0.50, 0.40, 0.30), 
 	@SuppressWarnings("javadoc")
-	BERYLLIUMCOPPER, 
+	BERYLLIUMCOPPER(8175, 0.60, 0.45, 0.60), 
 	@SuppressWarnings("javadoc")
-	BRONZE, 
+	BRONZE(8860, 0.55, 0.40, 0.55), 
 	@SuppressWarnings("javadoc")
-	IRON, 
+	IRON(7870, 0.70, 0.50, 0.55), 
 	@SuppressWarnings("javadoc")
-	COPPER, 
+	COPPER(8940, 0.60, 0.45, 0.55), 
 	@SuppressWarnings("javadoc")
-	COBALT, 
+	COBALT(8900, 0.60, 0.45, 0.55), 
 	@SuppressWarnings("javadoc")
-	GOLD, 
+	GOLD(19320, 0.50, 0.40, 0.40), 
 	@SuppressWarnings("javadoc")
-	PLATINUM, 
+	PLATINUM(21450, 0.50, 0.40, 0.45), 
 	@SuppressWarnings("javadoc")
-	SILVER, 
+	SILVER(10500, 0.50, 0.40, 0.45), 
 	@SuppressWarnings("javadoc")
-	STEEL, 
+	STEEL(7860, 0.75, 0.60, 0.60), 
 	@SuppressWarnings("javadoc")
-	TIN, 
+	TIN(7310, 0.50, 0.40, 0.40), 
 	@SuppressWarnings("javadoc")
-	ALUMINIUM, 
+	ALUMINIUM(2700, 0.60, 0.47, 0.50), 
 	@SuppressWarnings("javadoc")
-	ALUMINIUMBRONZE, 
+	ALUMINIUMBRONZE(8200, 0.55, 0.40, 0.55), 
 	@SuppressWarnings("javadoc")
-	DIAMOND, 
+	DIAMOND(3500, 0.10, 0.05, 0.70), 
 	@SuppressWarnings("javadoc")
-	TITANIUM, 
+	TITANIUM(4540, 0.55, 0.40, 0.55), 
 	@SuppressWarnings("javadoc")
-	LEAD, 
+	LEAD(11340, 0.90, 0.80, 0.10), 
 	@SuppressWarnings("javadoc")
-	IRIDIUM, 
+	IRIDIUM(22420, 0.50, 0.40, 0.50), 
 	@SuppressWarnings("javadoc")
-	TUNGSTEN, 
+	TUNGSTEN(19300, 0.50, 0.40, 0.55), 
 	@SuppressWarnings("javadoc")
-	ASPHALT, 
+	ASPHALT(2360, 0.80, 0.65, 0.40), 
 	@SuppressWarnings("javadoc")
-	BALSAWOOD, 
+	BALSAWOOD(130, 0.50, 0.30, 0.50), 
 	@SuppressWarnings("javadoc")
-	BONE, 
+	BONE(1800, 0.40, 0.30, 0.50), 
 	@SuppressWarnings("javadoc")
-	BRICK, 
+	BRICK(1850, 0.65, 0.55, 0.35), 
 	@SuppressWarnings("javadoc")
-	CEMENT, 
+	CEMENT(2850, 0.70, 0.60, 0.30), 
 	@SuppressWarnings("javadoc")
-	CLAY, 
+	CLAY(2250, 0.60, 0.50, 0.00), 
 	@SuppressWarnings("javadoc")
-	EBONITE, 
+	EBONITE(1150, 0.50, 0.40, 0.60), 
 	@SuppressWarnings("javadoc")
-	GLASS, 
+	GLASS(2600, 0.90, 0.40, 0.65), 
 	@SuppressWarnings("javadoc")
-	LEATHER, 
+	LEATHER(1350, 0.60, 0.50, 0.30), 
 	@SuppressWarnings("javadoc")
-	RUBBER, 
+	RUBBER(1150, 1.00, 0.80, 0.80), 
 	@SuppressWarnings("javadoc")
-	SAND, 
+	SAND(1500, 0.60, 0.50, 0.05), 
 	@SuppressWarnings("javadoc")
-	SANDSTONE, 
+	SANDSTONE(2250, 0.65, 0.55, 0.30), 
 	@SuppressWarnings("javadoc")
-	SNOW, 
+	SNOW(100, 0.20, 0.05, 0.05), 
 	@SuppressWarnings("javadoc")
-	STONE;
+	STONE(2500, 0.65, 0.55, 0.40);
+	
+	
+	// ATTRIBUTES	-----------------------
+	
+	private static final double PIXELS_PER_METER = 170;
+	
+	private final int realDensity;
+	private final double density, staticFriction, dynamicFriction, restitution;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	private Material(int realDensity, double staticFriction, double dynamicFriction, 
+			double restitution)
+	{
+		this.realDensity = realDensity;
+		this.density = realDensity / (PIXELS_PER_METER * PIXELS_PER_METER);
+		this.staticFriction = staticFriction;
+		this.dynamicFriction = dynamicFriction;
+		this.restitution = restitution;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
 	
 	/**
 	 * @return The density of the material (kg/170pxl^2 or something)
 	 */
 	public double getDensity()
 	{
-		return getRealDensity() / Math.pow(170, 2);
+		return this.density;
 	}
 	
 	/**
 	 * @return The density of the material (kg/m3)
 	 */
-	private int getRealDensity()
+	public int getRealDensity()
 	{
-		switch (this)
-		{
-			case WATER: return 998;
-			case ICE: return 917;
-			case WOOD: return 700;
-			case AIR: return 1;
-			case CORK: return 240;
-			case LITHIUM: return 535;
-			case ALUMINIUM: return 2700;
-			case BERYLLIUMCOPPER: return 8175;
-			case BRONZE: return 8860;
-			case IRON: return 7870;
-			case COPPER: return 8940;
-			case COBALT: return 8900;
-			case GOLD: return 19320;
-			case PLATINUM: return 21450;
-			case SILVER: return 10500;
-			case STEEL: return 7860;
-			case TIN: return 7310;
-			case ALUMINIUMBRONZE: return 8200;
-			case DIAMOND: return 3500;
-			case TITANIUM: return 4540;
-			case LEAD: return 11340;
-			case IRIDIUM: return 22420;
-			case TUNGSTEN: return 19300;
-			case ASPHALT: return 2360;
-			case BALSAWOOD: return 130;
-			case BONE: return 1800;
-			case BRICK: return 1850;
-			case CEMENT: return 2850;
-			case CLAY: return 2250;
-			case EBONITE: return 1150;
-			case GLASS: return 2600;
-			case LEATHER: return 1350;
-			case RUBBER: return 1150;
-			case SAND: return 1500;
-			case SANDSTONE: return 2250;
-			case SNOW: return 100;
-			case STONE: return 2500;
+		return this.realDensity;
+	}
 			
-			default: return 1000;
-		}
+	/**
+	 * @return The friction coefficient of the material when the surfaces are not sliding 
+	 * against each other
+	 */
+	public double getStaticFriction()
+	{
+		return this.staticFriction;
+	}
+	
+	/**
+	 * @return The friction coefficient of the material when the surfaces are sliding 
+	 * against each other
+	 */
+	public double getDynamicFriction()
+	{
+		return this.dynamicFriction;
+	}
+	
+	/**
+	 * @return How much of the collision energy the material preserves [0, 1]
+	 */
+	public double getRestitution()
+	{
+		return this.restitution;
 	}
-	// Also, check frictions at: http://www.taulukot.com/index.php?search_id=mekaniikka_termodynamiikka&lng=fi
 }
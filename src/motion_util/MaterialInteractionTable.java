@@ -0,0 +1,156 @@
+package motion_util;
+
+/**
+ * MaterialInteractionTable contains the precomputed friction and restitution coefficients 
+ * and the connection compliances between each pair of materials. The coefficients are 
+ * stored in a single flat array indexed by the material ordinals so that a lookup is a 
+ * single array access.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class MaterialInteractionTable
+{
+	// ATTRIBUTES	-----------------------
+
+	private static final int STATIC_FRICTION = 0, DYNAMIC_FRICTION = 1, RESTITUTION = 2, 
+			COMPLIANCE = 3, STRIDE = 4;
+	private static final int MATERIALS = Material.values().length;
+	
+	private static MaterialInteractionTable defaultTable = null;
+	
+	private final double[] coefficients;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new table. The connections between all the materials are rigid by default.
+	 * @param frictionRule How the friction coefficients of two materials are combined
+	 * @param restitutionRule How the restitutions of two materials are combined
+	 */
+	public MaterialInteractionTable(CombineRule frictionRule, CombineRule restitutionRule)
+	{
+		this.coefficients = new double[MATERIALS * MATERIALS * STRIDE];
+		
+		for (Material a : Material.values())
+		{
+			for (Material b : Material.values())
+			{
+				setCoefficients(a, b, 
+						frictionRule.combine(a.getStaticFriction(), b.getStaticFriction()), 
+						frictionRule.combine(a.getDynamicFriction(), b.getDynamicFriction()), 
+						restitutionRule.combine(a.getRestitution(), b.getRestitution()));
+			}
+		}
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The table that uses the geometric mean for frictions and the maximum for 
+	 * restitutions
+	 */
+	public static MaterialInteractionTable getDefaultTable()
+	{
+		if (defaultTable == null)
+			defaultTable = new MaterialInteractionTable(CombineRule.GEOMETRIC_MEAN, 
+					CombineRule.MAXIMUM);
+		return defaultTable;
+	}
+	
+	/**
+	 * Changes the table that is used by default
+	 * @param table The new default table
+	 */
+	public static void setDefaultTable(MaterialInteractionTable table)
+	{
+		defaultTable = table;
+	}
+	
+	/**
+	 * @param a The first material
+	 * @param b The second material
+	 * @return The static friction coefficient between the two materials
+	 */
+	public double getStaticFriction(Material a, Material b)
+	{
+		return this.coefficients[indexOf(a, b) + STATIC_FRICTION];
+	}
+	
+	/**
+	 * @param a The first material
+	 * @param b The second material
+	 * @return The dynamic friction coefficient between the two materials
+	 */
+	public double getDynamicFriction(Material a, Material b)
+	{
+		return this.coefficients[indexOf(a, b) + DYNAMIC_FRICTION];
+	}
+	
+	/**
+	 * @param a The first material
+	 * @param b The second material
+	 * @return The restitution (collision efficiency coefficient) between the two materials
+	 */
+	public double getRestitution(Material a, Material b)
+	{
+		return this.coefficients[indexOf(a, b) + RESTITUTION];
+	}
+	
+	/**
+	 * @param a The first material
+	 * @param b The second material
+	 * @return How much a connection between the two materials gives in under force 
+	 * (pxl / force unit). 0 for rigid connections.
+	 */
+	public double getCompliance(Material a, Material b)
+	{
+		return this.coefficients[indexOf(a, b) + COMPLIANCE];
+	}
+	
+	/**
+	 * Overrides the coefficients used between the two materials
+	 * @param a The first material
+	 * @param b The second material
+	 * @param staticFriction The static friction coefficient between the materials
+	 * @param dynamicFriction The dynamic friction coefficient between the materials
+	 * @param restitution The restitution between the materials
+	 */
+	public void setCoefficients(Material a, Material b, double staticFriction, 
+			double dynamicFriction, double restitution)
+	{
+		setCoefficients(indexOf(a, b), staticFriction, dynamicFriction, restitution);
+		setCoefficients(indexOf(b, a), staticFriction, dynamicFriction, restitution);
+	}
+	
+	/**
+	 * Changes the compliance of the connections between the two materials
+	 * @param a The first material
+	 * @param b The second material
+	 * @param compliance How much a connection between the materials gives in under force 
+	 * (pxl / force unit). 0 for rigid connections.
+	 */
+	public void setCompliance(Material a, Material b, double compliance)
+	{
+		this.coefficients[indexOf(a, b) + COMPLIANCE] = compliance;
+		this.coefficients[indexOf(b, a) + COMPLIANCE] = compliance;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	private void setCoefficients(int index, double staticFriction, double dynamicFriction, 
+			double restitution)
+	{
+		this.coefficients[index + STATIC_FRICTION] = staticFriction;
+		this.coefficients[index + DYNAMIC_FRICTION] = dynamicFriction;
+		this.coefficients[index + RESTITUTION] = restitution;
+	}
+	
+	private static int indexOf(Material a, Material b)
+	{
+		return (a.ordinal() * MATERIALS + b.ordinal()) * STRIDE;
+	}
+}
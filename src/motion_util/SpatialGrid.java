@@ -0,0 +1,178 @@
+package motion_util;
+
+import java.util.function.IntConsumer;
+
+/**
+ * SpatialGrid is a uniform grid built over a set of points. Each cell lists the indices of 
+ * the points inside it, so the points within an area can be found without going through 
+ * all of them. The grid is stored in primitive arrays and can be rebuilt without creating 
+ * new objects.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class SpatialGrid
+{
+	// ATTRIBUTES	-----------------------
+	
+	// The grid doesn't create more cells than this many per point
+	private static final int MAX_CELLS_PER_POINT = 4;
+	
+	private double minX, minY, cellSize;
+	private int columns, rows, size;
+	private int[] cellStarts, items, cellOfItem;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new empty grid
+	 */
+	public SpatialGrid()
+	{
+		this.columns = 0;
+		this.rows = 0;
+		this.size = 0;
+		this.cellStarts = new int[1];
+		this.items = new int[0];
+		this.cellOfItem = new int[0];
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The width and height of a single cell in the grid
+	 */
+	public double getCellSize()
+	{
+		return this.cellSize;
+	}
+	
+	/**
+	 * @return How many points there are in the grid
+	 */
+	public int getSize()
+	{
+		return this.size;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Rebuilds the grid from the given points
+	 * @param x The x-coordinates of the points
+	 * @param y The y-coordinates of the points
+	 * @param size How many points there are in the arrays
+	 * @param cellSize The preferred width and height of a cell. The cells may be made 
+	 * larger if the points are spread over a very large area.
+	 */
+	public void build(double[] x, double[] y, int size, double cellSize)
+	{
+		this.size = size;
+		if (size == 0)
+		{
+			this.columns = 0;
+			this.rows = 0;
+			return;
+		}
+		
+		double maxX = x[0], maxY = y[0];
+		this.minX = x[0];
+		this.minY = y[0];
+		for (int i = 1; i < size; i++)
+		{
+			this.minX = Math.min(this.minX, x[i]);
+			this.minY = Math.min(this.minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		
+		// Limits the amount of cells so that sparse points don't allocate a huge grid
+		this.cellSize = cellSize;
+		double maxCells = (double) size * MAX_CELLS_PER_POINT;
+		while ((Math.floor((maxX - this.minX) / this.cellSize) + 1) * 
+				(Math.floor((maxY - this.minY) / this.cellSize) + 1) > maxCells)
+		{
+			this.cellSize *= 2;
+		}
+		this.columns = (int) ((maxX - this.minX) / this.cellSize) + 1;
+		this.rows = (int) ((maxY - this.minY) / this.cellSize) + 1;
+		
+		int cellAmount = this.columns * this.rows;
+		if (this.cellStarts.length < cellAmount + 1)
+			this.cellStarts = new int[cellAmount + 1];
+		if (this.items.length < size)
+		{
+			this.items = new int[size];
+			this.cellOfItem = new int[size];
+		}
+		
+		// Counts the points in each cell, turns the counts into cell ends and then places 
+		// the points backwards so that the ends become the cell starts (counting sort)
+		for (int cell = 0; cell < cellAmount; cell++)
+		{
+			this.cellStarts[cell] = 0;
+		}
+		for (int i = 0; i < size; i++)
+		{
+			int cell = getColumn(x[i]) + getRow(y[i]) * this.columns;
+			this.cellOfItem[i] = cell;
+			this.cellStarts[cell] ++;
+		}
+		for (int cell = 1; cell < cellAmount; cell++)
+		{
+			this.cellStarts[cell] += this.cellStarts[cell - 1];
+		}
+		this.cellStarts[cellAmount] = size;
+		for (int i = size - 1; i >= 0; i--)
+		{
+			this.items[--this.cellStarts[this.cellOfItem[i]]] = i;
+		}
+	}
+	
+	/**
+	 * Goes through the indices of the points that are in the cells overlapping the given 
+	 * area. Some of the points may be slightly outside the area, so the caller should do 
+	 * the exact check.
+	 * @param minX The smallest x-coordinate of the area
+	 * @param minY The smallest y-coordinate of the area
+	 * @param maxX The largest x-coordinate of the area
+	 * @param maxY The largest y-coordinate of the area
+	 * @param action The action performed for each point index
+	 */
+	public void forEachInArea(double minX, double minY, double maxX, double maxY, 
+			IntConsumer action)
+	{
+		if (this.size == 0)
+			return;
+		
+		int firstColumn = Math.max(0, getColumn(minX));
+		int lastColumn = Math.min(this.columns - 1, getColumn(maxX));
+		int firstRow = Math.max(0, getRow(minY));
+		int lastRow = Math.min(this.rows - 1, getRow(maxY));
+		
+		for (int row = firstRow; row <= lastRow; row++)
+		{
+			for (int column = firstColumn; column <= lastColumn; column++)
+			{
+				int cell = column + row * this.columns;
+				for (int i = this.cellStarts[cell]; i < this.cellStarts[cell + 1]; i++)
+				{
+					action.accept(this.items[i]);
+				}
+			}
+		}
+	}
+	
+	private int getColumn(double x)
+	{
+		return (int) Math.floor((x - this.minX) / this.cellSize);
+	}
+	
+	private int getRow(double y)
+	{
+		return (int) Math.floor((y - this.minY) / this.cellSize);
+	}
+}
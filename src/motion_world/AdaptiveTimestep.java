@@ -0,0 +1,160 @@
+package motion_world;
+
+import motion_collision.ContactSolver;
+import motion_movement.Movable;
+import motion_movement.ObjectRotator;
+import motion_movement.Rotateable;
+
+/**
+ * AdaptiveTimestep picks the size of the simulation step based on the state of the world. 
+ * The step is kept short enough that no object moves further than a part of its own 
+ * radius nor rotates more than a certain angle during a single step, and it is shortened 
+ * when the contact solver leaves the objects deep inside each other. Calm worlds can take 
+ * long steps, which makes the objects move less often, while busy worlds take short steps, 
+ * which makes the contacts be solved multiple times each tick. The step only grows a 
+ * little at a time but shrinks immediately when needed.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class AdaptiveTimestep
+{
+	// ATTRIBUTES	-----------------------
+	
+	private static final double GROWTH_RATE = 1.25;
+	private static final int MAX_CONTACT_ITERATIONS = 8;
+	
+	private double minStep, maxStep, courantLimit, maxAngle, allowedPenetration, 
+			stepDuration;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new timestep controller
+	 * @param minStep The shortest allowed step duration
+	 * @param maxStep The longest allowed step duration
+	 */
+	public AdaptiveTimestep(double minStep, double maxStep)
+	{
+		if (minStep <= 0 || maxStep < minStep)
+			throw new IllegalArgumentException("Invalid step bounds: " + minStep + " - " + 
+					maxStep);
+		
+		this.minStep = minStep;
+		this.maxStep = maxStep;
+		this.courantLimit = 0.5;
+		this.maxAngle = 10;
+		this.allowedPenetration = 2;
+		this.stepDuration = minStep;
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The step duration chosen during the last update
+	 */
+	public double getStepDuration()
+	{
+		return this.stepDuration;
+	}
+	
+	/**
+	 * Changes how far an object may move during a single step
+	 * @param courantLimit The largest allowed movement in relation to the object's radius
+	 */
+	public void setCourantLimit(double courantLimit)
+	{
+		this.courantLimit = courantLimit;
+	}
+	
+	/**
+	 * Changes how much an object may rotate during a single step
+	 * @param maxAngle The largest allowed rotation (degrees)
+	 */
+	public void setMaxAngle(double maxAngle)
+	{
+		this.maxAngle = maxAngle;
+	}
+	
+	/**
+	 * Changes how deep the objects may be inside each other before the step is shortened
+	 * @param allowedPenetration The deepest allowed penetration after the contacts are 
+	 * solved
+	 */
+	public void setAllowedPenetration(double allowedPenetration)
+	{
+		this.allowedPenetration = allowedPenetration;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Chooses a new step duration
+	 * @param bodies The objects in the world. The velocities and radii must be up to date.
+	 * @param solver The solver that solved the contacts of the world during the last step. 
+	 * The solver's penetration tracking is reset.
+	 */
+	public void update(BodyBuffer bodies, ContactSolver solver)
+	{
+		double target = this.maxStep;
+		
+		// dt <= C * r / |v|
+		double[] velocityX = bodies.getVelocityX(), velocityY = bodies.getVelocityY();
+		double[] radius = bodies.getRadius();
+		double maxRatio = 0;
+		for (int i = 0; i < bodies.getSize(); i++)
+		{
+			if (radius[i] <= 0)
+				continue;
+			double speed = Math.sqrt(velocityX[i] * velocityX[i] + 
+					velocityY[i] * velocityY[i]);
+			maxRatio = Math.max(maxRatio, speed / radius[i]);
+			
+			// dt <= maxAngle / |w|
+			Movable body = bodies.getBody(i);
+			if (body instanceof Rotateable)
+			{
+				ObjectRotator rotator = ((Rotateable) body).getRotator();
+				if (rotator != null && rotator.getRotation() != 0)
+					target = Math.min(target, 
+							this.maxAngle / Math.abs(rotator.getRotation()));
+			}
+		}
+		if (maxRatio > 0)
+			target = Math.min(target, this.courantLimit / maxRatio);
+		
+		// Deep contacts mean that the solver didn't converge
+		double penetration = solver.getMaxPenetration();
+		solver.resetMaxPenetration();
+		if (penetration > this.allowedPenetration)
+			target = Math.min(target, this.stepDuration * this.allowedPenetration / 
+					penetration);
+		
+		this.stepDuration = Math.max(this.minStep, Math.min(target, 
+				this.stepDuration * GROWTH_RATE));
+	}
+	
+	/**
+	 * @param tickDuration The duration of a single tick
+	 * @return On how many ticks the objects should move once with the current step 
+	 * duration
+	 */
+	public int getStepInterval(double tickDuration)
+	{
+		return Math.max(1, (int) (this.stepDuration / tickDuration));
+	}
+	
+	/**
+	 * @param tickDuration The duration of a single tick
+	 * @return How many times the contacts should be solved during each tick with the 
+	 * current step duration
+	 */
+	public int getContactIterations(double tickDuration)
+	{
+		return Math.max(1, Math.min(MAX_CONTACT_ITERATIONS, 
+				(int) Math.ceil(tickDuration / this.stepDuration)));
+	}
+}
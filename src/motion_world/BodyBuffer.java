@@ -0,0 +1,493 @@
+package motion_world;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import genesis_util.Vector3D;
+import motion_collision.Collider;
+import motion_movement.Movable;
+import motion_movement.ObjectMover;
+
+/**
+ * BodyBuffer keeps the state of a set of movable objects in primitive arrays so that 
+ * world-level effects can be calculated in a single pass over all the objects. The state 
+ * is read from the objects with {@link #gather()} and the accumulated forces are written 
+ * back to the objects' movers with {@link #scatter()}. A buffer may also contain entries 
+ * that don't have an object. Particle systems use entries like these and update their 
+ * state directly instead of gathering and scattering it. The indices of the entries change 
+ * when entries are removed or reordered, but each entry also has a stable id that stays 
+ * the same for as long as the entry is in the buffer.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class BodyBuffer
+{
+	// ATTRIBUTES	-----------------------
+	
+	private Movable[] bodies;
+	private Map<Movable, Integer> indices;
+	private int size, idAmount, freeIdAmount;
+	private int[] layers, ids, indexOfId, freeIds;
+	private double[] x, y, velocityX, velocityY, mass, radius, forceX, forceY;
+	private double maxRadius;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new empty buffer
+	 */
+	public BodyBuffer()
+	{
+		this.size = 0;
+		this.maxRadius = 0;
+		this.indices = new IdentityHashMap<>();
+		this.idAmount = 0;
+		this.freeIdAmount = 0;
+		this.indexOfId = new int[16];
+		this.freeIds = new int[16];
+		allocate(16);
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return How many objects there are in the buffer
+	 */
+	public int getSize()
+	{
+		return this.size;
+	}
+	
+	/**
+	 * @param index The index of an object
+	 * @return The object at the given index
+	 */
+	public Movable getBody(int index)
+	{
+		return this.bodies[index];
+	}
+	
+	/**
+	 * @param body An object
+	 * @return The index of the object in this buffer or -1 if the object isn't in the buffer
+	 */
+	public int indexOf(Movable body)
+	{
+		Integer index = this.indices.get(body);
+		if (index == null)
+			return -1;
+		return index;
+	}
+	
+	/**
+	 * @param index The index of an entry
+	 * @return The stable id of the entry. The id stays the same while the entry is in the 
+	 * buffer, even if its index changes, and may be reused after the entry is removed.
+	 */
+	public int getId(int index)
+	{
+		return this.ids[index];
+	}
+	
+	/**
+	 * @param id The stable id of an entry
+	 * @return The current index of the entry or -1 if there is no entry with the id
+	 */
+	public int getIndexOfId(int id)
+	{
+		if (id < 0 || id >= this.idAmount)
+			return -1;
+		return this.indexOfId[id];
+	}
+	
+	/**
+	 * @return The layer bits of each object
+	 */
+	public int[] getLayers()
+	{
+		return this.layers;
+	}
+	
+	/**
+	 * @return The x-coordinates of the objects' positions at the last gather
+	 */
+	public double[] getX()
+	{
+		return this.x;
+	}
+	
+	/**
+	 * @return The y-coordinates of the objects' positions at the last gather
+	 */
+	public double[] getY()
+	{
+		return this.y;
+	}
+	
+	/**
+	 * @return The x-components of the objects' velocities at the last gather (pxl / step)
+	 */
+	public double[] getVelocityX()
+	{
+		return this.velocityX;
+	}
+	
+	/**
+	 * @return The y-components of the objects' velocities at the last gather (pxl / step)
+	 */
+	public double[] getVelocityY()
+	{
+		return this.velocityY;
+	}
+	
+	/**
+	 * @return The masses of the objects at the last gather (kg). 0 for static and 
+	 * kinematic objects.
+	 */
+	public double[] getMass()
+	{
+		return this.mass;
+	}
+	
+	/**
+	 * @return The radii of the objects' collision areas at the last gather. 0 for objects 
+	 * that don't have a collision area.
+	 */
+	public double[] getRadius()
+	{
+		return this.radius;
+	}
+	
+	/**
+	 * @return The largest collision radius in the buffer at the last gather
+	 */
+	public double getMaxRadius()
+	{
+		return this.maxRadius;
+	}
+	
+	/**
+	 * @return The x-components of the forces accumulated for each object since the last 
+	 * gather
+	 */
+	public double[] getForceX()
+	{
+		return this.forceX;
+	}
+	
+	/**
+	 * @return The y-components of the forces accumulated for each object since the last 
+	 * gather
+	 */
+	public double[] getForceY()
+	{
+		return this.forceY;
+	}
+	
+	/**
+	 * Changes the layers an object belongs to
+	 * @param body The object
+	 * @param layers The new layer bits of the object
+	 */
+	public void setLayers(Movable body, int layers)
+	{
+		int index = indexOf(body);
+		if (index >= 0)
+			this.layers[index] = layers;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Adds a new object to the buffer
+	 * @param body The object that is added
+	 * @param layers The layer bits of the object
+	 * @return The index of the object in the buffer
+	 */
+	public int add(Movable body, int layers)
+	{
+		int existing = indexOf(body);
+		if (existing >= 0)
+		{
+			this.layers[existing] = layers;
+			return existing;
+		}
+		
+		if (this.size == this.bodies.length)
+			allocate(this.size * 2);
+		
+		int index = this.size;
+		this.bodies[index] = body;
+		this.layers[index] = layers;
+		this.indices.put(body, index);
+		assignId(index);
+		this.size ++;
+		
+		return index;
+	}
+	
+	/**
+	 * Removes an object from the buffer. The last object in the buffer is moved to the 
+	 * removed object's index.
+	 * @param body The object that is removed
+	 */
+	public void remove(Movable body)
+	{
+		int index = indexOf(body);
+		if (index < 0)
+			return;
+		
+		this.indices.remove(body);
+		removeEntry(index);
+	}
+	
+	/**
+	 * Reads the positions, velocities, masses and collision radii of the objects into the 
+	 * buffer and clears the accumulated forces. The entries without an object keep their 
+	 * own state.
+	 */
+	public void gather()
+	{
+		this.maxRadius = 0;
+		for (int i = 0; i < this.size; i++)
+		{
+			this.forceX[i] = 0;
+			this.forceY[i] = 0;
+			Movable body = this.bodies[i];
+			if (body == null)
+			{
+				this.maxRadius = Math.max(this.maxRadius, this.radius[i]);
+				continue;
+			}
+			
+			Vector3D position = body.getTransformation().getPosition();
+			// Objects without a mover don't move on their own
+			ObjectMover mover = body.getMover();
+			Vector3D velocity = mover == null ? Vector3D.zeroVector() : mover.getVelocity();
+			
+			this.x[i] = position.getFirst();
+			this.y[i] = position.getSecond();
+			this.velocityX[i] = velocity.getFirst();
+			this.velocityY[i] = velocity.getSecond();
+			// Objects with an infinite mass are not affected by the forces nor act as 
+			// sources of them
+			this.mass[i] = body.getBodyType().isDynamic() ? body.getMass() : 0;
+			this.radius[i] = Collider.getBoundingRadius(body);
+			this.maxRadius = Math.max(this.maxRadius, this.radius[i]);
+		}
+	}
+	
+	/**
+	 * Applies the accumulated forces to the objects' movers. Objects that weren't affected 
+	 * by any force and the entries without an object are skipped.
+	 */
+	public void scatter()
+	{
+		for (int i = 0; i < this.size; i++)
+		{
+			Movable body = this.bodies[i];
+			if (body == null || (this.forceX[i] == 0 && this.forceY[i] == 0))
+				continue;
+			
+			ObjectMover mover = body.getMover();
+			if (mover != null)
+				mover.applyForce(new Vector3D(this.forceX[i], this.forceY[i]));
+		}
+	}
+	
+	/**
+	 * Adds an entry that doesn't have an object
+	 * @param x The x-coordinate of the entry's position
+	 * @param y The y-coordinate of the entry's position
+	 * @param velocityX The x-component of the entry's velocity (pxl / step)
+	 * @param velocityY The y-component of the entry's velocity (pxl / step)
+	 * @param mass The mass of the entry (kg)
+	 * @param radius The radius of the entry's collision area
+	 * @param layers The layer bits of the entry
+	 * @return The index of the entry in the buffer
+	 */
+	int addEntry(double x, double y, double velocityX, double velocityY, double mass, 
+			double radius, int layers)
+	{
+		if (this.size == this.bodies.length)
+			allocate(this.size * 2);
+		
+		int index = this.size;
+		this.bodies[index] = null;
+		this.layers[index] = layers;
+		this.x[index] = x;
+		this.y[index] = y;
+		this.velocityX[index] = velocityX;
+		this.velocityY[index] = velocityY;
+		this.mass[index] = mass;
+		this.radius[index] = radius;
+		this.forceX[index] = 0;
+		this.forceY[index] = 0;
+		this.maxRadius = Math.max(this.maxRadius, radius);
+		assignId(index);
+		this.size ++;
+		
+		return index;
+	}
+	
+	/**
+	 * Removes an entry from the buffer. The last entry in the buffer is moved to the 
+	 * removed entry's index.
+	 * @param index The index of the entry that is removed
+	 */
+	void removeEntry(int index)
+	{
+		int last = this.size - 1;
+		releaseId(this.ids[index]);
+		
+		if (index != last)
+		{
+			this.bodies[index] = this.bodies[last];
+			this.ids[index] = this.ids[last];
+			this.indexOfId[this.ids[index]] = index;
+			this.layers[index] = this.layers[last];
+			this.x[index] = this.x[last];
+			this.y[index] = this.y[last];
+			this.velocityX[index] = this.velocityX[last];
+			this.velocityY[index] = this.velocityY[last];
+			this.mass[index] = this.mass[last];
+			this.radius[index] = this.radius[last];
+			this.forceX[index] = this.forceX[last];
+			this.forceY[index] = this.forceY[last];
+			if (this.bodies[index] != null)
+				this.indices.put(this.bodies[index], index);
+		}
+		
+		this.bodies[last] = null;
+		this.size --;
+	}
+	
+	/**
+	 * Swaps the places of two entries in the buffer. The ids of the entries stay the same.
+	 * @param first The index of the first entry
+	 * @param second The index of the second entry
+	 */
+	void swap(int first, int second)
+	{
+		if (first == second)
+			return;
+		
+		Movable body = this.bodies[first];
+		this.bodies[first] = this.bodies[second];
+		this.bodies[second] = body;
+		if (this.bodies[first] != null)
+			this.indices.put(this.bodies[first], first);
+		if (this.bodies[second] != null)
+			this.indices.put(this.bodies[second], second);
+		
+		swap(this.ids, first, second);
+		this.indexOfId[this.ids[first]] = first;
+		this.indexOfId[this.ids[second]] = second;
+		swap(this.layers, first, second);
+		swap(this.x, first, second);
+		swap(this.y, first, second);
+		swap(this.velocityX, first, second);
+		swap(this.velocityY, first, second);
+		swap(this.mass, first, second);
+		swap(this.radius, first, second);
+		swap(this.forceX, first, second);
+		swap(this.forceY, first, second);
+	}
+	
+	/**
+	 * Removes all the entries from the buffer
+	 */
+	void clear()
+	{
+		for (int i = 0; i < this.size; i++)
+		{
+			releaseId(this.ids[i]);
+		}
+		Arrays.fill(this.bodies, 0, this.size, null);
+		this.indices.clear();
+		this.size = 0;
+		this.maxRadius = 0;
+	}
+	
+	private void assignId(int index)
+	{
+		int id;
+		if (this.freeIdAmount > 0)
+			id = this.freeIds[--this.freeIdAmount];
+		else
+		{
+			if (this.idAmount == this.indexOfId.length)
+				this.indexOfId = copyOf(this.indexOfId, this.idAmount * 2);
+			id = this.idAmount ++;
+		}
+		
+		this.ids[index] = id;
+		this.indexOfId[id] = index;
+	}
+	
+	private void releaseId(int id)
+	{
+		this.indexOfId[id] = -1;
+		if (this.freeIdAmount == this.freeIds.length)
+			this.freeIds = copyOf(this.freeIds, this.freeIdAmount * 2);
+		this.freeIds[this.freeIdAmount ++] = id;
+	}
+	
+	private void allocate(int capacity)
+	{
+		this.bodies = copyOf(this.bodies, capacity);
+		this.ids = copyOf(this.ids, capacity);
+		this.layers = copyOf(this.layers, capacity);
+		this.x = copyOf(this.x, capacity);
+		this.y = copyOf(this.y, capacity);
+		this.velocityX = copyOf(this.velocityX, capacity);
+		this.velocityY = copyOf(this.velocityY, capacity);
+		this.mass = copyOf(this.mass, capacity);
+		this.radius = copyOf(this.radius, capacity);
+		this.forceX = copyOf(this.forceX, capacity);
+		this.forceY = copyOf(this.forceY, capacity);
+	}
+	
+	private static void swap(double[] values, int first, int second)
+	{
+		double value = values[first];
+		values[first] = values[second];
+		values[second] = value;
+	}
+	
+	private static void swap(int[] values, int first, int second)
+	{
+		int value = values[first];
+		values[first] = values[second];
+		values[second] = value;
+	}
+	
+	private static double[] copyOf(double[] array, int capacity)
+	{
+		double[] copy = new double[capacity];
+		if (array != null)
+			System.arraycopy(array, 0, copy, 0, Math.min(array.length, capacity));
+		return copy;
+	}
+	
+	private static int[] copyOf(int[] array, int capacity)
+	{
+		int[] copy = new int[capacity];
+		if (array != null)
+			System.arraycopy(array, 0, copy, 0, Math.min(array.length, capacity));
+		return copy;
+	}
+	
+	private static Movable[] copyOf(Movable[] array, int capacity)
+	{
+		Movable[] copy = new Movable[capacity];
+		if (array != null)
+			System.arraycopy(array, 0, copy, 0, Math.min(array.length, capacity));
+		return copy;
+	}
+}
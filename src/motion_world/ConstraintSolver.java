@@ -0,0 +1,1055 @@
+package motion_world;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import genesis_util.Transformable;
+import genesis_util.Transformation;
+import genesis_util.Vector3D;
+import motion_movement.Movable;
+import motion_movement.ObjectMover;
+import motion_movement.ObjectRotator;
+import motion_movement.Rotateable;
+import motion_util.ChangeSet;
+import motion_util.Material;
+import motion_util.MaterialInteractionTable;
+
+/**
+ * ConstraintSolver connects the objects of a body buffer with springs, rigid distances, 
+ * pins and hinges. The connections are stored in primitive arrays and refer to the 
+ * objects by their stable ids, so reordering the buffer doesn't break them. The 
+ * connections are divided into batches where no two connections share an object, so the 
+ * connections of a batch can be solved in multiple threads without conflicts. Long chains 
+ * only need two batches.
+ * <p>
+ * By default, springs push and pull the objects with a force and the rigid connections 
+ * are solved a few times over for the velocities the objects will have at the end of the 
+ * step. In the position based mode, the step is divided into many short substeps instead, 
+ * and during each substep the positions of the objects are corrected once for each 
+ * connection and the velocities are derived from how much the objects moved. In both 
+ * modes the results are applied as forces, so the objects still move through their own 
+ * movers.
+ * <p>
+ * In the position based mode the objects are also shifted so that the movement their 
+ * movers and rotators make next ends at the solved positions. Because of this, the solver 
+ * has to be run before the movers and rotators act on the same step. The shifts are made 
+ * through the movers and rotators, so that they are recorded into the journal as well.
+ * <p>
+ * Pins and hinges also turn the objects that have a rotator. The objects are expected to 
+ * rotate around their own position. Objects whose rotation origin has been moved elsewhere 
+ * are only moved by the connections, not turned.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class ConstraintSolver
+{
+	// ATTRIBUTES	-----------------------
+	
+	private static final int PARALLEL_THRESHOLD = 2048;
+	// Batches are tracked with the bits of a long, the rest of the connections are solved 
+	// one at a time in the last batch
+	private static final int MAX_BATCHES = Long.SIZE;
+	// 1 if positive rotator directions turn towards positive y, -1 otherwise
+	private static final double DIRECTION_SIGN = 
+			Math.signum(Vector3D.unitVector(90).getSecond());
+	
+	private final boolean parallel;
+	private final IntConsumer springApplier, velocitySolver, positionSolver;
+	private Mode mode;
+	private int iterations, substeps;
+	private double correctionRate;
+	
+	private Type[] types;
+	private int[] firstIds, secondIds;
+	private double[] lengths, stiffness, damping, compliance, firstAnchorX, firstAnchorY, 
+			secondAnchorX, secondAnchorY;
+	private int size;
+	
+	// The batches the connections are solved in, in the order of the batches
+	private int[] order, batchStarts;
+	private int batchAmount;
+	private boolean batchesValid;
+	private long[] usedBatches;
+	
+	// The state of the current step. The anchors are relative to the objects' centers but 
+	// turned with the objects.
+	private int[] firstIndices, secondIndices;
+	private double[] offsetX, offsetY;
+	private final ChangeSet connected;
+	private double[] positionX, positionY, previousX, previousY, velocityX, velocityY, 
+			inverseMass;
+	private double[] forceX, forceY, currentVelocityX, currentVelocityY;
+	// The angular state is in radians, positive angles turning from x towards y
+	private double[] inverseInertia, angularVelocity, currentAngularVelocity, angle, 
+			previousAngle, angleCos, angleSin;
+	private double duration, substepDuration;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new solver without any connections
+	 * @param parallel Should the large batches be solved in multiple threads
+	 */
+	public ConstraintSolver(boolean parallel)
+	{
+		this.parallel = parallel;
+		this.mode = Mode.IMPULSE;
+		this.iterations = 8;
+		this.substeps = 8;
+		this.correctionRate = 0.2;
+		
+		this.size = 0;
+		allocate(16);
+		this.order = new int[16];
+		this.batchStarts = new int[MAX_BATCHES + 2];
+		this.batchAmount = 0;
+		this.batchesValid = true;
+		this.usedBatches = new long[0];
+		
+		this.firstIndices = new int[16];
+		this.secondIndices = new int[16];
+		this.offsetX = new double[32];
+		this.offsetY = new double[32];
+		this.connected = new ChangeSet();
+		this.positionX = new double[0];
+		this.positionY = new double[0];
+		this.previousX = new double[0];
+		this.previousY = new double[0];
+		this.velocityX = new double[0];
+		this.velocityY = new double[0];
+		this.inverseMass = new double[0];
+		this.inverseInertia = new double[0];
+		
+		this.springApplier = i -> applySpring(i);
+		this.velocitySolver = i -> solveVelocity(i);
+		this.positionSolver = i -> solvePosition(i);
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return How many connections there are in the solver
+	 */
+	public int getSize()
+	{
+		return this.size;
+	}
+	
+	/**
+	 * @param index The index of a connection
+	 * @return The type of the connection
+	 */
+	public Type getType(int index)
+	{
+		return this.types[index];
+	}
+	
+	/**
+	 * @return How many batches the connections are divided into
+	 */
+	public int getBatchAmount()
+	{
+		updateBatches();
+		return this.batchAmount;
+	}
+	
+	/**
+	 * @return How the connections are solved
+	 */
+	public Mode getMode()
+	{
+		return this.mode;
+	}
+	
+	/**
+	 * Changes how the connections are solved
+	 * @param mode The new solving mode
+	 */
+	public void setMode(Mode mode)
+	{
+		this.mode = mode;
+	}
+	
+	/**
+	 * Changes how many times the rigid connections are solved each step in the impulse 
+	 * mode. More iterations make long chains stiffer.
+	 * @param iterations How many times the rigid connections are solved each step
+	 */
+	public void setIterations(int iterations)
+	{
+		this.iterations = Math.max(1, iterations);
+	}
+	
+	/**
+	 * Changes how many substeps each step is divided into in the position based mode. The 
+	 * connections are solved once during each substep.
+	 * @param substeps How many substeps each step is divided into
+	 */
+	public void setSubsteps(int substeps)
+	{
+		this.substeps = Math.max(1, substeps);
+	}
+	
+	/**
+	 * Changes how fast the rigid connections are pulled back together when they drift 
+	 * apart in the impulse mode
+	 * @param correctionRate How large portion of the error is corrected each step [0, 1]
+	 */
+	public void setCorrectionRate(double correctionRate)
+	{
+		this.correctionRate = correctionRate;
+	}
+	
+	/**
+	 * Changes how much a connection gives in under force. Setting the compliance of a 
+	 * spring changes its stiffness as well.
+	 * @param index The index of the connection
+	 * @param compliance How much the connection gives in under force 
+	 * (pxl / force unit). 0 for rigid connections.
+	 */
+	public void setCompliance(int index, double compliance)
+	{
+		this.compliance[index] = Math.max(0, compliance);
+		if (this.types[index] == Type.SPRING)
+			this.stiffness[index] = compliance > 0 ? 1 / compliance : 0;
+	}
+	
+	/**
+	 * Changes the compliance of a connection to the one used between the two materials in 
+	 * the default material interaction table
+	 * @param index The index of the connection
+	 * @param first The material of the first object
+	 * @param second The material of the second object
+	 */
+	public void setCompliance(int index, Material first, Material second)
+	{
+		setCompliance(index, MaterialInteractionTable.getDefaultTable().getCompliance(
+				first, second));
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Connects two objects with a spring that pulls and pushes them towards a certain 
+	 * distance
+	 * @param bodies The buffer that contains the objects
+	 * @param first The first object
+	 * @param second The second object
+	 * @param restLength The distance the spring tries to keep between the objects' centers
+	 * @param stiffness How much force the spring causes for each pixel it is stretched
+	 * @param damping How much force the spring causes for each pixel / step the objects 
+	 * move apart. Damping keeps the spring from oscillating.
+	 * @return The index of the connection
+	 */
+	public int addSpring(BodyBuffer bodies, Movable first, Movable second, 
+			double restLength, double stiffness, double damping)
+	{
+		int index = add(Type.SPRING, getId(bodies, first), getId(bodies, second));
+		this.lengths[index] = restLength;
+		this.stiffness[index] = stiffness;
+		this.damping[index] = damping;
+		this.compliance[index] = stiffness > 0 ? 1 / stiffness : 0;
+		return index;
+	}
+	
+	/**
+	 * Connects two objects with a rigid rod that keeps their centers at a certain distance
+	 * @param bodies The buffer that contains the objects
+	 * @param first The first object
+	 * @param second The second object
+	 * @param length The distance kept between the objects' centers
+	 * @return The index of the connection
+	 */
+	public int addDistance(BodyBuffer bodies, Movable first, Movable second, double length)
+	{
+		int index = add(Type.DISTANCE, getId(bodies, first), getId(bodies, second));
+		this.lengths[index] = length;
+		return index;
+	}
+	
+	/**
+	 * Pins a point of an object to a point in the world. The object may turn around the 
+	 * pinned point.
+	 * @param bodies The buffer that contains the object
+	 * @param body The pinned object
+	 * @param anchor The pinned point of the object (relative to the object)
+	 * @param position The point in the world the object is pinned to (absolute space)
+	 * @return The index of the connection
+	 */
+	public int addPin(BodyBuffer bodies, Movable body, Vector3D anchor, Vector3D position)
+	{
+		int index = add(Type.PIN, getId(bodies, body), -1);
+		this.firstAnchorX[index] = anchor.getFirst();
+		this.firstAnchorY[index] = anchor.getSecond();
+		this.secondAnchorX[index] = position.getFirst();
+		this.secondAnchorY[index] = position.getSecond();
+		return index;
+	}
+	
+	/**
+	 * Connects two objects at a point they share. The objects may turn around the point, 
+	 * but the point stays in the same place on both objects.
+	 * @param bodies The buffer that contains the objects
+	 * @param first The first object
+	 * @param second The second object
+	 * @param firstAnchor The connected point on the first object (relative to the first 
+	 * object)
+	 * @param secondAnchor The connected point on the second object (relative to the second 
+	 * object)
+	 * @return The index of the connection
+	 */
+	public int addHinge(BodyBuffer bodies, Movable first, Movable second, 
+			Vector3D firstAnchor, Vector3D secondAnchor)
+	{
+		int index = add(Type.HINGE, getId(bodies, first), getId(bodies, second));
+		this.firstAnchorX[index] = firstAnchor.getFirst();
+		this.firstAnchorY[index] = firstAnchor.getSecond();
+		this.secondAnchorX[index] = secondAnchor.getFirst();
+		this.secondAnchorY[index] = secondAnchor.getSecond();
+		return index;
+	}
+	
+	/**
+	 * Removes a connection. The last connection is moved to the removed connection's 
+	 * index.
+	 * @param index The index of the connection that is removed
+	 */
+	public void remove(int index)
+	{
+		int last = this.size - 1;
+		if (index != last)
+		{
+			this.types[index] = this.types[last];
+			this.firstIds[index] = this.firstIds[last];
+			this.secondIds[index] = this.secondIds[last];
+			this.lengths[index] = this.lengths[last];
+			this.stiffness[index] = this.stiffness[last];
+			this.damping[index] = this.damping[last];
+			this.compliance[index] = this.compliance[last];
+			this.firstAnchorX[index] = this.firstAnchorX[last];
+			this.firstAnchorY[index] = this.firstAnchorY[last];
+			this.secondAnchorX[index] = this.secondAnchorX[last];
+			this.secondAnchorY[index] = this.secondAnchorY[last];
+		}
+		this.types[last] = null;
+		this.size --;
+		this.batchesValid = false;
+	}
+	
+	/**
+	 * Removes all the connections of an object. This should be done before the object is 
+	 * removed from the buffer, since its id may be given to another object.
+	 * @param bodies The buffer that contains the object
+	 * @param body The object whose connections are removed
+	 */
+	public void removeAll(BodyBuffer bodies, Movable body)
+	{
+		int id = getId(bodies, body);
+		for (int i = this.size - 1; i >= 0; i--)
+		{
+			if (this.firstIds[i] == id || this.secondIds[i] == id)
+				remove(i);
+		}
+	}
+	
+	/**
+	 * Removes all the connections
+	 */
+	public void clear()
+	{
+		Arrays.fill(this.types, 0, this.size, null);
+		this.size = 0;
+		this.batchesValid = false;
+	}
+	
+	/**
+	 * Solves the connections. The forces in the buffer are changed so that they give the 
+	 * connected objects the solved velocities, and should be scattered afterwards. In the 
+	 * position based mode the connected objects are also moved to the solved positions.
+	 * @param bodies The objects. The positions, velocities and masses must be up to date 
+	 * and the forces applied by the force fields should already be in the buffer.
+	 * @param duration The duration of the step
+	 */
+	public void solve(BodyBuffer bodies, double duration)
+	{
+		if (this.size == 0 || duration <= 0)
+			return;
+		
+		updateBatches();
+		prepare(bodies, duration);
+		
+		if (this.mode == Mode.POSITION_BASED)
+			solvePositions(bodies);
+		else
+			solveVelocities(bodies);
+		
+		// The forces are replaced with the ones that cause the solved velocities
+		// (F = m * dv / dt)
+		double[] mass = bodies.getMass();
+		for (int j = 0; j < this.connected.getSize(); j++)
+		{
+			int i = this.connected.get(j);
+			if (this.inverseMass[i] != 0)
+			{
+				this.forceX[i] = mass[i] * (this.velocityX[i] - this.currentVelocityX[i]) / 
+						duration;
+				this.forceY[i] = mass[i] * (this.velocityY[i] - this.currentVelocityY[i]) / 
+						duration;
+			}
+			
+			// The change in rotation is given to the rotator directly
+			double turn = this.angularVelocity[i] - this.currentAngularVelocity[i];
+			if (this.inverseInertia[i] != 0 && turn != 0)
+				getRotator(bodies, i).increaseRotation(Math.toDegrees(turn) * DIRECTION_SIGN);
+		}
+	}
+	
+	private void solveVelocities(BodyBuffer bodies)
+	{
+		this.positionX = bodies.getX();
+		this.positionY = bodies.getY();
+		
+		// The springs only add forces, but those forces also need to be part of the 
+		// velocities the rigid connections work with
+		forEachBatch(this.springApplier);
+		predictVelocities(bodies);
+		for (int iteration = 0; iteration < this.iterations; iteration++)
+		{
+			forEachBatch(this.velocitySolver);
+		}
+	}
+	
+	private void solvePositions(BodyBuffer bodies)
+	{
+		int bodyAmount = bodies.getSize();
+		double[] x = bodies.getX(), y = bodies.getY();
+		if (this.previousX.length < bodyAmount || this.positionX == x)
+		{
+			int capacity = Math.max(bodyAmount, this.previousX.length * 2);
+			this.positionX = new double[capacity];
+			this.positionY = new double[capacity];
+			this.previousX = new double[capacity];
+			this.previousY = new double[capacity];
+		}
+		
+		// The forces are applied over the substeps instead
+		predictVelocities(bodies);
+		for (int j = 0; j < this.connected.getSize(); j++)
+		{
+			int i = this.connected.get(j);
+			this.positionX[i] = x[i];
+			this.positionY[i] = y[i];
+			this.velocityX[i] = this.currentVelocityX[i];
+			this.velocityY[i] = this.currentVelocityY[i];
+			this.angularVelocity[i] = this.currentAngularVelocity[i];
+		}
+		
+		// Each substep moves the objects freely, corrects the positions once for each 
+		// connection and derives the velocities from the corrected movement
+		double h = this.duration / this.substeps;
+		this.substepDuration = h;
+		for (int substep = 0; substep < this.substeps; substep++)
+		{
+			for (int j = 0; j < this.connected.getSize(); j++)
+			{
+				int i = this.connected.get(j);
+				this.velocityX[i] += this.forceX[i] * this.inverseMass[i] * h;
+				this.velocityY[i] += this.forceY[i] * this.inverseMass[i] * h;
+				this.previousX[i] = this.positionX[i];
+				this.previousY[i] = this.positionY[i];
+				this.positionX[i] += this.velocityX[i] * h;
+				this.positionY[i] += this.velocityY[i] * h;
+				this.previousAngle[i] = this.angle[i];
+				if (this.angularVelocity[i] != 0)
+					turn(i, this.angularVelocity[i] * h);
+			}
+			
+			forEachBatch(this.positionSolver);
+			
+			for (int j = 0; j < this.connected.getSize(); j++)
+			{
+				int i = this.connected.get(j);
+				this.velocityX[i] = (this.positionX[i] - this.previousX[i]) / h;
+				this.velocityY[i] = (this.positionY[i] - this.previousY[i]) / h;
+				this.angularVelocity[i] = (this.angle[i] - this.previousAngle[i]) / h;
+			}
+		}
+		
+		// The movers and rotators move the objects with the final velocities, so the 
+		// objects are placed where that movement ends at the solved positions and angles.
+		// Objects with a reduced step rate may not move this step at all or may move the 
+		// whole time they skipped, so their own durations are used.
+		for (int j = 0; j < this.connected.getSize(); j++)
+		{
+			int i = this.connected.get(j);
+			Movable body = bodies.getBody(i);
+			ObjectMover mover = body == null ? null : body.getMover();
+			
+			double dx = 0, dy = 0;
+			if (this.inverseMass[i] != 0)
+			{
+				double moveDuration = mover == null ? 0 : 
+						mover.getNextMoveDuration(this.duration);
+				dx = this.positionX[i] - this.velocityX[i] * moveDuration - x[i];
+				dy = this.positionY[i] - this.velocityY[i] * moveDuration - y[i];
+				x[i] += dx;
+				y[i] += dy;
+			}
+			ObjectRotator rotator = getRotator(bodies, i);
+			double turn = 0;
+			if (this.inverseInertia[i] != 0)
+				turn = this.angle[i] - this.angularVelocity[i] * 
+						rotator.getNextRotationDuration(this.duration);
+			
+			if (body == null)
+				continue;
+			// The movers and rotators record the corrections so that they are replayed
+			if (dx != 0 || dy != 0)
+			{
+				if (mover != null)
+					mover.translate(new Vector3D(dx, dy));
+				else
+					Transformable.transform(body, Transformation.transitionTransformation(
+							new Vector3D(dx, dy)));
+			}
+			if (turn != 0)
+				rotator.rotate(Math.toDegrees(turn) * DIRECTION_SIGN);
+		}
+	}
+	
+	private int add(Type type, int firstId, int secondId)
+	{
+		if (this.size == this.types.length)
+			allocate(this.size * 2);
+		
+		int index = this.size ++;
+		this.types[index] = type;
+		this.firstIds[index] = firstId;
+		this.secondIds[index] = secondId;
+		this.lengths[index] = 0;
+		this.stiffness[index] = 0;
+		this.damping[index] = 0;
+		this.compliance[index] = 0;
+		this.firstAnchorX[index] = 0;
+		this.firstAnchorY[index] = 0;
+		this.secondAnchorX[index] = 0;
+		this.secondAnchorY[index] = 0;
+		this.batchesValid = false;
+		
+		return index;
+	}
+	
+	private void prepare(BodyBuffer bodies, double duration)
+	{
+		this.duration = duration;
+		this.forceX = bodies.getForceX();
+		this.forceY = bodies.getForceY();
+		this.currentVelocityX = bodies.getVelocityX();
+		this.currentVelocityY = bodies.getVelocityY();
+		if (this.firstIndices.length < this.size)
+		{
+			int capacity = Math.max(this.size, this.firstIndices.length * 2);
+			this.firstIndices = new int[capacity];
+			this.secondIndices = new int[capacity];
+			this.offsetX = new double[2 * capacity];
+			this.offsetY = new double[2 * capacity];
+		}
+		
+		// The ids are turned into indices and the anchors are turned with the objects once 
+		// each step
+		this.connected.clear();
+		for (int i = 0; i < this.size; i++)
+		{
+			int first = bodies.getIndexOfId(this.firstIds[i]);
+			int second = this.secondIds[i] < 0 ? -1 : bodies.getIndexOfId(this.secondIds[i]);
+			this.firstIndices[i] = first;
+			this.secondIndices[i] = second;
+			if (first >= 0)
+				this.connected.add(first);
+			if (second >= 0)
+				this.connected.add(second);
+			
+			Type type = this.types[i];
+			if (type == Type.PIN || type == Type.HINGE)
+			{
+				setOffset(2 * i, bodies, first, this.firstAnchorX[i], this.firstAnchorY[i]);
+				// The second point of a pin is in the world
+				if (type == Type.PIN)
+				{
+					this.offsetX[2 * i + 1] = this.secondAnchorX[i];
+					this.offsetY[2 * i + 1] = this.secondAnchorY[i];
+				}
+				else
+					setOffset(2 * i + 1, bodies, second, this.secondAnchorX[i], 
+							this.secondAnchorY[i]);
+			}
+			else
+			{
+				this.offsetX[2 * i] = 0;
+				this.offsetY[2 * i] = 0;
+				this.offsetX[2 * i + 1] = 0;
+				this.offsetY[2 * i + 1] = 0;
+			}
+		}
+	}
+	
+	private void setOffset(int offsetIndex, BodyBuffer bodies, int bodyIndex, double anchorX, 
+			double anchorY)
+	{
+		this.offsetX[offsetIndex] = anchorX;
+		this.offsetY[offsetIndex] = anchorY;
+		
+		Movable body = bodyIndex < 0 ? null : bodies.getBody(bodyIndex);
+		if (body != null)
+		{
+			Transformation transformation = body.getTransformation();
+			Vector3D position = transformation.getPosition();
+			Vector3D point = transformation.transform(new Vector3D(anchorX, anchorY));
+			this.offsetX[offsetIndex] = point.getFirst() - position.getFirst();
+			this.offsetY[offsetIndex] = point.getSecond() - position.getSecond();
+		}
+	}
+	
+	private void predictVelocities(BodyBuffer bodies)
+	{
+		int bodyAmount = bodies.getSize();
+		if (this.velocityX.length < bodyAmount)
+		{
+			int capacity = Math.max(bodyAmount, this.velocityX.length * 2);
+			this.velocityX = new double[capacity];
+			this.velocityY = new double[capacity];
+			this.inverseMass = new double[capacity];
+			this.inverseInertia = new double[capacity];
+			this.angularVelocity = new double[capacity];
+			this.currentAngularVelocity = new double[capacity];
+			this.angle = new double[capacity];
+			this.previousAngle = new double[capacity];
+			this.angleCos = new double[capacity];
+			this.angleSin = new double[capacity];
+		}
+		
+		// v = v0 + F / m * t, objects with an infinite mass don't move because of the 
+		// connections
+		double[] mass = bodies.getMass();
+		for (int j = 0; j < this.connected.getSize(); j++)
+		{
+			int i = this.connected.get(j);
+			double inverseMass = mass[i] > 0 ? 1 / mass[i] : 0;
+			this.inverseMass[i] = inverseMass;
+			this.velocityX[i] = this.currentVelocityX[i] + 
+					this.forceX[i] * inverseMass * this.duration;
+			this.velocityY[i] = this.currentVelocityY[i] + 
+					this.forceY[i] * inverseMass * this.duration;
+			
+			// Only objects that rotate around their position are turned by the connections
+			ObjectRotator rotator = getRotator(bodies, i);
+			double rotation = 0;
+			this.inverseInertia[i] = 0;
+			if (rotator != null && rotator.getRotationOrigin().equals(Vector3D.zeroVector()))
+			{
+				rotation = Math.toRadians(rotator.getRotation()) * DIRECTION_SIGN;
+				this.inverseInertia[i] = rotator.getInverseMomentMass();
+			}
+			this.currentAngularVelocity[i] = rotation;
+			this.angularVelocity[i] = rotation;
+			this.angle[i] = 0;
+			this.angleCos[i] = 1;
+			this.angleSin[i] = 0;
+		}
+	}
+	
+	private void applySpring(int index)
+	{
+		int first = this.firstIndices[index], second = this.secondIndices[index];
+		if (this.types[index] != Type.SPRING || first < 0 || second < 0)
+			return;
+		
+		double dx = this.positionX[second] - this.positionX[first];
+		double dy = this.positionY[second] - this.positionY[first];
+		double length = Math.sqrt(dx * dx + dy * dy);
+		if (length == 0)
+			return;
+		double nx = dx / length, ny = dy / length;
+		
+		// F = k * (l - l0) + c * dl / dt
+		double stretchSpeed = 
+				(this.currentVelocityX[second] - this.currentVelocityX[first]) * nx + 
+				(this.currentVelocityY[second] - this.currentVelocityY[first]) * ny;
+		double force = this.stiffness[index] * (length - this.lengths[index]) + 
+				this.damping[index] * stretchSpeed;
+		
+		this.forceX[first] += force * nx;
+		this.forceY[first] += force * ny;
+		this.forceX[second] -= force * nx;
+		this.forceY[second] -= force * ny;
+	}
+	
+	private void solveVelocity(int index)
+	{
+		Type type = this.types[index];
+		int first = this.firstIndices[index], second = this.secondIndices[index];
+		if (type == Type.SPRING || first < 0 || (second < 0 && type != Type.PIN))
+			return;
+		
+		double firstMass = this.inverseMass[first];
+		double secondMass = second < 0 ? 0 : this.inverseMass[second];
+		double firstInertia = this.inverseInertia[first];
+		double secondInertia = second < 0 ? 0 : this.inverseInertia[second];
+		if (firstMass + secondMass + firstInertia + secondInertia == 0)
+			return;
+		// Compliant connections give in like stiff springs: alpha / dt^2
+		double softness = this.compliance[index] / (this.duration * this.duration);
+		
+		// The anchors also move when the objects turn: v = v0 + w x r
+		double r1x = getArmX(2 * index, first), r1y = getArmY(2 * index, first);
+		double r2x = getArmX(2 * index + 1, second), r2y = getArmY(2 * index + 1, second);
+		double w1 = this.angularVelocity[first];
+		double relativeX = -(this.velocityX[first] - w1 * r1y);
+		double relativeY = -(this.velocityY[first] + w1 * r1x);
+		if (second >= 0)
+		{
+			double w2 = this.angularVelocity[second];
+			relativeX += this.velocityX[second] - w2 * r2y;
+			relativeY += this.velocityY[second] + w2 * r2x;
+		}
+		double bias = this.correctionRate / this.duration;
+		double errorX = getErrorX(index, first, second);
+		double errorY = getErrorY(index, first, second);
+		double impulseX, impulseY;
+		
+		if (type == Type.DISTANCE)
+		{
+			// The centers may only move towards or away from each other as much as the 
+			// length allows: C = |p2 - p1| - l
+			double length = Math.sqrt(errorX * errorX + errorY * errorY);
+			double totalMass = firstMass + secondMass + softness;
+			if (length == 0 || totalMass == 0)
+				return;
+			double nx = errorX / length, ny = errorY / length;
+			
+			double lambda = -(relativeX * nx + relativeY * ny + 
+					bias * (length - this.lengths[index])) / totalMass;
+			impulseX = lambda * nx;
+			impulseY = lambda * ny;
+		}
+		else
+		{
+			// The anchors must be at the same point, which fixes both axes: C = p2 - p1.
+			// The effective mass is K = (m1^-1 + m2^-1) * E + J^-1 * [r]^T[r] for each 
+			// object, where [r] is the cross product matrix of the anchor.
+			double linear = firstMass + secondMass + softness;
+			double kxx = linear + firstInertia * r1y * r1y + secondInertia * r2y * r2y;
+			double kyy = linear + firstInertia * r1x * r1x + secondInertia * r2x * r2x;
+			double kxy = -firstInertia * r1x * r1y - secondInertia * r2x * r2y;
+			double determinant = kxx * kyy - kxy * kxy;
+			if (determinant == 0)
+				return;
+			
+			double targetX = -(relativeX + bias * errorX);
+			double targetY = -(relativeY + bias * errorY);
+			impulseX = (kyy * targetX - kxy * targetY) / determinant;
+			impulseY = (kxx * targetY - kxy * targetX) / determinant;
+		}
+		
+		// The impulse turns the objects as well: dw = J^-1 * (r x P)
+		this.velocityX[first] -= impulseX * firstMass;
+		this.velocityY[first] -= impulseY * firstMass;
+		this.angularVelocity[first] -= firstInertia * (r1x * impulseY - r1y * impulseX);
+		if (second >= 0)
+		{
+			this.velocityX[second] += impulseX * secondMass;
+			this.velocityY[second] += impulseY * secondMass;
+			this.angularVelocity[second] += secondInertia * (r2x * impulseY - r2y * impulseX);
+		}
+	}
+	
+	private void solvePosition(int index)
+	{
+		Type type = this.types[index];
+		int first = this.firstIndices[index], second = this.secondIndices[index];
+		if (first < 0 || (second < 0 && type != Type.PIN))
+			return;
+		// A spring without stiffness doesn't do anything
+		if (type == Type.SPRING && this.compliance[index] == 0)
+			return;
+		
+		double firstMass = this.inverseMass[first];
+		double secondMass = second < 0 ? 0 : this.inverseMass[second];
+		double firstInertia = this.inverseInertia[first];
+		double secondInertia = second < 0 ? 0 : this.inverseInertia[second];
+		if (firstMass + secondMass + firstInertia + secondInertia == 0)
+			return;
+		// alpha~ = alpha / h^2, gamma = alpha~ * beta / h where beta = c * h^2
+		double h = this.substepDuration;
+		double softness = this.compliance[index] / (h * h);
+		double damping = this.compliance[index] * this.damping[index] / h;
+		
+		// How much the connected points moved apart during this substep. The turns are 
+		// small enough to be treated as dtheta x r.
+		double r1x = getArmX(2 * index, first), r1y = getArmY(2 * index, first);
+		double r2x = getArmX(2 * index + 1, second), r2y = getArmY(2 * index + 1, second);
+		double turn1 = this.angle[first] - this.previousAngle[first];
+		double movedX = -(this.positionX[first] - this.previousX[first] - turn1 * r1y);
+		double movedY = -(this.positionY[first] - this.previousY[first] + turn1 * r1x);
+		if (second >= 0)
+		{
+			double turn2 = this.angle[second] - this.previousAngle[second];
+			movedX += this.positionX[second] - this.previousX[second] - turn2 * r2y;
+			movedY += this.positionY[second] - this.previousY[second] + turn2 * r2x;
+		}
+		
+		// C = |p2 - p1| - l, the gradient is the direction between the points. Pins and 
+		// hinges have no length, so they pull the points together.
+		double errorX = getErrorX(index, first, second);
+		double errorY = getErrorY(index, first, second);
+		double length = Math.sqrt(errorX * errorX + errorY * errorY);
+		if (length == 0)
+			return;
+		double nx = errorX / length, ny = errorY / length;
+		
+		// w = m^-1 + J^-1 * (r x n)^2 for each object
+		double r1CrossN = r1x * ny - r1y * nx, r2CrossN = r2x * ny - r2y * nx;
+		double weight = firstMass + secondMass + firstInertia * r1CrossN * r1CrossN + 
+				secondInertia * r2CrossN * r2CrossN;
+		double totalMass = (1 + damping) * weight + softness;
+		if (totalMass == 0)
+			return;
+		double lambda = -(length - this.lengths[index] + 
+				damping * (movedX * nx + movedY * ny)) / totalMass;
+		double correctionX = lambda * nx, correctionY = lambda * ny;
+		
+		this.positionX[first] -= correctionX * firstMass;
+		this.positionY[first] -= correctionY * firstMass;
+		if (firstInertia != 0)
+			turn(first, -firstInertia * lambda * r1CrossN);
+		if (second >= 0)
+		{
+			this.positionX[second] += correctionX * secondMass;
+			this.positionY[second] += correctionY * secondMass;
+			if (secondInertia != 0)
+				turn(second, secondInertia * lambda * r2CrossN);
+		}
+	}
+	
+	private double getErrorX(int index, int first, int second)
+	{
+		double end = getArmX(2 * index + 1, second);
+		if (second >= 0)
+			end += this.positionX[second];
+		return end - this.positionX[first] - getArmX(2 * index, first);
+	}
+	
+	private double getErrorY(int index, int first, int second)
+	{
+		double end = getArmY(2 * index + 1, second);
+		if (second >= 0)
+			end += this.positionY[second];
+		return end - this.positionY[first] - getArmY(2 * index, first);
+	}
+	
+	// The anchors are turned by how much the object has turned during the step. The world 
+	// points of pins don't turn.
+	private double getArmX(int offsetIndex, int body)
+	{
+		if (body < 0)
+			return this.offsetX[offsetIndex];
+		return this.offsetX[offsetIndex] * this.angleCos[body] - 
+				this.offsetY[offsetIndex] * this.angleSin[body];
+	}
+	
+	private double getArmY(int offsetIndex, int body)
+	{
+		if (body < 0)
+			return this.offsetY[offsetIndex];
+		return this.offsetX[offsetIndex] * this.angleSin[body] + 
+				this.offsetY[offsetIndex] * this.angleCos[body];
+	}
+	
+	private void turn(int body, double amount)
+	{
+		double angle = this.angle[body] + amount;
+		this.angle[body] = angle;
+		this.angleCos[body] = Math.cos(angle);
+		this.angleSin[body] = Math.sin(angle);
+	}
+	
+	private void forEachBatch(IntConsumer solver)
+	{
+		for (int batch = 0; batch < this.batchAmount; batch++)
+		{
+			int start = this.batchStarts[batch], end = this.batchStarts[batch + 1];
+			// The last batch may contain connections that share objects
+			boolean shared = batch == this.batchAmount - 1 && 
+					this.batchAmount > MAX_BATCHES;
+			
+			if (this.parallel && !shared && end - start >= PARALLEL_THRESHOLD)
+				IntStream.range(start, end).parallel().forEach(
+						i -> solver.accept(this.order[i]));
+			else
+			{
+				for (int i = start; i < end; i++)
+				{
+					solver.accept(this.order[i]);
+				}
+			}
+		}
+	}
+	
+	private void updateBatches()
+	{
+		if (this.batchesValid)
+			return;
+		this.batchesValid = true;
+		
+		int maxId = 0;
+		for (int i = 0; i < this.size; i++)
+		{
+			maxId = Math.max(maxId, Math.max(this.firstIds[i], this.secondIds[i]));
+		}
+		if (this.usedBatches.length <= maxId)
+			this.usedBatches = new long[maxId + 1];
+		else
+			Arrays.fill(this.usedBatches, 0, maxId + 1, 0);
+		if (this.order.length < this.size)
+			this.order = new int[Math.max(this.size, this.order.length * 2)];
+		
+		// Each connection is placed into the first batch that doesn't touch its objects 
+		// yet. The batch numbers are temporarily kept in the order array.
+		int[] counts = new int[MAX_BATCHES + 1];
+		int[] batches = this.order;
+		int usedAmount = 0;
+		for (int i = 0; i < this.size; i++)
+		{
+			int first = this.firstIds[i], second = this.secondIds[i];
+			long used = this.usedBatches[first] | (second < 0 ? 0 : this.usedBatches[second]);
+			int batch = Long.numberOfTrailingZeros(~used);
+			if (batch < MAX_BATCHES)
+			{
+				this.usedBatches[first] |= 1L << batch;
+				if (second >= 0)
+					this.usedBatches[second] |= 1L << batch;
+			}
+			batches[i] = batch;
+			counts[batch] ++;
+			usedAmount = Math.max(usedAmount, batch + 1);
+		}
+		
+		this.batchAmount = usedAmount;
+		this.batchStarts[0] = 0;
+		for (int batch = 0; batch < usedAmount; batch++)
+		{
+			this.batchStarts[batch + 1] = this.batchStarts[batch] + counts[batch];
+		}
+		
+		int[] positions = Arrays.copyOf(this.batchStarts, usedAmount + 1);
+		int[] order = new int[this.order.length];
+		for (int i = 0; i < this.size; i++)
+		{
+			order[positions[batches[i]] ++] = i;
+		}
+		this.order = order;
+	}
+	
+	private void allocate(int capacity)
+	{
+		if (this.types == null)
+		{
+			this.types = new Type[capacity];
+			this.firstIds = new int[capacity];
+			this.secondIds = new int[capacity];
+			this.lengths = new double[capacity];
+			this.stiffness = new double[capacity];
+			this.damping = new double[capacity];
+			this.compliance = new double[capacity];
+			this.firstAnchorX = new double[capacity];
+			this.firstAnchorY = new double[capacity];
+			this.secondAnchorX = new double[capacity];
+			this.secondAnchorY = new double[capacity];
+		}
+		else
+		{
+			this.types = Arrays.copyOf(this.types, capacity);
+			this.firstIds = Arrays.copyOf(this.firstIds, capacity);
+			this.secondIds = Arrays.copyOf(this.secondIds, capacity);
+			this.lengths = Arrays.copyOf(this.lengths, capacity);
+			this.stiffness = Arrays.copyOf(this.stiffness, capacity);
+			this.damping = Arrays.copyOf(this.damping, capacity);
+			this.compliance = Arrays.copyOf(this.compliance, capacity);
+			this.firstAnchorX = Arrays.copyOf(this.firstAnchorX, capacity);
+			this.firstAnchorY = Arrays.copyOf(this.firstAnchorY, capacity);
+			this.secondAnchorX = Arrays.copyOf(this.secondAnchorX, capacity);
+			this.secondAnchorY = Arrays.copyOf(this.secondAnchorY, capacity);
+		}
+	}
+	
+	private static ObjectRotator getRotator(BodyBuffer bodies, int index)
+	{
+		Movable body = bodies.getBody(index);
+		if (body instanceof Rotateable)
+			return ((Rotateable) body).getRotator();
+		return null;
+	}
+	
+	private static int getId(BodyBuffer bodies, Movable body)
+	{
+		int index = bodies.indexOf(body);
+		if (index < 0)
+			throw new IllegalArgumentException("The object is not in the buffer");
+		return bodies.getId(index);
+	}
+	
+	
+	// ENUMERATIONS	-----------------------
+	
+	/**
+	 * These are the different kinds of connections the solver supports
+	 * 
+	 * @author Mikko Hilpinen
+	 * @since 19.10.2026
+	 */
+	public static enum Type
+	{
+		/**
+		 * A spring that pulls and pushes the objects towards a certain distance
+		 */
+		SPRING, 
+		/**
+		 * A rigid rod that keeps the objects at a certain distance
+		 */
+		DISTANCE, 
+		/**
+		 * A point on an object that is fixed to a point in the world
+		 */
+		PIN, 
+		/**
+		 * A point that two objects share
+		 */
+		HINGE;
+	}
+	
+	/**
+	 * These are the different ways the connections can be solved
+	 * 
+	 * @author Mikko Hilpinen
+	 * @since 19.10.2026
+	 */
+	public static enum Mode
+	{
+		/**
+		 * The velocities of the objects are corrected multiple times each step. Springs 
+		 * are applied as forces.
+		 */
+		IMPULSE, 
+		/**
+		 * The step is divided into substeps and the positions of the objects are corrected 
+		 * once during each substep (extended position based dynamics). Springs are solved 
+		 * as compliant connections, which keeps stiff springs stable.
+		 */
+		POSITION_BASED;
+	}
+}
@@ -0,0 +1,48 @@
+package motion_world;
+
+/**
+ * Falloff determines how the strength of an area effect decreases when the distance from 
+ * the effect's origin increases.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public enum Falloff
+{
+	/**
+	 * The effect is equally strong within the whole area
+	 */
+	CONSTANT, 
+	/**
+	 * The effect weakens linearly and reaches zero at the edge of the area
+	 */
+	LINEAR, 
+	/**
+	 * The effect weakens quadratically and reaches zero at the edge of the area. The 
+	 * effect drops faster near the origin than with the linear falloff.
+	 */
+	QUADRATIC;
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Calculates the strength modifier at the given distance
+	 * @param relativeDistance The distance from the origin divided by the radius of the area
+	 * @return A modifier [0, 1] that is applied to the effect's strength
+	 */
+	public double getModifier(double relativeDistance)
+	{
+		if (relativeDistance > 1)
+			return 0;
+		if (relativeDistance <= 0)
+			return 1;
+		
+		switch (this)
+		{
+			case LINEAR: return 1 - relativeDistance;
+			case QUADRATIC: return (1 - relativeDistance) * (1 - relativeDistance);
+			default: return 1;
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package motion_world;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import genesis_util.Transformable;
+import genesis_util.Vector3D;
+import motion_movement.Movable;
+import motion_movement.ObjectMover;
+import motion_movement.ObjectRotator;
+import motion_movement.Rotateable;
+import motion_movement.StepClock;
+
+/**
+ * LevelOfDetail lowers the step rate of the objects that are far away from all the focus 
+ * points (the players, for example). Objects beyond the first distance are moved on every 
+ * 2nd step, objects beyond the second distance on every 4th step and so on. The objects 
+ * are divided into groups by their ids so that only a part of the distant objects move on 
+ * each step, and only a part of the objects have their level reassessed on each step, so 
+ * the amount of work stays about the same on each step.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class LevelOfDetail
+{
+	// ATTRIBUTES	-----------------------
+	
+	// The levels of all the objects are reassessed over this many steps
+	private static final int REFRESH_STEPS = 8;
+	
+	private List<Transformable> focuses;
+	private double[] squaredDistances, focusX, focusY;
+	private int cursor;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new level of detail without focus points
+	 * @param distances The distances from the focus points where the step rate halves, in 
+	 * ascending order
+	 */
+	public LevelOfDetail(double... distances)
+	{
+		this.squaredDistances = new double[distances.length];
+		for (int i = 0; i < distances.length; i++)
+		{
+			if (i > 0 && distances[i] < distances[i - 1])
+				throw new IllegalArgumentException("The distances must be in ascending order");
+			this.squaredDistances[i] = distances[i] * distances[i];
+		}
+		
+		this.focuses = new ArrayList<>();
+		this.focusX = new double[0];
+		this.focusY = new double[0];
+		this.cursor = 0;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Adds a new focus point. The objects near the focus points are moved each step.
+	 * @param focus The object whose position is used as a focus point
+	 */
+	public void addFocus(Transformable focus)
+	{
+		if (!this.focuses.contains(focus))
+			this.focuses.add(focus);
+	}
+	
+	/**
+	 * Removes a focus point
+	 * @param focus The object that is no longer used as a focus point
+	 */
+	public void removeFocus(Transformable focus)
+	{
+		this.focuses.remove(focus);
+	}
+	
+	/**
+	 * Reassesses the levels of a part of the objects. This should be called once each 
+	 * tick, before the objects are moved.
+	 * @param bodies The objects whose step rates are controlled
+	 * @param clock The clock that counts the steps of the objects
+	 */
+	public void update(BodyBuffer bodies, StepClock clock)
+	{
+		int size = bodies.getSize();
+		if (size == 0)
+			return;
+		
+		int focusAmount = this.focuses.size();
+		if (this.focusX.length < focusAmount)
+		{
+			this.focusX = new double[focusAmount];
+			this.focusY = new double[focusAmount];
+		}
+		for (int i = 0; i < focusAmount; i++)
+		{
+			Vector3D position = this.focuses.get(i).getTransformation().getPosition();
+			this.focusX[i] = position.getFirst();
+			this.focusY[i] = position.getSecond();
+		}
+		
+		int amount = Math.min(size, (size + REFRESH_STEPS - 1) / REFRESH_STEPS);
+		for (int i = 0; i < amount; i++)
+		{
+			if (this.cursor >= size)
+				this.cursor = 0;
+			
+			int index = this.cursor ++;
+			Movable body = bodies.getBody(index);
+			if (body != null)
+				setStepRate(body, clock, 1 << getLevel(body, focusAmount), 
+						bodies.getId(index));
+		}
+	}
+	
+	/**
+	 * Makes an object move on every step again
+	 * @param body The object that is no longer controlled
+	 * @param clock The clock that counts the steps of the object
+	 */
+	public void release(Movable body, StepClock clock)
+	{
+		setStepRate(body, clock, 1, 0);
+	}
+	
+	/**
+	 * Makes all the objects in the buffer move on every step again
+	 * @param bodies The objects that are no longer controlled
+	 * @param clock The clock that counts the steps of the objects
+	 */
+	public void releaseAll(BodyBuffer bodies, StepClock clock)
+	{
+		for (int i = 0; i < bodies.getSize(); i++)
+		{
+			if (bodies.getBody(i) != null)
+				setStepRate(bodies.getBody(i), clock, 1, 0);
+		}
+	}
+	
+	/**
+	 * Changes how often an object's mover and rotator move the object
+	 * @param body The object
+	 * @param clock The clock that counts the steps (null if the object should move on 
+	 * every tick)
+	 * @param interval On how many steps the object moves once
+	 * @param group The group of the object
+	 */
+	static void setStepRate(Movable body, StepClock clock, int interval, int group)
+	{
+		ObjectMover mover = body.getMover();
+		if (mover != null)
+			mover.setStepRate(clock, interval, group);
+		
+		if (body instanceof Rotateable)
+		{
+			ObjectRotator rotator = ((Rotateable) body).getRotator();
+			if (rotator != null)
+				rotator.setStepRate(clock, interval, group);
+		}
+	}
+	
+	private int getLevel(Movable body, int focusAmount)
+	{
+		// Without focus points everything is equally important
+		if (focusAmount == 0)
+			return 0;
+		
+		Vector3D position = body.getTransformation().getPosition();
+		double x = position.getFirst(), y = position.getSecond();
+		double minDistance = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < focusAmount; i++)
+		{
+			double dx = x - this.focusX[i], dy = y - this.focusY[i];
+			minDistance = Math.min(minDistance, dx * dx + dy * dy);
+		}
+		
+		int level = 0;
+		while (level < this.squaredDistances.length && 
+				minDistance > this.squaredDistances[level])
+		{
+			level ++;
+		}
+		return level;
+	}
+}
@@ -0,0 +1,229 @@
+package motion_world;
+
+/**
+ * MortonSorter reorders the entries of a body buffer along a Z-order (Morton) curve of 
+ * their positions, so that the entries near each other in the world are also near each 
+ * other in memory. The work is spread over several steps: the first step calculates the 
+ * curve positions of the entries, the next steps sort them one byte at a time and the 
+ * rest of the steps move a limited amount of entries to their places. A new pass starts 
+ * after a certain amount of steps.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class MortonSorter
+{
+	// ATTRIBUTES	-----------------------
+	
+	// The coordinates are quantized into this many bits before they are interleaved
+	private static final int BITS_PER_AXIS = 16;
+	private static final int RADIX_BITS = 8;
+	private static final int RADIX_PASSES = 2 * BITS_PER_AXIS / RADIX_BITS;
+	
+	private int interval, swapsPerStep, waitedSteps, phase, cursor, size;
+	private int[] codes, ids, sortedCodes, sortedIds, counts;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new sorter
+	 * @param interval How many steps there are between the passes
+	 * @param swapsPerStep How many entries may be moved during a single step
+	 */
+	public MortonSorter(int interval, int swapsPerStep)
+	{
+		if (swapsPerStep <= 0)
+			throw new IllegalArgumentException("At least one swap must be allowed per step");
+		
+		this.interval = interval;
+		this.swapsPerStep = swapsPerStep;
+		this.waitedSteps = 0;
+		this.phase = -1;
+		this.cursor = 0;
+		this.size = 0;
+		this.codes = new int[0];
+		this.ids = new int[0];
+		this.sortedCodes = new int[0];
+		this.sortedIds = new int[0];
+		this.counts = new int[1 << RADIX_BITS];
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return Is the sorter in the middle of a pass
+	 */
+	public boolean isSorting()
+	{
+		return this.phase >= 0;
+	}
+	
+	/**
+	 * @return Will the next step start a new pass. The positions in the buffer should be 
+	 * updated before such a step.
+	 */
+	public boolean isDue()
+	{
+		return this.phase < 0 && this.waitedSteps >= this.interval;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Stops the current pass. This should be called when entries are added to or removed 
+	 * from the buffer, since the pass was planned for the old entries.
+	 */
+	public void cancel()
+	{
+		this.phase = -1;
+	}
+	
+	/**
+	 * Performs the next part of the sorting
+	 * @param bodies The buffer whose entries are sorted. The positions must be up to date 
+	 * at the start of a pass.
+	 * @param swapper The swapper that moves the entries in the buffer
+	 */
+	public void step(BodyBuffer bodies, Swapper swapper)
+	{
+		if (this.phase < 0)
+		{
+			if (this.waitedSteps < this.interval)
+			{
+				this.waitedSteps ++;
+				return;
+			}
+			this.waitedSteps = 0;
+			calculateCodes(bodies);
+			this.phase = 0;
+		}
+		else if (this.phase < RADIX_PASSES)
+		{
+			sortByte(this.phase);
+			this.phase ++;
+			this.cursor = 0;
+		}
+		else
+		{
+			// Moves the entries to their places one index at a time
+			int swaps = 0;
+			while (this.cursor < this.size && swaps < this.swapsPerStep)
+			{
+				// The entries before the cursor are already in their places
+				int index = bodies.getIndexOfId(this.ids[this.cursor]);
+				if (index > this.cursor)
+				{
+					swapper.swap(this.cursor, index);
+					swaps ++;
+				}
+				this.cursor ++;
+			}
+			
+			if (this.cursor >= this.size)
+				this.phase = -1;
+		}
+	}
+	
+	private void calculateCodes(BodyBuffer bodies)
+	{
+		this.size = bodies.getSize();
+		if (this.codes.length < this.size)
+		{
+			this.codes = new int[this.size];
+			this.ids = new int[this.size];
+			this.sortedCodes = new int[this.size];
+			this.sortedIds = new int[this.size];
+		}
+		if (this.size == 0)
+			return;
+		
+		double[] x = bodies.getX(), y = bodies.getY();
+		double minX = x[0], minY = y[0], maxX = x[0], maxY = y[0];
+		for (int i = 1; i < this.size; i++)
+		{
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		
+		// Both axes use the same scale so that the cells of the curve are square
+		double maxCell = (1 << BITS_PER_AXIS) - 1;
+		double scale = maxCell / Math.max(Math.max(maxX - minX, maxY - minY), 1);
+		for (int i = 0; i < this.size; i++)
+		{
+			this.codes[i] = interleave((int) ((x[i] - minX) * scale)) | 
+					(interleave((int) ((y[i] - minY) * scale)) << 1);
+			this.ids[i] = bodies.getId(i);
+		}
+	}
+	
+	private void sortByte(int pass)
+	{
+		// Counting sort by a single byte of the codes keeps the earlier order of equal 
+		// bytes, so sorting from the lowest byte to the highest sorts the whole codes
+		int shift = pass * RADIX_BITS;
+		int mask = (1 << RADIX_BITS) - 1;
+		int[] counts = this.counts;
+		for (int i = 0; i < counts.length; i++)
+		{
+			counts[i] = 0;
+		}
+		for (int i = 0; i < this.size; i++)
+		{
+			counts[(this.codes[i] >>> shift) & mask] ++;
+		}
+		for (int i = 0, start = 0; i < counts.length; i++)
+		{
+			int count = counts[i];
+			counts[i] = start;
+			start += count;
+		}
+		for (int i = 0; i < this.size; i++)
+		{
+			int target = counts[(this.codes[i] >>> shift) & mask] ++;
+			this.sortedCodes[target] = this.codes[i];
+			this.sortedIds[target] = this.ids[i];
+		}
+		
+		int[] codes = this.codes;
+		this.codes = this.sortedCodes;
+		this.sortedCodes = codes;
+		int[] ids = this.ids;
+		this.ids = this.sortedIds;
+		this.sortedIds = ids;
+	}
+	
+	private static int interleave(int value)
+	{
+		// Spreads the lowest 16 bits so that there is a zero bit between each of them
+		value &= 0xFFFF;
+		value = (value | (value << 8)) & 0x00FF00FF;
+		value = (value | (value << 4)) & 0x0F0F0F0F;
+		value = (value | (value << 2)) & 0x33333333;
+		value = (value | (value << 1)) & 0x55555555;
+		return value;
+	}
+	
+	
+	// INTERFACES	-----------------------
+	
+	/**
+	 * Swappers move the entries of a body buffer for the sorter
+	 * 
+	 * @author Mikko Hilpinen
+	 * @since 19.10.2026
+	 */
+	public static interface Swapper
+	{
+		/**
+		 * Swaps the places of two entries in the buffer
+		 * @param first The index of the first entry
+		 * @param second The index of the second entry
+		 */
+		public void swap(int first, int second);
+	}
+}
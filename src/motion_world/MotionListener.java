@@ -0,0 +1,21 @@
+package motion_world;
+
+import motion_util.ChangeSet;
+
+/**
+ * MotionListeners are informed about the objects that moved in a physics world. Only the 
+ * moved objects are listed so the listeners can update their own state incrementally.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public interface MotionListener
+{
+	/**
+	 * This method is called once each step after the objects have moved
+	 * @param bodies The objects in the world
+	 * @param movedBodies The indices of the objects (in the body buffer) that moved or 
+	 * rotated during the last step. The set is reused and shouldn't be stored.
+	 */
+	public void onBodiesMoved(BodyBuffer bodies, ChangeSet movedBodies);
+}
@@ -0,0 +1,486 @@
+package motion_world;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import genesis_util.Transformation;
+import genesis_util.Vector3D;
+import motion_collision.Collider;
+import motion_movement.Movable;
+import motion_movement.ObjectMover;
+import motion_movement.ObjectRotator;
+import motion_movement.Rotateable;
+
+/**
+ * OffHeapBodyStore keeps the state of a large amount of movable objects outside the Java 
+ * heap. Objects that rarely change (sleeping parts of a persistent world, for example) 
+ * can be kept in the store so that the garbage collector doesn't have to go through their 
+ * state. The state is stored in a single native buffer with one column per value, in the 
+ * same order as the columns of the body buffer, followed by the rotation origin. The state is moved between the objects 
+ * and the store with {@link #save(int)} and {@link #restore(int)}, and the stored objects 
+ * can also be integrated directly in the store. Renderers and network encoders may copy 
+ * the columns straight from the native memory.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class OffHeapBodyStore
+{
+	// ATTRIBUTES	-----------------------
+	
+	private static final int VALUE_SIZE = 8;
+	// 1 if positive rotator directions turn towards positive y, -1 otherwise
+	private static final double DIRECTION_SIGN = 
+			Math.signum(Vector3D.unitVector(90).getSecond());
+	// A single byte buffer can't be larger than Integer.MAX_VALUE bytes
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE / 
+			(Column.values().length * VALUE_SIZE);
+	
+	private Movable[] bodies;
+	private Map<Movable, Integer> indices;
+	private int size, capacity;
+	private ByteBuffer memory;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new empty store
+	 * @param capacity How many objects the store has room for before it needs to grow
+	 * @throws IllegalArgumentException If the capacity is larger than a single store 
+	 * can hold
+	 */
+	public OffHeapBodyStore(int capacity)
+	{
+		if (capacity > MAX_CAPACITY)
+			throw new IllegalArgumentException("An off-heap body store can hold at most " + 
+					MAX_CAPACITY + " objects, " + capacity + " requested");
+		
+		this.size = 0;
+		this.indices = new IdentityHashMap<>();
+		this.bodies = new Movable[0];
+		allocate(Math.max(1, capacity));
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return How many objects there are in the store
+	 */
+	public int getSize()
+	{
+		return this.size;
+	}
+	
+	/**
+	 * @param index The index of an object
+	 * @return The object at the given index
+	 */
+	public Movable getBody(int index)
+	{
+		return this.bodies[index];
+	}
+	
+	/**
+	 * @param body An object
+	 * @return The index of the object in this store or -1 if the object isn't in the store
+	 */
+	public int indexOf(Movable body)
+	{
+		Integer index = this.indices.get(body);
+		if (index == null)
+			return -1;
+		return index;
+	}
+	
+	/**
+	 * @param column A column
+	 * @param index The index of an object
+	 * @return The value of the column for the object
+	 */
+	public double get(Column column, int index)
+	{
+		return this.memory.getDouble(getOffset(column, index));
+	}
+	
+	/**
+	 * Changes the value of a column for an object
+	 * @param column A column
+	 * @param index The index of an object
+	 * @param value The new value of the column
+	 */
+	public void set(Column column, int index, double value)
+	{
+		this.memory.putDouble(getOffset(column, index), value);
+	}
+	
+	/**
+	 * @param column A column
+	 * @return A read-only view to the stored values of the column. The view contains the 
+	 * values of all the objects in the store in native byte order and shares the memory 
+	 * of the store, so it doesn't need to be copied before it is written to a channel. The 
+	 * view is valid until objects are added or removed.
+	 */
+	public ByteBuffer getColumn(Column column)
+	{
+		ByteBuffer view = this.memory.duplicate();
+		int start = getOffset(column, 0);
+		view.limit(start + this.size * VALUE_SIZE);
+		view.position(start);
+		return view.slice().asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Adds a new object to the store and saves its current state
+	 * @param body The object that is added
+	 * @return The index of the object in the store
+	 * @throws IllegalStateException If the store is already as large as it can be
+	 */
+	public int add(Movable body)
+	{
+		int existing = indexOf(body);
+		if (existing >= 0)
+		{
+			save(existing);
+			return existing;
+		}
+		
+		if (this.size == this.capacity)
+		{
+			if (this.capacity == MAX_CAPACITY)
+				throw new IllegalStateException("The off-heap body store is full (" + 
+						MAX_CAPACITY + " objects)");
+			allocate((int) Math.min(MAX_CAPACITY, 2L * this.capacity));
+		}
+		
+		int index = this.size;
+		this.bodies[index] = body;
+		this.indices.put(body, index);
+		this.size ++;
+		save(index);
+		
+		return index;
+	}
+	
+	/**
+	 * Removes an object from the store. The last object in the store is moved to the 
+	 * removed object's index. The object's state isn't restored.
+	 * @param body The object that is removed
+	 */
+	public void remove(Movable body)
+	{
+		int index = indexOf(body);
+		if (index < 0)
+			return;
+		
+		int last = this.size - 1;
+		this.indices.remove(body);
+		
+		if (index != last)
+		{
+			this.bodies[index] = this.bodies[last];
+			for (Column column : Column.values())
+			{
+				set(column, index, get(column, last));
+			}
+			this.indices.put(this.bodies[index], index);
+		}
+		
+		this.bodies[last] = null;
+		this.size --;
+	}
+	
+	/**
+	 * Reads the current state of an object into the store. The accumulated forces of the 
+	 * object are cleared.
+	 * @param index The index of the object
+	 */
+	public void save(int index)
+	{
+		Movable body = this.bodies[index];
+		Transformation transformation = body.getTransformation();
+		ObjectMover mover = body.getMover();
+		Vector3D velocity = mover == null ? Vector3D.zeroVector() : mover.getVelocity();
+		ObjectRotator rotator = body instanceof Rotateable ? 
+				((Rotateable) body).getRotator() : null;
+		
+		set(Column.X, index, transformation.getPosition().getFirst());
+		set(Column.Y, index, transformation.getPosition().getSecond());
+		set(Column.VELOCITY_X, index, velocity.getFirst());
+		set(Column.VELOCITY_Y, index, velocity.getSecond());
+		// Objects with an infinite mass are not moved by the forces
+		set(Column.MASS, index, body.getBodyType().isDynamic() ? body.getMass() : 0);
+		set(Column.RADIUS, index, Collider.getBoundingRadius(body));
+		set(Column.FORCE_X, index, 0);
+		set(Column.FORCE_Y, index, 0);
+		set(Column.ANGLE, index, transformation.getAngle());
+		set(Column.ROTATION, index, rotator == null ? 0 : rotator.getRotation());
+		
+		// The origin is stored as an offset that turns with the object
+		Vector3D origin = Vector3D.zeroVector();
+		if (rotator != null && !rotator.getRotationOrigin().equals(Vector3D.zeroVector()))
+			origin = transformation.transform(rotator.getRotationOrigin()).minus(
+					transformation.getPosition());
+		set(Column.ORIGIN_X, index, origin.getFirst());
+		set(Column.ORIGIN_Y, index, origin.getSecond());
+	}
+	
+	/**
+	 * Reads the current state of all the objects into the store
+	 */
+	public void saveAll()
+	{
+		for (int i = 0; i < this.size; i++)
+		{
+			save(i);
+		}
+	}
+	
+	/**
+	 * Writes the stored state of an object back to the object, its mover and its rotator. 
+	 * Objects that weren't moved in the store are left as they are.
+	 * @param index The index of the object
+	 */
+	public void restore(int index)
+	{
+		Movable body = this.bodies[index];
+		Transformation transformation = body.getTransformation();
+		double x = get(Column.X, index), y = get(Column.Y, index);
+		double angle = get(Column.ANGLE, index);
+		
+		if (x != transformation.getPosition().getFirst() || 
+				y != transformation.getPosition().getSecond() || 
+				angle != transformation.getAngle())
+		{
+			body.setTrasformation(transformation.withPosition(new Vector3D(x, y)).withAngle(
+					angle));
+			if (body.getMover() != null)
+				body.getMover().recordMovement();
+		}
+		
+		ObjectMover mover = body.getMover();
+		if (mover != null)
+		{
+			Vector3D velocity = new Vector3D(get(Column.VELOCITY_X, index), 
+					get(Column.VELOCITY_Y, index));
+			if (!velocity.equals(mover.getVelocity()))
+				mover.setVelocity(velocity);
+			
+			double forceX = get(Column.FORCE_X, index), forceY = get(Column.FORCE_Y, index);
+			if (forceX != 0 || forceY != 0)
+			{
+				mover.applyForce(new Vector3D(forceX, forceY));
+				set(Column.FORCE_X, index, 0);
+				set(Column.FORCE_Y, index, 0);
+			}
+		}
+		
+		if (body instanceof Rotateable)
+		{
+			ObjectRotator rotator = ((Rotateable) body).getRotator();
+			double rotation = get(Column.ROTATION, index);
+			if (rotator != null && rotation != rotator.getRotation())
+				rotator.setRotation(rotation);
+		}
+	}
+	
+	/**
+	 * Writes the stored state of all the objects back to the objects
+	 */
+	public void restoreAll()
+	{
+		for (int i = 0; i < this.size; i++)
+		{
+			restore(i);
+		}
+	}
+	
+	/**
+	 * Moves the stored objects without touching the objects themselves. The velocities are 
+	 * changed based on the accumulated forces, which are then cleared, and the objects are 
+	 * moved and rotated around their rotation origins based on their velocities. Objects without a 
+	 * mass only move with their velocity and resting objects are skipped.
+	 * @param duration The duration of the step
+	 */
+	public void integrate(double duration)
+	{
+		ByteBuffer memory = this.memory;
+		int column = this.capacity * VALUE_SIZE;
+		int x = Column.X.ordinal() * column, y = Column.Y.ordinal() * column;
+		int velocityX = Column.VELOCITY_X.ordinal() * column;
+		int velocityY = Column.VELOCITY_Y.ordinal() * column;
+		int mass = Column.MASS.ordinal() * column;
+		int forceX = Column.FORCE_X.ordinal() * column;
+		int forceY = Column.FORCE_Y.ordinal() * column;
+		int angle = Column.ANGLE.ordinal() * column;
+		int rotation = Column.ROTATION.ordinal() * column;
+		int originX = Column.ORIGIN_X.ordinal() * column;
+		int originY = Column.ORIGIN_Y.ordinal() * column;
+		
+		for (int offset = 0; offset < this.size * VALUE_SIZE; offset += VALUE_SIZE)
+		{
+			double vx = memory.getDouble(velocityX + offset);
+			double vy = memory.getDouble(velocityY + offset);
+			double fx = memory.getDouble(forceX + offset);
+			double fy = memory.getDouble(forceY + offset);
+			double m = memory.getDouble(mass + offset);
+			
+			if ((fx != 0 || fy != 0) && m > 0)
+			{
+				vx += fx / m * duration;
+				vy += fy / m * duration;
+				memory.putDouble(velocityX + offset, vx);
+				memory.putDouble(velocityY + offset, vy);
+			}
+			memory.putDouble(forceX + offset, 0);
+			memory.putDouble(forceY + offset, 0);
+			
+			if (vx != 0 || vy != 0)
+			{
+				memory.putDouble(x + offset, memory.getDouble(x + offset) + vx * duration);
+				memory.putDouble(y + offset, memory.getDouble(y + offset) + vy * duration);
+			}
+			
+			double r = memory.getDouble(rotation + offset);
+			if (r == 0)
+				continue;
+			
+			double turn = r * duration;
+			memory.putDouble(angle + offset, memory.getDouble(angle + offset) + turn);
+			
+			// Objects that rotate around some other point than their position also move.
+			// The position turns around the origin and the origin offset turns with the 
+			// object.
+			double ox = memory.getDouble(originX + offset);
+			double oy = memory.getDouble(originY + offset);
+			if (ox != 0 || oy != 0)
+			{
+				double radians = Math.toRadians(turn);
+				double cos = Math.cos(radians), sin = Math.sin(radians) * DIRECTION_SIGN;
+				double turnedX = ox * cos - oy * sin, turnedY = ox * sin + oy * cos;
+				memory.putDouble(x + offset, memory.getDouble(x + offset) + ox - turnedX);
+				memory.putDouble(y + offset, memory.getDouble(y + offset) + oy - turnedY);
+				memory.putDouble(originX + offset, turnedX);
+				memory.putDouble(originY + offset, turnedY);
+			}
+		}
+	}
+	
+	/**
+	 * Copies the stored values of a column into a buffer
+	 * @param column The column that is copied
+	 * @param target The buffer the values are written to. The values are written in the 
+	 * buffer's byte order starting from its current position.
+	 */
+	public void copyColumn(Column column, ByteBuffer target)
+	{
+		ByteBuffer values = getColumn(column);
+		if (target.order() == ByteOrder.nativeOrder())
+			target.put(values);
+		else
+		{
+			while (values.hasRemaining())
+			{
+				target.putDouble(values.getDouble());
+			}
+		}
+	}
+	
+	private int getOffset(Column column, int index)
+	{
+		return (column.ordinal() * this.capacity + index) * VALUE_SIZE;
+	}
+	
+	private void allocate(int capacity)
+	{
+		ByteBuffer memory = ByteBuffer.allocateDirect(Column.values().length * capacity * 
+				VALUE_SIZE).order(ByteOrder.nativeOrder());
+		
+		// The columns start at different offsets in the new memory
+		if (this.memory != null)
+		{
+			for (Column column : Column.values())
+			{
+				ByteBuffer values = getColumn(column);
+				memory.position(column.ordinal() * capacity * VALUE_SIZE);
+				memory.put(values);
+			}
+			memory.clear();
+		}
+		
+		this.memory = memory;
+		this.capacity = capacity;
+		this.bodies = Arrays.copyOf(this.bodies, capacity);
+	}
+	
+	
+	// NESTED CLASSES	-------------------
+	
+	/**
+	 * The values stored for each object. The first columns are the same as the columns 
+	 * of the body buffer.
+	 * 
+	 * @author Mikko Hilpinen
+	 * @since 19.10.2026
+	 */
+	public static enum Column
+	{
+		/**
+		 * The x-coordinate of the object's position
+		 */
+		X, 
+		/**
+		 * The y-coordinate of the object's position
+		 */
+		Y, 
+		/**
+		 * The x-component of the object's velocity (pxl / step)
+		 */
+		VELOCITY_X, 
+		/**
+		 * The y-component of the object's velocity (pxl / step)
+		 */
+		VELOCITY_Y, 
+		/**
+		 * The mass of the object (kg). 0 for static and kinematic objects.
+		 */
+		MASS, 
+		/**
+		 * The radius of the object's collision area
+		 */
+		RADIUS, 
+		/**
+		 * The x-component of the force accumulated for the object
+		 */
+		FORCE_X, 
+		/**
+		 * The y-component of the force accumulated for the object
+		 */
+		FORCE_Y, 
+		/**
+		 * The angle of the object (degrees)
+		 */
+		ANGLE, 
+		/**
+		 * How fast the object rotates (degrees per step)
+		 */
+		ROTATION, 
+		/**
+		 * The x-component of the offset from the object's position to its rotation origin 
+		 * (absolute space). 0 when the object rotates around its position.
+		 */
+		ORIGIN_X, 
+		/**
+		 * The y-component of the offset from the object's position to its rotation origin 
+		 * (absolute space)
+		 */
+		ORIGIN_Y;
+	}
+}
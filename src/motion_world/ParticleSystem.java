@@ -0,0 +1,443 @@
+package motion_world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import genesis_event.Actor;
+import genesis_event.HandlerRelay;
+import genesis_util.SimpleHandled;
+import genesis_util.Vector3D;
+import motion_collision.Collider;
+import motion_field.ForceField;
+import motion_util.Impulse;
+import motion_util.IntegrationKernels;
+import motion_util.Material;
+import motion_util.MaterialInteractionTable;
+import motion_util.SpatialGrid;
+
+/**
+ * ParticleSystem moves a large amount of point-mass particles (debris, sparks, sand) 
+ * following the same rules as the object movers: forces, overhead friction and timed 
+ * impulses. Instead of being separate objects, the particles are entries in a body buffer, 
+ * so the force fields affect them in a single pass and the whole system is handled as 
+ * one actor. The particles may also bounce off static obstacles. The positions of the 
+ * particles are written into a flat buffer each step so that they can be drawn without 
+ * any conversions.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class ParticleSystem extends SimpleHandled implements Actor
+{
+	// ATTRIBUTES	-----------------------
+	
+	private static final double DEFAULT_RESTITUTION = 0.5;
+	
+	private BodyBuffer particles;
+	private List<ForceField> forceFields;
+	private List<Impulse> impulses;
+	private double[] lifetime;
+	private float[] positions;
+	private double mass, radius, frictionModifier, gravityConstant;
+	private int layers;
+	private Material material;
+	
+	private List<Collider> obstacles;
+	private SpatialGrid obstacleIndex;
+	private boolean obstacleIndexValid;
+	private double[] obstacleX, obstacleY, normal;
+	private double obstacleReach;
+	private int currentParticle;
+	private final IntConsumer obstacleTest;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new empty particle system
+	 * @param handlers The handlers that will handle the system
+	 * @param mass The mass of a single particle (kg)
+	 * @param radius The radius of a single particle. Used when the particles collide with 
+	 * obstacles.
+	 * @param layers The layer bits of the particles. Force fields affect the particles if 
+	 * their layer mask shares a bit with these layers.
+	 */
+	public ParticleSystem(HandlerRelay handlers, double mass, double radius, int layers)
+	{
+		super(handlers);
+		
+		if (mass <= 0)
+			throw new IllegalArgumentException("The mass of a particle must be positive");
+		
+		this.particles = new BodyBuffer();
+		this.forceFields = new ArrayList<>();
+		this.impulses = new ArrayList<>();
+		this.lifetime = new double[16];
+		this.positions = new float[32];
+		this.mass = mass;
+		this.radius = radius;
+		this.layers = layers;
+		this.frictionModifier = 0;
+		this.gravityConstant = 0;
+		this.material = null;
+		
+		this.obstacles = new ArrayList<>();
+		this.obstacleIndex = new SpatialGrid();
+		this.obstacleIndexValid = false;
+		this.obstacleX = new double[0];
+		this.obstacleY = new double[0];
+		this.normal = new double[2];
+		this.obstacleReach = 0;
+		this.currentParticle = -1;
+		this.obstacleTest = i -> collide(this.currentParticle, this.obstacles.get(i));
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------
+	
+	@Override
+	public void act(double duration)
+	{
+		int size = this.particles.getSize();
+		if (size == 0)
+			return;
+		
+		for (ForceField field : this.forceFields)
+		{
+			field.apply(this.particles, duration);
+		}
+		
+		// The impulses affect every particle the same way
+		double impulseX = 0, impulseY = 0;
+		if (!this.impulses.isEmpty())
+		{
+			List<Impulse> remainingImpulses = new ArrayList<>();
+			for (Impulse impulse : this.impulses)
+			{
+				Vector3D force = impulse.getForceOverTime(duration);
+				impulseX += force.getFirst();
+				impulseY += force.getSecond();
+				Impulse remainingImpulse = impulse.withDecreasedDuration(duration);
+				
+				if (remainingImpulse != null)
+					remainingImpulses.add(remainingImpulse);
+			}
+			this.impulses = remainingImpulses;
+		}
+		
+		integrate(size, duration, impulseX, impulseY);
+		
+		if (!this.obstacles.isEmpty())
+			collideWithObstacles();
+		
+		removeExpired(duration);
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return How many particles there are in the system
+	 */
+	public int getSize()
+	{
+		return this.particles.getSize();
+	}
+	
+	/**
+	 * @return The buffer that contains the state of the particles. The particles are 
+	 * entries without an object.
+	 */
+	public BodyBuffer getParticles()
+	{
+		return this.particles;
+	}
+	
+	/**
+	 * @return The positions of the particles after the last step as (x, y) pairs. Only the 
+	 * first 2 * size values are used. The array is reused between the steps and may be 
+	 * replaced when the system grows.
+	 */
+	public float[] getPositionBuffer()
+	{
+		return this.positions;
+	}
+	
+	/**
+	 * Changes the overhead friction that slows down the particles each step
+	 * @param frictionModifier The friction modifier between the particles and the surface 
+	 * they move on
+	 * @param gravityConstant The gravity constant that affects the force intensity (Kg * pxl)
+	 */
+	public void setFriction(double frictionModifier, double gravityConstant)
+	{
+		this.frictionModifier = frictionModifier;
+		this.gravityConstant = gravityConstant;
+	}
+	
+	/**
+	 * Changes the overhead friction that slows down the particles each step. The friction 
+	 * coefficient between the materials is read from the default material interaction 
+	 * table.
+	 * @param surfaceMaterial The material of the surface the particles move on
+	 * @param gravityConstant The gravity constant that affects the force intensity (Kg * pxl)
+	 */
+	public void setFriction(Material surfaceMaterial, double gravityConstant)
+	{
+		setFriction(MaterialInteractionTable.getDefaultTable().getDynamicFriction(
+				getMaterial(), surfaceMaterial), gravityConstant);
+	}
+	
+	/**
+	 * @return The material the particles are made of
+	 */
+	public Material getMaterial()
+	{
+		return this.material;
+	}
+	
+	/**
+	 * Changes the material the particles are made of. The material affects how the 
+	 * particles bounce off the obstacles.
+	 * @param material The new material of the particles (null if the default restitution 
+	 * should be used)
+	 */
+	public void setMaterial(Material material)
+	{
+		this.material = material;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Adds a new particle to the system
+	 * @param x The x-coordinate of the particle's position
+	 * @param y The y-coordinate of the particle's position
+	 * @param velocityX The x-component of the particle's velocity (pxl / step)
+	 * @param velocityY The y-component of the particle's velocity (pxl / step)
+	 * @param lifetime How many steps the particle stays in the system. Infinite if the 
+	 * particle should stay until it is cleared.
+	 * @return The index of the particle. The indices change when particles are removed.
+	 */
+	public int emit(double x, double y, double velocityX, double velocityY, double lifetime)
+	{
+		int index = this.particles.addEntry(x, y, velocityX, velocityY, this.mass, 
+				this.radius, this.layers);
+		
+		if (index == this.lifetime.length)
+		{
+			this.lifetime = Arrays.copyOf(this.lifetime, index * 2);
+			this.positions = Arrays.copyOf(this.positions, index * 4);
+		}
+		this.lifetime[index] = lifetime;
+		this.positions[2 * index] = (float) x;
+		this.positions[2 * index + 1] = (float) y;
+		
+		return index;
+	}
+	
+	/**
+	 * Removes all the particles from the system
+	 */
+	public void clear()
+	{
+		this.particles.clear();
+	}
+	
+	/**
+	 * Applies a force to a single particle during the next step
+	 * @param index The index of the particle
+	 * @param forceX The x-component of the force (Kg * pxl)
+	 * @param forceY The y-component of the force (Kg * pxl)
+	 */
+	public void applyForce(int index, double forceX, double forceY)
+	{
+		this.particles.getForceX()[index] += forceX;
+		this.particles.getForceY()[index] += forceY;
+	}
+	
+	/**
+	 * Applies an impulse to every particle in the system. The impulse affects the 
+	 * particles over its duration.
+	 * @param impulse The impulse that is applied
+	 */
+	public void applyImpulse(Impulse impulse)
+	{
+		this.impulses.add(impulse);
+	}
+	
+	/**
+	 * Adds a new force field that affects the particles
+	 * @param field The field that is added
+	 */
+	public void addForceField(ForceField field)
+	{
+		if (!this.forceFields.contains(field))
+			this.forceFields.add(field);
+	}
+	
+	/**
+	 * Removes a force field from the system
+	 * @param field The field that is removed
+	 */
+	public void removeForceField(ForceField field)
+	{
+		this.forceFields.remove(field);
+	}
+	
+	/**
+	 * Adds a static obstacle the particles bounce off
+	 * @param obstacle The obstacle that is added
+	 */
+	public void addObstacle(Collider obstacle)
+	{
+		if (!this.obstacles.contains(obstacle))
+		{
+			this.obstacles.add(obstacle);
+			this.obstacleIndexValid = false;
+		}
+	}
+	
+	/**
+	 * Removes an obstacle from the system
+	 * @param obstacle The obstacle that is removed
+	 */
+	public void removeObstacle(Collider obstacle)
+	{
+		if (this.obstacles.remove(obstacle))
+			this.obstacleIndexValid = false;
+	}
+	
+	private void integrate(int size, double duration, double impulseX, double impulseY)
+	{
+		double[] x = this.particles.getX(), y = this.particles.getY();
+		double[] velocityX = this.particles.getVelocityX();
+		double[] velocityY = this.particles.getVelocityY();
+		double[] forceX = this.particles.getForceX(), forceY = this.particles.getForceY();
+		
+		if (impulseX != 0 || impulseY != 0)
+			IntegrationKernels.addForce(forceX, forceY, impulseX, impulseY, size);
+		// F = u * m * g, so the friction slows every particle down by the same amount
+		double frictionDecrease = this.frictionModifier * this.gravityConstant * duration;
+		IntegrationKernels.integrate(x, y, velocityX, velocityY, forceX, forceY, 
+				this.particles.getMass(), frictionDecrease, duration, size);
+		IntegrationKernels.copyPositions(x, y, this.positions, size);
+	}
+	
+	private void collideWithObstacles()
+	{
+		if (!this.obstacleIndexValid)
+			updateObstacleIndex();
+		
+		double[] x = this.particles.getX(), y = this.particles.getY();
+		double reach = this.obstacleReach + this.radius;
+		for (int i = 0; i < this.particles.getSize(); i++)
+		{
+			this.currentParticle = i;
+			this.obstacleIndex.forEachInArea(x[i] - reach, y[i] - reach, x[i] + reach, 
+					y[i] + reach, this.obstacleTest);
+		}
+		this.currentParticle = -1;
+	}
+	
+	private void collide(int index, Collider obstacle)
+	{
+		double[] x = this.particles.getX(), y = this.particles.getY();
+		if (x[index] + this.radius < obstacle.getMinX() || 
+				x[index] - this.radius > obstacle.getMaxX() || 
+				y[index] + this.radius < obstacle.getMinY() || 
+				y[index] - this.radius > obstacle.getMaxY())
+			return;
+		
+		double penetration = this.radius - obstacle.getDistance(x[index], y[index], 
+				this.normal);
+		if (penetration <= 0)
+			return;
+		
+		// The particle is pushed out of the obstacle
+		double nx = this.normal[0], ny = this.normal[1];
+		x[index] += nx * penetration;
+		y[index] += ny * penetration;
+		this.positions[2 * index] = (float) x[index];
+		this.positions[2 * index + 1] = (float) y[index];
+		
+		// Only particles moving into the obstacle bounce. The friction slows down the 
+		// movement along the surface in proportion to the bounce.
+		double[] velocityX = this.particles.getVelocityX();
+		double[] velocityY = this.particles.getVelocityY();
+		double normalSpeed = velocityX[index] * nx + velocityY[index] * ny;
+		if (normalSpeed >= 0)
+			return;
+		
+		double restitution = DEFAULT_RESTITUTION;
+		double friction = 0;
+		Material obstacleMaterial = obstacle.getMaterial();
+		if (this.material != null && obstacleMaterial != null)
+		{
+			MaterialInteractionTable table = MaterialInteractionTable.getDefaultTable();
+			restitution = table.getRestitution(this.material, obstacleMaterial);
+			friction = table.getDynamicFriction(this.material, obstacleMaterial);
+		}
+		
+		double tangentX = velocityX[index] - normalSpeed * nx;
+		double tangentY = velocityY[index] - normalSpeed * ny;
+		double tangentSpeed = Math.sqrt(tangentX * tangentX + tangentY * tangentY);
+		double frictionDecrease = -normalSpeed * (1 + restitution) * friction;
+		double remaining = tangentSpeed > frictionDecrease ? 
+				1 - frictionDecrease / tangentSpeed : 0;
+		
+		velocityX[index] = tangentX * remaining - normalSpeed * restitution * nx;
+		velocityY[index] = tangentY * remaining - normalSpeed * restitution * ny;
+	}
+	
+	private void updateObstacleIndex()
+	{
+		int amount = this.obstacles.size();
+		if (this.obstacleX.length < amount)
+		{
+			this.obstacleX = new double[amount];
+			this.obstacleY = new double[amount];
+		}
+		
+		this.obstacleReach = 0;
+		for (int i = 0; i < amount; i++)
+		{
+			Collider obstacle = this.obstacles.get(i);
+			this.obstacleX[i] = obstacle.getX();
+			this.obstacleY[i] = obstacle.getY();
+			this.obstacleReach = Math.max(this.obstacleReach, obstacle.getRadius());
+		}
+		
+		this.obstacleIndex.build(this.obstacleX, this.obstacleY, amount, 
+				Math.max(1, this.obstacleReach * 2));
+		this.obstacleIndexValid = true;
+	}
+	
+	private void removeExpired(double duration)
+	{
+		// Goes backwards so that the particles moved in place of the removed ones have 
+		// already been handled
+		for (int i = this.particles.getSize() - 1; i >= 0; i--)
+		{
+			this.lifetime[i] -= duration;
+			if (this.lifetime[i] <= 0)
+				remove(i);
+		}
+	}
+	
+	private void remove(int index)
+	{
+		int last = this.particles.getSize() - 1;
+		this.particles.removeEntry(index);
+		
+		if (index != last)
+		{
+			this.lifetime[index] = this.lifetime[last];
+			this.positions[2 * index] = this.positions[2 * last];
+			this.positions[2 * index + 1] = this.positions[2 * last + 1];
+		}
+	}
+}
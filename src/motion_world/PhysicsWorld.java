@@ -0,0 +1,715 @@
+package motion_world;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import genesis_event.Actor;
+import genesis_event.HandlerRelay;
+import genesis_util.SimpleHandled;
+import genesis_util.Vector3D;
+import motion_collision.Broadphase;
+import motion_collision.Collider;
+import motion_collision.CollisionQuery;
+import motion_collision.ContactManifold;
+import motion_collision.ContactSolver;
+import motion_collision.ContinuousCollisionDetector;
+import motion_collision.Narrowphase;
+import motion_collision.PairFilter;
+import motion_field.ForceField;
+import motion_movement.Movable;
+import motion_movement.ObjectRotator;
+import motion_movement.Rotateable;
+import motion_movement.StepClock;
+import motion_util.ChangeSet;
+import motion_util.SpatialGrid;
+
+/**
+ * PhysicsWorld handles the world-level effects that affect a group of movable objects. 
+ * Each step the world gathers the state of its objects into a body buffer, applies the 
+ * force fields and connections to all the objects in bulk and then hands the resulting 
+ * forces to the objects' movers, after which the contacts between the world's colliders 
+ * are solved. The world also provides area impulses that find the affected objects 
+ * through a spatial grid.
+ * <p>
+ * The world has to act before the movers and rotators of its objects on each step, so it 
+ * should be created (added to the actor handler) before its objects. The forces and the 
+ * position corrections of a step are calculated for the movement the movers make right 
+ * after it.
+ * 
+ * @author Mikko Hilpinen
+ * @since 19.10.2026
+ */
+public class PhysicsWorld extends SimpleHandled implements Actor
+{
+	// ATTRIBUTES	-----------------------
+	
+	/**
+	 * The layer objects are placed on by default
+	 */
+	public static final int DEFAULT_LAYER = 1;
+	
+	private static final double DEFAULT_QUERY_CELL_SIZE = 100;
+	
+	private BodyBuffer bodies;
+	private List<ForceField> forceFields;
+	private List<MotionListener> motionListeners;
+	private ChangeSet changes, movedBodies;
+	private MortonSorter sorter;
+	private LevelOfDetail levelOfDetail;
+	private AdaptiveTimestep timestep;
+	private StepClock clock;
+	private ConstraintSolver constraints;
+	private final MortonSorter.Swapper swapper;
+	private ContinuousCollisionDetector collisionDetector;
+	private Broadphase broadphase;
+	private volatile CollisionQuery query;
+	private Narrowphase narrowphase;
+	private ContactSolver contactSolver;
+	private ContactManifold manifold;
+	private SpatialGrid index;
+	private boolean indexValid;
+	private double queryCellSize;
+	private int[] candidates;
+	private int candidateAmount;
+	
+	
+	// CONSTRUCTOR	-----------------------
+	
+	/**
+	 * Creates a new world
+	 * @param handlers The handlers that will handle the world
+	 */
+	public PhysicsWorld(HandlerRelay handlers)
+	{
+		super(handlers);
+		
+		this.bodies = new BodyBuffer();
+		this.forceFields = new ArrayList<>();
+		this.motionListeners = new ArrayList<>();
+		this.changes = new ChangeSet();
+		this.movedBodies = new ChangeSet();
+		this.sorter = null;
+		this.levelOfDetail = null;
+		this.timestep = null;
+		this.clock = new StepClock();
+		this.constraints = null;
+		this.swapper = (first, second) -> swapBodies(first, second);
+		this.collisionDetector = new ContinuousCollisionDetector();
+		this.broadphase = new Broadphase();
+		this.query = CollisionQuery.EMPTY;
+		this.narrowphase = new Narrowphase();
+		this.contactSolver = new ContactSolver();
+		this.manifold = new ContactManifold();
+		this.index = new SpatialGrid();
+		this.indexValid = false;
+		this.queryCellSize = DEFAULT_QUERY_CELL_SIZE;
+		this.candidates = new int[16];
+		this.candidateAmount = 0;
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------
+	
+	@Override
+	public void act(double duration)
+	{
+		// The objects move each step so the query index has to be rebuilt
+		this.indexValid = false;
+		
+		// Calm worlds move the objects less often, busy worlds solve the contacts more often
+		int contactIterations = 1;
+		boolean gathered = false;
+		if (this.timestep != null)
+		{
+			this.bodies.gather();
+			gathered = true;
+			this.timestep.update(this.bodies, this.contactSolver);
+			this.clock.setInterval(this.timestep.getStepInterval(duration));
+			contactIterations = this.timestep.getContactIterations(duration);
+		}
+		this.clock.advance();
+		
+		if (this.levelOfDetail != null)
+			this.levelOfDetail.update(this.bodies, this.clock);
+		
+		// Keeps the objects that are near each other close in memory
+		if (this.sorter != null)
+		{
+			if (this.sorter.isDue())
+				this.bodies.gather();
+			this.sorter.step(this.bodies, this.swapper);
+		}
+		
+		// Informs the listeners about the objects that moved since the last step
+		collectMovedBodies();
+		if (!this.movedBodies.isEmpty())
+		{
+			for (MotionListener listener : this.motionListeners)
+			{
+				listener.onBodiesMoved(this.bodies, this.movedBodies);
+			}
+		}
+		
+		boolean connected = this.constraints != null && this.constraints.getSize() > 0;
+		if (this.bodies.getSize() > 0 && (!this.forceFields.isEmpty() || connected))
+		{
+			if (!gathered)
+				this.bodies.gather();
+			for (ForceField field : this.forceFields)
+			{
+				field.apply(this.bodies, duration);
+			}
+			// The connections need to know the other forces affecting the objects
+			if (connected)
+				this.constraints.solve(this.bodies, duration);
+			this.bodies.scatter();
+		}
+		
+		// Finds the collider pairs that may be colliding and solves the actual contacts
+		if (!this.broadphase.isEmpty())
+		{
+			int pairAmount = this.broadphase.updatePairs();
+			for (int iteration = 0; iteration < contactIterations; iteration++)
+			{
+				for (int i = 0; i < pairAmount; i++)
+				{
+					Collider first = this.broadphase.getFirst(i);
+					Collider second = this.broadphase.getSecond(i);
+					if (!this.narrowphase.collide(first, second, this.manifold))
+						continue;
+					// The impulses only change the velocities when the objects move, so 
+					// the later passes only push the objects apart
+					if (iteration == 0)
+						this.contactSolver.solve(first, second, this.manifold);
+					else
+						this.contactSolver.correctPositions(first, second, this.manifold);
+				}
+			}
+		}
+		
+		// Publishes the current state for the queries
+		this.query = this.broadphase.publishQuery();
+	}
+	
+	
+	// GETTERS & SETTERS	---------------
+	
+	/**
+	 * @return The buffer that contains the objects in this world
+	 */
+	public BodyBuffer getBodies()
+	{
+		return this.bodies;
+	}
+	
+	/**
+	 * @return The indices of the objects (in the body buffer) that moved or were added 
+	 * during the last step
+	 */
+	public ChangeSet getMovedBodies()
+	{
+		return this.movedBodies;
+	}
+	
+	/**
+	 * @return A snapshot of the colliders in this world as they were at the end of the 
+	 * last step. The snapshot can be used for ray casts, shape casts and overlap queries. 
+	 * It is immutable, so multiple threads may query it at the same time as long as each 
+	 * thread uses its own result buffer.
+	 */
+	public CollisionQuery getCollisionQuery()
+	{
+		return this.query;
+	}
+	
+	/**
+	 * Changes how the objects in this world are reordered in the body buffer. The indices 
+	 * of the reordered objects change, so the moved objects and the objects at their new 
+	 * indices are reported to the motion listeners. Use the stable ids of the body buffer 
+	 * to refer to the objects over multiple steps.
+	 * @param sorter The sorter that reorders the objects (null if the objects should stay 
+	 * in the order they were added in)
+	 */
+	public void setSorter(MortonSorter sorter)
+	{
+		this.sorter = sorter;
+	}
+	
+	/**
+	 * Changes how the step rates of the objects in this world are reduced based on their 
+	 * distance from the focus points
+	 * @param levelOfDetail The new level of detail (null if all the objects should move 
+	 * each step)
+	 */
+	public void setLevelOfDetail(LevelOfDetail levelOfDetail)
+	{
+		if (this.levelOfDetail != null)
+			this.levelOfDetail.releaseAll(this.bodies, this.clock);
+		this.levelOfDetail = levelOfDetail;
+	}
+	
+	/**
+	 * @return The controller that adapts the step size of this world. Null if the world 
+	 * moves the objects on each tick.
+	 */
+	public AdaptiveTimestep getTimestep()
+	{
+		return this.timestep;
+	}
+	
+	/**
+	 * Changes how the step size of this world is chosen
+	 * @param timestep The controller that adapts the step size (null if the objects should 
+	 * move on each tick)
+	 */
+	public void setTimestep(AdaptiveTimestep timestep)
+	{
+		this.timestep = timestep;
+		if (timestep == null)
+			this.clock.setInterval(1);
+	}
+	
+	/**
+	 * @return The clock that counts the steps of the objects in this world
+	 */
+	public StepClock getClock()
+	{
+		return this.clock;
+	}
+	
+	/**
+	 * @return The solver that connects the objects in this world. Null if the objects 
+	 * aren't connected.
+	 */
+	public ConstraintSolver getConstraintSolver()
+	{
+		return this.constraints;
+	}
+	
+	/**
+	 * Changes the solver that connects the objects in this world. The connections are 
+	 * solved after the force fields have been applied.
+	 * @param constraints The new solver (null if the objects shouldn't be connected)
+	 */
+	public void setConstraintSolver(ConstraintSolver constraints)
+	{
+		this.constraints = constraints;
+	}
+	
+	/**
+	 * @return The broadphase that finds the collider pairs in this world that may be 
+	 * colliding. The pairs are updated each step.
+	 */
+	public Broadphase getBroadphase()
+	{
+		return this.broadphase;
+	}
+	
+	/**
+	 * @return The solver that responds to the contacts between the colliders in this world
+	 */
+	public ContactSolver getContactSolver()
+	{
+		return this.contactSolver;
+	}
+	
+	/**
+	 * Changes the filter that can reject collider pairs before their collision is checked
+	 * @param filter The new pair filter (null if no additional filtering is needed)
+	 */
+	public void setPairFilter(PairFilter filter)
+	{
+		this.broadphase.setPairFilter(filter);
+	}
+	
+	/**
+	 * @return The detector that keeps the fast objects in this world from passing through 
+	 * obstacles
+	 */
+	public ContinuousCollisionDetector getContinuousCollisionDetector()
+	{
+		return this.collisionDetector;
+	}
+	
+	/**
+	 * Changes the preferred cell size of the grid used for finding the objects affected by 
+	 * area impulses. The cells should be about the size of the typical impulse area.
+	 * @param cellSize The new cell size (pxl)
+	 */
+	public void setQueryCellSize(double cellSize)
+	{
+		if (cellSize <= 0)
+			throw new IllegalArgumentException("The cell size must be positive");
+		
+		this.queryCellSize = cellSize;
+		this.indexValid = false;
+	}
+	
+	
+	// OTHER METHODS	-------------------
+	
+	/**
+	 * Adds an object to the world on the default layer
+	 * @param body The object that is added
+	 */
+	public void addBody(Movable body)
+	{
+		addBody(body, DEFAULT_LAYER);
+	}
+	
+	/**
+	 * Adds an object to the world
+	 * @param body The object that is added
+	 * @param layers The layer bits of the object. Force fields affect the object if their 
+	 * layer mask shares a bit with these layers.
+	 */
+	public void addBody(Movable body, int layers)
+	{
+		int index = this.bodies.add(body, layers);
+		this.indexValid = false;
+		if (this.sorter != null)
+			this.sorter.cancel();
+		
+		if (body.getMover() != null)
+			body.getMover().setContinuousCollisionDetector(this.collisionDetector);
+		setChangeSet(body, this.changes, index);
+		LevelOfDetail.setStepRate(body, this.clock, 1, 0);
+		this.changes.add(index);
+	}
+	
+	/**
+	 * Removes an object from the world
+	 * @param body The object that is removed
+	 */
+	public void removeBody(Movable body)
+	{
+		int index = this.bodies.indexOf(body);
+		if (index < 0)
+			return;
+		
+		// The object's id may be given to another object
+		if (this.constraints != null)
+			this.constraints.removeAll(this.bodies, body);
+		this.bodies.remove(body);
+		this.indexValid = false;
+		if (this.sorter != null)
+			this.sorter.cancel();
+		// Only the reduced rate is released, the object still moves on the world's steps
+		LevelOfDetail.setStepRate(body, this.clock, 1, 0);
+		
+		if (body.getMover() != null)
+			body.getMover().setContinuousCollisionDetector(null);
+		setChangeSet(body, null, -1);
+		
+		// The last object was moved to the removed object's index
+		int last = this.bodies.getSize();
+		if (index < last)
+		{
+			setChangeSet(this.bodies.getBody(index), this.changes, index);
+			if (this.changes.contains(last))
+				this.changes.add(index);
+		}
+	}
+	
+	/**
+	 * Adds a new listener that is informed about the objects that move in this world
+	 * @param listener The listener that is added
+	 */
+	public void addMotionListener(MotionListener listener)
+	{
+		if (!this.motionListeners.contains(listener))
+			this.motionListeners.add(listener);
+	}
+	
+	/**
+	 * Removes a motion listener from the world
+	 * @param listener The listener that is removed
+	 */
+	public void removeMotionListener(MotionListener listener)
+	{
+		this.motionListeners.remove(listener);
+	}
+	
+	/**
+	 * Adds an obstacle the fast objects in this world can't pass through
+	 * @param obstacle The obstacle that is added
+	 */
+	public void addObstacle(Collider obstacle)
+	{
+		this.collisionDetector.addObstacle(obstacle);
+		this.broadphase.add(obstacle);
+	}
+	
+	/**
+	 * Removes an obstacle from the world
+	 * @param obstacle The obstacle that is removed
+	 */
+	public void removeObstacle(Collider obstacle)
+	{
+		this.collisionDetector.removeObstacle(obstacle);
+		this.broadphase.remove(obstacle);
+	}
+	
+	/**
+	 * Adds a collider of a moving object to the world
+	 * @param collider The collider that is added
+	 */
+	public void addCollider(Collider collider)
+	{
+		this.broadphase.add(collider);
+	}
+	
+	/**
+	 * Removes a collider from the world
+	 * @param collider The collider that is removed
+	 */
+	public void removeCollider(Collider collider)
+	{
+		this.broadphase.remove(collider);
+	}
+	
+	/**
+	 * Adds a new force field to the world
+	 * @param field The field that is added
+	 */
+	public void addForceField(ForceField field)
+	{
+		if (!this.forceFields.contains(field))
+			this.forceFields.add(field);
+	}
+	
+	/**
+	 * Removes a force field from the world
+	 * @param field The field that is removed
+	 */
+	public void removeForceField(ForceField field)
+	{
+		this.forceFields.remove(field);
+	}
+	
+	/**
+	 * Pushes all the objects near the given point away from it, like an explosion would
+	 * @param center The center of the effect
+	 * @param radius The radius of the affected area. An object is affected if its 
+	 * collision area reaches inside the radius.
+	 * @param falloff How the effect weakens as the distance grows
+	 * @param magnitude The force applied to an object right at the center
+	 * @return How many objects were affected
+	 */
+	public int applyRadialImpulse(Vector3D center, double radius, Falloff falloff, 
+			double magnitude)
+	{
+		return applyRadialImpulse(center, radius, falloff, magnitude, ForceField.ALL_LAYERS);
+	}
+	
+	/**
+	 * Pushes the objects near the given point away from it, like an explosion would
+	 * @param center The center of the effect
+	 * @param radius The radius of the affected area. An object is affected if its 
+	 * collision area reaches inside the radius.
+	 * @param falloff How the effect weakens as the distance grows
+	 * @param magnitude The force applied to an object right at the center
+	 * @param layerMask The layers affected by the effect
+	 * @return How many objects were affected
+	 */
+	public int applyRadialImpulse(Vector3D center, double radius, Falloff falloff, 
+			double magnitude, int layerMask)
+	{
+		return applyAreaImpulse(center, radius, 0, 0, -1, falloff, magnitude, layerMask);
+	}
+	
+	/**
+	 * Pushes the objects inside a cone away from the cone's origin, like a shockwave or a 
+	 * blast from a nozzle would
+	 * @param origin The tip of the cone
+	 * @param direction The direction the cone opens to (degrees)
+	 * @param spreadAngle The opening angle of the cone (degrees)
+	 * @param radius The length of the cone
+	 * @param falloff How the effect weakens as the distance grows
+	 * @param magnitude The force applied to an object right at the origin
+	 * @param layerMask The layers affected by the effect
+	 * @return How many objects were affected
+	 */
+	public int applyConeImpulse(Vector3D origin, double direction, double spreadAngle, 
+			double radius, Falloff falloff, double magnitude, int layerMask)
+	{
+		Vector3D unit = Vector3D.unitVector(direction);
+		double minCos = Math.cos(Math.toRadians(Math.min(spreadAngle, 360) / 2));
+		return applyAreaImpulse(origin, radius, unit.getFirst(), unit.getSecond(), minCos, 
+				falloff, magnitude, layerMask);
+	}
+	
+	/**
+	 * Applies the same force to all the objects within a rectangular area, like a push 
+	 * field or a conveyor would
+	 * @param topLeft The top left corner of the area
+	 * @param size The size of the area
+	 * @param force The force applied to each affected object
+	 * @param layerMask The layers affected by the effect
+	 * @return How many objects were affected
+	 */
+	public int applyRectangleImpulse(Vector3D topLeft, Vector3D size, Vector3D force, 
+			int layerMask)
+	{
+		double minX = topLeft.getFirst(), minY = topLeft.getSecond();
+		double maxX = minX + size.getFirst(), maxY = minY + size.getSecond();
+		double reach = this.bodies.getMaxRadius();
+		findCandidates(minX - reach, minY - reach, maxX + reach, maxY + reach);
+		
+		int[] layers = this.bodies.getLayers();
+		double[] x = this.bodies.getX();
+		double[] y = this.bodies.getY();
+		double[] r = this.bodies.getRadius();
+		int affectedAmount = 0;
+		
+		for (int j = 0; j < this.candidateAmount; j++)
+		{
+			int i = this.candidates[j];
+			if ((layers[i] & layerMask) == 0 || x[i] + r[i] < minX || x[i] - r[i] > maxX || 
+					y[i] + r[i] < minY || y[i] - r[i] > maxY)
+				continue;
+			
+			applyImpulse(i, force, x[i], y[i]);
+			affectedAmount ++;
+		}
+		
+		return affectedAmount;
+	}
+	
+	private int applyAreaImpulse(Vector3D center, double radius, double directionX, 
+			double directionY, double minCos, Falloff falloff, double magnitude, 
+			int layerMask)
+	{
+		double cx = center.getFirst(), cy = center.getSecond();
+		double reach = radius + this.bodies.getMaxRadius();
+		findCandidates(cx - reach, cy - reach, cx + reach, cy + reach);
+		
+		int[] layers = this.bodies.getLayers();
+		double[] x = this.bodies.getX();
+		double[] y = this.bodies.getY();
+		double[] r = this.bodies.getRadius();
+		int affectedAmount = 0;
+		
+		for (int j = 0; j < this.candidateAmount; j++)
+		{
+			int i = this.candidates[j];
+			if ((layers[i] & layerMask) == 0)
+				continue;
+			
+			double dx = x[i] - cx;
+			double dy = y[i] - cy;
+			double distance = Math.sqrt(dx * dx + dy * dy);
+			// The distance from the center to the closest point of the object
+			double surfaceDistance = Math.max(0, distance - r[i]);
+			
+			if (surfaceDistance > radius)
+				continue;
+			
+			double ux, uy;
+			if (distance > 0)
+			{
+				ux = dx / distance;
+				uy = dy / distance;
+			}
+			// An object right at the center is pushed along the cone or, without one, up
+			else if (directionX != 0 || directionY != 0)
+			{
+				ux = directionX;
+				uy = directionY;
+			}
+			else
+			{
+				ux = 0;
+				uy = -1;
+			}
+			// Objects whose center is outside the cone aren't affected unless they overlap 
+			// the origin
+			if (surfaceDistance > 0 && ux * directionX + uy * directionY < minCos)
+				continue;
+			
+			double f = magnitude * falloff.getModifier(surfaceDistance / radius);
+			if (f == 0)
+				continue;
+			
+			// The force affects the object at its point closest to the center
+			applyImpulse(i, new Vector3D(ux * f, uy * f), cx + ux * surfaceDistance, 
+					cy + uy * surfaceDistance);
+			affectedAmount ++;
+		}
+		
+		return affectedAmount;
+	}
+	
+	private void applyImpulse(int index, Vector3D force, double effectX, double effectY)
+	{
+		Movable body = this.bodies.getBody(index);
+		if (body != null)
+			ContactSolver.applyForce(body, force, new Vector3D(effectX, effectY));
+	}
+	
+	private void collectMovedBodies()
+	{
+		// The indices of the removed objects are left out
+		this.movedBodies.clear();
+		for (int i = 0; i < this.changes.getSize(); i++)
+		{
+			int index = this.changes.get(i);
+			if (index < this.bodies.getSize())
+				this.movedBodies.add(index);
+		}
+		this.changes.clear();
+	}
+	
+	private void swapBodies(int first, int second)
+	{
+		this.bodies.swap(first, second);
+		this.indexValid = false;
+		
+		setChangeSet(this.bodies.getBody(first), this.changes, first);
+		setChangeSet(this.bodies.getBody(second), this.changes, second);
+		this.changes.add(first);
+		this.changes.add(second);
+	}
+	
+	private static void setChangeSet(Movable body, ChangeSet changes, int index)
+	{
+		// Entries without an object aren't tracked
+		if (body == null)
+			return;
+		if (body.getMover() != null)
+			body.getMover().setChangeSet(changes, index);
+		
+		if (body instanceof Rotateable)
+		{
+			ObjectRotator rotator = ((Rotateable) body).getRotator();
+			if (rotator != null)
+				rotator.setChangeSet(changes, index);
+		}
+	}
+	
+	private void findCandidates(double minX, double minY, double maxX, double maxY)
+	{
+		if (!this.indexValid)
+		{
+			this.bodies.gather();
+			this.index.build(this.bodies.getX(), this.bodies.getY(), this.bodies.getSize(), 
+					this.queryCellSize);
+			this.indexValid = true;
+		}
+		
+		this.candidateAmount = 0;
+		this.index.forEachInArea(minX, minY, maxX, maxY, i -> addCandidate(i));
+	}
+	
+	private void addCandidate(int index)
+	{
+		if (this.candidateAmount == this.candidates.length)
+		{
+			int[] copy = new int[this.candidates.length * 2];
+			System.arraycopy(this.candidates, 0, copy, 0, this.candidateAmount);
+			this.candidates = copy;
+		}
+		
+		this.candidates[this.candidateAmount++] = index;
+	}
+}